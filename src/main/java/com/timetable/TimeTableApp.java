@@ -1,10 +1,16 @@
 package com.timetable;
 
 import com.timetable.domain.*;
+import com.timetable.score.ConstraintProfiler;
+import com.timetable.score.ScoringEngineComparison;
 import com.timetable.score.TimeTableConstraintProvider;
 import com.timetable.util.CSVDataLoader;
+import com.timetable.util.SyntheticDataScaler;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
 import org.optaplanner.core.config.solver.SolverConfig;
 
 import java.io.FileWriter;
@@ -107,11 +113,43 @@ public class TimeTableApp {
             TimeTable problem = createInitialSolution(facultyList, roomList, timeSlotList, minorTimeSlotList, batchList, courseList, minorCourseList);
             logger.info("Created initial solution with " + problem.getLessonList().size() + " lessons and " + problem.getMinorLessonList().size() + " minor lessons");
 
+            // Profile the constraints instead of solving: --profile [fullIterations] [incrementalCalculations] [scale]
+            if (args.length > 0 && "--profile".equals(args[0])) {
+                int fullIterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+                long incrementalCalculations = args.length > 2 ? Long.parseLong(args[2]) : 20000L;
+                int scale = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+                TimeTable profiledProblem = SyntheticDataScaler.scale(problem, scale);
+                logger.info("Profiling constraints on " + profiledProblem.getLessonList().size() + " lessons (scale " + scale + ")");
+                for (ConstraintProfiler.ConstraintCost cost : new ConstraintProfiler(fullIterations, incrementalCalculations).profile(profiledProblem)) {
+                    System.out.println(cost);
+                }
+                return;
+            }
+
+            // Compare the scoring engines instead of solving: --compare-scoring [rounds] [incrementalCalculations] [scale]
+            if (args.length > 0 && "--compare-scoring".equals(args[0])) {
+                int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+                long incrementalCalculations = args.length > 2 ? Long.parseLong(args[2]) : 20000L;
+                int scale = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+                TimeTable comparedProblem = SyntheticDataScaler.scale(problem, scale);
+                logger.info("Comparing scoring engines on " + comparedProblem.getLessonList().size() + " lessons (scale " + scale + ")");
+                ScoringEngineComparison.Result result = new ScoringEngineComparison(rounds, incrementalCalculations).compare(comparedProblem);
+                System.out.println(result);
+                result.getMismatches().forEach(System.out::println);
+                if (!result.isEquivalent()) {
+                    System.exit(1);
+                }
+                return;
+            }
+
             // Configure solver
             SolverConfig solverConfig = new SolverConfig()
                     .withSolutionClass(TimeTable.class)
                     .withEntityClasses(Lesson.class)
                     .withConstraintProviderClass(TimeTableConstraintProvider.class)
+                    .withPhases(new ConstructionHeuristicPhaseConfig()
+                                    .withConstructionHeuristicType(ConstructionHeuristicType.WEAKEST_FIT_DECREASING),
+                            new LocalSearchPhaseConfig())
                     .withTerminationSpentLimit(Duration.ofMinutes(15));
 
             // Solve timetable
@@ -374,8 +412,7 @@ public class TimeTableApp {
 //
 
                 for (int i = 0; i < minorCourse.getLectureHours(); i++) {
-                    Lesson minorLesson = new Lesson(lessonId++, minorCourse, roomList);
-                    minorLesson.setLessonType("MINOR");
+                    Lesson minorLesson = new MinorLesson(lessonId++, minorCourse, roomList, minorTimeSlotList);
 
                     if (!minorLectureRooms.isEmpty()) {
                         Room minorRoom = minorLectureRooms.get(i % minorLectureRooms.size());
@@ -1,6 +1,11 @@
 package com.timetable.controller;
 
 import com.timetable.domain.*;
+import com.timetable.score.SolutionExplanation;
+import com.timetable.service.InfeasibleProblemException;
+import com.timetable.service.SolutionCache;
+import com.timetable.service.SolveQueue;
+import com.timetable.service.TenantRegistry;
 import com.timetable.service.TimetableService;
 import com.timetable.service.CSVManagerService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,27 +16,49 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class TimetableController {
 
+    // Selects the tenant a request works on, requests without it work on the default tenant
+    static final String TENANT_HEADER = "X-Tenant-Id";
+
     @Autowired
-    private TimetableService timetableService;
+    private TenantRegistry tenantRegistry;
     
     @Autowired
     private CSVManagerService csvManagerService;
 
+    @Autowired
+    private SolutionCache solutionCache;
+
+    @Autowired
+    private SolveQueue solveQueue;
+
+    @Autowired
+    private HttpServletRequest request;
+
+    private TimetableService timetableService() {
+        return tenantRegistry.service(request.getHeader(TENANT_HEADER));
+    }
+
+    private Path tenantDirectory() {
+        return timetableService().getDataDirectory();
+    }
+
     @GetMapping("/timetable")
     public ResponseEntity<?> getTimetable() {
         try {
-            TimeTable timetable = timetableService.getCurrentTimetable();
+            TimeTable timetable = timetableService().getCurrentTimetable();
             if (timetable == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "No timetable generated yet. Please generate first."));
@@ -50,33 +77,180 @@ public class TimetableController {
     }
 
     @PostMapping("/timetable/generate")
-    public ResponseEntity<?> generateTimetable(@RequestBody(required = false) SolverConfiguration config) {
+    public ResponseEntity<?> generateTimetable(@RequestBody(required = false) SolverConfiguration config,
+                                               @RequestParam(defaultValue = "REUSE") SolutionCache.Mode cache,
+                                               @RequestParam(defaultValue = "INTERACTIVE") SolveQueue.Priority priority) {
         try {
-            // Update solver configuration if provided
+            // Update solver configuration if provided; the job solves with its own copy of it
             if (config != null) {
-                timetableService.setSolverConfiguration(config);
+                timetableService().setSolverConfiguration(config);
             }
             
-            TimeTable timetable = timetableService.generateTimetable();
+            SolveQueue.Job job = solveQueue.submit(timetableService(), config, cache, priority);
+            TimeTable timetable = job.await();
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Timetable generated successfully");
             response.put("score", timetable.getScore() != null ? timetable.getScore().toString() : "N/A");
             response.put("lessonsCount", timetable.getLessonList().size());
             response.put("minorLessonsCount", timetable.getMinorLessonList().size());
-            response.put("solverConfig", timetableService.getSolverConfiguration());
+            response.put("solverConfig", job.getSolverConfiguration());
+            response.put("timeToFeasibleMillis", job.getTimeToFeasibleMillis());
+            response.put("totalSolveMillis", job.getSolveMillis());
+            response.put("fromCache", job.isFromCache());
+            response.put("phases", job.getPhases());
+            response.put("jobId", job.getId());
+            response.put("jobRequests", job.getRequests());
+            if (job.getFeasibility() != null && !job.getFeasibility().isFeasibilityPossible()) {
+                response.put("feasibility", job.getFeasibility());
+            }
+            if (job.getPortfolio() != null) {
+                response.put("portfolio", job.getPortfolio());
+            }
+            if (job.getIslands() != null) {
+                response.put("islands", job.getIslands());
+            }
             
+            return ResponseEntity.ok(response);
+        } catch (InfeasibleProblemException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", e.getMessage(), "feasibility", e.getReport()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Queues a generate call and returns at once with the job, whose position and outcome are
+     * polled from /timetable/jobs/{jobId}.
+     */
+    @PostMapping("/timetable/jobs")
+    public ResponseEntity<?> submitTimetableJob(@RequestBody(required = false) SolverConfiguration config,
+                                                @RequestParam(defaultValue = "REUSE") SolutionCache.Mode cache,
+                                                @RequestParam(defaultValue = "BATCH") SolveQueue.Priority priority) {
+        try {
+            if (config != null) {
+                timetableService().setSolverConfiguration(config);
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(solveQueue.submit(timetableService(), config, cache, priority));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/timetable/jobs/{jobId}")
+    public ResponseEntity<?> getTimetableJob(@PathVariable String jobId) {
+        SolveQueue.Job job = solveQueue.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Unknown job: " + jobId));
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("/timetable/jobs")
+    public ResponseEntity<?> getTimetableJobs() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("jobs", solveQueue.getJobs());
+            response.put("queue", solveQueue.getStatistics());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    @GetMapping("/timetable/feasibility")
+    public ResponseEntity<?> analyzeFeasibility() {
+        try {
+            return ResponseEntity.ok(timetableService().analyzeFeasibility());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
     
+    /**
+     * The constraint match totals of the current timetable, worst first. The explanation is
+     * computed on the first call after a generate and paged from memory afterwards.
+     */
+    @GetMapping("/timetable/explanation")
+    public ResponseEntity<?> explainTimetable(@RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "50") int size,
+                                              @RequestParam(defaultValue = "false") boolean hardOnly) {
+        try {
+            SolutionExplanation explanation = timetableService().explainCurrentTimetable();
+            if (explanation == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No timetable generated yet"));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("score", explanation.getScore());
+            response.put("solutionVersion", explanation.getSolutionVersion());
+            response.put("explainMillis", explanation.getExplainMillis());
+            response.put("constraints", explanation.constraints(page, size, hardOnly));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * The lessons, rooms or faculty members of the current timetable that constraint matches
+     * blame, worst first.
+     */
+    @GetMapping("/timetable/explanation/{type}")
+    public ResponseEntity<?> getIndictments(@PathVariable String type,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "50") int size,
+                                            @RequestParam(defaultValue = "false") boolean hardOnly) {
+        try {
+            SolutionExplanation.IndictedType indictedType = SolutionExplanation.IndictedType.fromPath(type);
+            SolutionExplanation explanation = timetableService().explainCurrentTimetable();
+            if (explanation == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No timetable generated yet"));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("score", explanation.getScore());
+            response.put("solutionVersion", explanation.getSolutionVersion());
+            response.put("indictments", explanation.indictments(indictedType, page, size, hardOnly));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/solver/config")
     public ResponseEntity<?> getSolverConfiguration() {
         try {
-            SolverConfiguration config = timetableService.getSolverConfiguration();
+            SolverConfiguration config = timetableService().getSolverConfiguration();
             return ResponseEntity.ok(config);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -87,21 +261,179 @@ public class TimetableController {
     @PostMapping("/solver/config")
     public ResponseEntity<?> updateSolverConfiguration(@RequestBody SolverConfiguration config) {
         try {
-            timetableService.setSolverConfiguration(config);
+            timetableService().setSolverConfiguration(config);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Solver configuration updated successfully");
             response.put("config", config);
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
     
+    @GetMapping("/admin/constraints/profile")
+    public ResponseEntity<?> profileConstraints(@RequestParam(defaultValue = "20") int iterations,
+                                                @RequestParam(defaultValue = "20000") long calculations,
+                                                @RequestParam(defaultValue = "1") int scale) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("iterations", iterations);
+            response.put("calculations", calculations);
+            response.put("scale", scale);
+            response.put("constraints", timetableService().profileConstraints(iterations, calculations, scale));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/scoring/compare")
+    public ResponseEntity<?> compareScoringEngines(@RequestParam(defaultValue = "50") int rounds,
+                                                   @RequestParam(defaultValue = "20000") long calculations,
+                                                   @RequestParam(defaultValue = "1") int scale) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("rounds", rounds);
+            response.put("calculations", calculations);
+            response.put("scale", scale);
+            response.put("comparison", timetableService().compareScoringEngines(rounds, calculations, scale));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/benchmark/construction")
+    public ResponseEntity<?> benchmarkConstructionHeuristics(@RequestParam(defaultValue = "60") int seconds,
+                                                             @RequestParam(defaultValue = "1") int scale) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("seconds", seconds);
+            response.put("scale", scale);
+            response.put("results", timetableService().benchmarkConstructionHeuristics(seconds, scale));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/benchmark/moves")
+    public ResponseEntity<?> benchmarkMoveSelectors(@RequestParam(defaultValue = "60") int seconds,
+                                                    @RequestParam(defaultValue = "1") int scale) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("seconds", seconds);
+            response.put("scale", scale);
+            response.put("results", timetableService().benchmarkMoveSelectors(seconds, scale));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/benchmark/islands")
+    public ResponseEntity<?> benchmarkIslands(@RequestParam(defaultValue = "60") int seconds,
+                                              @RequestParam(defaultValue = "100") int scale,
+                                              @RequestParam(defaultValue = "4") int islands,
+                                              @RequestParam(defaultValue = "512") int heapMb) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("seconds", seconds);
+            response.put("scale", scale);
+            response.put("results", timetableService().benchmarkIslands(seconds, scale, islands, heapMb));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/benchmark/faculty")
+    public ResponseEntity<?> benchmarkFacultyPlanning(@RequestParam(defaultValue = "60") int seconds,
+                                                      @RequestParam(defaultValue = "1") int scale) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("seconds", seconds);
+            response.put("scale", scale);
+            response.put("results", timetableService().benchmarkFacultyPlanning(seconds, scale));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/constraints/weights")
+    public ResponseEntity<?> getConstraintWeights() {
+        try {
+            return ResponseEntity.ok(timetableService().getConstraintWeights());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/constraints/weights")
+    public ResponseEntity<?> updateConstraintWeights(@RequestBody Map<String, String> weights) {
+        try {
+            timetableService().updateConstraintWeights(weights);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Constraint weights updated successfully");
+            response.put("weights", timetableService().getConstraintWeights());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/constraints/weights/reset")
+    public ResponseEntity<?> resetConstraintWeights() {
+        try {
+            timetableService().resetConstraintWeights();
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Constraint weights reset to defaults");
+            response.put("weights", timetableService().getConstraintWeights());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/timeslots/config")
     public ResponseEntity<?> getTimeSlotConfiguration() {
         try {
-            TimeSlotConfiguration config = timetableService.getTimeSlotConfiguration();
+            TimeSlotConfiguration config = timetableService().getTimeSlotConfiguration();
             return ResponseEntity.ok(config);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -112,7 +444,7 @@ public class TimetableController {
     @PostMapping("/timeslots/config")
     public ResponseEntity<?> updateTimeSlotConfiguration(@RequestBody TimeSlotConfiguration config) {
         try {
-            timetableService.setTimeSlotConfiguration(config);
+            timetableService().setTimeSlotConfiguration(config);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Time slot configuration updated successfully");
             response.put("config", config);
@@ -126,10 +458,10 @@ public class TimetableController {
     @PostMapping("/timeslots/config/reset")
     public ResponseEntity<?> resetTimeSlotConfiguration() {
         try {
-            timetableService.init(); // Reinitialize with defaults
+            timetableService().init(); // Reinitialize with defaults
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Time slot configuration reset to defaults");
-            response.put("config", timetableService.getTimeSlotConfiguration());
+            response.put("config", timetableService().getTimeSlotConfiguration());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -140,7 +472,7 @@ public class TimetableController {
     @GetMapping("/batch-year-mapping")
     public ResponseEntity<?> getBatchYearMapping() {
         try {
-            BatchYearMapping mapping = timetableService.getTimeSlotConfiguration().getBatchYearMapping();
+            BatchYearMapping mapping = timetableService().getTimeSlotConfiguration().getBatchYearMapping();
             return ResponseEntity.ok(mapping);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -151,7 +483,7 @@ public class TimetableController {
     @PostMapping("/batch-year-mapping")
     public ResponseEntity<?> updateBatchYearMapping(@RequestBody BatchYearMapping mapping) {
         try {
-            timetableService.getTimeSlotConfiguration().setBatchYearMapping(mapping);
+            timetableService().getTimeSlotConfiguration().setBatchYearMapping(mapping);
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Batch-year mapping updated successfully");
             response.put("mapping", mapping);
@@ -173,7 +505,7 @@ public class TimetableController {
                         .body(Map.of("error", "yearIdentifier and yearLevel are required"));
             }
             
-            BatchYearMapping mapping = timetableService.getTimeSlotConfiguration().getBatchYearMapping();
+            BatchYearMapping mapping = timetableService().getTimeSlotConfiguration().getBatchYearMapping();
             mapping.addMapping(yearIdentifier, yearLevel);
             
             Map<String, Object> response = new HashMap<>();
@@ -192,7 +524,7 @@ public class TimetableController {
     @DeleteMapping("/batch-year-mapping/{yearIdentifier}")
     public ResponseEntity<?> removeBatchYearMapping(@PathVariable String yearIdentifier) {
         try {
-            BatchYearMapping mapping = timetableService.getTimeSlotConfiguration().getBatchYearMapping();
+            BatchYearMapping mapping = timetableService().getTimeSlotConfiguration().getBatchYearMapping();
             mapping.removeMapping(yearIdentifier);
             
             Map<String, Object> response = new HashMap<>();
@@ -208,7 +540,7 @@ public class TimetableController {
     @GetMapping("/faculty")
     public ResponseEntity<?> getFaculty() {
         try {
-            List<Faculty> facultyList = timetableService.getFacultyList();
+            List<Faculty> facultyList = timetableService().getFacultyList();
             List<Map<String, Object>> formattedFaculty = facultyList.stream()
                     .map(this::formatFaculty)
                     .collect(Collectors.toList());
@@ -223,7 +555,7 @@ public class TimetableController {
     @GetMapping("/rooms")
     public ResponseEntity<?> getRooms() {
         try {
-            List<Room> roomList = timetableService.getRoomList();
+            List<Room> roomList = timetableService().getRoomList();
             List<Map<String, Object>> formattedRooms = roomList.stream()
                     .map(this::formatRoom)
                     .collect(Collectors.toList());
@@ -238,7 +570,7 @@ public class TimetableController {
     @GetMapping("/batches")
     public ResponseEntity<?> getBatches() {
         try {
-            List<StudentBatch> batchList = timetableService.getBatchList();
+            List<StudentBatch> batchList = timetableService().getBatchList();
             List<Map<String, Object>> formattedBatches = batchList.stream()
                     .map(this::formatBatch)
                     .collect(Collectors.toList());
@@ -253,7 +585,7 @@ public class TimetableController {
     @GetMapping("/courses")
     public ResponseEntity<?> getCourses() {
         try {
-            List<Course> courseList = timetableService.getCourseList();
+            List<Course> courseList = timetableService().getCourseList();
             List<Map<String, Object>> formattedCourses = courseList.stream()
                     .map(this::formatCourse)
                     .collect(Collectors.toList());
@@ -268,7 +600,7 @@ public class TimetableController {
     @GetMapping("/timetable/batch/{batchId}")
     public ResponseEntity<?> getTimetableByBatch(@PathVariable Long batchId) {
         try {
-            TimeTable timetable = timetableService.getCurrentTimetable();
+            TimeTable timetable = timetableService().getCurrentTimetable();
             if (timetable == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "No timetable generated yet"));
@@ -288,7 +620,7 @@ public class TimetableController {
     @GetMapping("/timetable/faculty/{facultyId}")
     public ResponseEntity<?> getTimetableByFaculty(@PathVariable Long facultyId) {
         try {
-            TimeTable timetable = timetableService.getCurrentTimetable();
+            TimeTable timetable = timetableService().getCurrentTimetable();
             if (timetable == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "No timetable generated yet"));
@@ -308,7 +640,7 @@ public class TimetableController {
     @GetMapping("/timetable/room/{roomId}")
     public ResponseEntity<?> getTimetableByRoom(@PathVariable Long roomId) {
         try {
-            TimeTable timetable = timetableService.getCurrentTimetable();
+            TimeTable timetable = timetableService().getCurrentTimetable();
             if (timetable == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("message", "No timetable generated yet"));
@@ -414,6 +746,59 @@ public class TimetableController {
         return map;
     }
 
+    @GetMapping("/tenants")
+    public ResponseEntity<?> getTenants() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("tenants", tenantRegistry.getTenantIds());
+            response.put("cache", tenantRegistry.getCacheStatistics());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/tenants/{tenantId}")
+    public ResponseEntity<?> createTenant(@PathVariable String tenantId) {
+        try {
+            boolean created = tenantRegistry.createTenant(tenantId);
+            Map<String, Object> response = new HashMap<>();
+            response.put("tenantId", tenantId);
+            response.put("created", created);
+            response.put("message", created ? "Tenant created, upload its CSV files with the " + TENANT_HEADER + " header"
+                    : "Tenant already exists");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/solution-cache")
+    public ResponseEntity<?> getSolutionCacheStatistics() {
+        try {
+            return ResponseEntity.ok(solutionCache.getStatistics());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/solution-cache")
+    public ResponseEntity<?> clearSolutionCache() {
+        try {
+            solutionCache.clear();
+            return ResponseEntity.ok(Map.of("message", "Solution cache cleared"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // CSV Management Endpoints
     
     // New CSV Manager Endpoints
@@ -421,7 +806,7 @@ public class TimetableController {
     @GetMapping("/{type}/metadata")
     public ResponseEntity<?> getCSVMetadata(@PathVariable String type) {
         try {
-            Map<String, Object> metadata = csvManagerService.getCSVMetadata(type);
+            Map<String, Object> metadata = csvManagerService.getCSVMetadata(tenantDirectory(), type);
             return ResponseEntity.ok(metadata);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -432,7 +817,7 @@ public class TimetableController {
     @GetMapping("/{type}/statistics")
     public ResponseEntity<?> getCSVStatistics(@PathVariable String type) {
         try {
-            Map<String, Object> stats = csvManagerService.getCSVStatistics(type);
+            Map<String, Object> stats = csvManagerService.getCSVStatistics(tenantDirectory(), type);
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -445,7 +830,7 @@ public class TimetableController {
             @PathVariable String type,
             @RequestParam(defaultValue = "10") int rows) {
         try {
-            Map<String, Object> preview = csvManagerService.getCSVPreview(type, rows);
+            Map<String, Object> preview = csvManagerService.getCSVPreview(tenantDirectory(), type, rows);
             return ResponseEntity.ok(preview);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -473,8 +858,8 @@ public class TimetableController {
             if (!(Boolean) validation.get("valid")) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validation);
             }
-            Map<String, Object> result = csvManagerService.uploadCSV("batches", file);
-            timetableService.reloadData();
+            Map<String, Object> result = csvManagerService.uploadCSV(tenantDirectory(), "batches", file);
+            timetableService().reloadData();
             return ResponseEntity.ok(Map.of(
                 "message", "Batches CSV uploaded successfully",
                 "details", result
@@ -492,8 +877,8 @@ public class TimetableController {
             if (!(Boolean) validation.get("valid")) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validation);
             }
-            Map<String, Object> result = csvManagerService.uploadCSV("faculty", file);
-            timetableService.reloadData();
+            Map<String, Object> result = csvManagerService.uploadCSV(tenantDirectory(), "faculty", file);
+            timetableService().reloadData();
             return ResponseEntity.ok(Map.of(
                 "message", "Faculty CSV uploaded successfully",
                 "details", result
@@ -511,8 +896,8 @@ public class TimetableController {
             if (!(Boolean) validation.get("valid")) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validation);
             }
-            Map<String, Object> result = csvManagerService.uploadCSV("rooms", file);
-            timetableService.reloadData();
+            Map<String, Object> result = csvManagerService.uploadCSV(tenantDirectory(), "rooms", file);
+            timetableService().reloadData();
             return ResponseEntity.ok(Map.of(
                 "message", "Rooms CSV uploaded successfully",
                 "details", result
@@ -530,8 +915,8 @@ public class TimetableController {
             if (!(Boolean) validation.get("valid")) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(validation);
             }
-            Map<String, Object> result = csvManagerService.uploadCSV("courses", file);
-            timetableService.reloadData();
+            Map<String, Object> result = csvManagerService.uploadCSV(tenantDirectory(), "courses", file);
+            timetableService().reloadData();
             return ResponseEntity.ok(Map.of(
                 "message", "Courses CSV uploaded successfully",
                 "details", result
@@ -630,14 +1015,14 @@ public class TimetableController {
     // Helper methods for CSV operations
     
     private void saveCsvFile(MultipartFile file, String filename) throws IOException {
-        Path path = Paths.get(filename);
+        Path path = tenantDirectory().resolve(filename);
         Files.write(path, file.getBytes());
     }
 
     private String generateBatchesCSV() {
         StringBuilder csv = new StringBuilder();
         csv.append("id,name,year,semester,strength\n");
-        for (StudentBatch batch : timetableService.getBatchList()) {
+        for (StudentBatch batch : timetableService().getBatchList()) {
             csv.append(String.format("%d,%s,%d,%s,%d\n",
                     batch.getId(),
                     batch.getBatchName(),
@@ -651,7 +1036,7 @@ public class TimetableController {
     private String generateFacultyCSV() {
         StringBuilder csv = new StringBuilder();
         csv.append("id,name,specialization,email\n");
-        for (Faculty faculty : timetableService.getFacultyList()) {
+        for (Faculty faculty : timetableService().getFacultyList()) {
             csv.append(String.format("%d,%s,%s,%s\n",
                     faculty.getId(),
                     faculty.getName(),
@@ -664,7 +1049,7 @@ public class TimetableController {
     private String generateRoomsCSV() {
         StringBuilder csv = new StringBuilder();
         csv.append("id,name,capacity,type\n");
-        for (Room room : timetableService.getRoomList()) {
+        for (Room room : timetableService().getRoomList()) {
             csv.append(String.format("%d,%s,%d,%s\n",
                     room.getId(),
                     room.getRoomNumber(),
@@ -677,7 +1062,7 @@ public class TimetableController {
     private String generateCoursesCSV() {
         StringBuilder csv = new StringBuilder();
         csv.append("id,name,code,credits,type\n");
-        for (Course course : timetableService.getCourseList()) {
+        for (Course course : timetableService().getCourseList()) {
             csv.append(String.format("%d,%s,%s,%d,%s\n",
                     course.getId(),
                     course.getName(),
@@ -0,0 +1,16 @@
+package com.timetable.domain;
+
+/**
+ * How overlapping lessons are scored.
+ * LEGACY keeps every conflict constraint, so one clash can be penalized by several of them.
+ * DEDUPLICATED keeps only the interval-based faculty and student batch conflicts, which already
+ * cover the exact-slot checks of "Teacher conflict", "Faculty Teaching Multiple Batches
+ * Simultaneously" and "Student group conflict".
+ * Neither mode reproduces the scores from before "Faculty Time Conflict" padded its ranges by the
+ * minimum break: the old check only caught a too-short break when the lower-id lesson came first,
+ * so both modes now penalize some close pairs of a faculty member that used to go unpenalized.
+ */
+public enum ConflictScoringMode {
+    LEGACY,
+    DEDUPLICATED
+}
@@ -5,7 +5,7 @@ import java.util.List;
 /**
  * Represents a course with details such as type, hours, eligible faculty, and associated batches.
  */
-public class Course {
+public class Course extends IndexedFact {
     private Long id;
     private String courseCode;
     private String name;
@@ -0,0 +1,25 @@
+package com.timetable.domain;
+
+import java.util.Comparator;
+
+/**
+ * Orders faculty members from weakest to strongest by the hours they may teach a day, then by the
+ * subjects they can teach, so weakest fit gives a lesson the most constrained eligible member and
+ * keeps the flexible ones free for the lessons few others can take.
+ */
+public class FacultyStrengthComparator implements Comparator<Faculty> {
+
+    private static final Comparator<Faculty> COMPARATOR = Comparator
+            .comparingInt(Faculty::getMaxHoursPerDay)
+            .thenComparingInt(FacultyStrengthComparator::subjectCount)
+            .thenComparing(Faculty::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public int compare(Faculty a, Faculty b) {
+        return COMPARATOR.compare(a, b);
+    }
+
+    private static int subjectCount(Faculty faculty) {
+        return faculty.getSubjects() != null ? faculty.getSubjects().size() : 0;
+    }
+}
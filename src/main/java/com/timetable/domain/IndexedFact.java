@@ -0,0 +1,39 @@
+package com.timetable.domain;
+
+import java.util.List;
+
+/**
+ * Base class for problem facts used as join and group keys in the constraints.
+ * Facts are loaded once and shared by every solution clone, so equality is identity: no field
+ * lookups or allocation on the hot path, and the identity hash is computed once and cached by the JVM.
+ * The dense index gives each fact a stable position in its list, for array-based bookkeeping.
+ */
+public abstract class IndexedFact {
+
+    private int index = -1;
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    @Override
+    public final boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public final int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * Numbers the facts 0..n-1 in list order.
+     */
+    public static void assignIndexes(List<? extends IndexedFact> facts) {
+        if (facts == null) {
+            return;
+        }
+        for (int i = 0; i < facts.size(); i++) {
+            facts.get(i).setIndex(i);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.timetable.domain;
 
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
 import java.util.List;
@@ -12,7 +13,7 @@ import java.util.logging.Logger;
  * Represents a lesson, including its course, batch, faculty, room, and time slot.
  * This is a @PlanningEntity used by OptaPlanner to optimize timetable scheduling.
  */
-@PlanningEntity
+@PlanningEntity(difficultyComparatorClass = LessonDifficultyComparator.class)
 public class Lesson {
 
     private static final Logger logger = Logger.getLogger(Lesson.class.getName());
@@ -23,20 +24,29 @@ public class Lesson {
     private StudentBatch studentBatch;
     private String lessonType; // Tracks whether the lesson is a LAB or LECTURE
 
-//    @PlanningVariable(valueRangeProviderRefs = "facultyRange")
+    @PlanningVariable(valueRangeProviderRefs = "lessonFacultyRange", strengthComparatorClass = FacultyStrengthComparator.class)
     private Faculty faculty;
 
-    @PlanningVariable(valueRangeProviderRefs = "roomRange")
+    @PlanningVariable(valueRangeProviderRefs = "lessonRoomRange", strengthComparatorClass = RoomStrengthComparator.class)
     private Room room;
 
-    @PlanningVariable(valueRangeProviderRefs = "timeSlotRange")
+    @PlanningVariable(valueRangeProviderRefs = "lessonTimeSlotRange", strengthComparatorClass = TimeSlotStrengthComparator.class)
     private TimeSlot timeSlot;
 
     private TimeSlot minorTimeSlot;
 
 
+    @ValueRangeProvider(id = "lessonRoomRange")
     private List<Room> roomList; // List of potential rooms for the lesson
 
+    // Time slots the lesson may take, bound to the timetable's regular slots unless set explicitly
+    @ValueRangeProvider(id = "lessonTimeSlotRange")
+    private List<TimeSlot> timeSlotList;
+
+    // Faculty who may teach the lesson, bound to the course's eligible faculty unless set explicitly
+    @ValueRangeProvider(id = "lessonFacultyRange")
+    private List<Faculty> facultyList;
+
     // Constructors
     public Lesson() {}
 
@@ -55,6 +65,26 @@ public class Lesson {
         this.room = null; // Room will be assigned during planning
     }
 
+    // Planning clone: shares every problem fact, including the candidate room list
+    Lesson(Lesson original) {
+        this.id = original.id;
+        this.course = original.course;
+        this.studentBatch = original.studentBatch;
+        this.lessonType = original.lessonType;
+        this.faculty = original.faculty;
+        this.room = original.room;
+        this.timeSlot = original.timeSlot;
+        this.minorTimeSlot = original.minorTimeSlot;
+        this.roomList = original.roomList;
+        this.timeSlotList = original.timeSlotList;
+        this.facultyList = original.facultyList;
+    }
+
+    // Planning clone of this lesson, keeping its class
+    Lesson planningClone() {
+        return new Lesson(this);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -84,6 +114,12 @@ public class Lesson {
 
     public List<Room> getRoomList() { return roomList; }
 
+    public List<TimeSlot> getTimeSlotList() { return timeSlotList; }
+    public void setTimeSlotList(List<TimeSlot> timeSlotList) { this.timeSlotList = timeSlotList; }
+
+    public List<Faculty> getFacultyList() { return facultyList; }
+    public void setFacultyList(List<Faculty> facultyList) { this.facultyList = facultyList; }
+
     // Helper method to check if a time slot is suitable for a lab
     private boolean isLabTimeSlot(TimeSlot timeSlot) {
         return timeSlot.getTimeSlotIndex() == (int) (id % 5) + 1; // Example logic
@@ -133,7 +169,7 @@ public class Lesson {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Objects.hashCode(id);
     }
 
     @Override
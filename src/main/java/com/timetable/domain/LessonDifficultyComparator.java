@@ -0,0 +1,47 @@
+package com.timetable.domain;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders lessons from easiest to hardest to place, so decreasing construction heuristics
+ * schedule the hard ones while rooms and time slots are still free.
+ * Labs and minors are hardest, since only a few time slots fit them, followed by lessons of
+ * larger batches and lessons with fewer allowed rooms.
+ */
+public class LessonDifficultyComparator implements Comparator<Lesson> {
+
+    private static final Comparator<Lesson> COMPARATOR = Comparator
+            .comparingInt(LessonDifficultyComparator::slotRestriction)
+            .thenComparingInt(LessonDifficultyComparator::batchStrength)
+            .thenComparing(Comparator.comparingInt(LessonDifficultyComparator::allowedRoomCount).reversed())
+            .thenComparing(Lesson::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public int compare(Lesson a, Lesson b) {
+        return COMPARATOR.compare(a, b);
+    }
+
+    private static int slotRestriction(Lesson lesson) {
+        String lessonType = lesson.getLessonType();
+        return "LAB".equalsIgnoreCase(lessonType) || "MINOR".equalsIgnoreCase(lessonType) ? 1 : 0;
+    }
+
+    private static int batchStrength(Lesson lesson) {
+        return lesson.getStudentBatch() != null ? lesson.getStudentBatch().getStrength() : 0;
+    }
+
+    private static int allowedRoomCount(Lesson lesson) {
+        List<Long> allowedRooms;
+        if ("MINOR".equalsIgnoreCase(lesson.getLessonType())) {
+            allowedRooms = lesson.getCourse() != null ? lesson.getCourse().getLectureRoomIDs() : null;
+        } else if (lesson.getStudentBatch() == null) {
+            allowedRooms = null;
+        } else if ("LAB".equalsIgnoreCase(lesson.getLessonType())) {
+            allowedRooms = lesson.getStudentBatch().getPracticalRoomIDs();
+        } else {
+            allowedRooms = lesson.getStudentBatch().getLectureRoomIDs();
+        }
+        return allowedRooms == null || allowedRooms.isEmpty() ? Integer.MAX_VALUE : allowedRooms.size();
+    }
+}
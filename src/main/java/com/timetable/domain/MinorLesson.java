@@ -0,0 +1,54 @@
+package com.timetable.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A lesson of a minor course. It has no student batch, and its value ranges are narrowed when it
+ * is created: only the minor time slots and the course's own lecture rooms, so the solver never
+ * tries a placement that the minor constraints would reject.
+ * It shares the planning variables of {@link Lesson}, so every constraint over lessons still sees it.
+ */
+public class MinorLesson extends Lesson {
+
+    private static final Logger logger = Logger.getLogger(MinorLesson.class.getName());
+
+    public MinorLesson() {}
+
+    public MinorLesson(Long id, Course course, List<Room> roomList, List<TimeSlot> minorTimeSlotList) {
+        super(id, course, courseRooms(course, roomList));
+        setLessonType("MINOR");
+        setTimeSlotList(minorTimeSlotList);
+    }
+
+    // Planning clone: shares every problem fact, including the value ranges
+    MinorLesson(MinorLesson original) {
+        super(original);
+    }
+
+    @Override
+    MinorLesson planningClone() {
+        return new MinorLesson(this);
+    }
+
+    // The course's lecture rooms, or every room if none of them exists, so the range is never empty
+    private static List<Room> courseRooms(Course course, List<Room> roomList) {
+        List<Long> lectureRoomIds = course != null ? course.getLectureRoomIDs() : null;
+        if (lectureRoomIds == null || lectureRoomIds.isEmpty() || roomList == null) {
+            return roomList;
+        }
+        List<Room> rooms = new ArrayList<>(lectureRoomIds.size());
+        for (Room room : roomList) {
+            if (lectureRoomIds.contains(room.getId())) {
+                rooms.add(room);
+            }
+        }
+        if (rooms.isEmpty()) {
+            logger.warning("None of the lecture rooms " + lectureRoomIds + " of minor course "
+                    + course.getCourseCode() + " exist, allowing every room");
+            return roomList;
+        }
+        return rooms;
+    }
+}
@@ -1,8 +1,6 @@
 package com.timetable.domain;
 
-import java.util.Objects;
-
-public class Room {
+public class Room extends IndexedFact {
     private Long id;
     private String roomNumber;
     private int capacity;
@@ -31,19 +29,6 @@ public class Room {
     public boolean isAvailable() { return isAvailable; }
     public void setAvailable(boolean available) { isAvailable = available; }
 
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Room room = (Room) o;
-        return Objects.equals(id, room.id);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(id);
-    }
-
     public boolean isLectureRoom() {
         return roomType == RoomType.LECTURE_ROOM;
     }
@@ -0,0 +1,19 @@
+package com.timetable.domain;
+
+import java.util.Comparator;
+
+/**
+ * Orders rooms from weakest to strongest by capacity, so weakest fit fills the smallest room
+ * that works and keeps the large rooms free for the large batches.
+ */
+public class RoomStrengthComparator implements Comparator<Room> {
+
+    private static final Comparator<Room> COMPARATOR = Comparator
+            .comparingInt(Room::getCapacity)
+            .thenComparing(Room::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public int compare(Room a, Room b) {
+        return COMPARATOR.compare(a, b);
+    }
+}
@@ -0,0 +1,231 @@
+package com.timetable.domain;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the time slot configuration and conflict scoring mode one solve is scored
+ * with. It is a problem fact of the {@link TimeTable}, so the constraints read it through a join
+ * and every solve carries its own rules: changing the configuration never affects a running solve,
+ * and solves with different configurations can run side by side.
+ * The slot times are parsed once here instead of on every score calculation.
+ */
+public final class SchedulingRules {
+
+    private static final int DEFAULT_MAX_GAP_MINUTES = 60;
+    private static final int DEFAULT_MAX_TEACHER_GAP_MINUTES = 90;
+    private static final int DEFAULT_CONSECUTIVE_BUFFER_MINUTES = 5;
+    private static final int DEFAULT_MINIMUM_BREAK_MINUTES = 15;
+    private static final int DEFAULT_TARGET_DAILY_LESSONS = 4;
+    private static final int DEFAULT_ALLOWED_VARIANCE = 1;
+
+    private final boolean configured;
+    private final Map<String, Integer> yearLevels;
+    private final Map<Integer, List<Slot>> slotsByYearLevel;
+    private final List<Slot> minorSlots;
+    private final Slot juniorLunchPeriod;
+    private final Slot seniorLunchPeriod;
+    private final LocalTime preferredStartTime;
+    private final int maxGapMinutes;
+    private final int maxTeacherGapMinutes;
+    private final int consecutiveLessonBufferMinutes;
+    private final int minimumBreakBetweenClassesMinutes;
+    private final int targetDailyLessonsPerBatch;
+    private final int allowedDailyLessonsVariance;
+    private final ConflictScoringMode conflictScoringMode;
+
+    private SchedulingRules(TimeSlotConfiguration configuration, ConflictScoringMode conflictScoringMode) {
+        this.configured = configuration != null;
+        this.conflictScoringMode = conflictScoringMode != null ? conflictScoringMode : ConflictScoringMode.LEGACY;
+        if (configuration == null) {
+            yearLevels = Collections.emptyMap();
+            slotsByYearLevel = Collections.emptyMap();
+            minorSlots = Collections.emptyList();
+            juniorLunchPeriod = null;
+            seniorLunchPeriod = null;
+            preferredStartTime = null;
+            maxGapMinutes = DEFAULT_MAX_GAP_MINUTES;
+            maxTeacherGapMinutes = DEFAULT_MAX_TEACHER_GAP_MINUTES;
+            consecutiveLessonBufferMinutes = DEFAULT_CONSECUTIVE_BUFFER_MINUTES;
+            minimumBreakBetweenClassesMinutes = DEFAULT_MINIMUM_BREAK_MINUTES;
+            targetDailyLessonsPerBatch = DEFAULT_TARGET_DAILY_LESSONS;
+            allowedDailyLessonsVariance = DEFAULT_ALLOWED_VARIANCE;
+            return;
+        }
+        BatchYearMapping mapping = configuration.getBatchYearMapping();
+        yearLevels = mapping != null && mapping.getYearIdentifierToLevel() != null
+                ? Collections.unmodifiableMap(new HashMap<>(mapping.getYearIdentifierToLevel()))
+                : Collections.emptyMap();
+        Map<Integer, List<Slot>> slots = new HashMap<>();
+        slots.put(1, Slot.of(configuration.getYear1Slots()));
+        slots.put(2, Slot.of(configuration.getYear2Slots()));
+        slots.put(3, Slot.of(configuration.getYear3Slots()));
+        slots.put(4, Slot.of(configuration.getYear4Slots()));
+        slotsByYearLevel = Collections.unmodifiableMap(slots);
+        minorSlots = Slot.of(configuration.getMinorSlots());
+        juniorLunchPeriod = Slot.of(configuration.getJuniorLunchPeriod());
+        seniorLunchPeriod = Slot.of(configuration.getSeniorLunchPeriod());
+        preferredStartTime = configuration.getPreferredStartTimeAsLocalTime();
+        maxGapMinutes = configuration.getMaxGapMinutes();
+        maxTeacherGapMinutes = configuration.getMaxTeacherGapMinutes();
+        consecutiveLessonBufferMinutes = configuration.getConsecutiveLessonBufferMinutes();
+        minimumBreakBetweenClassesMinutes = configuration.getMinimumBreakBetweenClassesMinutes();
+        targetDailyLessonsPerBatch = configuration.getTargetDailyLessonsPerBatch();
+        allowedDailyLessonsVariance = configuration.getAllowedDailyLessonsVariance();
+    }
+
+    /**
+     * Copies what the constraints need out of the configuration, so later edits to it do not leak
+     * into a solve. A null configuration gives the same lenient defaults as an unconfigured service.
+     */
+    public static SchedulingRules compile(TimeSlotConfiguration configuration, ConflictScoringMode conflictScoringMode) {
+        return new SchedulingRules(configuration, conflictScoringMode);
+    }
+
+    /**
+     * Rules of a problem built without a time slot configuration.
+     */
+    public static SchedulingRules unconfigured() {
+        return new SchedulingRules(null, ConflictScoringMode.LEGACY);
+    }
+
+    /**
+     * Check if a lab time slot is valid for a specific batch year
+     */
+    public boolean isLabTimeSlotValidForBatch(int batchYear, LocalTime startTime, LocalTime endTime) {
+        if (!configured) {
+            return false;
+        }
+        List<Slot> slots = slotsForBatchYear(batchYear);
+        if (slots == null) {
+            return false;
+        }
+        for (Slot slot : slots) {
+            if ("LAB".equalsIgnoreCase(slot.type) && slot.matches(startTime, endTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a time slot is valid for a specific batch year
+     */
+    public boolean isTimeSlotValidForBatch(int batchYear, LocalTime startTime, LocalTime endTime, String slotType) {
+        if (!configured) {
+            return true;
+        }
+        // Don't allow regular batches in MINOR slots
+        if ("MINOR".equals(slotType)) {
+            return false;
+        }
+        List<Slot> slots = slotsForBatchYear(batchYear);
+        if (slots == null) {
+            return false;
+        }
+        for (Slot slot : slots) {
+            if (slot.type != null && slot.type.equalsIgnoreCase(slotType) && slot.matches(startTime, endTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if a time is during lunch hour for a specific batch year
+     */
+    public boolean isLunchHourForYear(int batchYear, LocalTime startTime) {
+        Integer yearLevel = yearLevels.get(String.valueOf(batchYear));
+        if (yearLevel == null || startTime == null) {
+            return false;
+        }
+        Slot lunchPeriod = yearLevel <= 2 ? juniorLunchPeriod : seniorLunchPeriod;
+        return lunchPeriod != null && startTime.isAfter(lunchPeriod.start) && startTime.isBefore(lunchPeriod.end);
+    }
+
+    /**
+     * Check if a time slot is valid for minor courses
+     */
+    public boolean isMinorTimeSlotValid(LocalTime startTime, LocalTime endTime, String slotType) {
+        for (Slot slot : minorSlots) {
+            if (slot.matches(startTime, endTime) && "MINOR".equalsIgnoreCase(slot.type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Unknown year levels fall back to the first year's slots, like TimeSlotConfiguration.getSlotsByYear
+    private List<Slot> slotsForBatchYear(int batchYear) {
+        Integer yearLevel = yearLevels.get(String.valueOf(batchYear));
+        if (yearLevel == null) {
+            return null;
+        }
+        List<Slot> slots = slotsByYearLevel.get(yearLevel);
+        return slots != null ? slots : slotsByYearLevel.get(1);
+    }
+
+    public boolean isDeduplicatedConflictScoring() {
+        return conflictScoringMode == ConflictScoringMode.DEDUPLICATED;
+    }
+
+    public ConflictScoringMode getConflictScoringMode() { return conflictScoringMode; }
+    public LocalTime getPreferredStartTime() { return preferredStartTime; }
+    public int getMaxGapMinutes() { return maxGapMinutes; }
+    public int getMaxTeacherGapMinutes() { return maxTeacherGapMinutes; }
+    public int getConsecutiveLessonBufferMinutes() { return consecutiveLessonBufferMinutes; }
+    public int getMinimumBreakBetweenClassesMinutes() { return minimumBreakBetweenClassesMinutes; }
+    public int getTargetDailyLessonsPerBatch() { return targetDailyLessonsPerBatch; }
+    public int getAllowedDailyLessonsVariance() { return allowedDailyLessonsVariance; }
+
+    @Override
+    public String toString() {
+        return "SchedulingRules{" +
+                "configured=" + configured +
+                ", yearLevels=" + yearLevels +
+                ", conflictScoringMode=" + conflictScoringMode +
+                '}';
+    }
+
+    // A configured slot or lunch period with its times parsed
+    private static final class Slot {
+        private final LocalTime start;
+        private final LocalTime end;
+        private final String type;
+
+        private Slot(LocalTime start, LocalTime end, String type) {
+            this.start = start;
+            this.end = end;
+            this.type = type;
+        }
+
+        private boolean matches(LocalTime startTime, LocalTime endTime) {
+            return start.equals(startTime) && end.equals(endTime);
+        }
+
+        private static List<Slot> of(List<TimeSlotDefinition> definitions) {
+            if (definitions == null) {
+                return Collections.emptyList();
+            }
+            List<Slot> slots = new ArrayList<>(definitions.size());
+            for (TimeSlotDefinition definition : definitions) {
+                slots.add(new Slot(definition.getStartTimeAsLocalTime(), definition.getEndTimeAsLocalTime(),
+                        definition.getSlotType()));
+            }
+            return Collections.unmodifiableList(slots);
+        }
+
+        private static Slot of(TimeSlotConfiguration.LunchPeriod lunchPeriod) {
+            if (lunchPeriod == null) {
+                return null;
+            }
+            LocalTime start = lunchPeriod.getStartTimeAsLocalTime();
+            LocalTime end = lunchPeriod.getEndTimeAsLocalTime();
+            return start != null && end != null ? new Slot(start, end, null) : null;
+        }
+    }
+}
@@ -1,18 +1,45 @@
 package com.timetable.domain;
 
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
+
 import java.io.Serializable;
 
 public class SolverConfiguration implements Serializable {
     private int terminationMinutes = 5;
     private int terminationSeconds = 0;
-    private Integer bestScoreLimit = null;
+    private String bestScoreLimit = null; // e.g. "0hard/-100soft", or "0hard/*soft" for any soft score
     private Integer unimprovedSecondsLimit = 120; // 2 minutes
+    private Integer secondsAfterFeasible = null; // keep optimizing this long after the first feasible solution
+    // Stop when the soft score improved less than this per minute over the last window
+    private Integer improvementWindowSeconds = null;
+    private Integer minSoftImprovementPerMinute = null;
+    private Integer stepCountLimit = null; // steps of each local search phase
+    private ConflictScoringMode conflictScoringMode = ConflictScoringMode.LEGACY;
+    private boolean feasibilityFirst = false;
+    private Integer feasibilityPhaseSeconds = null; // null = up to the whole time budget
+    private ScoringEngine scoringEngine = ScoringEngine.CONSTRAINT_STREAMS;
+    private ConstructionHeuristicType constructionHeuristicType = ConstructionHeuristicType.WEAKEST_FIT_DECREASING; // null = solver default
+    // Timetabling-specific local search moves, on top of the generic change and swap moves
+    private boolean sameBatchSwapMoves = false;
+    private boolean coursePillarMoves = false;
+    private boolean kempeChainMoves = false;
+    private boolean nearbySwapSelection = false; // swap partners drawn from related lessons
+    private boolean symmetryBreaking = false; // skip swaps of interchangeable lessons, start from a canonical order
+    // Independent solvers run side by side, each with its own seed and acceptor; 1 = a single solver
+    private int portfolioSize = 1;
+    private String portfolioCancelMargin = null; // e.g. "0hard/2000soft", null = never cancel a member
+    // Worker JVMs that solve side by side and exchange elite solutions; 1 = solve in this JVM
+    private int islandCount = 1;
+    private int islandHeapMb = 1024;
+    private int migrationIntervalSeconds = 10;
+    private boolean feasibilityCheck = true; // look for hard constraints the input cannot satisfy before solving
+    private boolean rejectInfeasible = false; // refuse such input instead of solving for the least bad timetable
     
     public SolverConfiguration() {
     }
     
     public SolverConfiguration(int terminationMinutes, int terminationSeconds, 
-                              Integer bestScoreLimit, Integer unimprovedSecondsLimit) {
+                              String bestScoreLimit, Integer unimprovedSecondsLimit) {
         this.terminationMinutes = terminationMinutes;
         this.terminationSeconds = terminationSeconds;
         this.bestScoreLimit = bestScoreLimit;
@@ -36,11 +63,11 @@ public class SolverConfiguration implements Serializable {
         this.terminationSeconds = terminationSeconds;
     }
     
-    public Integer getBestScoreLimit() {
+    public String getBestScoreLimit() {
         return bestScoreLimit;
     }
     
-    public void setBestScoreLimit(Integer bestScoreLimit) {
+    public void setBestScoreLimit(String bestScoreLimit) {
         this.bestScoreLimit = bestScoreLimit;
     }
     
@@ -52,6 +79,174 @@ public class SolverConfiguration implements Serializable {
         this.unimprovedSecondsLimit = unimprovedSecondsLimit;
     }
     
+    public Integer getSecondsAfterFeasible() {
+        return secondsAfterFeasible;
+    }
+    
+    public void setSecondsAfterFeasible(Integer secondsAfterFeasible) {
+        this.secondsAfterFeasible = secondsAfterFeasible;
+    }
+    
+    public Integer getImprovementWindowSeconds() {
+        return improvementWindowSeconds;
+    }
+    
+    public void setImprovementWindowSeconds(Integer improvementWindowSeconds) {
+        this.improvementWindowSeconds = improvementWindowSeconds;
+    }
+    
+    public Integer getMinSoftImprovementPerMinute() {
+        return minSoftImprovementPerMinute;
+    }
+    
+    public void setMinSoftImprovementPerMinute(Integer minSoftImprovementPerMinute) {
+        this.minSoftImprovementPerMinute = minSoftImprovementPerMinute;
+    }
+    
+    public Integer getStepCountLimit() {
+        return stepCountLimit;
+    }
+    
+    public void setStepCountLimit(Integer stepCountLimit) {
+        this.stepCountLimit = stepCountLimit;
+    }
+    
+    public ConflictScoringMode getConflictScoringMode() {
+        return conflictScoringMode;
+    }
+    
+    public void setConflictScoringMode(ConflictScoringMode conflictScoringMode) {
+        this.conflictScoringMode = conflictScoringMode != null ? conflictScoringMode : ConflictScoringMode.LEGACY;
+    }
+    
+    public boolean isFeasibilityFirst() {
+        return feasibilityFirst;
+    }
+    
+    public void setFeasibilityFirst(boolean feasibilityFirst) {
+        this.feasibilityFirst = feasibilityFirst;
+    }
+    
+    public Integer getFeasibilityPhaseSeconds() {
+        return feasibilityPhaseSeconds;
+    }
+    
+    public void setFeasibilityPhaseSeconds(Integer feasibilityPhaseSeconds) {
+        this.feasibilityPhaseSeconds = feasibilityPhaseSeconds;
+    }
+    
+    public ScoringEngine getScoringEngine() {
+        return scoringEngine;
+    }
+    
+    public void setScoringEngine(ScoringEngine scoringEngine) {
+        this.scoringEngine = scoringEngine != null ? scoringEngine : ScoringEngine.CONSTRAINT_STREAMS;
+    }
+    
+    public ConstructionHeuristicType getConstructionHeuristicType() {
+        return constructionHeuristicType;
+    }
+    
+    public void setConstructionHeuristicType(ConstructionHeuristicType constructionHeuristicType) {
+        this.constructionHeuristicType = constructionHeuristicType;
+    }
+    
+    public boolean isSameBatchSwapMoves() {
+        return sameBatchSwapMoves;
+    }
+    
+    public void setSameBatchSwapMoves(boolean sameBatchSwapMoves) {
+        this.sameBatchSwapMoves = sameBatchSwapMoves;
+    }
+    
+    public boolean isCoursePillarMoves() {
+        return coursePillarMoves;
+    }
+    
+    public void setCoursePillarMoves(boolean coursePillarMoves) {
+        this.coursePillarMoves = coursePillarMoves;
+    }
+    
+    public boolean isKempeChainMoves() {
+        return kempeChainMoves;
+    }
+    
+    public void setKempeChainMoves(boolean kempeChainMoves) {
+        this.kempeChainMoves = kempeChainMoves;
+    }
+    
+    public boolean isNearbySwapSelection() {
+        return nearbySwapSelection;
+    }
+    
+    public void setNearbySwapSelection(boolean nearbySwapSelection) {
+        this.nearbySwapSelection = nearbySwapSelection;
+    }
+    
+    public int getPortfolioSize() {
+        return portfolioSize;
+    }
+    
+    public void setPortfolioSize(int portfolioSize) {
+        this.portfolioSize = portfolioSize;
+    }
+    
+    public String getPortfolioCancelMargin() {
+        return portfolioCancelMargin;
+    }
+    
+    public void setPortfolioCancelMargin(String portfolioCancelMargin) {
+        this.portfolioCancelMargin = portfolioCancelMargin;
+    }
+    
+    public int getIslandCount() {
+        return islandCount;
+    }
+    
+    public void setIslandCount(int islandCount) {
+        this.islandCount = islandCount;
+    }
+    
+    public int getIslandHeapMb() {
+        return islandHeapMb;
+    }
+    
+    public void setIslandHeapMb(int islandHeapMb) {
+        this.islandHeapMb = islandHeapMb;
+    }
+    
+    public int getMigrationIntervalSeconds() {
+        return migrationIntervalSeconds;
+    }
+    
+    public void setMigrationIntervalSeconds(int migrationIntervalSeconds) {
+        this.migrationIntervalSeconds = migrationIntervalSeconds;
+    }
+    
+    public boolean isFeasibilityCheck() {
+        return feasibilityCheck;
+    }
+    
+    public void setFeasibilityCheck(boolean feasibilityCheck) {
+        this.feasibilityCheck = feasibilityCheck;
+    }
+    
+    public boolean isRejectInfeasible() {
+        return rejectInfeasible;
+    }
+    
+    public void setRejectInfeasible(boolean rejectInfeasible) {
+        this.rejectInfeasible = rejectInfeasible;
+    }
+    
+    public boolean isSymmetryBreaking() {
+        return symmetryBreaking;
+    }
+    
+    public void setSymmetryBreaking(boolean symmetryBreaking) {
+        this.symmetryBreaking = symmetryBreaking;
+    }
+    
     public long getTotalTerminationSeconds() {
         return (terminationMinutes * 60L) + terminationSeconds;
     }
@@ -63,6 +258,27 @@ public class SolverConfiguration implements Serializable {
                 ", terminationSeconds=" + terminationSeconds +
                 ", bestScoreLimit=" + bestScoreLimit +
                 ", unimprovedSecondsLimit=" + unimprovedSecondsLimit +
+                ", secondsAfterFeasible=" + secondsAfterFeasible +
+                ", improvementWindowSeconds=" + improvementWindowSeconds +
+                ", minSoftImprovementPerMinute=" + minSoftImprovementPerMinute +
+                ", stepCountLimit=" + stepCountLimit +
+                ", conflictScoringMode=" + conflictScoringMode +
+                ", feasibilityFirst=" + feasibilityFirst +
+                ", feasibilityPhaseSeconds=" + feasibilityPhaseSeconds +
+                ", scoringEngine=" + scoringEngine +
+                ", constructionHeuristicType=" + constructionHeuristicType +
+                ", sameBatchSwapMoves=" + sameBatchSwapMoves +
+                ", coursePillarMoves=" + coursePillarMoves +
+                ", kempeChainMoves=" + kempeChainMoves +
+                ", nearbySwapSelection=" + nearbySwapSelection +
+                ", symmetryBreaking=" + symmetryBreaking +
+                ", portfolioSize=" + portfolioSize +
+                ", portfolioCancelMargin=" + portfolioCancelMargin +
+                ", islandCount=" + islandCount +
+                ", islandHeapMb=" + islandHeapMb +
+                ", migrationIntervalSeconds=" + migrationIntervalSeconds +
+                ", feasibilityCheck=" + feasibilityCheck +
+                ", rejectInfeasible=" + rejectInfeasible +
                 '}';
     }
 }
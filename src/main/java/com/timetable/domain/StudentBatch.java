@@ -4,7 +4,7 @@ package com.timetable.domain;
 import java.util.ArrayList;
 import java.util.List;
 
-public class StudentBatch {
+public class StudentBatch extends IndexedFact {
     private Long id;
     private String batchName;
     private int year;
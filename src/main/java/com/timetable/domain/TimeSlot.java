@@ -2,9 +2,8 @@ package com.timetable.domain;
 
 import java.time.Duration;
 import java.time.LocalTime;
-import java.util.Objects;
 
-public class TimeSlot {
+public class TimeSlot extends IndexedFact {
     private Long id;
     private String day;
     private LocalTime startTime;
@@ -41,20 +40,6 @@ public class TimeSlot {
     public String getSlotType() { return slotType; }
     public void setSlotType(String slotType) { this.slotType = slotType; }
 
-    // Overriding equals and hashCode to compare TimeSlots by id
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof TimeSlot)) return false;
-        TimeSlot timeSlot = (TimeSlot) o;
-        return Objects.equals(id, timeSlot.id);
-    }
-
-    @Override
-    public int hashCode() {
-        return Objects.hash(id);
-    }
-
     public int getTimeSlotIndex() {
         switch (day.toLowerCase()) {
             case "monday":
@@ -81,6 +66,10 @@ public class TimeSlot {
                 slotType);
     }
 
+    // Minute of the day the slot starts and ends at, used by the range joiners in the constraints
+    public int getStartMinute() { return startTime.toSecondOfDay() / 60; }
+    public int getEndMinute() { return endTime.toSecondOfDay() / 60; }
+
     public int getDurationInMinutes() {
         LocalTime startTime = this.startTime;
         LocalTime endTime = this.endTime;
@@ -0,0 +1,29 @@
+package com.timetable.domain;
+
+import java.util.Comparator;
+
+/**
+ * Orders time slots from weakest to strongest: shorter slots fit fewer lesson types, then
+ * earlier slots in the week come first, so weakest fit packs each day from the morning on.
+ */
+public class TimeSlotStrengthComparator implements Comparator<TimeSlot> {
+
+    private static final Comparator<TimeSlot> COMPARATOR = Comparator
+            .comparingInt((TimeSlot slot) -> slot.getEndMinute() - slot.getStartMinute())
+            .thenComparingInt(TimeSlotStrengthComparator::dayOrder)
+            .thenComparingInt(TimeSlot::getStartMinute)
+            .thenComparing(TimeSlot::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Override
+    public int compare(TimeSlot a, TimeSlot b) {
+        return COMPARATOR.compare(a, b);
+    }
+
+    private static int dayOrder(TimeSlot slot) {
+        try {
+            return slot.getTimeSlotIndex();
+        } catch (IllegalArgumentException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.timetable.domain;
 
+import org.optaplanner.core.api.domain.constraintweight.ConstraintConfigurationProvider;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.ProblemFactCollectionProperty;
-import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
+import org.optaplanner.core.api.domain.solution.ProblemFactProperty;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
 import java.util.List;
 import java.util.Objects;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
-@PlanningSolution
+@PlanningSolution(solutionCloner = TimeTableSolutionCloner.class)
 public class TimeTable {
     private Long id;
 
@@ -23,22 +27,27 @@ public class TimeTable {
     @PlanningEntityCollectionProperty
     private List<Lesson> minorLessonList; // New list for minor lessons
 
-    @ValueRangeProvider(id = "facultyRange")
+    // Each lesson draws its values from its own eligible ranges, see Lesson
+
     @ProblemFactCollectionProperty
     private List<Faculty> facultyList;
 
-    @ValueRangeProvider(id = "roomRange")
     @ProblemFactCollectionProperty
     private List<Room> roomList;
 
-    @ValueRangeProvider(id = "timeSlotRange")
     @ProblemFactCollectionProperty
     private List<TimeSlot> timeSlotList;
 
-    @ValueRangeProvider(id = "minorTimeSlotRange")
     @ProblemFactCollectionProperty
     private List<TimeSlot> minorTimeSlotList;
 
+    @ConstraintConfigurationProvider
+    private TimetableConstraintConfiguration constraintConfiguration = new TimetableConstraintConfiguration();
+
+    // Time slot rules this timetable is scored with, joined by the constraints
+    @ProblemFactProperty
+    private SchedulingRules schedulingRules = SchedulingRules.unconfigured();
+
     @PlanningScore
     private HardSoftScore score;
 
@@ -62,6 +71,58 @@ public class TimeTable {
         this.roomList = roomList;
         this.timeSlotList = timeSlotList;
         this.minorTimeSlotList = minorTimeSlotList;
+        indexFacts();
+        bindValueRanges();
+    }
+
+    /**
+     * Gives every lesson without value ranges of its own the default ones. Regular lessons get the
+     * regular slots, and minor lessons the minor slots. Faculty come from the course's eligible
+     * faculty, or the whole faculty list if the course has none.
+     */
+    public void bindValueRanges() {
+        bindValueRanges(lessonList, timeSlotList);
+        bindValueRanges(minorLessonList, minorTimeSlotList);
+    }
+
+    private void bindValueRanges(List<Lesson> lessons, List<TimeSlot> timeSlots) {
+        if (lessons == null) return;
+        for (Lesson lesson : lessons) {
+            if (lesson.getTimeSlotList() == null) {
+                lesson.setTimeSlotList(timeSlots);
+            }
+            if (lesson.getFacultyList() == null) {
+                Course course = lesson.getCourse();
+                boolean hasEligibleFaculty = course != null && course.getEligibleFaculty() != null
+                        && !course.getEligibleFaculty().isEmpty();
+                lesson.setFacultyList(hasEligibleFaculty ? course.getEligibleFaculty() : facultyList);
+            }
+        }
+    }
+
+    /**
+     * Assigns dense indexes to the problem facts. Regular and minor time slots share one numbering,
+     * batches and courses are numbered in the order their lessons appear.
+     */
+    public void indexFacts() {
+        IndexedFact.assignIndexes(facultyList);
+        IndexedFact.assignIndexes(roomList);
+        List<TimeSlot> allTimeSlots = new ArrayList<>();
+        if (timeSlotList != null) allTimeSlots.addAll(timeSlotList);
+        if (minorTimeSlotList != null) allTimeSlots.addAll(minorTimeSlotList);
+        IndexedFact.assignIndexes(allTimeSlots);
+
+        Set<StudentBatch> batches = new LinkedHashSet<>();
+        Set<Course> courses = new LinkedHashSet<>();
+        for (List<Lesson> lessons : Arrays.asList(lessonList, minorLessonList)) {
+            if (lessons == null) continue;
+            for (Lesson lesson : lessons) {
+                if (lesson.getStudentBatch() != null) batches.add(lesson.getStudentBatch());
+                if (lesson.getCourse() != null) courses.add(lesson.getCourse());
+            }
+        }
+        IndexedFact.assignIndexes(new ArrayList<>(batches));
+        IndexedFact.assignIndexes(new ArrayList<>(courses));
     }
 
 
@@ -82,6 +143,12 @@ public class TimeTable {
     public void setMinorTimeSlotList(List<TimeSlot> minorTimeSlotList) {
         this.minorTimeSlotList = minorTimeSlotList != null ? minorTimeSlotList : new ArrayList<>();
     }
+    public TimetableConstraintConfiguration getConstraintConfiguration() { return constraintConfiguration; }
+    public void setConstraintConfiguration(TimetableConstraintConfiguration constraintConfiguration) {
+        this.constraintConfiguration = constraintConfiguration;
+    }
+    public SchedulingRules getSchedulingRules() { return schedulingRules; }
+    public void setSchedulingRules(SchedulingRules schedulingRules) { this.schedulingRules = schedulingRules; }
     public HardSoftScore getScore() { return score; }
     public void setScore(HardSoftScore score) { this.score = score; }
 
@@ -0,0 +1,44 @@
+package com.timetable.domain;
+
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Planning clone of a {@link TimeTable}, used every time the solver records a new best solution.
+ * Only the lessons are copied; faculty, rooms, time slots, batches, courses, the constraint
+ * weights and the scheduling rules are shared with the original, since the solver never changes them.
+ * This replaces the reflection-based generic cloner, which also walks the candidate room list of
+ * every lesson. Any field added to {@link Lesson} or {@link TimeTable} must be copied here too.
+ */
+public class TimeTableSolutionCloner implements SolutionCloner<TimeTable> {
+
+    @Override
+    public TimeTable cloneSolution(TimeTable original) {
+        TimeTable clone = new TimeTable();
+        clone.setId(original.getId());
+        clone.setLessonList(cloneLessons(original.getLessonList()));
+        clone.setMinorLessonList(cloneLessons(original.getMinorLessonList()));
+        clone.setFacultyList(original.getFacultyList());
+        clone.setRoomList(original.getRoomList());
+        clone.setTimeSlotList(original.getTimeSlotList());
+        clone.setMinorTimeSlotList(original.getMinorTimeSlotList());
+        clone.setConstraintConfiguration(original.getConstraintConfiguration());
+        clone.setSchedulingRules(original.getSchedulingRules());
+        clone.setScore(original.getScore());
+        return clone;
+    }
+
+    // Presized, so the clone list never has to grow
+    private static List<Lesson> cloneLessons(List<Lesson> lessons) {
+        if (lessons == null) {
+            return null;
+        }
+        List<Lesson> clones = new ArrayList<>(lessons.size());
+        for (Lesson lesson : lessons) {
+            clones.add(lesson.planningClone());
+        }
+        return clones;
+    }
+}
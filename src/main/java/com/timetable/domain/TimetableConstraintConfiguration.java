@@ -0,0 +1,234 @@
+package com.timetable.domain;
+
+import org.optaplanner.core.api.domain.constraintweight.ConstraintConfiguration;
+import org.optaplanner.core.api.domain.constraintweight.ConstraintWeight;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Constraint weights of the timetable, read by the solver from the planning solution.
+ * Weights can be changed between solves without recompiling the constraints. A weight of zero
+ * disables the constraint entirely, so it is left out of score calculation.
+ */
+@ConstraintConfiguration
+public class TimetableConstraintConfiguration {
+
+    // Default penalty levels, from absolute conflicts down to minor preferences
+    public static final int CRITICAL_CONFLICT_PENALTY = 10000;
+    public static final int HIGH_PRIORITY_PENALTY = 1000;
+    public static final int MEDIUM_PRIORITY_PENALTY = 100;
+    public static final int SOFT_HIGH_PRIORITY = 50;
+    public static final int SOFT_MEDIUM_PRIORITY = 20;
+    public static final int SOFT_LOW_PRIORITY = 5;
+
+    // Bump when the meaning of a constraint changes, so that stored solutions scored under the old
+    // definitions are no longer reused
+    public static final int CONSTRAINT_SET_VERSION = 1;
+
+    // Constraint names, shared by the constraint provider and the weights below
+    public static final String ENSURE_LESSON_ASSIGNMENTS = "Ensure lesson assignments";
+    public static final String ROOM_CONFLICT = "Room conflict";
+    public static final String TEACHER_CONFLICT = "Teacher conflict";
+    public static final String STUDENT_GROUP_CONFLICT = "Student group conflict";
+    public static final String STUDENT_BATCH_CONFLICT = "Student batch time conflict";
+    public static final String FACULTY_TIME_CONFLICT = "Faculty Time Conflict";
+    public static final String FACULTY_MULTI_BATCH = "Faculty Teaching Multiple Batches Simultaneously";
+    public static final String NO_ROOM_CONFLICT_FOR_MINORS = "No room conflicts for minors";
+    public static final String ROOM_CAPACITY = "Room capacity";
+    public static final String TEACHER_QUALIFICATION = "Teacher qualification";
+    public static final String LECTURE_DURATION = "Lecture classes should match lecture time slots";
+    public static final String LAB_DURATION = "Lab classes must match lab time slots";
+    public static final String NO_CLASSES_DURING_LUNCH = "No classes during lunch hour per year group";
+    public static final String WEEKLY_LAB_SCHEDULING = "Weekly lab scheduling";
+    public static final String LAB_ROOM_ASSIGNMENT = "Lab room assignment";
+    public static final String ONE_LAB_PER_BATCH_PER_DAY = "Only one lab per batch per day";
+    public static final String LAB_ROOM_TYPE = "Two hour slots must be LAB type in practical rooms";
+    public static final String ONLY_LAB_COURSES_IN_LAB_ROOMS = "Only lab courses in lab rooms";
+    public static final String LECTURE_ROOM_TYPE = "Sessions under 2 hours must be LECTURE type in lecture rooms";
+    public static final String LECTURE_IN_REGULAR_ROOMS = "Lecture in regular rooms";
+    public static final String MINOR_VALID_ROOM = "Minors must be assigned to valid rooms";
+    public static final String MINOR_FIXED_TIMESLOT = "Minor courses must be scheduled in configured slots";
+    public static final String MINOR_TIME_SLOT_COMPATIBILITY = "MinorTimeSlotCompatibility";
+    public static final String MINOR_COURSE_DAY_SPREAD = "MinorCourseDaySpread";
+    public static final String MINOR_COURSE_ROOM_COMPATIBILITY = "MinorCourseRoomCompatibility";
+    public static final String PREDEFINED_ROOM_ASSIGNMENT = "Predefined room assignment";
+    public static final String SINGLE_COURSE_PER_DAY_FOR_BATCH = "Single course per day for batch";
+    public static final String LAB_TIME_SLOT = "Lab classes must be scheduled in designated time slots per batch";
+    public static final String BATCH_TIME_SLOT_COMPATIBILITY = "BatchTimeSlotCompatibility";
+    public static final String BALANCE_BATCH_LOAD = "Balance batch load";
+    public static final String BALANCE_FACULTY_LOAD = "Balance faculty load";
+    public static final String BALANCE_DAILY_BATCH_LOAD = "Balance daily batch load";
+    public static final String MINIMIZE_GAPS_IN_SCHEDULE = "Minimize gaps in schedule";
+    public static final String TEACHER_IDLE_GAPS = "Limit teacher idle gaps";
+    public static final String PREFER_CONTIGUOUS_LESSONS = "Prefer contiguous lessons";
+    public static final String BALANCE_ROOM_LOAD = "Balance room load";
+    public static final String CONTIGUOUS_LESSONS = "Contiguous lessons";
+    public static final String ROOM_STABILITY = "Room stability";
+    public static final String MINIMIZE_ROOM_CHANGES = "Minimize room changes";
+    public static final String PREFERRED_START_TIME = "Preferred start time";
+    public static final String TEACHER_MAX_TWO_CLASSES_PER_DAY = "Max two classes per day for a teacher per batch";
+
+    // Weight fields keyed by constraint name, in declaration order
+    private static final Map<String, Field> WEIGHT_FIELDS = new LinkedHashMap<>();
+
+    static {
+        for (Field field : TimetableConstraintConfiguration.class.getDeclaredFields()) {
+            ConstraintWeight constraintWeight = field.getAnnotation(ConstraintWeight.class);
+            if (constraintWeight != null) {
+                field.setAccessible(true);
+                WEIGHT_FIELDS.put(constraintWeight.value(), field);
+            }
+        }
+    }
+
+    @ConstraintWeight(ENSURE_LESSON_ASSIGNMENTS)
+    private HardSoftScore ensureLessonAssignments = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(ROOM_CONFLICT)
+    private HardSoftScore roomConflict = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(TEACHER_CONFLICT)
+    private HardSoftScore teacherConflict = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(STUDENT_GROUP_CONFLICT)
+    private HardSoftScore studentGroupConflict = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(STUDENT_BATCH_CONFLICT)
+    private HardSoftScore studentBatchConflict = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(FACULTY_TIME_CONFLICT)
+    private HardSoftScore facultyTimeConflict = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(FACULTY_MULTI_BATCH)
+    private HardSoftScore facultyMultiBatch = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(NO_ROOM_CONFLICT_FOR_MINORS)
+    private HardSoftScore noRoomConflictForMinors = HardSoftScore.ofHard(CRITICAL_CONFLICT_PENALTY);
+    @ConstraintWeight(ROOM_CAPACITY)
+    private HardSoftScore roomCapacity = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(TEACHER_QUALIFICATION)
+    private HardSoftScore teacherQualification = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LECTURE_DURATION)
+    private HardSoftScore lectureDuration = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LAB_DURATION)
+    private HardSoftScore labDuration = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(NO_CLASSES_DURING_LUNCH)
+    private HardSoftScore noClassesDuringLunch = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(WEEKLY_LAB_SCHEDULING)
+    private HardSoftScore weeklyLabScheduling = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LAB_ROOM_ASSIGNMENT)
+    private HardSoftScore labRoomAssignment = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(ONE_LAB_PER_BATCH_PER_DAY)
+    private HardSoftScore oneLabPerBatchPerDay = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LAB_ROOM_TYPE)
+    private HardSoftScore labRoomType = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(ONLY_LAB_COURSES_IN_LAB_ROOMS)
+    private HardSoftScore onlyLabCoursesInLabRooms = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LECTURE_ROOM_TYPE)
+    private HardSoftScore lectureRoomType = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(LECTURE_IN_REGULAR_ROOMS)
+    private HardSoftScore lectureInRegularRooms = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(MINOR_VALID_ROOM)
+    private HardSoftScore minorValidRoom = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(MINOR_FIXED_TIMESLOT)
+    private HardSoftScore minorFixedTimeslot = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(MINOR_TIME_SLOT_COMPATIBILITY)
+    private HardSoftScore minorTimeSlotCompatibility = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(MINOR_COURSE_DAY_SPREAD)
+    private HardSoftScore minorCourseDaySpread = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(MINOR_COURSE_ROOM_COMPATIBILITY)
+    private HardSoftScore minorCourseRoomCompatibility = HardSoftScore.ofHard(HIGH_PRIORITY_PENALTY);
+    @ConstraintWeight(PREDEFINED_ROOM_ASSIGNMENT)
+    private HardSoftScore predefinedRoomAssignment = HardSoftScore.ofHard(MEDIUM_PRIORITY_PENALTY);
+    @ConstraintWeight(SINGLE_COURSE_PER_DAY_FOR_BATCH)
+    private HardSoftScore singleCoursePerDayForBatch = HardSoftScore.ofHard(MEDIUM_PRIORITY_PENALTY);
+    @ConstraintWeight(LAB_TIME_SLOT)
+    private HardSoftScore labTimeSlot = HardSoftScore.ofHard(MEDIUM_PRIORITY_PENALTY);
+    @ConstraintWeight(BATCH_TIME_SLOT_COMPATIBILITY)
+    private HardSoftScore batchTimeSlotCompatibility = HardSoftScore.ofHard(MEDIUM_PRIORITY_PENALTY);
+    @ConstraintWeight(BALANCE_BATCH_LOAD)
+    private HardSoftScore balanceBatchLoad = HardSoftScore.ofSoft(SOFT_HIGH_PRIORITY);
+    @ConstraintWeight(BALANCE_FACULTY_LOAD)
+    private HardSoftScore balanceFacultyLoad = HardSoftScore.ofSoft(SOFT_HIGH_PRIORITY);
+    @ConstraintWeight(BALANCE_DAILY_BATCH_LOAD)
+    private HardSoftScore balanceDailyBatchLoad = HardSoftScore.ofSoft(SOFT_HIGH_PRIORITY);
+    @ConstraintWeight(MINIMIZE_GAPS_IN_SCHEDULE)
+    private HardSoftScore minimizeGapsInSchedule = HardSoftScore.ofSoft(SOFT_MEDIUM_PRIORITY);
+    @ConstraintWeight(TEACHER_IDLE_GAPS)
+    private HardSoftScore teacherIdleGaps = HardSoftScore.ofSoft(SOFT_MEDIUM_PRIORITY);
+    @ConstraintWeight(PREFER_CONTIGUOUS_LESSONS)
+    private HardSoftScore preferContiguousLessons = HardSoftScore.ofSoft(SOFT_MEDIUM_PRIORITY);
+    @ConstraintWeight(BALANCE_ROOM_LOAD)
+    private HardSoftScore balanceRoomLoad = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+    @ConstraintWeight(CONTIGUOUS_LESSONS)
+    private HardSoftScore contiguousLessons = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+    @ConstraintWeight(ROOM_STABILITY)
+    private HardSoftScore roomStability = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+    @ConstraintWeight(MINIMIZE_ROOM_CHANGES)
+    private HardSoftScore minimizeRoomChanges = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+    @ConstraintWeight(PREFERRED_START_TIME)
+    private HardSoftScore preferredStartTime = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+    @ConstraintWeight(TEACHER_MAX_TWO_CLASSES_PER_DAY)
+    private HardSoftScore teacherMaxTwoClassesPerDay = HardSoftScore.ofSoft(SOFT_LOW_PRIORITY);
+
+    public TimetableConstraintConfiguration() {}
+
+    public TimetableConstraintConfiguration(TimetableConstraintConfiguration other) {
+        for (Field field : WEIGHT_FIELDS.values()) {
+            try {
+                field.set(this, field.get(other));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot copy constraint weight " + field.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Copy with every soft-only weight set to zero, so only the hard constraints are evaluated.
+     */
+    public TimetableConstraintConfiguration hardOnly() {
+        TimetableConstraintConfiguration hardOnly = new TimetableConstraintConfiguration(this);
+        for (String constraintName : WEIGHT_FIELDS.keySet()) {
+            if (hardOnly.getWeight(constraintName).hardScore() == 0) {
+                hardOnly.setWeight(constraintName, HardSoftScore.ZERO);
+            }
+        }
+        return hardOnly;
+    }
+
+    /**
+     * All weights keyed by constraint name, formatted like "1000hard/0soft".
+     */
+    public Map<String, String> toWeightMap() {
+        Map<String, String> weights = new LinkedHashMap<>();
+        for (String constraintName : WEIGHT_FIELDS.keySet()) {
+            weights.put(constraintName, getWeight(constraintName).toString());
+        }
+        return weights;
+    }
+
+    public HardSoftScore getWeight(String constraintName) {
+        Field field = findField(constraintName);
+        try {
+            return (HardSoftScore) field.get(this);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read constraint weight " + field.getName(), e);
+        }
+    }
+
+    public void setWeight(String constraintName, HardSoftScore weight) {
+        if (weight == null || weight.hardScore() < 0 || weight.softScore() < 0) {
+            throw new IllegalArgumentException("Weight for constraint '" + constraintName + "' must not be negative: " + weight);
+        }
+        Field field = findField(constraintName);
+        try {
+            field.set(this, weight);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot set constraint weight " + field.getName(), e);
+        }
+    }
+
+    private static Field findField(String constraintName) {
+        Field field = WEIGHT_FIELDS.get(constraintName);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown constraint: " + constraintName);
+        }
+        return field;
+    }
+}
@@ -12,7 +12,7 @@ import java.util.List;
 import java.util.ArrayList;
 
 // Base User class
-public class User {
+public class User extends IndexedFact {
     private Long id;
     private String name;
     private String email;
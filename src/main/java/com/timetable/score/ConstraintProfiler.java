@@ -0,0 +1,184 @@
+package com.timetable.score;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.ScoreExplanation;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolutionUpdatePolicy;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Measures what each constraint of {@link TimeTableConstraintProvider} costs on a given problem.
+ * Every constraint is compiled on its own, so its full recalculation time, incremental calculation
+ * time, match count and stream node count can be compared side by side.
+ */
+public class ConstraintProfiler {
+    private static final Logger logger = Logger.getLogger(ConstraintProfiler.class.getName());
+
+    public static final String ALL_CONSTRAINTS = "<all constraints>";
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final long RANDOM_SEED = 0L;
+    // Guards the incremental run in case a constraint is slow enough to never reach the calculation limit
+    private static final Duration INCREMENTAL_TIME_GUARD = Duration.ofSeconds(30);
+
+    private final int fullIterations;
+    private final long incrementalCalculations;
+
+    public ConstraintProfiler(int fullIterations, long incrementalCalculations) {
+        if (fullIterations <= 0 || incrementalCalculations <= 0) {
+            throw new IllegalArgumentException("Iteration counts must be positive");
+        }
+        this.fullIterations = fullIterations;
+        this.incrementalCalculations = incrementalCalculations;
+    }
+
+    /**
+     * Profiles every constraint against the given timetable. Lessons that are not assigned yet get a
+     * random (seeded) room, time slot and faculty member first, so the constraints have tuples to work on.
+     * Results are sorted by full calculation cost, most expensive first, with the combined
+     * provider as the first row.
+     */
+    public List<ConstraintCost> profile(TimeTable timetable) {
+        initializeUnassigned(timetable);
+
+        ConstraintCost total = profileConstraint(null, timetable);
+        Map<String, Integer> nodeCounts = ProfilingConstraintProvider.getNodeCounts();
+        total.nodeCount = nodeCounts.values().stream().mapToInt(Integer::intValue).sum();
+
+        List<ConstraintCost> results = new ArrayList<>();
+        for (String constraintName : nodeCounts.keySet()) {
+            ConstraintCost cost = profileConstraint(constraintName, timetable);
+            cost.nodeCount = nodeCounts.get(constraintName);
+            results.add(cost);
+            logger.fine("Profiled constraint: " + cost);
+        }
+        results.sort(Comparator.comparingLong(ConstraintCost::getNanosPerFullCalculation).reversed());
+        results.add(0, total);
+        return results;
+    }
+
+    private ConstraintCost profileConstraint(String constraintName, TimeTable timetable) {
+        ProfilingConstraintProvider.select(constraintName);
+        try {
+            ConstraintCost cost = new ConstraintCost(constraintName == null ? ALL_CONSTRAINTS : constraintName);
+
+            SolverFactory<TimeTable> solverFactory = SolverFactory.create(solverConfig(new TerminationConfig()
+                    .withScoreCalculationCountLimit(incrementalCalculations)
+                    .withSpentLimit(INCREMENTAL_TIME_GUARD)));
+            SolutionManager<TimeTable, HardSoftScore> solutionManager = SolutionManager.create(solverFactory);
+
+            // Full recalculation: every update rebuilds the constraint session from scratch
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                solutionManager.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < fullIterations; i++) {
+                solutionManager.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            }
+            cost.nanosPerFullCalculation = (System.nanoTime() - start) / fullIterations;
+
+            ScoreExplanation<TimeTable, HardSoftScore> explanation =
+                    solutionManager.explain(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            cost.score = explanation.getScore().toString();
+            cost.matchCount = explanation.getConstraintMatchTotalMap().values().stream()
+                    .mapToInt(ConstraintMatchTotal::getConstraintMatchCount)
+                    .sum();
+
+            // Incremental calculation: local search moves only re-evaluate the tuples they touch.
+            // Move selection overhead is the same for every constraint, so the ranking stays comparable.
+            // The time guard can end the solve before the count limit, so divide by what actually ran
+            Solver<TimeTable> solver = solverFactory.buildSolver();
+            start = System.nanoTime();
+            solver.solve(timetable);
+            long elapsed = System.nanoTime() - start;
+            long calculations = ((DefaultSolver<TimeTable>) solver).getSolverScope().getScoreCalculationCount();
+            cost.nanosPerIncrementalCalculation = elapsed / Math.max(1L, calculations);
+
+            return cost;
+        } finally {
+            ProfilingConstraintProvider.clear();
+        }
+    }
+
+    private static SolverConfig solverConfig(TerminationConfig terminationConfig) {
+        return new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withConstraintProviderClass(ProfilingConstraintProvider.class)
+                .withTerminationConfig(terminationConfig);
+    }
+
+    private static void initializeUnassigned(TimeTable timetable) {
+        Random random = new Random(RANDOM_SEED);
+        List<Room> rooms = timetable.getRoomList();
+        assignRandomly(timetable.getLessonList(), timetable.getTimeSlotList(), rooms, random);
+        assignRandomly(timetable.getMinorLessonList(), timetable.getMinorTimeSlotList(), rooms, random);
+    }
+
+    private static void assignRandomly(List<Lesson> lessons, List<TimeSlot> timeSlots, List<Room> rooms, Random random) {
+        if (lessons == null || timeSlots == null || timeSlots.isEmpty() || rooms == null || rooms.isEmpty()) {
+            return;
+        }
+        for (Lesson lesson : lessons) {
+            if (lesson.getTimeSlot() == null) {
+                lesson.setTimeSlot(timeSlots.get(random.nextInt(timeSlots.size())));
+            }
+            if (lesson.getRoom() == null) {
+                lesson.setRoom(rooms.get(random.nextInt(rooms.size())));
+            }
+            List<Faculty> faculty = lesson.getFacultyList();
+            if (lesson.getFaculty() == null && faculty != null && !faculty.isEmpty()) {
+                lesson.setFaculty(faculty.get(random.nextInt(faculty.size())));
+            }
+        }
+    }
+
+    /**
+     * Cost figures for a single constraint. The node count is the length of the constraint's stream
+     * chain as defined in the provider; nodes shared between constraints are counted for each of them.
+     */
+    public static class ConstraintCost {
+        private final String constraintName;
+        private long nanosPerFullCalculation;
+        private long nanosPerIncrementalCalculation;
+        private int matchCount;
+        private int nodeCount;
+        private String score;
+
+        public ConstraintCost(String constraintName) {
+            this.constraintName = constraintName;
+        }
+
+        public String getConstraintName() { return constraintName; }
+        public long getNanosPerFullCalculation() { return nanosPerFullCalculation; }
+        public long getNanosPerIncrementalCalculation() { return nanosPerIncrementalCalculation; }
+        public int getMatchCount() { return matchCount; }
+        public int getNodeCount() { return nodeCount; }
+        public String getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s full=%,10d ns  incremental=%,8d ns  matches=%,7d  nodes=%3d  score=%s",
+                    constraintName, nanosPerFullCalculation, nanosPerIncrementalCalculation,
+                    matchCount, nodeCount, score);
+        }
+    }
+}
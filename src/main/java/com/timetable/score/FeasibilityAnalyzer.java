@@ -0,0 +1,754 @@
+package com.timetable.score;
+
+import com.timetable.domain.Course;
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.SchedulingRules;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import com.timetable.domain.TimetableConstraintConfiguration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static com.timetable.domain.TimetableConstraintConfiguration.*;
+import static com.timetable.score.TimetableRules.*;
+
+/**
+ * Finds hard constraint violations that no assignment can avoid, before any solving.
+ * Every lesson is narrowed to the time slots and rooms that pass its single-lesson hard constraints,
+ * then capacity bounds are checked on what is left: non-overlapping slots per batch, one lab per
+ * day, one session per course per day, required lab days, minor day spread, and a matching of the
+ * lessons to the teaching time of their eligible faculty. A lesson that leaves its candidates
+ * breaks one of the constraints that narrowed them instead, so any shortfall found means the hard
+ * score cannot reach zero.
+ * Only constraints with a hard weight count. The bounds are necessary conditions: a clean report
+ * does not prove that a feasible timetable exists.
+ */
+public class FeasibilityAnalyzer {
+    private static final Logger logger = Logger.getLogger(FeasibilityAnalyzer.class.getName());
+
+    private static final long UNBOUNDED = Long.MAX_VALUE / 4;
+    // Lessons of a batch conflict when their slots overlap or touch
+    private static final int BATCH_MINIMUM_GAP = 1;
+
+    public enum Severity {
+        VIOLATION, // the hard score cannot reach zero
+        WARNING    // a limit of the input the constraints do not enforce will be exceeded
+    }
+
+    private final TimeTable problem;
+    private final SchedulingRules rules;
+    private final TimetableConstraintConfiguration weights;
+    private final List<Issue> issues = new ArrayList<>();
+
+    private FeasibilityAnalyzer(TimeTable problem) {
+        this.problem = problem;
+        this.rules = problem.getSchedulingRules() != null ? problem.getSchedulingRules() : SchedulingRules.unconfigured();
+        this.weights = problem.getConstraintConfiguration() != null
+                ? problem.getConstraintConfiguration() : new TimetableConstraintConfiguration();
+    }
+
+    /**
+     * Analyzes an unsolved problem. Only reads it, so it can run right before solving.
+     */
+    public static Report analyze(TimeTable problem) {
+        long start = System.nanoTime();
+        FeasibilityAnalyzer analyzer = new FeasibilityAnalyzer(problem);
+        List<LessonGroup> groups = analyzer.groupLessons();
+        List<LessonGroup> placeable = new ArrayList<>();
+        int lessonCount = 0;
+        for (LessonGroup group : groups) {
+            lessonCount += group.size;
+            if (analyzer.narrow(group)) {
+                placeable.add(group);
+            }
+        }
+        analyzer.checkBatches(placeable);
+        analyzer.checkMinorDaySpread(placeable);
+        analyzer.checkFaculty(placeable);
+        Report report = new Report(lessonCount, analyzer.issues, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Feasibility analysis: " + report);
+        return report;
+    }
+
+    // Lessons with the same batch, course, type and value ranges have the same candidates
+    private List<LessonGroup> groupLessons() {
+        Map<List<Object>, LessonGroup> groups = new LinkedHashMap<>();
+        for (List<Lesson> lessons : Arrays.asList(problem.getLessonList(), problem.getMinorLessonList())) {
+            if (lessons == null) {
+                continue;
+            }
+            for (Lesson lesson : lessons) {
+                List<Object> key = Arrays.asList(lesson.getClass(), lesson.getStudentBatch(), lesson.getCourse(),
+                        lesson.getLessonType(), lesson.getTimeSlotList(), lesson.getRoomList(), lesson.getFacultyList());
+                groups.computeIfAbsent(key, ignored -> new LessonGroup(lesson)).size++;
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    // ============================================================================
+    // Single-lesson hard constraints
+    // ============================================================================
+
+    /**
+     * Keeps the time slots of the group that pass the slot constraints and leave at least one room
+     * passing the room constraints, and the faculty the group may be taught by.
+     *
+     * @return false if no time slot is left
+     */
+    private boolean narrow(LessonGroup group) {
+        Lesson lesson = group.lesson;
+        Set<String> ruledOutBy = new TreeSet<>();
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : nonNull(lesson.getRoomList())) {
+            String violated = roomViolation(lesson, room);
+            if (violated == null) {
+                rooms.add(room);
+            } else {
+                ruledOutBy.add(violated);
+            }
+        }
+        Map<String, Boolean> roomForSlotType = new HashMap<>();
+        for (TimeSlot slot : nonNull(lesson.getTimeSlotList())) {
+            String violated = slotViolation(lesson, slot);
+            if (violated != null) {
+                ruledOutBy.add(violated);
+                continue;
+            }
+            if (roomForSlotType.computeIfAbsent(slot.getSlotType(), type -> hasRoom(lesson, type, rooms, ruledOutBy))) {
+                group.cells.add(new Cell(slot));
+                group.days.add(slot.getDay());
+            }
+        }
+
+        Course course = lesson.getCourse();
+        boolean qualificationCounts = isHard(TEACHER_QUALIFICATION) && course != null;
+        for (Faculty faculty : nonNull(lesson.getFacultyList())) {
+            if (!qualificationCounts || nonNull(course.getEligibleFaculty()).contains(faculty)) {
+                group.faculty.add(faculty);
+            }
+        }
+        if (group.faculty.isEmpty() && qualificationCounts) {
+            addIssue(Severity.VIOLATION, List.of(TEACHER_QUALIFICATION), describe(lesson), group.size,
+                    "no faculty member who may teach the lesson is eligible for the course");
+        }
+
+        if (group.cells.isEmpty()) {
+            List<String> constraints = ruledOutBy.isEmpty() ? List.of(ENSURE_LESSON_ASSIGNMENTS) : new ArrayList<>(ruledOutBy);
+            addIssue(Severity.VIOLATION, constraints, describe(lesson), group.size,
+                    group.size + " lessons have no time slot and room left that pass the hard constraints");
+            return false;
+        }
+        return true;
+    }
+
+    private String slotViolation(Lesson lesson, TimeSlot slot) {
+        StudentBatch batch = lesson.getStudentBatch();
+        Course course = lesson.getCourse();
+        String lessonType = lesson.getLessonType();
+        if (batch != null) {
+            if (isHard(NO_CLASSES_DURING_LUNCH) && rules.isLunchHourForYear(batch.getYear(), slot.getStartTime())) {
+                return NO_CLASSES_DURING_LUNCH;
+            }
+            if (isHard(LAB_TIME_SLOT) && "LAB".equals(lessonType)
+                    && !rules.isLabTimeSlotValidForBatch(batch.getYear(), slot.getStartTime(), slot.getEndTime())) {
+                return LAB_TIME_SLOT;
+            }
+            if (isHard(BATCH_TIME_SLOT_COMPATIBILITY) && !"MINOR".equals(lessonType)
+                    && !isTimeSlotValidForBatch(batch, slot, rules)) {
+                return BATCH_TIME_SLOT_COMPATIBILITY;
+            }
+        }
+        if (isHard(LECTURE_DURATION) && "LECTURE".equalsIgnoreCase(lessonType)
+                && !"LECTURE".equalsIgnoreCase(slot.getSlotType())) {
+            return LECTURE_DURATION;
+        }
+        if (isHard(LAB_DURATION) && "LAB".equalsIgnoreCase(lessonType) && !"LAB".equalsIgnoreCase(slot.getSlotType())) {
+            return LAB_DURATION;
+        }
+        if (isHard(MINOR_FIXED_TIMESLOT) && course != null && "minor".equals(course.getCourseType())
+                && !isValidMinorTimeSlot(slot, rules)) {
+            return MINOR_FIXED_TIMESLOT;
+        }
+        if (isHard(MINOR_TIME_SLOT_COMPATIBILITY) && "MINOR".equals(lessonType) && !isValidMinorTimeSlot(slot, rules)) {
+            return MINOR_TIME_SLOT_COMPATIBILITY;
+        }
+        return null;
+    }
+
+    private String roomViolation(Lesson lesson, Room room) {
+        StudentBatch batch = lesson.getStudentBatch();
+        Course course = lesson.getCourse();
+        if (isHard(ROOM_CAPACITY) && batch != null && batch.getStrength() > room.getCapacity()) {
+            return ROOM_CAPACITY;
+        }
+        if (course != null) {
+            boolean labRoom = isLabRoom(room);
+            if (isHard(LAB_ROOM_ASSIGNMENT) && course.isLabCourse() && !labRoom) {
+                return LAB_ROOM_ASSIGNMENT;
+            }
+            if (isHard(ONLY_LAB_COURSES_IN_LAB_ROOMS) && !course.isLabCourse() && labRoom) {
+                return ONLY_LAB_COURSES_IN_LAB_ROOMS;
+            }
+            if (isHard(LECTURE_IN_REGULAR_ROOMS) && !course.isLabCourse() && labRoom) {
+                return LECTURE_IN_REGULAR_ROOMS;
+            }
+            if (isHard(MINOR_VALID_ROOM) && "minor".equals(course.getCourseType())
+                    && !course.getLectureRoomIDs().contains(room.getId())) {
+                return MINOR_VALID_ROOM;
+            }
+        }
+        if (isHard(PREDEFINED_ROOM_ASSIGNMENT) && batch != null && !isRoomAllowedForBatch(room, batch)) {
+            return PREDEFINED_ROOM_ASSIGNMENT;
+        }
+        if (isHard(MINOR_COURSE_ROOM_COMPATIBILITY) && "MINOR".equals(lesson.getLessonType())
+                && (course == null || !course.getLectureRoomIDs().contains(room.getId()))) {
+            return MINOR_COURSE_ROOM_COMPATIBILITY;
+        }
+        return null;
+    }
+
+    // Whether a room is left for the lesson in a slot of the type, under the slot type's room rules
+    private boolean hasRoom(Lesson lesson, String slotType, List<Room> rooms, Set<String> ruledOutBy) {
+        StudentBatch batch = lesson.getStudentBatch();
+        String lessonType = lesson.getLessonType();
+        for (Room room : rooms) {
+            if (batch != null && isHard(LAB_ROOM_TYPE) && "LAB".equalsIgnoreCase(slotType)
+                    && (!"LAB".equalsIgnoreCase(lessonType) || !batch.getPracticalRoomIDs().contains(room.getId()))) {
+                ruledOutBy.add(LAB_ROOM_TYPE);
+                continue;
+            }
+            if (batch != null && isHard(LECTURE_ROOM_TYPE) && "LECTURE".equalsIgnoreCase(slotType)
+                    && (!"LECTURE".equalsIgnoreCase(lessonType) || !batch.getLectureRoomIDs().contains(room.getId()))) {
+                ruledOutBy.add(LECTURE_ROOM_TYPE);
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // ============================================================================
+    // Capacity bounds
+    // ============================================================================
+
+    // Minor lessons have no batch and are checked as one group, as the batch conflict does
+    private void checkBatches(List<LessonGroup> groups) {
+        Map<StudentBatch, List<LessonGroup>> byBatch = new LinkedHashMap<>();
+        for (LessonGroup group : groups) {
+            byBatch.computeIfAbsent(group.lesson.getStudentBatch(), ignored -> new ArrayList<>()).add(group);
+        }
+        for (Map.Entry<StudentBatch, List<LessonGroup>> entry : byBatch.entrySet()) {
+            checkBatch(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void checkBatch(StudentBatch batch, List<LessonGroup> groups) {
+        String subject = batch != null ? "batch " + batch.getBatchName() : "minor courses";
+        boolean batchConflict = isHard(STUDENT_BATCH_CONFLICT);
+        boolean oneLabPerDay = isHard(ONE_LAB_PER_BATCH_PER_DAY);
+        boolean singleCoursePerDay = batch != null && isHard(SINGLE_COURSE_PER_DAY_FOR_BATCH);
+
+        // Non-overlapping slots the batch can attend per day
+        Map<String, Set<Cell>> cellsByDay = new LinkedHashMap<>();
+        for (LessonGroup group : groups) {
+            for (Cell cell : group.cells) {
+                cellsByDay.computeIfAbsent(cell.day, ignored -> new HashSet<>()).add(cell);
+            }
+        }
+        Map<String, Long> dayCapacity = new LinkedHashMap<>();
+        cellsByDay.forEach((day, cells) -> dayCapacity.put(day,
+                batchConflict ? maxNonOverlapping(cells, BATCH_MINIMUM_GAP) : UNBOUNDED));
+
+        long lessons = 0;
+        long labLessons = 0;
+        Set<String> labDays = new LinkedHashSet<>();
+        Map<Course, Long> courseLessons = new LinkedHashMap<>();
+        Map<Course, Set<String>> courseDays = new LinkedHashMap<>();
+        for (LessonGroup group : groups) {
+            lessons += group.size;
+            Course course = group.lesson.getCourse();
+            if (course == null) {
+                continue;
+            }
+            if (course.isLabCourse()) {
+                labLessons += group.size;
+                labDays.addAll(group.days);
+            }
+            courseLessons.merge(course, (long) group.size, Long::sum);
+            courseDays.computeIfAbsent(course, ignored -> new LinkedHashSet<>()).addAll(group.days);
+        }
+
+        long largestShortfall = 0;
+        if (batchConflict) {
+            long capacity = dayCapacity.values().stream().mapToLong(Long::longValue).sum();
+            if (lessons > capacity) {
+                addIssue(Severity.VIOLATION, List.of(STUDENT_BATCH_CONFLICT), subject, lessons - capacity,
+                        lessons + " lessons, but only " + capacity + " non-overlapping time slots a week are left for them");
+                largestShortfall = Math.max(largestShortfall, lessons - capacity);
+            }
+        }
+        if (oneLabPerDay && labLessons > labDays.size()) {
+            addIssue(Severity.VIOLATION, List.of(ONE_LAB_PER_BATCH_PER_DAY), subject, labLessons - labDays.size(),
+                    labLessons + " lab lessons, but lab slots on only " + labDays.size() + " days");
+            largestShortfall = Math.max(largestShortfall, labLessons - labDays.size());
+        }
+        if (batch != null && isHard(WEEKLY_LAB_SCHEDULING)) {
+            long reachableLabDays = Math.min(labLessons, labDays.size());
+            if (batch.getRequiredLabsPerWeek() > reachableLabDays) {
+                addIssue(Severity.VIOLATION, List.of(WEEKLY_LAB_SCHEDULING), subject,
+                        batch.getRequiredLabsPerWeek() - reachableLabDays,
+                        batch.getRequiredLabsPerWeek() + " lab days required, but its " + labLessons
+                                + " lab lessons can cover at most " + reachableLabDays);
+            }
+        }
+        if (singleCoursePerDay) {
+            for (Map.Entry<Course, Long> entry : courseLessons.entrySet()) {
+                int days = courseDays.get(entry.getKey()).size();
+                if (entry.getValue() > days) {
+                    addIssue(Severity.VIOLATION, List.of(SINGLE_COURSE_PER_DAY_FOR_BATCH),
+                            subject + ", course " + entry.getKey().getCourseCode(), entry.getValue() - days,
+                            entry.getValue() + " sessions a week, but slots on only " + days + " days");
+                    largestShortfall = Math.max(largestShortfall, entry.getValue() - days);
+                }
+            }
+        }
+
+        // The three day limits together: lessons -> (course, day) -> (lab, day) -> day
+        if (!batchConflict && !oneLabPerDay && !singleCoursePerDay) {
+            return;
+        }
+        MaxFlow flow = new MaxFlow();
+        Map<String, Integer> dayNodes = new HashMap<>();
+        dayCapacity.forEach((day, capacity) -> {
+            int node = flow.addNode();
+            dayNodes.put(day, node);
+            flow.addEdge(node, MaxFlow.SINK, capacity);
+        });
+        Map<String, Integer> labDayNodes = new HashMap<>();
+        Map<List<Object>, Integer> courseDayNodes = new HashMap<>();
+        for (LessonGroup group : groups) {
+            int groupNode = flow.addNode();
+            flow.addEdge(MaxFlow.SOURCE, groupNode, group.size);
+            Course course = group.lesson.getCourse();
+            boolean lab = oneLabPerDay && course != null && course.isLabCourse();
+            for (String day : group.days) {
+                int dayNode = lab ? labDayNodes.computeIfAbsent(day, ignored -> {
+                    int node = flow.addNode();
+                    flow.addEdge(node, dayNodes.get(day), 1);
+                    return node;
+                }) : dayNodes.get(day);
+                if (course == null) {
+                    flow.addEdge(groupNode, dayNode, UNBOUNDED);
+                    continue;
+                }
+                int courseDayNode = courseDayNodes.computeIfAbsent(Arrays.asList(course, day), ignored -> {
+                    int node = flow.addNode();
+                    flow.addEdge(node, dayNode, singleCoursePerDay ? 1 : UNBOUNDED);
+                    return node;
+                });
+                flow.addEdge(groupNode, courseDayNode, UNBOUNDED);
+            }
+        }
+        long shortfall = lessons - flow.maxFlow();
+        if (shortfall > largestShortfall) {
+            List<String> constraints = new ArrayList<>();
+            if (batchConflict) constraints.add(STUDENT_BATCH_CONFLICT);
+            if (oneLabPerDay) constraints.add(ONE_LAB_PER_BATCH_PER_DAY);
+            if (singleCoursePerDay) constraints.add(SINGLE_COURSE_PER_DAY_FOR_BATCH);
+            addIssue(Severity.VIOLATION, constraints, subject, shortfall,
+                    "the daily limits together leave room for only " + (lessons - shortfall) + " of its " + lessons
+                            + " lessons");
+        }
+    }
+
+    private void checkMinorDaySpread(List<LessonGroup> groups) {
+        if (!isHard(MINOR_COURSE_DAY_SPREAD)) {
+            return;
+        }
+        Map<Course, Long> lessons = new LinkedHashMap<>();
+        Map<Course, Set<String>> days = new LinkedHashMap<>();
+        for (LessonGroup group : groups) {
+            Course course = group.lesson.getCourse();
+            if (course != null && "MINOR".equals(group.lesson.getLessonType())) {
+                lessons.merge(course, (long) group.size, Long::sum);
+                days.computeIfAbsent(course, ignored -> new LinkedHashSet<>()).addAll(group.days);
+            }
+        }
+        lessons.forEach((course, count) -> {
+            int dayCount = days.get(course).size();
+            if (count > dayCount) {
+                addIssue(Severity.VIOLATION, List.of(MINOR_COURSE_DAY_SPREAD), "minor course " + course.getCourseCode(),
+                        count - dayCount, count + " sessions a week, but minor slots on only " + dayCount + " days");
+            }
+        });
+    }
+
+    /**
+     * Matches the lessons to their eligible faculty, each taking at most as many lessons as fit
+     * into the week without two of them coming closer than the minimum break. Lessons that find
+     * no faculty time break a faculty conflict. The same matching with the faculty's
+     * maxHoursPerDay, counted in lessons as the course hours are, gives a warning only: no
+     * constraint enforces that limit.
+     */
+    private void checkFaculty(List<LessonGroup> groups) {
+        List<LessonGroup> taught = groups.stream().filter(group -> !group.faculty.isEmpty()).collect(Collectors.toList());
+        if (taught.isEmpty()) {
+            return;
+        }
+        Map<Faculty, Set<Cell>> facultyCells = new LinkedHashMap<>();
+        for (LessonGroup group : taught) {
+            for (Faculty faculty : group.faculty) {
+                facultyCells.computeIfAbsent(faculty, ignored -> new HashSet<>()).addAll(group.cells);
+            }
+        }
+        boolean timeConflict = isHard(FACULTY_TIME_CONFLICT);
+        int padding = getBreakPadding(rules);
+        Map<Faculty, Long> timeCapacity = new LinkedHashMap<>();
+        facultyCells.forEach((faculty, cells) -> {
+            long capacity = 0;
+            for (Set<Cell> dayCells : cells.stream().collect(Collectors.groupingBy(cell -> cell.day, Collectors.toSet())).values()) {
+                capacity += maxNonOverlapping(dayCells, padding);
+            }
+            timeCapacity.put(faculty, timeConflict ? capacity : UNBOUNDED);
+        });
+
+        long timeShortfall = 0;
+        if (timeConflict) {
+            timeShortfall = matchFaculty(taught, timeCapacity, Severity.VIOLATION, List.of(FACULTY_TIME_CONFLICT),
+                    "non-overlapping lessons a week", 0);
+        }
+        int days = weekDays();
+        Map<Faculty, Long> hourCapacity = new LinkedHashMap<>();
+        boolean anyHourLimit = false;
+        for (Map.Entry<Faculty, Long> entry : timeCapacity.entrySet()) {
+            int maxHoursPerDay = entry.getKey().getMaxHoursPerDay();
+            anyHourLimit |= maxHoursPerDay > 0;
+            hourCapacity.put(entry.getKey(), maxHoursPerDay > 0
+                    ? Math.min(entry.getValue(), (long) maxHoursPerDay * days) : entry.getValue());
+        }
+        if (anyHourLimit) {
+            matchFaculty(taught, hourCapacity, Severity.WARNING, List.of(),
+                    "lessons a week within their maxHoursPerDay, which no constraint enforces", timeShortfall);
+        }
+    }
+
+    /**
+     * @return the lessons left without faculty capacity, reported if more than {@code reported}
+     */
+    private long matchFaculty(List<LessonGroup> groups, Map<Faculty, Long> capacity, Severity severity,
+                              List<String> constraints, String capacityDescription, long reported) {
+        MaxFlow flow = new MaxFlow();
+        Map<Faculty, Integer> facultyNodes = new LinkedHashMap<>();
+        capacity.forEach((faculty, limit) -> {
+            int node = flow.addNode();
+            facultyNodes.put(faculty, node);
+            flow.addEdge(node, MaxFlow.SINK, limit);
+        });
+        long lessons = 0;
+        Map<LessonGroup, Integer> groupNodes = new LinkedHashMap<>();
+        for (LessonGroup group : groups) {
+            int node = flow.addNode();
+            groupNodes.put(group, node);
+            flow.addEdge(MaxFlow.SOURCE, node, group.size);
+            for (Faculty faculty : group.faculty) {
+                flow.addEdge(node, facultyNodes.get(faculty), UNBOUNDED);
+            }
+            lessons += group.size;
+        }
+        long shortfall = lessons - flow.maxFlow();
+        if (shortfall <= reported) {
+            return shortfall;
+        }
+        // The faculty still reachable from the source are saturated, and the lessons reaching them
+        // have no other faculty to go to
+        boolean[] reachable = flow.reachableFromSource();
+        List<String> names = new ArrayList<>();
+        long bottleneckCapacity = 0;
+        for (Map.Entry<Faculty, Integer> entry : facultyNodes.entrySet()) {
+            if (reachable[entry.getValue()]) {
+                names.add(entry.getKey().getName());
+                bottleneckCapacity += capacity.get(entry.getKey());
+            }
+        }
+        long bottleneckLessons = 0;
+        for (Map.Entry<LessonGroup, Integer> entry : groupNodes.entrySet()) {
+            if (reachable[entry.getValue()]) {
+                bottleneckLessons += entry.getKey().size;
+            }
+        }
+        addIssue(severity, constraints, "faculty " + String.join(", ", names), shortfall,
+                bottleneckLessons + " lessons can only be taught by them, but they fit at most " + bottleneckCapacity
+                        + " " + capacityDescription);
+        return shortfall;
+    }
+
+    // ============================================================================
+    // Helpers
+    // ============================================================================
+
+    /**
+     * Most slots of one day that can be taken together when two of them need {@code minimumGap}
+     * minutes from the end of one to the start of the next, by earliest end first.
+     */
+    private static long maxNonOverlapping(Set<Cell> cells, int minimumGap) {
+        List<Cell> byEnd = new ArrayList<>(cells);
+        byEnd.sort(Comparator.comparingInt((Cell cell) -> cell.end).thenComparingInt(cell -> cell.start));
+        long count = 0;
+        long lastEnd = Integer.MIN_VALUE;
+        for (Cell cell : byEnd) {
+            if (cell.start >= lastEnd + minimumGap) {
+                count++;
+                lastEnd = cell.end;
+            }
+        }
+        return count;
+    }
+
+    private int weekDays() {
+        Set<String> days = new HashSet<>();
+        for (List<TimeSlot> slots : Arrays.asList(problem.getTimeSlotList(), problem.getMinorTimeSlotList())) {
+            for (TimeSlot slot : nonNull(slots)) {
+                days.add(slot.getDay());
+            }
+        }
+        return days.size();
+    }
+
+    private boolean isHard(String constraintName) {
+        return weights.getWeight(constraintName).hardScore() > 0;
+    }
+
+    private void addIssue(Severity severity, List<String> constraints, String subject, long shortfall, String message) {
+        issues.add(new Issue(severity, constraints, subject, shortfall, message));
+    }
+
+    private static String describe(Lesson lesson) {
+        StringBuilder text = new StringBuilder();
+        if (lesson.getStudentBatch() != null) {
+            text.append("batch ").append(lesson.getStudentBatch().getBatchName()).append(", ");
+        }
+        text.append("course ").append(lesson.getCourse() != null ? lesson.getCourse().getCourseCode() : "?");
+        if (lesson.getLessonType() != null) {
+            text.append(" (").append(lesson.getLessonType()).append(')');
+        }
+        return text.toString();
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+
+    // Lessons sharing their candidates, with what is left of them after the single-lesson constraints
+    private static final class LessonGroup {
+        private final Lesson lesson;
+        private int size;
+        private final Set<Cell> cells = new HashSet<>();
+        private final Set<String> days = new LinkedHashSet<>();
+        private final List<Faculty> faculty = new ArrayList<>();
+
+        private LessonGroup(Lesson lesson) {
+            this.lesson = lesson;
+        }
+    }
+
+    // A day and time span. Slots of different batches with the same times are the same cell
+    private static final class Cell {
+        private final String day;
+        private final int start;
+        private final int end;
+
+        private Cell(TimeSlot slot) {
+            this.day = slot.getDay();
+            this.start = slot.getStartMinute();
+            this.end = slot.getEndMinute();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Cell)) return false;
+            Cell other = (Cell) o;
+            return start == other.start && end == other.end && Objects.equals(day, other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, start, end);
+        }
+    }
+
+    // Dinic's maximum flow on a small network
+    private static final class MaxFlow {
+        private static final int SOURCE = 0;
+        private static final int SINK = 1;
+
+        private final List<List<int[]>> adjacency = new ArrayList<>(); // {to, edge index}
+        private final List<Long> capacities = new ArrayList<>(); // residual, edge i and its reverse i ^ 1
+        private final List<Integer> targets = new ArrayList<>();
+        private int[] levels;
+        private int[] next;
+
+        private MaxFlow() {
+            addNode();
+            addNode();
+        }
+
+        private int addNode() {
+            adjacency.add(new ArrayList<>());
+            return adjacency.size() - 1;
+        }
+
+        private void addEdge(int from, int to, long capacity) {
+            adjacency.get(from).add(new int[] {to, capacities.size()});
+            capacities.add(capacity);
+            targets.add(to);
+            adjacency.get(to).add(new int[] {from, capacities.size()});
+            capacities.add(0L);
+            targets.add(from);
+        }
+
+        private long maxFlow() {
+            long total = 0;
+            while (buildLevels()) {
+                next = new int[adjacency.size()];
+                long pushed;
+                while ((pushed = push(SOURCE, UNBOUNDED)) > 0) {
+                    total += pushed;
+                }
+            }
+            return total;
+        }
+
+        private boolean buildLevels() {
+            levels = new int[adjacency.size()];
+            Arrays.fill(levels, -1);
+            levels[SOURCE] = 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>(List.of(SOURCE));
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int[] edge : adjacency.get(node)) {
+                    if (capacities.get(edge[1]) > 0 && levels[edge[0]] < 0) {
+                        levels[edge[0]] = levels[node] + 1;
+                        queue.add(edge[0]);
+                    }
+                }
+            }
+            return levels[SINK] >= 0;
+        }
+
+        private long push(int node, long amount) {
+            if (node == SINK) {
+                return amount;
+            }
+            List<int[]> edges = adjacency.get(node);
+            for (; next[node] < edges.size(); next[node]++) {
+                int[] edge = edges.get(next[node]);
+                long residual = capacities.get(edge[1]);
+                if (residual <= 0 || levels[edge[0]] != levels[node] + 1) {
+                    continue;
+                }
+                long pushed = push(edge[0], Math.min(amount, residual));
+                if (pushed > 0) {
+                    capacities.set(edge[1], residual - pushed);
+                    capacities.set(edge[1] ^ 1, capacities.get(edge[1] ^ 1) + pushed);
+                    return pushed;
+                }
+            }
+            return 0;
+        }
+
+        // Source side of a minimum cut, once the flow is maximal
+        private boolean[] reachableFromSource() {
+            buildLevels();
+            boolean[] reachable = new boolean[adjacency.size()];
+            for (int i = 0; i < levels.length; i++) {
+                reachable[i] = levels[i] >= 0;
+            }
+            return reachable;
+        }
+    }
+
+    /**
+     * One capacity problem, with how many lessons it leaves without a place.
+     */
+    public static class Issue {
+        private final Severity severity;
+        private final List<String> constraints;
+        private final String subject;
+        private final long shortfall;
+        private final String message;
+
+        private Issue(Severity severity, List<String> constraints, String subject, long shortfall, String message) {
+            this.severity = severity;
+            this.constraints = constraints;
+            this.subject = subject;
+            this.shortfall = shortfall;
+            this.message = message;
+        }
+
+        public Severity getSeverity() { return severity; }
+        public List<String> getConstraints() { return constraints; }
+        public String getSubject() { return subject; }
+        public long getShortfall() { return shortfall; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return severity + " " + subject + ": " + message + (constraints.isEmpty() ? "" : " " + constraints);
+        }
+    }
+
+    public static class Report {
+        private final int lessonCount;
+        private final List<Issue> issues;
+        private final long analysisMillis;
+
+        private Report(int lessonCount, List<Issue> issues, long analysisMillis) {
+            this.lessonCount = lessonCount;
+            this.issues = Collections.unmodifiableList(new ArrayList<>(issues));
+            this.analysisMillis = analysisMillis;
+        }
+
+        /**
+         * @return false if some hard constraint is bound to be broken, true if none of the bounds
+         * rules a feasible timetable out
+         */
+        public boolean isFeasibilityPossible() {
+            return issues.stream().noneMatch(issue -> issue.severity == Severity.VIOLATION);
+        }
+
+        public int getLessonCount() { return lessonCount; }
+        public List<Issue> getIssues() { return issues; }
+        public long getAnalysisMillis() { return analysisMillis; }
+
+        @Override
+        public String toString() {
+            long violations = issues.stream().filter(issue -> issue.severity == Severity.VIOLATION).count();
+            StringBuilder text = new StringBuilder(lessonCount + " lessons, " + violations + " violations, "
+                    + (issues.size() - violations) + " warnings in " + analysisMillis + " ms");
+            for (Issue issue : issues) {
+                text.append(System.lineSeparator()).append("  ").append(issue);
+            }
+            return text.toString();
+        }
+    }
+}
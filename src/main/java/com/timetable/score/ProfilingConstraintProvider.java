@@ -0,0 +1,100 @@
+package com.timetable.score;
+
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wraps {@link TimeTableConstraintProvider} so a single constraint can be compiled in isolation.
+ * OptaPlanner instantiates constraint providers reflectively, so the selection is passed through a
+ * thread local that must be set on the thread that builds the solver factory.
+ */
+public class ProfilingConstraintProvider implements ConstraintProvider {
+
+    private static final String STREAM_PACKAGE = "org.optaplanner.core.api.score.stream";
+
+    // Name of the constraint to keep, or null to keep all of them
+    private static final ThreadLocal<String> SELECTED_CONSTRAINT = new ThreadLocal<>();
+    // Stream node count per constraint name, captured while the constraints are defined
+    private static final ThreadLocal<Map<String, Integer>> NODE_COUNTS = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    public static void select(String constraintName) {
+        SELECTED_CONSTRAINT.set(constraintName);
+    }
+
+    public static void clear() {
+        SELECTED_CONSTRAINT.remove();
+    }
+
+    /**
+     * Stream node counts recorded by the last {@code defineConstraints} call on this thread,
+     * in definition order.
+     */
+    public static Map<String, Integer> getNodeCounts() {
+        return new LinkedHashMap<>(NODE_COUNTS.get());
+    }
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory factory) {
+        Map<String, Integer> nodeCounts = NODE_COUNTS.get();
+        nodeCounts.clear();
+        ConstraintFactory countingFactory = (ConstraintFactory) wrap(factory, ConstraintFactory.class, 0, nodeCounts);
+        Constraint[] constraints = new TimeTableConstraintProvider().defineConstraints(countingFactory);
+
+        String selected = SELECTED_CONSTRAINT.get();
+        if (selected == null) {
+            return constraints;
+        }
+        return Arrays.stream(constraints)
+                .filter(constraint -> selected.equals(constraint.getConstraintName()))
+                .toArray(Constraint[]::new);
+    }
+
+    // Proxies every stream returned by the factory so the chain length of each constraint can be counted.
+    // Joins count twice because they also create the forEach node on their right-hand side.
+    private static Object wrap(Object target, Class<?> type, int depth, Map<String, Integer> nodeCounts) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Constraint) {
+                nodeCounts.put(((Constraint) result).getConstraintName(), depth);
+                return result;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (result == null || !returnType.isInterface() || !returnType.getName().startsWith(STREAM_PACKAGE)) {
+                return result;
+            }
+            int nodes = depth;
+            if (returnType.getSimpleName().endsWith("ConstraintStream")) {
+                nodes += nodeCost(method);
+            }
+            return wrap(result, returnType, nodes, nodeCounts);
+        });
+    }
+
+    private static int nodeCost(Method method) {
+        switch (method.getName()) {
+            case "forEachUniquePair":
+                return 3;
+            case "join":
+            case "ifExists":
+            case "ifNotExists":
+            case "ifExistsOther":
+            case "ifNotExistsOther":
+                return 2;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.timetable.score;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolutionUpdatePolicy;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Checks {@link TimeTableIncrementalScoreCalculator} against {@link TimeTableConstraintProvider}
+ * and measures both.
+ * Equivalence is checked two ways: both engines score the same random assignments from scratch,
+ * and a FULL_ASSERT solver run asserts the incremental score against the constraint streams after
+ * every move, which covers the retract and insert bookkeeping.
+ * The assignments of the given timetable are overwritten.
+ */
+public class ScoringEngineComparison {
+    private static final Logger logger = Logger.getLogger(ScoringEngineComparison.class.getName());
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final long RANDOM_SEED = 0L;
+    // Share of lessons left unassigned in a random round, to cover the uninitialized filter
+    private static final double UNASSIGNED_RATIO = 0.05;
+    private static final int FULL_ASSERT_CALCULATIONS = 2000;
+    private static final Duration TIME_GUARD = Duration.ofSeconds(30);
+
+    private final int rounds;
+    private final long incrementalCalculations;
+
+    public ScoringEngineComparison(int rounds, long incrementalCalculations) {
+        if (rounds <= 0 || incrementalCalculations <= 0) {
+            throw new IllegalArgumentException("Round and calculation counts must be positive");
+        }
+        this.rounds = rounds;
+        this.incrementalCalculations = incrementalCalculations;
+    }
+
+    public Result compare(TimeTable timetable) {
+        Result result = new Result();
+        Random random = new Random(RANDOM_SEED);
+
+        SolutionManager<TimeTable, HardSoftScore> streams =
+                SolutionManager.create(SolverFactory.create(solverConfig(constraintStreams(), new TerminationConfig())));
+        SolutionManager<TimeTable, HardSoftScore> incremental =
+                SolutionManager.create(SolverFactory.create(solverConfig(incremental(), new TerminationConfig())));
+
+        // Equivalence on random assignments, scored from scratch by both engines
+        for (int round = 0; round < rounds; round++) {
+            assignRandomly(timetable, random, round == 0 ? 0.0 : UNASSIGNED_RATIO);
+            HardSoftScore expected = streams.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            HardSoftScore actual = incremental.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            result.rounds++;
+            if (!expected.equals(actual)) {
+                result.mismatches.add("Round " + round + ": constraint streams " + expected + ", incremental " + actual);
+            }
+        }
+
+        // Equivalence of the incremental bookkeeping during local search
+        assignRandomly(timetable, random, 0.0);
+        try {
+            SolverConfig assertConfig = solverConfig(incremental()
+                            .withAssertionScoreDirectorFactory(constraintStreams()),
+                    new TerminationConfig()
+                            .withScoreCalculationCountLimit((long) FULL_ASSERT_CALCULATIONS)
+                            .withSpentLimit(TIME_GUARD))
+                    .withEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+            SolverFactory.<TimeTable>create(assertConfig).buildSolver().solve(timetable);
+        } catch (IllegalStateException e) {
+            result.assertionFailure = e.getMessage();
+        }
+
+        // Speed of each engine on the same assignment
+        assignRandomly(timetable, random, 0.0);
+        result.constraintStreamsNanosPerFullCalculation = timeFullCalculation(streams, timetable);
+        result.incrementalNanosPerFullCalculation = timeFullCalculation(incremental, timetable);
+        result.constraintStreamsNanosPerIncrementalCalculation = timeIncrementalCalculation(constraintStreams(), timetable);
+        result.incrementalNanosPerIncrementalCalculation = timeIncrementalCalculation(incremental(), timetable);
+
+        logger.info("Scoring engine comparison: " + result);
+        return result;
+    }
+
+    private long timeFullCalculation(SolutionManager<TimeTable, HardSoftScore> solutionManager, TimeTable timetable) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            solutionManager.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+        }
+        int iterations = Math.max(rounds, WARMUP_ITERATIONS);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            solutionManager.update(timetable, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    // Both engines see the same moves, since the solver runs are seeded identically
+    private long timeIncrementalCalculation(ScoreDirectorFactoryConfig scoreDirectorConfig, TimeTable timetable) {
+        Solver<TimeTable> solver = SolverFactory.<TimeTable>create(solverConfig(scoreDirectorConfig,
+                new TerminationConfig()
+                        .withScoreCalculationCountLimit(incrementalCalculations)
+                        .withSpentLimit(TIME_GUARD))).buildSolver();
+        long start = System.nanoTime();
+        solver.solve(timetable);
+        return (System.nanoTime() - start) / incrementalCalculations;
+    }
+
+    private static ScoreDirectorFactoryConfig constraintStreams() {
+        return new ScoreDirectorFactoryConfig().withConstraintProviderClass(TimeTableConstraintProvider.class);
+    }
+
+    private static ScoreDirectorFactoryConfig incremental() {
+        return new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(TimeTableIncrementalScoreCalculator.class);
+    }
+
+    private static SolverConfig solverConfig(ScoreDirectorFactoryConfig scoreDirectorConfig, TerminationConfig terminationConfig) {
+        return new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withScoreDirectorFactory(scoreDirectorConfig)
+                .withRandomSeed(RANDOM_SEED)
+                .withTerminationConfig(terminationConfig);
+    }
+
+    private static void assignRandomly(TimeTable timetable, Random random, double unassignedRatio) {
+        List<Room> rooms = timetable.getRoomList();
+        assignRandomly(timetable.getLessonList(), timetable.getTimeSlotList(), rooms, random, unassignedRatio);
+        assignRandomly(timetable.getMinorLessonList(), timetable.getMinorTimeSlotList(), rooms, random, unassignedRatio);
+    }
+
+    private static void assignRandomly(List<Lesson> lessons, List<TimeSlot> timeSlots, List<Room> rooms,
+                                       Random random, double unassignedRatio) {
+        if (lessons == null || timeSlots == null || timeSlots.isEmpty() || rooms == null || rooms.isEmpty()) {
+            return;
+        }
+        for (Lesson lesson : lessons) {
+            lesson.setTimeSlot(random.nextDouble() < unassignedRatio ? null : timeSlots.get(random.nextInt(timeSlots.size())));
+            lesson.setRoom(random.nextDouble() < unassignedRatio ? null : rooms.get(random.nextInt(rooms.size())));
+            List<Faculty> faculty = lesson.getFacultyList();
+            if (faculty != null && !faculty.isEmpty()) {
+                lesson.setFaculty(random.nextDouble() < unassignedRatio ? null : faculty.get(random.nextInt(faculty.size())));
+            }
+        }
+    }
+
+    /**
+     * Outcome of a comparison. The engines are equivalent when there are no mismatches and no
+     * assertion failure.
+     */
+    public static class Result {
+        private int rounds;
+        private final List<String> mismatches = new ArrayList<>();
+        private String assertionFailure;
+        private long constraintStreamsNanosPerFullCalculation;
+        private long incrementalNanosPerFullCalculation;
+        private long constraintStreamsNanosPerIncrementalCalculation;
+        private long incrementalNanosPerIncrementalCalculation;
+
+        public boolean isEquivalent() { return mismatches.isEmpty() && assertionFailure == null; }
+        public int getRounds() { return rounds; }
+        public List<String> getMismatches() { return mismatches; }
+        public String getAssertionFailure() { return assertionFailure; }
+        public long getConstraintStreamsNanosPerFullCalculation() { return constraintStreamsNanosPerFullCalculation; }
+        public long getIncrementalNanosPerFullCalculation() { return incrementalNanosPerFullCalculation; }
+        public long getConstraintStreamsNanosPerIncrementalCalculation() { return constraintStreamsNanosPerIncrementalCalculation; }
+        public long getIncrementalNanosPerIncrementalCalculation() { return incrementalNanosPerIncrementalCalculation; }
+
+        @Override
+        public String toString() {
+            return String.format("equivalent=%s rounds=%d mismatches=%d%s%n"
+                            + "  full calculation:        constraint streams=%,10d ns  incremental=%,10d ns%n"
+                            + "  incremental calculation: constraint streams=%,10d ns  incremental=%,10d ns",
+                    isEquivalent(), rounds, mismatches.size(),
+                    assertionFailure != null ? " assertionFailure=" + assertionFailure : "",
+                    constraintStreamsNanosPerFullCalculation, incrementalNanosPerFullCalculation,
+                    constraintStreamsNanosPerIncrementalCalculation, incrementalNanosPerIncrementalCalculation);
+        }
+    }
+}
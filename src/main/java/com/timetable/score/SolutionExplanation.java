@@ -0,0 +1,251 @@
+package com.timetable.score;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.ScoreExplanation;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatch;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.score.constraint.Indictment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Why a solution has its score: the match total of every constraint, and the lessons, rooms and
+ * faculty members those matches blame. Built once from a {@link ScoreExplanation} and kept as
+ * plain rows, so the solution clone and the individual matches behind it can be collected and
+ * every page is read without scoring again. Rows are sorted worst first.
+ */
+public class SolutionExplanation {
+    // Rough heap cost of a row with its strings and per-constraint counts
+    private static final long BYTES_PER_ROW = 512;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public enum IndictedType {
+        LESSON("lessons"),
+        ROOM("rooms"),
+        FACULTY("faculty");
+
+        private final String path;
+
+        IndictedType(String path) {
+            this.path = path;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no type goes by the name
+         */
+        public static IndictedType fromPath(String path) {
+            for (IndictedType type : values()) {
+                if (type.path.equalsIgnoreCase(path) || type.name().equalsIgnoreCase(path)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown indicted type: " + path + ", expected lessons, rooms or faculty");
+        }
+    }
+
+    private final long solutionVersion;
+    private final String score;
+    private final long explainMillis;
+    private final List<ConstraintTotal> constraints;
+    private final Map<IndictedType, List<IndictmentRow>> indictments;
+
+    private SolutionExplanation(long solutionVersion, String score, long explainMillis, List<ConstraintTotal> constraints,
+                                Map<IndictedType, List<IndictmentRow>> indictments) {
+        this.solutionVersion = solutionVersion;
+        this.score = score;
+        this.explainMillis = explainMillis;
+        this.constraints = constraints;
+        this.indictments = indictments;
+    }
+
+    /**
+     * Copies what the explanation says about the solution with the given version.
+     */
+    public static SolutionExplanation of(ScoreExplanation<TimeTable, HardSoftScore> explanation, long solutionVersion,
+                                         long explainMillis) {
+        List<ConstraintTotal> constraints = explanation.getConstraintMatchTotalMap().values().stream()
+                .filter(total -> total.getConstraintMatchCount() > 0)
+                .sorted(Comparator.comparing(ConstraintMatchTotal::getScore))
+                .map(ConstraintTotal::new)
+                .collect(Collectors.toList());
+
+        Map<IndictedType, List<Indictment<HardSoftScore>>> indicted = new EnumMap<>(IndictedType.class);
+        for (IndictedType type : IndictedType.values()) {
+            indicted.put(type, new ArrayList<>());
+        }
+        for (Map.Entry<Object, Indictment<HardSoftScore>> entry : explanation.getIndictmentMap().entrySet()) {
+            IndictedType type = typeOf(entry.getKey());
+            if (type != null) {
+                indicted.get(type).add(entry.getValue());
+            }
+        }
+        Map<IndictedType, List<IndictmentRow>> indictments = new EnumMap<>(IndictedType.class);
+        indicted.forEach((type, list) -> indictments.put(type, list.stream()
+                .sorted(Comparator.comparing(Indictment::getScore))
+                .map(indictment -> new IndictmentRow(indictment.getIndictedObject(), indictment))
+                .collect(Collectors.toList())));
+
+        return new SolutionExplanation(solutionVersion, String.valueOf(explanation.getScore()), explainMillis,
+                constraints, indictments);
+    }
+
+    /**
+     * A page of the constraint totals, of the constraints that break a hard rule only with {@code hardOnly}.
+     *
+     * @throws IllegalArgumentException if the page or its size is out of range
+     */
+    public Page<ConstraintTotal> constraints(int page, int size, boolean hardOnly) {
+        return Page.of(constraints, page, size, total -> !hardOnly || total.hardScore < 0);
+    }
+
+    /**
+     * A page of the lessons, rooms or faculty members the constraint matches blame, of those
+     * breaking a hard rule only with {@code hardOnly}.
+     *
+     * @throws IllegalArgumentException if the page or its size is out of range
+     */
+    public Page<IndictmentRow> indictments(IndictedType type, int page, int size, boolean hardOnly) {
+        return Page.of(indictments.get(type), page, size, row -> !hardOnly || row.hardScore < 0);
+    }
+
+    public long getSolutionVersion() { return solutionVersion; }
+    public String getScore() { return score; }
+    public long getExplainMillis() { return explainMillis; }
+
+    public long estimatedBytes() {
+        return (constraints.size() + indictments.values().stream().mapToLong(List::size).sum()) * BYTES_PER_ROW;
+    }
+
+    private static IndictedType typeOf(Object indictedObject) {
+        if (indictedObject instanceof Lesson) return IndictedType.LESSON;
+        if (indictedObject instanceof Room) return IndictedType.ROOM;
+        if (indictedObject instanceof Faculty) return IndictedType.FACULTY;
+        return null;
+    }
+
+    private static String label(Object indictedObject) {
+        if (indictedObject instanceof Lesson) {
+            Lesson lesson = (Lesson) indictedObject;
+            StringBuilder label = new StringBuilder();
+            label.append(lesson.getCourse() != null ? lesson.getCourse().getCourseCode() : "?");
+            label.append(' ').append(lesson.getLessonType());
+            if (lesson.getStudentBatch() != null) {
+                label.append(' ').append(lesson.getStudentBatch().getBatchName());
+            }
+            if (lesson.getTimeSlot() != null) {
+                label.append(' ').append(lesson.getTimeSlot().getDay()).append(' ').append(lesson.getTimeSlot().getStartTime());
+            }
+            return label.toString();
+        }
+        if (indictedObject instanceof Room) return ((Room) indictedObject).getRoomNumber();
+        if (indictedObject instanceof Faculty) return ((Faculty) indictedObject).getName();
+        return String.valueOf(indictedObject);
+    }
+
+    private static Long idOf(Object indictedObject) {
+        if (indictedObject instanceof Lesson) return ((Lesson) indictedObject).getId();
+        if (indictedObject instanceof Room) return ((Room) indictedObject).getId();
+        if (indictedObject instanceof Faculty) return ((Faculty) indictedObject).getId();
+        return null;
+    }
+
+    public static class ConstraintTotal {
+        private final String constraintName;
+        private final String constraintWeight;
+        private final int matchCount;
+        private final String score;
+        private final int hardScore;
+        private final int softScore;
+
+        private ConstraintTotal(ConstraintMatchTotal<HardSoftScore> total) {
+            this.constraintName = total.getConstraintName();
+            this.constraintWeight = String.valueOf(total.getConstraintWeight());
+            this.matchCount = total.getConstraintMatchCount();
+            this.score = total.getScore().toString();
+            this.hardScore = total.getScore().hardScore();
+            this.softScore = total.getScore().softScore();
+        }
+
+        public String getConstraintName() { return constraintName; }
+        public String getConstraintWeight() { return constraintWeight; }
+        public int getMatchCount() { return matchCount; }
+        public String getScore() { return score; }
+        public int getHardScore() { return hardScore; }
+        public int getSoftScore() { return softScore; }
+    }
+
+    public static class IndictmentRow {
+        private final Long id;
+        private final String label;
+        private final int matchCount;
+        private final String score;
+        private final int hardScore;
+        private final int softScore;
+        private final Map<String, Integer> matchCountByConstraint = new TreeMap<>();
+
+        private IndictmentRow(Object indictedObject, Indictment<HardSoftScore> indictment) {
+            this.id = idOf(indictedObject);
+            this.label = label(indictedObject);
+            this.matchCount = indictment.getConstraintMatchCount();
+            this.score = indictment.getScore().toString();
+            this.hardScore = indictment.getScore().hardScore();
+            this.softScore = indictment.getScore().softScore();
+            for (ConstraintMatch<HardSoftScore> match : indictment.getConstraintMatchSet()) {
+                matchCountByConstraint.merge(match.getConstraintName(), 1, Integer::sum);
+            }
+        }
+
+        public Long getId() { return id; }
+        public String getLabel() { return label; }
+        public int getMatchCount() { return matchCount; }
+        public String getScore() { return score; }
+        public int getHardScore() { return hardScore; }
+        public int getSoftScore() { return softScore; }
+        public Map<String, Integer> getMatchCountByConstraint() { return Collections.unmodifiableMap(matchCountByConstraint); }
+    }
+
+    public static class Page<T> {
+        private final List<T> items;
+        private final int page;
+        private final int size;
+        private final int totalItems;
+
+        private Page(List<T> items, int page, int size, int totalItems) {
+            this.items = items;
+            this.page = page;
+            this.size = size;
+            this.totalItems = totalItems;
+        }
+
+        private static <T> Page<T> of(List<T> rows, int page, int size, Predicate<T> filter) {
+            if (page < 0) {
+                throw new IllegalArgumentException("Page must not be negative, got " + page);
+            }
+            if (size < 1 || size > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+            }
+            List<T> matching = rows.stream().filter(filter).collect(Collectors.toList());
+            int from = (int) Math.min((long) page * size, matching.size());
+            int to = Math.min(from + size, matching.size());
+            return new Page<>(new ArrayList<>(matching.subList(from, to)), page, size, matching.size());
+        }
+
+        public List<T> getItems() { return items; }
+        public int getPage() { return page; }
+        public int getSize() { return size; }
+        public int getTotalItems() { return totalItems; }
+        public int getTotalPages() { return (totalItems + size - 1) / size; }
+    }
+}
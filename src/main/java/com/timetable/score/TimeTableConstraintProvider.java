@@ -2,32 +2,20 @@
 package com.timetable.score;
 
 import com.timetable.domain.*;
-import com.timetable.util.ConstraintConfigurationHolder;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.score.stream.*;
+import org.optaplanner.core.api.score.stream.bi.BiConstraintStream;
 
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 
+import static com.timetable.score.TimetableRules.*;
+
 public class TimeTableConstraintProvider implements ConstraintProvider {
-    // Constants
-    private static final int MIN_CLASSES_PER_BATCH = 20;
-    private static final int MAX_CLASSES_PER_BATCH = 25;
-    private static final int TARGET_FACULTY_LESSONS = 15;
-    private static final int DEFAULT_TARGET_DAILY_LESSONS = 4;
-    private static final int DEFAULT_ALLOWED_VARIANCE = 1;
-    private static final int DEFAULT_MAX_GAP_MINUTES = 60;
-    private static final int DEFAULT_MAX_TEACHER_GAP_MINUTES = 90;
-    
-    // Penalty weights for optimal constraint prioritization - INCREASED for zero conflicts
-    private static final int CRITICAL_CONFLICT_PENALTY = 10000;  // Absolute conflicts - must never happen
-    private static final int HIGH_PRIORITY_PENALTY = 1000;       // Important constraints
-    private static final int MEDIUM_PRIORITY_PENALTY = 100;      // Structural constraints
-    private static final int LOW_PRIORITY_PENALTY = 10;          // Assignment constraints
-    private static final int SOFT_HIGH_PRIORITY = 50;            // Important soft constraints
-    private static final int SOFT_MEDIUM_PRIORITY = 20;          // Medium soft constraints
-    private static final int SOFT_LOW_PRIORITY = 5;              // Low soft constraints
+    // Penalty weights live in TimetableConstraintConfiguration, so they can be tuned per solve.
+    // Time slot rules and the conflict scoring mode come from the timetable's SchedulingRules
+    // fact, so nothing here depends on state outside the solution being scored.
 
     @Override
     public Constraint[] defineConstraints(ConstraintFactory factory) {
@@ -110,6 +98,17 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         };
     }
 
+    /**
+     * Lessons paired with the scheduling rules, for the exact-slot conflict checks that the
+     * interval-based faculty and batch conflicts already cover. Deduplicated scoring penalizes each
+     * physical clash once, so under it the rules are filtered out and no lesson reaches the join.
+     */
+    private BiConstraintStream<SchedulingRules, Lesson> lessonsForDuplicateConflicts(ConstraintFactory factory) {
+        return factory.forEach(SchedulingRules.class)
+                .filter(rules -> !rules.isDeduplicatedConflictScoring())
+                .join(Lesson.class);
+    }
+
     // ============================================================================
     // CRITICAL HARD CONSTRAINTS - These must NEVER be violated
     // ============================================================================
@@ -123,34 +122,40 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         Joiners.equal(Lesson::getRoom),
                         Joiners.equal(Lesson::getTimeSlot))
                 .filter((lesson1, lesson2) -> lesson1.getRoom() != null && lesson1.getTimeSlot() != null)
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Room conflict");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.ROOM_CONFLICT);
     }
 
     /**
      * Teacher conflict: No teacher can teach two classes simultaneously
+     * Faculty is a planning variable, so both joiners are indexed on variables and a faculty change
+     * only revisits the pairs of the old and new teacher. Uninitialized lessons never reach the
+     * join, so no null filter is needed.
      * Weight: CRITICAL (10000) - Physical impossibility
      */
-    private Constraint teacherConflict(ConstraintFactory factory) {
-        return factory.forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getFaculty),
-                        Joiners.equal(Lesson::getTimeSlot))
-                .filter((lesson1, lesson2) -> lesson1.getFaculty() != null && lesson1.getTimeSlot() != null)
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Teacher conflict");
+    Constraint teacherConflict(ConstraintFactory factory) {
+        return lessonsForDuplicateConflicts(factory)
+                .join(Lesson.class,
+                        Joiners.equal((rules, lesson) -> lesson.getFaculty(), Lesson::getFaculty),
+                        Joiners.equal((rules, lesson) -> lesson.getTimeSlot(), Lesson::getTimeSlot),
+                        Joiners.lessThan((rules, lesson) -> lesson.getId(), Lesson::getId))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.TEACHER_CONFLICT);
     }
 
     /**
      * Student group conflict: Students in the same batch cannot attend two classes simultaneously
      * Weight: CRITICAL (10000) - Physical impossibility
      */
-    private Constraint studentGroupConflict(ConstraintFactory factory) {
-        return factory.forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getStudentBatch),
-                        Joiners.equal(Lesson::getTimeSlot))
-                .filter((lesson1, lesson2) -> lesson1.getStudentBatch() != null && lesson1.getTimeSlot() != null)
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Student group conflict");
+    Constraint studentGroupConflict(ConstraintFactory factory) {
+        return lessonsForDuplicateConflicts(factory)
+                .join(Lesson.class,
+                        Joiners.equal((rules, lesson) -> lesson.getStudentBatch(), Lesson::getStudentBatch),
+                        Joiners.equal((rules, lesson) -> lesson.getTimeSlot(), Lesson::getTimeSlot),
+                        Joiners.lessThan((rules, lesson) -> lesson.getId(), Lesson::getId))
+                .filter((rules, lesson1, lesson2) -> lesson1.getStudentBatch() != null && lesson1.getTimeSlot() != null)
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.STUDENT_GROUP_CONFLICT);
     }
 
     /**
@@ -160,13 +165,13 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
     private Constraint ensureLessonAssignments(ConstraintFactory factory) {
         return factory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() == null || lesson.getRoom() == null)
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY), lesson -> {
+                .penalizeConfigurable(lesson -> {
                     int missing = 0;
                     if (lesson.getTimeSlot() == null) missing++;
                     if (lesson.getRoom() == null) missing++;
                     return missing;
                 })
-                .asConstraint("Ensure lesson assignments");
+                .asConstraint(TimetableConstraintConfiguration.ENSURE_LESSON_ASSIGNMENTS);
     }
 
     // ============================================================================
@@ -182,9 +187,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getStudentBatch() != null &&
                         lesson.getRoom() != null &&
                         lesson.getStudentBatch().getStrength() > lesson.getRoom().getCapacity())
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY),
-                        lesson -> lesson.getStudentBatch().getStrength() - lesson.getRoom().getCapacity())
-                .asConstraint("Room capacity");
+                .penalizeConfigurable(lesson -> lesson.getStudentBatch().getStrength() - lesson.getRoom().getCapacity())
+                .asConstraint(TimetableConstraintConfiguration.ROOM_CAPACITY);
     }
 
     /**
@@ -196,8 +200,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getFaculty() != null &&
                         lesson.getCourse() != null &&
                         !lesson.getCourse().getEligibleFaculty().contains(lesson.getFaculty()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Teacher qualification");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.TEACHER_QUALIFICATION);
     }
 
 
@@ -218,9 +222,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .groupBy(Lesson::getStudentBatch,
                         ConstraintCollectors.countDistinct(lesson -> lesson.getTimeSlot().getDay()))
                 .filter((batch, distinctDays) -> batch.getRequiredLabsPerWeek() > distinctDays)
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY),
-                        (batch, distinctDays) -> batch.getRequiredLabsPerWeek() - distinctDays)
-                .asConstraint("Weekly lab scheduling");
+                .penalizeConfigurable((batch, distinctDays) -> batch.getRequiredLabsPerWeek() - distinctDays)
+                .asConstraint(TimetableConstraintConfiguration.WEEKLY_LAB_SCHEDULING);
     }
 
     /**
@@ -233,8 +236,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson.getRoom() != null &&
                         lesson.getCourse().isLabCourse() &&
                         !isLabRoom(lesson.getRoom()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Lab room assignment");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LAB_ROOM_ASSIGNMENT);
     }
 
     /**
@@ -250,9 +253,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson -> lesson.getTimeSlot().getDay(),
                         ConstraintCollectors.count())
                 .filter((batch, day, count) -> count > 1)
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY),
-                        (batch, day, count) -> (count - 1) * 2)  // Escalating penalty
-                .asConstraint("Only one lab per batch per day");
+                .penalizeConfigurable((batch, day, count) -> (count - 1) * 2)  // Escalating penalty
+                .asConstraint(TimetableConstraintConfiguration.ONE_LAB_PER_BATCH_PER_DAY);
     }
 
     /**
@@ -265,8 +267,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson.getRoom() != null &&
                         !lesson.getCourse().isLabCourse() &&
                         isLabRoom(lesson.getRoom()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Only lab courses in lab rooms");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.ONLY_LAB_COURSES_IN_LAB_ROOMS);
     }
 
     /**
@@ -279,8 +281,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson.getRoom() != null &&
                         !lesson.getCourse().isLabCourse() &&
                         isLabRoom(lesson.getRoom()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Lecture in regular rooms");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LECTURE_IN_REGULAR_ROOMS);
     }
 
     /**
@@ -291,19 +293,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return factory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getRoom() != null && lesson.getStudentBatch() != null)
                 .filter(lesson -> !isRoomAllowedForBatch(lesson.getRoom(), lesson.getStudentBatch()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(MEDIUM_PRIORITY_PENALTY))
-                .asConstraint("Predefined room assignment");
-    }
-
-    private boolean isRoomAllowedForBatch(Room room, StudentBatch batch) {
-                if (room == null || batch == null) return true;
-
-        if (room.isLectureRoom()) {
-            return batch.getLectureRoomIDs().contains(room.getId());
-        } else if (room.isLabRoom()) {
-            return batch.getPracticalRoomIDs().contains(room.getId());
-        }
-        return false;
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.PREDEFINED_ROOM_ASSIGNMENT);
     }
 
     /**
@@ -313,28 +304,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
     private Constraint noClassesDuringLunchHour(ConstraintFactory factory) {
         return factory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null && lesson.getStudentBatch() != null)
-                .filter(lesson -> isLunchHourForYear(lesson))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("No classes during lunch hour per year group");
-    }
-
-    private boolean isLunchHourForYear(Lesson lesson) {
-        if (lesson.getStudentBatch() == null) return false;
-
-        int year = lesson.getStudentBatch().getYear();
-        LocalTime startTime = lesson.getTimeSlot().getStartTime();
-
-        // Use configuration holder to check lunch hours dynamically
-        // This replaces hardcoded lunch time checks with dynamic configuration
-        return ConstraintConfigurationHolder.getInstance()
-                .isLunchHourForYear(year, startTime);
-    }
-
-    private Integer  extractYearFromBatch(StudentBatch batch) {
-        if (batch == null) {
-            return null;
-        }
-        return batch.getYear();
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> isLunchHourForYear(lesson, rules))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.NO_CLASSES_DURING_LUNCH);
     }
 
     /**
@@ -351,9 +324,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson -> lesson.getCourse(),
                         ConstraintCollectors.count())
                 .filter((batch, day, course, count) -> count > 1)
-                .penalize(HardSoftScore.ONE_HARD.multiply(MEDIUM_PRIORITY_PENALTY),
-                        (batch, day, course, count) -> (count - 1) * 2)  // Escalating penalty
-                .asConstraint("Single course per day for batch");
+                .penalizeConfigurable((batch, day, course, count) -> (count - 1) * 2)  // Escalating penalty
+                .asConstraint(TimetableConstraintConfiguration.SINGLE_COURSE_PER_DAY_FOR_BATCH);
     }
 
     /**
@@ -365,25 +337,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getTimeSlot() != null && 
                         lesson.getStudentBatch() != null &&
                         "LAB".equals(lesson.getLessonType()))
-                .filter(lesson -> !isLabInCorrectTimeSlot(lesson))
-                .penalize("Lab classes must be scheduled in designated time slots per batch",
-                        HardSoftScore.ONE_HARD.multiply(MEDIUM_PRIORITY_PENALTY));
-    }
-
-    private boolean isLabInCorrectTimeSlot(Lesson lesson) {
-        TimeSlot timeSlot = lesson.getTimeSlot();
-        if (timeSlot == null) return false;
-
-        Integer batchYear = extractYearFromBatch(lesson.getStudentBatch());
-        if (batchYear == null) return false;
-        
-        LocalTime startTime = timeSlot.getStartTime();
-        LocalTime endTime = timeSlot.getEndTime();
-
-        // Use configuration holder to check if lab time slot is valid for batch
-        // This replaces hardcoded time slot checks with dynamic configuration
-        return ConstraintConfigurationHolder.getInstance()
-                .isLabTimeSlotValidForBatch(batchYear, startTime, endTime);
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> !isLabInCorrectTimeSlot(lesson, rules))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LAB_TIME_SLOT);
     }
 
     /**
@@ -402,11 +359,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         ConstraintCollectors.count()
                 )
                 .filter((teacher, batch, day, classCount) -> classCount > 2)
-                .penalize(
-                        HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY),
+                .penalizeConfigurable(
                         (teacher, batch, day, classCount) -> (classCount - 2) * 2  // Escalating penalty
                 )
-                .asConstraint("Max two classes per day for a teacher per batch");
+                .asConstraint(TimetableConstraintConfiguration.TEACHER_MAX_TWO_CLASSES_PER_DAY);
     }
 
     // ============================================================================
@@ -421,10 +377,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
         return factory.forEachUniquePair(Lesson.class,
                         Joiners.equal(Lesson::getFaculty),
                         Joiners.equal(lesson -> lesson.getTimeSlot() != null ? lesson.getTimeSlot().getDay() : null))
-                .filter(this::validateTeacherGaps)
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_MEDIUM_PRIORITY),
-                        (lesson1, lesson2) -> calculateTimeGap(lesson1, lesson2) / 10)  // Scale down the penalty
-                .asConstraint("Limit teacher idle gaps");
+                .join(SchedulingRules.class)
+                .filter(TimetableRules::validateTeacherGaps)
+                .penalizeConfigurable((lesson1, lesson2, rules) -> calculateTimeGap(lesson1, lesson2) / 10)  // Scale down the penalty
+                .asConstraint(TimetableConstraintConfiguration.TEACHER_IDLE_GAPS);
     }
 
 
@@ -441,9 +397,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getStudentBatch() != null)
                 .groupBy(Lesson::getStudentBatch, ConstraintCollectors.count())
                 .filter((batch, count) -> count < MIN_CLASSES_PER_BATCH || count > MAX_CLASSES_PER_BATCH)
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_HIGH_PRIORITY),
-                        (batch, count) -> Math.abs(count - ((MIN_CLASSES_PER_BATCH + MAX_CLASSES_PER_BATCH) / 2)))
-                .asConstraint("Balance batch load");
+                .penalizeConfigurable((batch, count) -> Math.abs(count - ((MIN_CLASSES_PER_BATCH + MAX_CLASSES_PER_BATCH) / 2)))
+                .asConstraint(TimetableConstraintConfiguration.BALANCE_BATCH_LOAD);
     }
 
     /**
@@ -455,9 +410,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getFaculty() != null)
                 .groupBy(Lesson::getFaculty, ConstraintCollectors.count())
                 .filter((faculty, count) -> Math.abs(count - TARGET_FACULTY_LESSONS) > 2)
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_HIGH_PRIORITY),
-                        (faculty, count) -> Math.abs(count - TARGET_FACULTY_LESSONS))
-                .asConstraint("Balance faculty load");
+                .penalizeConfigurable((faculty, count) -> Math.abs(count - TARGET_FACULTY_LESSONS))
+                .asConstraint(TimetableConstraintConfiguration.BALANCE_FACULTY_LOAD);
     }
 
     /**
@@ -472,9 +426,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         room != null &&
                         (count > room.getIdealDailyUsage() ||
                                 count < Math.max(1, room.getIdealDailyUsage() - 1)))
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY),
-                        (room, count) -> Math.abs(count - room.getIdealDailyUsage()))
-                .asConstraint("Balance room load");
+                .penalizeConfigurable((room, count) -> Math.abs(count - room.getIdealDailyUsage()))
+                .asConstraint(TimetableConstraintConfiguration.BALANCE_ROOM_LOAD);
     }
 
 //    // Preference and Convenience Soft Constraints
@@ -514,22 +467,21 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
      * Weight: SOFT_MEDIUM (20) - Student convenience
      */
     private Constraint minimizeGapsInSchedule(ConstraintFactory factory) {
-        ConstraintConfigurationHolder holder = ConstraintConfigurationHolder.getInstance();
         return factory.forEachUniquePair(Lesson.class,
                         Joiners.equal(Lesson::getStudentBatch),
                         Joiners.equal(lesson -> lesson.getTimeSlot() != null ? lesson.getTimeSlot().getDay() : null))
                 .filter((lesson1, lesson2) -> 
                         lesson1.getTimeSlot() != null && lesson2.getTimeSlot() != null)
-                .filter((lesson1, lesson2) ->
+                .join(SchedulingRules.class)
+                .filter((lesson1, lesson2, rules) ->
                         ChronoUnit.MINUTES.between(
                                 lesson1.getTimeSlot().getEndTime(),
                                 lesson2.getTimeSlot().getStartTime()) >
-                                Math.max(holder.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_MEDIUM_PRIORITY),
-                        (lesson1, lesson2) -> (int) ChronoUnit.MINUTES.between(
+                                Math.max(rules.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
+                .penalizeConfigurable((lesson1, lesson2, rules) -> (int) ChronoUnit.MINUTES.between(
                                 lesson1.getTimeSlot().getEndTime(),
                                 lesson2.getTimeSlot().getStartTime()) / 15)  // Scale penalty
-                .asConstraint("Minimize gaps in schedule");
+                .asConstraint(TimetableConstraintConfiguration.MINIMIZE_GAPS_IN_SCHEDULE);
     }
 
     /**
@@ -542,9 +494,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         Joiners.equal(lesson -> lesson.getTimeSlot() != null ? lesson.getTimeSlot().getDay() : null))
                 .filter((lesson1, lesson2) -> 
                         lesson1.getTimeSlot() != null && lesson2.getTimeSlot() != null)
-                .filter((lesson1, lesson2) -> isConsecutive(lesson1, lesson2))
-                .reward(HardSoftScore.ONE_SOFT.multiply(SOFT_MEDIUM_PRIORITY))
-                .asConstraint("Prefer contiguous lessons");
+                .join(SchedulingRules.class)
+                .filter(TimetableRules::isConsecutive)
+                .rewardConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.PREFER_CONTIGUOUS_LESSONS);
     }
 
     // ============================================================================
@@ -564,10 +517,11 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson2.getRoom() != null &&
                         lesson1.getTimeSlot() != null && 
                         lesson2.getTimeSlot() != null)
-                .filter((lesson1, lesson2) -> isConsecutive(lesson1, lesson2))
                 .filter((lesson1, lesson2) -> !lesson1.getRoom().equals(lesson2.getRoom()))
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY))
-                .asConstraint("Room stability");
+                .join(SchedulingRules.class)
+                .filter(TimetableRules::isConsecutive)
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.ROOM_STABILITY);
     }
 
     /**
@@ -575,7 +529,6 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
      * Weight: SOFT_LOW (5) - Convenience
      */
     private Constraint minimizeRoomChanges(ConstraintFactory factory) {
-        ConstraintConfigurationHolder holder = ConstraintConfigurationHolder.getInstance();
         return factory.forEachUniquePair(Lesson.class,
                         Joiners.equal(Lesson::getStudentBatch),
                         Joiners.equal(lesson -> lesson.getTimeSlot() != null ? lesson.getTimeSlot().getDay() : null))
@@ -584,14 +537,15 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson2.getRoom() != null &&
                         lesson1.getTimeSlot() != null && 
                         lesson2.getTimeSlot() != null)
-                .filter((lesson1, lesson2) ->
+                .filter((lesson1, lesson2) -> !lesson1.getRoom().equals(lesson2.getRoom()))
+                .join(SchedulingRules.class)
+                .filter((lesson1, lesson2, rules) ->
                         Math.abs(ChronoUnit.MINUTES.between(
                                 lesson1.getTimeSlot().getEndTime(),
                                 lesson2.getTimeSlot().getStartTime())) <=
-                                Math.max(holder.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
-                .filter((lesson1, lesson2) -> !lesson1.getRoom().equals(lesson2.getRoom()))
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY))
-                .asConstraint("Minimize room changes");
+                                Math.max(rules.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINIMIZE_ROOM_CHANGES);
     }
 
     /**
@@ -599,17 +553,16 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
      * Weight: SOFT_LOW (5) - Minor preference
      */
     private Constraint preferredStartTime(ConstraintFactory factory) {
-        ConstraintConfigurationHolder holder = ConstraintConfigurationHolder.getInstance();
         return factory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getTimeSlot() != null)
-                .filter(lesson -> {
-                    LocalTime preferred = holder.getPreferredStartTime();
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> {
+                    LocalTime preferred = rules.getPreferredStartTime();
                     LocalTime startTime = lesson.getTimeSlot().getStartTime();
                     return preferred != null && startTime != null && !startTime.equals(preferred);
                 })
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY),
-                        lesson -> {
-                            LocalTime preferred = holder.getPreferredStartTime();
+                .penalizeConfigurable((lesson, rules) -> {
+                            LocalTime preferred = rules.getPreferredStartTime();
                             LocalTime startTime = lesson.getTimeSlot().getStartTime();
                             if (preferred == null || startTime == null) {
                                 return 0;
@@ -618,7 +571,7 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                                     preferred,
                                     startTime)) / 30;  // Scale penalty
                         })
-                .asConstraint("Preferred start time");
+                .asConstraint(TimetableConstraintConfiguration.PREFERRED_START_TIME);
     }
 
     /**
@@ -626,20 +579,23 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
      * Weight: SOFT_HIGH (50) - Important for student wellbeing
      */
     private Constraint balanceDailyBatchLoad(ConstraintFactory factory) {
-        ConstraintConfigurationHolder holder = ConstraintConfigurationHolder.getInstance();
-        final int configuredTarget = holder.getTargetDailyLessonsPerBatch();
-        final int configuredVariance = holder.getAllowedDailyLessonsVariance();
-        final int target = Math.max(configuredTarget, DEFAULT_TARGET_DAILY_LESSONS);
-        final int variance = Math.max(configuredVariance, DEFAULT_ALLOWED_VARIANCE);
         return factory.forEach(Lesson.class)
                 .filter(lesson -> lesson.getStudentBatch() != null && lesson.getTimeSlot() != null)
                 .groupBy(Lesson::getStudentBatch,
                         lesson -> lesson.getTimeSlot().getDay(),
                         ConstraintCollectors.count())
-                .filter((batch, day, count) -> Math.abs(count - target) > variance)
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_HIGH_PRIORITY),
-                        (batch, day, count) -> Math.abs(count - target))
-                .asConstraint("Balance daily batch load");
+                .join(SchedulingRules.class)
+                .filter((batch, day, count, rules) -> Math.abs(count - dailyTarget(rules)) > dailyVariance(rules))
+                .penalizeConfigurable((batch, day, count, rules) -> Math.abs(count - dailyTarget(rules)))
+                .asConstraint(TimetableConstraintConfiguration.BALANCE_DAILY_BATCH_LOAD);
+    }
+
+    private static int dailyTarget(SchedulingRules rules) {
+        return Math.max(rules.getTargetDailyLessonsPerBatch(), DEFAULT_TARGET_DAILY_LESSONS);
+    }
+
+    private static int dailyVariance(SchedulingRules rules) {
+        return Math.max(rules.getAllowedDailyLessonsVariance(), DEFAULT_ALLOWED_VARIANCE);
     }
 
     /**
@@ -647,40 +603,22 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
      * Weight: SOFT_LOW (5) - Minor optimization
      */
     private Constraint contiguousLessons(ConstraintFactory factory) {
-        ConstraintConfigurationHolder holder = ConstraintConfigurationHolder.getInstance();
         return factory.forEachUniquePair(Lesson.class,
                         Joiners.equal(Lesson::getStudentBatch),
                         Joiners.equal(lesson -> lesson.getTimeSlot() != null ? lesson.getTimeSlot().getDay() : null))
                 .filter((lesson1, lesson2) -> 
                         lesson1.getTimeSlot() != null && lesson2.getTimeSlot() != null)
-                .filter((lesson1, lesson2) -> !isConsecutive(lesson1, lesson2))
-                .filter((lesson1, lesson2) ->
+                .join(SchedulingRules.class)
+                .filter((lesson1, lesson2, rules) -> !isConsecutive(lesson1, lesson2, rules))
+                .filter((lesson1, lesson2, rules) ->
                         Math.abs(ChronoUnit.MINUTES.between(
                                 lesson1.getTimeSlot().getEndTime(),
                                 lesson2.getTimeSlot().getStartTime())) <=
-                                Math.max(holder.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
-                .penalize(HardSoftScore.ONE_SOFT.multiply(SOFT_LOW_PRIORITY),
-                        (lesson1, lesson2) -> (int) Math.abs(ChronoUnit.MINUTES.between(
+                                Math.max(rules.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES))
+                .penalizeConfigurable((lesson1, lesson2, rules) -> (int) Math.abs(ChronoUnit.MINUTES.between(
                                 lesson1.getTimeSlot().getEndTime(),
                                 lesson2.getTimeSlot().getStartTime())) / 10)  // Scale penalty
-                .asConstraint("Contiguous lessons");
-    }
-
-    // Utility methods
-    private boolean isLabRoom(Room room) {
-        if (room == null) {
-            return false;
-        }
-        return room.getType() == RoomType.COMPUTER_LAB ||
-                room.getType() == RoomType.HARDWARE_LAB;
-    }
-
-    private boolean isConsecutive(Lesson lesson1, Lesson lesson2) {
-        LocalTime endTime1 = lesson1.getTimeSlot().getEndTime();
-        LocalTime startTime2 = lesson2.getTimeSlot().getStartTime();
-        int bufferMinutes = Math.max(ConstraintConfigurationHolder.getInstance().getConsecutiveLessonBufferMinutes(), 0);
-        return endTime1.equals(startTime2) ||
-                ChronoUnit.MINUTES.between(endTime1, startTime2) <= bufferMinutes;
+                .asConstraint(TimetableConstraintConfiguration.CONTIGUOUS_LESSONS);
     }
 
     // ============================================================================
@@ -697,8 +635,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         lesson.getRoom() != null &&
                         "minor".equals(lesson.getCourse().getCourseType()))
                 .filter(lesson -> !lesson.getCourse().getLectureRoomIDs().contains(lesson.getRoom().getId()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Minors must be assigned to valid rooms");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINOR_VALID_ROOM);
     }
 
     /**
@@ -710,12 +648,13 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getCourse() != null && 
                         lesson.getTimeSlot() != null &&
                         "minor".equals(lesson.getCourse().getCourseType()))
-                .filter(lesson -> !ConstraintConfigurationHolder.getInstance().isMinorTimeSlotValid(
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> !rules.isMinorTimeSlotValid(
                                 lesson.getTimeSlot().getStartTime(),
                                 lesson.getTimeSlot().getEndTime(),
                                 lesson.getTimeSlot().getSlotType()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Minor courses must be scheduled in configured slots");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINOR_FIXED_TIMESLOT);
     }
 
     /**
@@ -732,8 +671,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         Joiners.equal(Lesson::getRoom),
                         Joiners.equal(Lesson::getTimeSlot))
                 .filter((lesson1, lesson2) -> !lesson1.equals(lesson2))
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("No room conflicts for minors");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.NO_ROOM_CONFLICT_FOR_MINORS);
     }
 
     /**
@@ -745,8 +684,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getTimeSlot() != null && lesson.getLessonType() != null)
                 .filter(lesson -> "LECTURE".equalsIgnoreCase(lesson.getLessonType()) &&
                         !"LECTURE".equalsIgnoreCase(lesson.getTimeSlot().getSlotType()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Lecture classes should match lecture time slots");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LECTURE_DURATION);
     }
 
     /**
@@ -758,8 +697,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson -> lesson.getTimeSlot() != null && lesson.getLessonType() != null)
                 .filter(lesson -> "LAB".equalsIgnoreCase(lesson.getLessonType()) &&
                         !"LAB".equalsIgnoreCase(lesson.getTimeSlot().getSlotType()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Lab classes must match lab time slots");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LAB_DURATION);
     }
 
     /**
@@ -774,8 +713,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         "LAB".equalsIgnoreCase(lesson.getTimeSlot().getSlotType()))
                 .filter(lesson -> !"LAB".equalsIgnoreCase(lesson.getLessonType()) ||
                                 !lesson.getStudentBatch().getPracticalRoomIDs().contains(lesson.getRoom().getId()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Two hour slots must be LAB type in practical rooms");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LAB_ROOM_TYPE);
     }
 
     /**
@@ -790,42 +729,46 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                         "LECTURE".equalsIgnoreCase(lesson.getTimeSlot().getSlotType()))
                 .filter(lesson -> !"LECTURE".equalsIgnoreCase(lesson.getLessonType()) ||
                                 !lesson.getStudentBatch().getLectureRoomIDs().contains(lesson.getRoom().getId()))
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("Sessions under 2 hours must be LECTURE type in lecture rooms");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.LECTURE_ROOM_TYPE);
     }
 
     /**
-     * Faculty time conflict: Detect overlapping or interleaved faculty schedules
+     * Faculty time conflict: Detect overlapping, interleaved or too closely spaced faculty lessons.
+     * Two lessons conflict when they come closer than the minimum break. The left lesson's range is
+     * widened by the break on both sides, which is the same as padding the end of both ranges, so
+     * the overlapping joiner only yields pairs that are in conflict. The padding is at least one
+     * minute because the original check treats lessons that touch end-to-start as overlapping.
+     * As in teacherConflict, every lesson that reaches the join has a faculty member.
      * Weight: CRITICAL (10000) - Physical impossibility
      */
-    private Constraint facultyTimeConflictConstraint(ConstraintFactory factory) {
-        return factory.forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getFaculty),
-                        Joiners.equal(l -> l.getTimeSlot() != null ? l.getTimeSlot().getDay() : null))
-                .filter((lesson1, lesson2) -> {
-                    // Comprehensive null checks
-                    if (lesson1.getFaculty() == null || lesson2.getFaculty() == null ||
-                            lesson1.getTimeSlot() == null || lesson2.getTimeSlot() == null) {
-                        return false;
-                    }
-
-                    return isTimeSlotOverlapping(lesson1.getTimeSlot(), lesson2.getTimeSlot()) ||
-                            isInterwokenTimeSlot(lesson1.getTimeSlot(), lesson2.getTimeSlot()) ||
-                            isInsufficientBreakBetweenClasses(lesson1.getTimeSlot(), lesson2.getTimeSlot());
-                })
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Faculty Time Conflict");
+    Constraint facultyTimeConflictConstraint(ConstraintFactory factory) {
+        return factory.forEach(SchedulingRules.class)
+                .join(Lesson.class)
+                .join(Lesson.class,
+                        Joiners.equal((rules, lesson) -> lesson.getFaculty(), Lesson::getFaculty),
+                        Joiners.equal((rules, lesson) -> lesson.getTimeSlot().getDay(), lesson -> lesson.getTimeSlot().getDay()),
+                        Joiners.lessThan((rules, lesson) -> lesson.getId(), Lesson::getId),
+                        Joiners.overlapping(
+                                (rules, lesson) -> lesson.getTimeSlot().getStartMinute() - getBreakPadding(rules),
+                                (rules, lesson) -> lesson.getTimeSlot().getEndMinute() + getBreakPadding(rules),
+                                lesson -> lesson.getTimeSlot().getStartMinute(),
+                                lesson -> lesson.getTimeSlot().getEndMinute()))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.FACULTY_TIME_CONFLICT);
     }
 
     /**
      * Faculty multi-batch constraint: Faculty cannot teach multiple batches at the same time
      * Weight: CRITICAL (10000) - Physical impossibility
      */
-    private Constraint facultyMultiBatchConstraint(ConstraintFactory factory) {
-        return factory.forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getFaculty),
-                        Joiners.equal(Lesson::getTimeSlot))
-                .filter((lesson1, lesson2) -> {
+    Constraint facultyMultiBatchConstraint(ConstraintFactory factory) {
+        return lessonsForDuplicateConflicts(factory)
+                .join(Lesson.class,
+                        Joiners.equal((rules, lesson) -> lesson.getFaculty(), Lesson::getFaculty),
+                        Joiners.equal((rules, lesson) -> lesson.getTimeSlot(), Lesson::getTimeSlot),
+                        Joiners.lessThan((rules, lesson) -> lesson.getId(), Lesson::getId))
+                .filter((rules, lesson1, lesson2) -> {
                     // Consolidated null and conflict checks
                     return lesson1.getStudentBatch() != null &&
                             lesson2.getStudentBatch() != null &&
@@ -835,8 +778,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                             !lesson1.equals(lesson2) &&
                             !lesson1.getStudentBatch().equals(lesson2.getStudentBatch());
                 })
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Faculty Teaching Multiple Batches Simultaneously");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.FACULTY_MULTI_BATCH);
     }
 
 
@@ -878,54 +821,20 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
 
 
 
-    // Helper Methods
-    private boolean isTimeSlotOverlapping(TimeSlot slot1, TimeSlot slot2) {
-        if (slot1 == null || slot2 == null) return false;
-        return !(slot1.getEndTime().isBefore(slot2.getStartTime()) ||
-                slot1.getStartTime().isAfter(slot2.getEndTime()));
-    }
-
-    private boolean isInterwokenTimeSlot(TimeSlot slot1, TimeSlot slot2) {
-        LocalTime start1 = slot1.getStartTime();
-        LocalTime end1 = slot1.getEndTime();
-        LocalTime start2 = slot2.getStartTime();
-        LocalTime end2 = slot2.getEndTime();
-
-        return (start2.isAfter(start1) && start2.isBefore(end1)) ||
-                (end2.isAfter(start1) && end2.isBefore(end1)) ||
-                (start1.isAfter(start2) && start1.isBefore(end2)) ||
-                (end1.isAfter(start2) && end1.isBefore(end2));
-    }
-
-    private boolean isInsufficientBreakBetweenClasses(TimeSlot slot1, TimeSlot slot2) {
-        Duration timeBetweenClasses = Duration.between(
-                slot1.getEndTime(),
-                slot2.getStartTime()
-        );
-                int minimumBreak = Math.max(ConstraintConfigurationHolder.getInstance().getMinimumBreakBetweenClassesMinutes(), 0);
-                return Math.abs(timeBetweenClasses.toMinutes()) < minimumBreak;
-    }
-
     /**
      * Student batch conflict: Enhanced detection of time overlaps and interleaving
      * Weight: CRITICAL (10000) - Physical impossibility
      */
-    private Constraint studentBatchConflict(ConstraintFactory factory) {
+    Constraint studentBatchConflict(ConstraintFactory factory) {
+        // Closed-interval overlap of the original check: the end is padded by a minute because
+        // the overlapping joiner treats ranges as half-open. Interleaved slots are a subset of this.
         return factory.forEachUniquePair(Lesson.class,
-                        Joiners.equal(Lesson::getStudentBatch))
-                .filter((lesson1, lesson2) -> {
-                    // Null safety and day check
-                    TimeSlot slot1 = lesson1.getTimeSlot();
-                    TimeSlot slot2 = lesson2.getTimeSlot();
-
-                    return slot1 != null &&
-                            slot2 != null &&
-                            slot1.getDay().equals(slot2.getDay()) &&
-                            (isTimeSlotOverlapping(slot1, slot2) ||
-                                    isInterwokenTimeSlot(slot1, slot2));
-                })
-                .penalize(HardSoftScore.ONE_HARD.multiply(CRITICAL_CONFLICT_PENALTY))
-                .asConstraint("Student batch time conflict");
+                        Joiners.equal(Lesson::getStudentBatch),
+                        Joiners.equal(lesson -> lesson.getTimeSlot().getDay()),
+                        Joiners.overlapping(lesson -> lesson.getTimeSlot().getStartMinute(),
+                                lesson -> lesson.getTimeSlot().getEndMinute() + 1))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.STUDENT_BATCH_CONFLICT);
     }
 
     /**
@@ -937,32 +846,29 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .forEach(Lesson.class)
                 .filter(lesson ->
                         lesson.getTimeSlot() != null &&
-                                "MINOR".equals(lesson.getLessonType()) &&
-                                !isValidMinorTimeSlot(lesson.getTimeSlot())
-                )
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("MinorTimeSlotCompatibility");
+                                "MINOR".equals(lesson.getLessonType()))
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> !isValidMinorTimeSlot(lesson.getTimeSlot(), rules))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINOR_TIME_SLOT_COMPATIBILITY);
     }
 
     /**
      * Minor course day spread: Spread minor course sessions across different days
      * Weight: HIGH (1000) - Pedagogical requirement
      */
-    private Constraint minorCourseDaySpread(ConstraintFactory constraintFactory) {
+    Constraint minorCourseDaySpread(ConstraintFactory constraintFactory) {
         return constraintFactory
-                .forEachUniquePair(Lesson.class)
+                .forEachUniquePair(Lesson.class,
+                        Joiners.equal(Lesson::getCourse),
+                        Joiners.equal(lesson -> lesson.getTimeSlot().getDay()))
                 .filter((lesson1, lesson2) ->
                         lesson1.getCourse() != null &&
-                                lesson2.getCourse() != null &&
-                                lesson1.getTimeSlot() != null &&
-                                lesson2.getTimeSlot() != null &&
                                 "MINOR".equals(lesson1.getLessonType()) &&
-                                "MINOR".equals(lesson2.getLessonType()) &&
-                                lesson1.getCourse().equals(lesson2.getCourse()) &&
-                                lesson1.getTimeSlot().getDay().equals(lesson2.getTimeSlot().getDay())
+                                "MINOR".equals(lesson2.getLessonType())
                 )
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("MinorCourseDaySpread");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINOR_COURSE_DAY_SPREAD);
     }
 
     /**
@@ -977,8 +883,8 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                                 "MINOR".equals(lesson.getLessonType()) &&
                                 !isValidMinorRoom(lesson)
                 )
-                .penalize(HardSoftScore.ONE_HARD.multiply(HIGH_PRIORITY_PENALTY))
-                .asConstraint("MinorCourseRoomCompatibility");
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.MINOR_COURSE_ROOM_COMPATIBILITY);
     }
 
     /**
@@ -991,125 +897,10 @@ public class TimeTableConstraintProvider implements ConstraintProvider {
                 .filter(lesson ->
                         lesson.getTimeSlot() != null &&
                                 lesson.getStudentBatch() != null &&
-                                !"MINOR".equals(lesson.getLessonType()) &&
-                                !isTimeSlotValidForBatch(lesson.getStudentBatch(), lesson.getTimeSlot())
-                )
-                .penalize(HardSoftScore.ONE_HARD.multiply(MEDIUM_PRIORITY_PENALTY))
-                .asConstraint("BatchTimeSlotCompatibility");
-    }
-
-    // Helper method to check if a time slot is valid for minor courses
-    private boolean isValidMinorTimeSlot(TimeSlot slot) {
-        if (slot == null) return false;
-        
-        // Use configuration holder to validate minor time slots dynamically
-        // This replaces hardcoded minor time slot checks with dynamic configuration
-        return ConstraintConfigurationHolder.getInstance()
-                .isMinorTimeSlotValid(slot.getStartTime(), slot.getEndTime(), slot.getSlotType());
-    }
-
-    // Helper method to check if a room is valid for a minor course
-    private boolean isValidMinorRoom(Lesson lesson) {
-        return lesson.getCourse() != null &&
-                lesson.getRoom() != null &&
-                lesson.getCourse().getLectureRoomIDs().contains(lesson.getRoom().getId());
-    }
-
-    // Original time slot validation for regular batches
-    private boolean isTimeSlotValidForBatch(StudentBatch batch, TimeSlot slot) {
-        if (slot.getSlotType().equals("MINOR")) {
-            return false;  // Regular batches should not get minor slots
-        }
-
-        int batchYear = batch.getYear();
-        LocalTime startTime = slot.getStartTime();
-        LocalTime endTime = slot.getEndTime();
-        String slotType = slot.getSlotType();
-
-        // Use configuration holder to validate time slots dynamically
-        // This replaces hardcoded time slot validations with dynamic configuration
-        return ConstraintConfigurationHolder.getInstance()
-                .isTimeSlotValidForBatch(batchYear, startTime, endTime, slotType);
-    }
-
-    private LocalTime getStartTime(Lesson lesson) {
-        return lesson.getTimeSlot().getStartTime();
-    }
-
-    private LocalTime getEndTime(Lesson lesson) {
-        return lesson.getTimeSlot().getEndTime();
-    }
-
-
-    private boolean hasTimeGap(Lesson lesson1, Lesson lesson2) {
-        int gap = calculateTimeGap(lesson1, lesson2);
-        if (gap <= 0) {
-            return false;
-        }
-        int maxGap = Math.max(ConstraintConfigurationHolder.getInstance().getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES);
-        return gap > maxGap;
-    }
-
-    private int calculateTimeGap(Lesson lesson1, Lesson lesson2) {
-        if (lesson1 == null || lesson2 == null) {
-            return 0;
-        }
-        TimeSlot slot1 = lesson1.getTimeSlot();
-        TimeSlot slot2 = lesson2.getTimeSlot();
-        if (slot1 == null || slot2 == null) {
-            return 0;
-        }
-
-        Lesson earlierLesson = slot1.getStartTime().isBefore(slot2.getStartTime()) ? lesson1 : lesson2;
-        Lesson laterLesson = earlierLesson == lesson1 ? lesson2 : lesson1;
-
-        long gap = ChronoUnit.MINUTES.between(
-                earlierLesson.getTimeSlot().getEndTime(),
-                laterLesson.getTimeSlot().getStartTime());
-
-        return gap > 0 ? (int) gap : 0;
-    }
-
-    private boolean validateTeacherGaps(Lesson lesson1, Lesson lesson2) {
-        if (lesson1 == null || lesson2 == null) {
-            return false;
-        }
-        if (lesson1.getFaculty() == null || lesson2.getFaculty() == null) {
-            return false;
-        }
-        if (lesson1.getTimeSlot() == null || lesson2.getTimeSlot() == null) {
-            return false;
-        }
-        if (!lesson1.getFaculty().equals(lesson2.getFaculty())) {
-            return false;
-        }
-        if (!isSameDay(lesson1, lesson2)) {
-            return false;
-        }
-
-        int gap = calculateTimeGap(lesson1, lesson2);
-        if (gap <= 0) {
-            return false;
-        }
-
-        int allowedGap = Math.max(
-                ConstraintConfigurationHolder.getInstance().getMaxTeacherGapMinutes(),
-                DEFAULT_MAX_TEACHER_GAP_MINUTES);
-
-        return gap > allowedGap;
-    }
-
-    private boolean isSameDay(Lesson lesson1, Lesson lesson2) {
-        return lesson1.getTimeSlot().getDay().equals(lesson2.getTimeSlot().getDay());
-    }
-
-    private boolean isOverlapping(Lesson lesson1, Lesson lesson2) {
-        LocalTime start1 = getStartTime(lesson1);
-        LocalTime end1 = getEndTime(lesson1);
-        LocalTime start2 = getStartTime(lesson2);
-        LocalTime end2 = getEndTime(lesson2);
-
-        return (start1.isBefore(end2) || start1.equals(end2)) &&
-                (start2.isBefore(end1) || start2.equals(end1));
+                                !"MINOR".equals(lesson.getLessonType()))
+                .join(SchedulingRules.class)
+                .filter((lesson, rules) -> !isTimeSlotValidForBatch(lesson.getStudentBatch(), lesson.getTimeSlot(), rules))
+                .penalizeConfigurable()
+                .asConstraint(TimetableConstraintConfiguration.BATCH_TIME_SLOT_COMPATIBILITY);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,726 @@
+package com.timetable.score;
+
+import com.timetable.domain.Course;
+import com.timetable.domain.Faculty;
+import com.timetable.domain.IndexedFact;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.SchedulingRules;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import com.timetable.domain.TimetableConstraintConfiguration;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.score.calculator.IncrementalScoreCalculator;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.timetable.score.TimetableRules.*;
+
+/**
+ * Hand-written alternative to {@link TimeTableConstraintProvider} that produces the same score.
+ * Each lesson's contribution is computed against the lessons it can interact with, looked up in
+ * primitive tables indexed by the dense fact indexes: (room, slot) occupancy counters, lessons per
+ * (batch, day), (faculty, day) and (course, day), and load counters per batch, faculty and room.
+ * A variable change retracts the lesson's old contribution and inserts its new one.
+ * Like the constraint streams, only initialized lessons (time slot, room and faculty set) are scored.
+ */
+public class TimeTableIncrementalScoreCalculator implements IncrementalScoreCalculator<TimeTable, HardSoftScore> {
+
+    private enum Rule {
+        ROOM_CONFLICT(TimetableConstraintConfiguration.ROOM_CONFLICT),
+        TEACHER_CONFLICT(TimetableConstraintConfiguration.TEACHER_CONFLICT),
+        STUDENT_GROUP_CONFLICT(TimetableConstraintConfiguration.STUDENT_GROUP_CONFLICT),
+        STUDENT_BATCH_CONFLICT(TimetableConstraintConfiguration.STUDENT_BATCH_CONFLICT),
+        FACULTY_TIME_CONFLICT(TimetableConstraintConfiguration.FACULTY_TIME_CONFLICT),
+        FACULTY_MULTI_BATCH(TimetableConstraintConfiguration.FACULTY_MULTI_BATCH),
+        NO_ROOM_CONFLICT_FOR_MINORS(TimetableConstraintConfiguration.NO_ROOM_CONFLICT_FOR_MINORS),
+        ROOM_CAPACITY(TimetableConstraintConfiguration.ROOM_CAPACITY),
+        TEACHER_QUALIFICATION(TimetableConstraintConfiguration.TEACHER_QUALIFICATION),
+        LECTURE_DURATION(TimetableConstraintConfiguration.LECTURE_DURATION),
+        LAB_DURATION(TimetableConstraintConfiguration.LAB_DURATION),
+        NO_CLASSES_DURING_LUNCH(TimetableConstraintConfiguration.NO_CLASSES_DURING_LUNCH),
+        WEEKLY_LAB_SCHEDULING(TimetableConstraintConfiguration.WEEKLY_LAB_SCHEDULING),
+        LAB_ROOM_ASSIGNMENT(TimetableConstraintConfiguration.LAB_ROOM_ASSIGNMENT),
+        ONE_LAB_PER_BATCH_PER_DAY(TimetableConstraintConfiguration.ONE_LAB_PER_BATCH_PER_DAY),
+        LAB_ROOM_TYPE(TimetableConstraintConfiguration.LAB_ROOM_TYPE),
+        ONLY_LAB_COURSES_IN_LAB_ROOMS(TimetableConstraintConfiguration.ONLY_LAB_COURSES_IN_LAB_ROOMS),
+        LECTURE_ROOM_TYPE(TimetableConstraintConfiguration.LECTURE_ROOM_TYPE),
+        LECTURE_IN_REGULAR_ROOMS(TimetableConstraintConfiguration.LECTURE_IN_REGULAR_ROOMS),
+        MINOR_VALID_ROOM(TimetableConstraintConfiguration.MINOR_VALID_ROOM),
+        MINOR_FIXED_TIMESLOT(TimetableConstraintConfiguration.MINOR_FIXED_TIMESLOT),
+        MINOR_TIME_SLOT_COMPATIBILITY(TimetableConstraintConfiguration.MINOR_TIME_SLOT_COMPATIBILITY),
+        MINOR_COURSE_DAY_SPREAD(TimetableConstraintConfiguration.MINOR_COURSE_DAY_SPREAD),
+        MINOR_COURSE_ROOM_COMPATIBILITY(TimetableConstraintConfiguration.MINOR_COURSE_ROOM_COMPATIBILITY),
+        PREDEFINED_ROOM_ASSIGNMENT(TimetableConstraintConfiguration.PREDEFINED_ROOM_ASSIGNMENT),
+        SINGLE_COURSE_PER_DAY_FOR_BATCH(TimetableConstraintConfiguration.SINGLE_COURSE_PER_DAY_FOR_BATCH),
+        LAB_TIME_SLOT(TimetableConstraintConfiguration.LAB_TIME_SLOT),
+        BATCH_TIME_SLOT_COMPATIBILITY(TimetableConstraintConfiguration.BATCH_TIME_SLOT_COMPATIBILITY),
+        BALANCE_BATCH_LOAD(TimetableConstraintConfiguration.BALANCE_BATCH_LOAD),
+        BALANCE_FACULTY_LOAD(TimetableConstraintConfiguration.BALANCE_FACULTY_LOAD),
+        BALANCE_DAILY_BATCH_LOAD(TimetableConstraintConfiguration.BALANCE_DAILY_BATCH_LOAD),
+        MINIMIZE_GAPS_IN_SCHEDULE(TimetableConstraintConfiguration.MINIMIZE_GAPS_IN_SCHEDULE),
+        TEACHER_IDLE_GAPS(TimetableConstraintConfiguration.TEACHER_IDLE_GAPS),
+        PREFER_CONTIGUOUS_LESSONS(TimetableConstraintConfiguration.PREFER_CONTIGUOUS_LESSONS, true),
+        BALANCE_ROOM_LOAD(TimetableConstraintConfiguration.BALANCE_ROOM_LOAD),
+        CONTIGUOUS_LESSONS(TimetableConstraintConfiguration.CONTIGUOUS_LESSONS),
+        ROOM_STABILITY(TimetableConstraintConfiguration.ROOM_STABILITY),
+        MINIMIZE_ROOM_CHANGES(TimetableConstraintConfiguration.MINIMIZE_ROOM_CHANGES),
+        PREFERRED_START_TIME(TimetableConstraintConfiguration.PREFERRED_START_TIME),
+        TEACHER_MAX_TWO_CLASSES_PER_DAY(TimetableConstraintConfiguration.TEACHER_MAX_TWO_CLASSES_PER_DAY);
+
+        private final String constraintName;
+        private final boolean reward;
+
+        Rule(String constraintName) {
+            this(constraintName, false);
+        }
+
+        Rule(String constraintName, boolean reward) {
+            this.constraintName = constraintName;
+            this.reward = reward;
+        }
+    }
+
+    // Exact-slot conflict rules that deduplicated scoring leaves to the interval-based conflicts
+    private static final Set<Rule> DUPLICATE_CONFLICT_RULES =
+            Set.of(Rule.TEACHER_CONFLICT, Rule.STUDENT_GROUP_CONFLICT, Rule.FACULTY_MULTI_BATCH);
+
+    private static final Rule[] RULES = Rule.values();
+
+    // Signed weight per rule: negative for penalties, positive for rewards
+    private final int[] hardWeights = new int[RULES.length];
+    private final int[] softWeights = new int[RULES.length];
+
+    // Limits read from the configuration holder when the working solution is set
+    private SchedulingRules rules;
+    private int maxGapMinutes;
+    private int consecutiveBufferMinutes;
+    private int facultyBreakPadding;
+    private int dailyTarget;
+    private int dailyVariance;
+
+    private Map<String, Integer> dayIndexes;
+    private int dayCount;
+    private int slotCount;
+    private int batchCount;
+
+    // (room, slot) occupancy: all lessons and the lessons of minor courses
+    private int[] roomSlotCounts;
+    private int[] roomSlotMinorCounts;
+    // Lessons per (batch, day); lessons without a batch share the extra last batch row
+    private List<Lesson>[] batchDayLessons;
+    private int[] batchDayLabCounts;
+    private int[] batchLabDays;
+    // Lessons per (faculty, day) and minor lessons per (course, day)
+    private List<Lesson>[] facultyDayLessons;
+    private List<Lesson>[] courseDayMinorLessons;
+    // Load counters
+    private int[] batchLoads;
+    private int[] facultyLoads;
+    private int[] roomLoads;
+
+    private long hardScore;
+    private long softScore;
+
+    @Override
+    public void resetWorkingSolution(TimeTable timeTable) {
+        rules = timeTable.getSchedulingRules() != null ? timeTable.getSchedulingRules() : SchedulingRules.unconfigured();
+        readWeights(timeTable.getConstraintConfiguration());
+        readLimits();
+
+        List<Lesson> lessons = allLessons(timeTable);
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        List<Room> rooms = new ArrayList<>();
+        List<Faculty> faculty = new ArrayList<>();
+        List<StudentBatch> batches = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        addAll(timeSlots, timeTable.getTimeSlotList());
+        addAll(timeSlots, timeTable.getMinorTimeSlotList());
+        addAll(rooms, timeTable.getRoomList());
+        addAll(faculty, timeTable.getFacultyList());
+        for (Lesson lesson : lessons) {
+            addIfPresent(timeSlots, lesson.getTimeSlot());
+            addIfPresent(rooms, lesson.getRoom());
+            addIfPresent(faculty, lesson.getFaculty());
+            addIfPresent(batches, lesson.getStudentBatch());
+            addIfPresent(courses, lesson.getCourse());
+        }
+        slotCount = indexCount(timeSlots);
+        int roomCount = indexCount(rooms);
+        int facultyCount = indexCount(faculty);
+        batchCount = indexCount(batches);
+        int courseCount = indexCount(courses);
+
+        dayIndexes = new HashMap<>();
+        for (TimeSlot timeSlot : distinct(timeSlots)) {
+            dayIndexes.putIfAbsent(timeSlot.getDay(), dayIndexes.size());
+        }
+        dayCount = Math.max(dayIndexes.size(), 1);
+
+        roomSlotCounts = new int[roomCount * slotCount];
+        roomSlotMinorCounts = new int[roomCount * slotCount];
+        batchDayLessons = newBuckets((batchCount + 1) * dayCount);
+        batchDayLabCounts = new int[(batchCount + 1) * dayCount];
+        batchLabDays = new int[batchCount];
+        facultyDayLessons = newBuckets(facultyCount * dayCount);
+        courseDayMinorLessons = newBuckets(courseCount * dayCount);
+        batchLoads = new int[batchCount];
+        facultyLoads = new int[facultyCount];
+        roomLoads = new int[roomCount];
+
+        hardScore = 0L;
+        softScore = 0L;
+        for (Lesson lesson : lessons) {
+            insert(lesson);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // Nothing to do
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        insert((Lesson) entity);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        retract((Lesson) entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        insert((Lesson) entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        retract((Lesson) entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        // Nothing to do
+    }
+
+    @Override
+    public HardSoftScore calculateScore() {
+        return HardSoftScore.of((int) hardScore, (int) softScore);
+    }
+
+    private void insert(Lesson lesson) {
+        if (!isScored(lesson)) {
+            return;
+        }
+        score(lesson, 1);
+        attach(lesson);
+    }
+
+    private void retract(Lesson lesson) {
+        if (!isScored(lesson)) {
+            return;
+        }
+        detach(lesson);
+        score(lesson, -1);
+    }
+
+    private static boolean isScored(Lesson lesson) {
+        return lesson.getTimeSlot() != null && lesson.getRoom() != null && lesson.getFaculty() != null;
+    }
+
+    // ************************************************************************
+    // Bookkeeping
+    // ************************************************************************
+
+    private void attach(Lesson lesson) {
+        int roomSlot = roomSlotIndex(lesson);
+        roomSlotCounts[roomSlot]++;
+        if (isMinorCourse(lesson)) {
+            roomSlotMinorCounts[roomSlot]++;
+        }
+        roomLoads[lesson.getRoom().getIndex()]++;
+
+        int day = dayIndex(lesson);
+        int batchDay = batchRow(lesson) * dayCount + day;
+        batchDayLessons[batchDay].add(lesson);
+        if (isLabCourse(lesson)) {
+            if (batchDayLabCounts[batchDay]++ == 0 && lesson.getStudentBatch() != null) {
+                batchLabDays[lesson.getStudentBatch().getIndex()]++;
+            }
+        }
+        if (lesson.getStudentBatch() != null) {
+            batchLoads[lesson.getStudentBatch().getIndex()]++;
+        }
+        if (lesson.getFaculty() != null) {
+            facultyDayLessons[lesson.getFaculty().getIndex() * dayCount + day].add(lesson);
+            facultyLoads[lesson.getFaculty().getIndex()]++;
+        }
+        if (isMinorLesson(lesson)) {
+            courseDayMinorLessons[lesson.getCourse().getIndex() * dayCount + day].add(lesson);
+        }
+    }
+
+    private void detach(Lesson lesson) {
+        int roomSlot = roomSlotIndex(lesson);
+        roomSlotCounts[roomSlot]--;
+        if (isMinorCourse(lesson)) {
+            roomSlotMinorCounts[roomSlot]--;
+        }
+        roomLoads[lesson.getRoom().getIndex()]--;
+
+        int day = dayIndex(lesson);
+        int batchDay = batchRow(lesson) * dayCount + day;
+        removeIdentity(batchDayLessons[batchDay], lesson);
+        if (isLabCourse(lesson)) {
+            if (--batchDayLabCounts[batchDay] == 0 && lesson.getStudentBatch() != null) {
+                batchLabDays[lesson.getStudentBatch().getIndex()]--;
+            }
+        }
+        if (lesson.getStudentBatch() != null) {
+            batchLoads[lesson.getStudentBatch().getIndex()]--;
+        }
+        if (lesson.getFaculty() != null) {
+            removeIdentity(facultyDayLessons[lesson.getFaculty().getIndex() * dayCount + day], lesson);
+            facultyLoads[lesson.getFaculty().getIndex()]--;
+        }
+        if (isMinorLesson(lesson)) {
+            removeIdentity(courseDayMinorLessons[lesson.getCourse().getIndex() * dayCount + day], lesson);
+        }
+    }
+
+    // ************************************************************************
+    // Scoring
+    // ************************************************************************
+
+    /**
+     * Adds (sign 1) or removes (sign -1) everything the lesson contributes to the score.
+     * The tables must not contain the lesson itself while this runs.
+     */
+    private void score(Lesson lesson, int sign) {
+        scoreLesson(lesson, sign);
+        scoreRoomSlot(lesson, sign);
+        scoreBatchDay(lesson, sign);
+        scoreFacultyDay(lesson, sign);
+        scoreCourseDay(lesson, sign);
+    }
+
+    // Constraints on a single lesson
+    private void scoreLesson(Lesson lesson, int sign) {
+        Room room = lesson.getRoom();
+        TimeSlot timeSlot = lesson.getTimeSlot();
+        StudentBatch batch = lesson.getStudentBatch();
+        Course course = lesson.getCourse();
+        String lessonType = lesson.getLessonType();
+
+        if (batch != null && batch.getStrength() > room.getCapacity()) {
+            impact(Rule.ROOM_CAPACITY, batch.getStrength() - room.getCapacity(), sign);
+        }
+        if (lesson.getFaculty() != null && course != null && !course.getEligibleFaculty().contains(lesson.getFaculty())) {
+            impact(Rule.TEACHER_QUALIFICATION, 1, sign);
+        }
+        if (course != null) {
+            boolean labRoom = isLabRoom(room);
+            if (course.isLabCourse() && !labRoom) {
+                impact(Rule.LAB_ROOM_ASSIGNMENT, 1, sign);
+            }
+            if (!course.isLabCourse() && labRoom) {
+                impact(Rule.ONLY_LAB_COURSES_IN_LAB_ROOMS, 1, sign);
+                impact(Rule.LECTURE_IN_REGULAR_ROOMS, 1, sign);
+            }
+            if ("minor".equals(course.getCourseType())) {
+                if (!course.getLectureRoomIDs().contains(room.getId())) {
+                    impact(Rule.MINOR_VALID_ROOM, 1, sign);
+                }
+                if (!rules.isMinorTimeSlotValid(
+                        timeSlot.getStartTime(), timeSlot.getEndTime(), timeSlot.getSlotType())) {
+                    impact(Rule.MINOR_FIXED_TIMESLOT, 1, sign);
+                }
+            }
+        }
+        if (batch != null) {
+            if (!isRoomAllowedForBatch(room, batch)) {
+                impact(Rule.PREDEFINED_ROOM_ASSIGNMENT, 1, sign);
+            }
+            if (isLunchHourForYear(lesson, rules)) {
+                impact(Rule.NO_CLASSES_DURING_LUNCH, 1, sign);
+            }
+            if ("LAB".equals(lessonType) && !isLabInCorrectTimeSlot(lesson, rules)) {
+                impact(Rule.LAB_TIME_SLOT, 1, sign);
+            }
+            if ("LAB".equalsIgnoreCase(timeSlot.getSlotType())
+                    && (!"LAB".equalsIgnoreCase(lessonType) || !batch.getPracticalRoomIDs().contains(room.getId()))) {
+                impact(Rule.LAB_ROOM_TYPE, 1, sign);
+            }
+            if ("LECTURE".equalsIgnoreCase(timeSlot.getSlotType())
+                    && (!"LECTURE".equalsIgnoreCase(lessonType) || !batch.getLectureRoomIDs().contains(room.getId()))) {
+                impact(Rule.LECTURE_ROOM_TYPE, 1, sign);
+            }
+            if (!"MINOR".equals(lessonType) && !isTimeSlotValidForBatch(batch, timeSlot, rules)) {
+                impact(Rule.BATCH_TIME_SLOT_COMPATIBILITY, 1, sign);
+            }
+        }
+        if (lessonType != null) {
+            if ("LECTURE".equalsIgnoreCase(lessonType) && !"LECTURE".equalsIgnoreCase(timeSlot.getSlotType())) {
+                impact(Rule.LECTURE_DURATION, 1, sign);
+            }
+            if ("LAB".equalsIgnoreCase(lessonType) && !"LAB".equalsIgnoreCase(timeSlot.getSlotType())) {
+                impact(Rule.LAB_DURATION, 1, sign);
+            }
+        }
+        if ("MINOR".equals(lessonType)) {
+            if (!isValidMinorTimeSlot(timeSlot, rules)) {
+                impact(Rule.MINOR_TIME_SLOT_COMPATIBILITY, 1, sign);
+            }
+            if (!isValidMinorRoom(lesson)) {
+                impact(Rule.MINOR_COURSE_ROOM_COMPATIBILITY, 1, sign);
+            }
+        }
+        LocalTime preferred = rules.getPreferredStartTime();
+        if (preferred != null && timeSlot.getStartTime() != null && !timeSlot.getStartTime().equals(preferred)) {
+            int minutes = Math.abs(timeSlot.getStartMinute() - (preferred.toSecondOfDay() / 60));
+            impact(Rule.PREFERRED_START_TIME, minutes / 30, sign);
+        }
+
+        int roomLoad = roomLoads[room.getIndex()];
+        impact(Rule.BALANCE_ROOM_LOAD, roomLoadPenalty(room, roomLoad + 1) - roomLoadPenalty(room, roomLoad), sign);
+        if (batch != null) {
+            int batchLoad = batchLoads[batch.getIndex()];
+            impact(Rule.BALANCE_BATCH_LOAD, batchLoadPenalty(batchLoad + 1) - batchLoadPenalty(batchLoad), sign);
+        }
+        if (lesson.getFaculty() != null) {
+            int facultyLoad = facultyLoads[lesson.getFaculty().getIndex()];
+            impact(Rule.BALANCE_FACULTY_LOAD, facultyLoadPenalty(facultyLoad + 1) - facultyLoadPenalty(facultyLoad), sign);
+        }
+    }
+
+    // Lessons sharing the room and time slot
+    private void scoreRoomSlot(Lesson lesson, int sign) {
+        int roomSlot = roomSlotIndex(lesson);
+        int count = roomSlotCounts[roomSlot];
+        impact(Rule.ROOM_CONFLICT, count, sign);
+        // Every minor lesson conflicts with each other lesson in its cell, in both directions
+        int minorCount = roomSlotMinorCounts[roomSlot];
+        impact(Rule.NO_ROOM_CONFLICT_FOR_MINORS, minorCount + (isMinorCourse(lesson) ? count : 0), sign);
+    }
+
+    // Lessons of the same batch on the same day
+    private void scoreBatchDay(Lesson lesson, int sign) {
+        StudentBatch batch = lesson.getStudentBatch();
+        Course course = lesson.getCourse();
+        TimeSlot timeSlot = lesson.getTimeSlot();
+        int batchDay = batchRow(lesson) * dayCount + dayIndex(lesson);
+        List<Lesson> partners = batchDayLessons[batchDay];
+
+        int sameCourseCount = 0;
+        for (Lesson other : partners) {
+            Lesson first = isOrderedBefore(lesson, other) ? lesson : other;
+            Lesson second = first == lesson ? other : lesson;
+            TimeSlot firstSlot = first.getTimeSlot();
+            TimeSlot secondSlot = second.getTimeSlot();
+
+            if (batch != null && other.getTimeSlot() == timeSlot) {
+                impact(Rule.STUDENT_GROUP_CONFLICT, 1, sign);
+            }
+            if (firstSlot.getStartMinute() <= secondSlot.getEndMinute()
+                    && secondSlot.getStartMinute() <= firstSlot.getEndMinute()) {
+                impact(Rule.STUDENT_BATCH_CONFLICT, 1, sign);
+            }
+
+            int gap = secondSlot.getStartMinute() - firstSlot.getEndMinute();
+            boolean consecutive = gap <= consecutiveBufferMinutes;
+            boolean roomChange = first.getRoom() != second.getRoom();
+            if (gap > maxGapMinutes) {
+                impact(Rule.MINIMIZE_GAPS_IN_SCHEDULE, gap / 15, sign);
+            }
+            if (consecutive) {
+                impact(Rule.PREFER_CONTIGUOUS_LESSONS, 1, sign);
+                if (roomChange) {
+                    impact(Rule.ROOM_STABILITY, 1, sign);
+                }
+            }
+            if (Math.abs(gap) <= maxGapMinutes) {
+                if (roomChange) {
+                    impact(Rule.MINIMIZE_ROOM_CHANGES, 1, sign);
+                }
+                if (!consecutive) {
+                    impact(Rule.CONTIGUOUS_LESSONS, Math.abs(gap) / 10, sign);
+                }
+            }
+
+            if (course != null && other.getCourse() == course) {
+                sameCourseCount++;
+            }
+        }
+
+        if (isLabCourse(lesson)) {
+            int labCount = batchDayLabCounts[batchDay];
+            // (count - 1) * 2 grows by 2 with every lab after the first
+            impact(Rule.ONE_LAB_PER_BATCH_PER_DAY, labCount >= 1 ? 2 : 0, sign);
+            if (batch != null && labCount == 0) {
+                int labDays = batchLabDays[batch.getIndex()];
+                int required = batch.getRequiredLabsPerWeek();
+                impact(Rule.WEEKLY_LAB_SCHEDULING,
+                        missingLabDays(required, labDays + 1) - missingLabDays(required, labDays), sign);
+            }
+        }
+        if (batch != null) {
+            if (course != null) {
+                impact(Rule.SINGLE_COURSE_PER_DAY_FOR_BATCH, sameCourseCount >= 1 ? 2 : 0, sign);
+            }
+            int dailyLoad = partners.size();
+            impact(Rule.BALANCE_DAILY_BATCH_LOAD,
+                    dailyLoadPenalty(dailyLoad + 1) - dailyLoadPenalty(dailyLoad), sign);
+        }
+    }
+
+    // Lessons of the same faculty on the same day
+    private void scoreFacultyDay(Lesson lesson, int sign) {
+        Faculty faculty = lesson.getFaculty();
+        if (faculty == null) {
+            return;
+        }
+        StudentBatch batch = lesson.getStudentBatch();
+        TimeSlot timeSlot = lesson.getTimeSlot();
+        int allowedTeacherGap = Math.max(rules.getMaxTeacherGapMinutes(), DEFAULT_MAX_TEACHER_GAP_MINUTES);
+        List<Lesson> partners = facultyDayLessons[faculty.getIndex() * dayCount + dayIndex(lesson)];
+
+        int sameBatchCount = 0;
+        for (Lesson other : partners) {
+            TimeSlot otherSlot = other.getTimeSlot();
+            if (otherSlot == timeSlot) {
+                impact(Rule.TEACHER_CONFLICT, 1, sign);
+                if (batch != null && other.getStudentBatch() != null && other.getStudentBatch() != batch) {
+                    impact(Rule.FACULTY_MULTI_BATCH, 1, sign);
+                }
+            }
+            if (timeSlot.getStartMinute() < otherSlot.getEndMinute() + facultyBreakPadding
+                    && otherSlot.getStartMinute() < timeSlot.getEndMinute() + facultyBreakPadding) {
+                impact(Rule.FACULTY_TIME_CONFLICT, 1, sign);
+            }
+
+            // Same tie-break as calculateTimeGap: on equal starts the second lesson of the pair counts as earlier
+            Lesson first = isOrderedBefore(lesson, other) ? lesson : other;
+            Lesson second = first == lesson ? other : lesson;
+            boolean firstEarlier = first.getTimeSlot().getStartMinute() < second.getTimeSlot().getStartMinute();
+            TimeSlot earlier = firstEarlier ? first.getTimeSlot() : second.getTimeSlot();
+            TimeSlot later = firstEarlier ? second.getTimeSlot() : first.getTimeSlot();
+            int gap = later.getStartMinute() - earlier.getEndMinute();
+            if (gap > 0 && gap > allowedTeacherGap) {
+                impact(Rule.TEACHER_IDLE_GAPS, gap / 10, sign);
+            }
+
+            if (batch != null && other.getStudentBatch() == batch) {
+                sameBatchCount++;
+            }
+        }
+        if (batch != null) {
+            // (count - 2) * 2 grows by 2 with every class after the second
+            impact(Rule.TEACHER_MAX_TWO_CLASSES_PER_DAY, sameBatchCount >= 2 ? 2 : 0, sign);
+        }
+    }
+
+    // Minor lessons of the same course on the same day
+    private void scoreCourseDay(Lesson lesson, int sign) {
+        if (!isMinorLesson(lesson)) {
+            return;
+        }
+        int count = courseDayMinorLessons[lesson.getCourse().getIndex() * dayCount + dayIndex(lesson)].size();
+        impact(Rule.MINOR_COURSE_DAY_SPREAD, count, sign);
+    }
+
+    private void impact(Rule rule, int matchWeight, int sign) {
+        if (matchWeight == 0) {
+            return;
+        }
+        int ordinal = rule.ordinal();
+        hardScore += (long) sign * matchWeight * hardWeights[ordinal];
+        softScore += (long) sign * matchWeight * softWeights[ordinal];
+    }
+
+    // ************************************************************************
+    // Group penalties, zero for groups without lessons like in the constraint streams
+    // ************************************************************************
+
+    private static int batchLoadPenalty(int count) {
+        if (count == 0 || (count >= MIN_CLASSES_PER_BATCH && count <= MAX_CLASSES_PER_BATCH)) {
+            return 0;
+        }
+        return Math.abs(count - ((MIN_CLASSES_PER_BATCH + MAX_CLASSES_PER_BATCH) / 2));
+    }
+
+    private static int facultyLoadPenalty(int count) {
+        if (count == 0 || Math.abs(count - TARGET_FACULTY_LESSONS) <= 2) {
+            return 0;
+        }
+        return Math.abs(count - TARGET_FACULTY_LESSONS);
+    }
+
+    private static int roomLoadPenalty(Room room, int count) {
+        int ideal = room.getIdealDailyUsage();
+        if (count == 0 || (count <= ideal && count >= Math.max(1, ideal - 1))) {
+            return 0;
+        }
+        return Math.abs(count - ideal);
+    }
+
+    private int dailyLoadPenalty(int count) {
+        if (count == 0 || Math.abs(count - dailyTarget) <= dailyVariance) {
+            return 0;
+        }
+        return Math.abs(count - dailyTarget);
+    }
+
+    private static int missingLabDays(int required, int labDays) {
+        return labDays > 0 && required > labDays ? required - labDays : 0;
+    }
+
+    // ************************************************************************
+    // Setup helpers
+    // ************************************************************************
+
+    private void readWeights(TimetableConstraintConfiguration configuration) {
+        if (configuration == null) {
+            configuration = new TimetableConstraintConfiguration();
+        }
+        boolean deduplicated = rules.isDeduplicatedConflictScoring();
+        for (Rule rule : RULES) {
+            HardSoftScore weight = configuration.getWeight(rule.constraintName);
+            int direction = rule.reward ? 1 : -1;
+            boolean dropped = deduplicated && DUPLICATE_CONFLICT_RULES.contains(rule);
+            hardWeights[rule.ordinal()] = dropped ? 0 : direction * weight.hardScore();
+            softWeights[rule.ordinal()] = dropped ? 0 : direction * weight.softScore();
+        }
+    }
+
+    private void readLimits() {
+        maxGapMinutes = Math.max(rules.getMaxGapMinutes(), DEFAULT_MAX_GAP_MINUTES);
+        consecutiveBufferMinutes = Math.max(rules.getConsecutiveLessonBufferMinutes(), 0);
+        facultyBreakPadding = getBreakPadding(rules);
+        dailyTarget = Math.max(rules.getTargetDailyLessonsPerBatch(), DEFAULT_TARGET_DAILY_LESSONS);
+        dailyVariance = Math.max(rules.getAllowedDailyLessonsVariance(), DEFAULT_ALLOWED_VARIANCE);
+    }
+
+    private static List<Lesson> allLessons(TimeTable timeTable) {
+        List<Lesson> lessons = new ArrayList<>();
+        addAll(lessons, timeTable.getLessonList());
+        addAll(lessons, timeTable.getMinorLessonList());
+        return lessons;
+    }
+
+    private static <T> void addAll(List<T> target, List<? extends T> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private static <T> void addIfPresent(List<T> target, T fact) {
+        if (fact != null) {
+            target.add(fact);
+        }
+    }
+
+    private static <T> List<T> distinct(List<T> facts) {
+        Map<T, Boolean> seen = new IdentityHashMap<>();
+        List<T> distinctFacts = new ArrayList<>();
+        for (T fact : facts) {
+            if (seen.put(fact, Boolean.TRUE) == null) {
+                distinctFacts.add(fact);
+            }
+        }
+        return distinctFacts;
+    }
+
+    /**
+     * Size of the array needed to address the facts by their dense index. Facts that were never
+     * indexed, or that share an index with another fact, are renumbered first.
+     */
+    private static int indexCount(List<? extends IndexedFact> facts) {
+        List<? extends IndexedFact> distinctFacts = distinct(facts);
+        Map<Integer, IndexedFact> byIndex = new HashMap<>();
+        int maxIndex = -1;
+        boolean valid = true;
+        for (IndexedFact fact : distinctFacts) {
+            if (fact.getIndex() < 0 || byIndex.put(fact.getIndex(), fact) != null) {
+                valid = false;
+                break;
+            }
+            maxIndex = Math.max(maxIndex, fact.getIndex());
+        }
+        if (!valid) {
+            IndexedFact.assignIndexes(distinctFacts);
+            return distinctFacts.size();
+        }
+        return maxIndex + 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Lesson>[] newBuckets(int size) {
+        List<Lesson>[] buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        return buckets;
+    }
+
+    // ************************************************************************
+    // Lesson helpers
+    // ************************************************************************
+
+    private int roomSlotIndex(Lesson lesson) {
+        return lesson.getRoom().getIndex() * slotCount + lesson.getTimeSlot().getIndex();
+    }
+
+    private int dayIndex(Lesson lesson) {
+        Integer day = dayIndexes.get(lesson.getTimeSlot().getDay());
+        if (day == null) {
+            throw new IllegalStateException("Time slot " + lesson.getTimeSlot()
+                    + " of lesson " + lesson.getId() + " is not part of the working solution");
+        }
+        return day;
+    }
+
+    private int batchRow(Lesson lesson) {
+        return lesson.getStudentBatch() != null ? lesson.getStudentBatch().getIndex() : batchCount;
+    }
+
+    // forEachUniquePair orders each pair by planning id
+    private static boolean isOrderedBefore(Lesson lesson, Lesson other) {
+        return lesson.getId() < other.getId();
+    }
+
+    private static boolean isLabCourse(Lesson lesson) {
+        return lesson.getCourse() != null && lesson.getCourse().isLabCourse();
+    }
+
+    private static boolean isMinorCourse(Lesson lesson) {
+        return lesson.getCourse() != null && "minor".equals(lesson.getCourse().getCourseType());
+    }
+
+    private static boolean isMinorLesson(Lesson lesson) {
+        return lesson.getCourse() != null && "MINOR".equals(lesson.getLessonType());
+    }
+
+    private static void removeIdentity(List<Lesson> lessons, Lesson lesson) {
+        for (int i = lessons.size() - 1; i >= 0; i--) {
+            if (lessons.get(i) == lesson) {
+                // Order within a bucket does not matter, so swap with the last element
+                int last = lessons.size() - 1;
+                lessons.set(i, lessons.get(last));
+                lessons.remove(last);
+                return;
+            }
+        }
+        throw new IllegalStateException("Lesson " + lesson.getId() + " was not tracked by the score calculator");
+    }
+}
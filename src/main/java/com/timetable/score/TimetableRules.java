@@ -0,0 +1,150 @@
+package com.timetable.score;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.RoomType;
+import com.timetable.domain.SchedulingRules;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Rule predicates and limits shared by the constraint streams and the incremental score calculator,
+ * so both scoring engines judge a lesson the same way. Configurable rules are read from the
+ * {@link SchedulingRules} of the timetable being scored.
+ */
+final class TimetableRules {
+    // Constants
+    static final int MIN_CLASSES_PER_BATCH = 20;
+    static final int MAX_CLASSES_PER_BATCH = 25;
+    static final int TARGET_FACULTY_LESSONS = 15;
+    static final int DEFAULT_TARGET_DAILY_LESSONS = 4;
+    static final int DEFAULT_ALLOWED_VARIANCE = 1;
+    static final int DEFAULT_MAX_GAP_MINUTES = 60;
+    static final int DEFAULT_MAX_TEACHER_GAP_MINUTES = 90;
+
+    private TimetableRules() {}
+
+    static boolean isRoomAllowedForBatch(Room room, StudentBatch batch) {
+        if (room == null || batch == null) return true;
+
+        if (room.isLectureRoom()) {
+            return batch.getLectureRoomIDs().contains(room.getId());
+        } else if (room.isLabRoom()) {
+            return batch.getPracticalRoomIDs().contains(room.getId());
+        }
+        return false;
+    }
+
+    static boolean isLunchHourForYear(Lesson lesson, SchedulingRules rules) {
+        if (lesson.getStudentBatch() == null) return false;
+
+        int year = lesson.getStudentBatch().getYear();
+        LocalTime startTime = lesson.getTimeSlot().getStartTime();
+
+        return rules.isLunchHourForYear(year, startTime);
+    }
+
+    static boolean isLabInCorrectTimeSlot(Lesson lesson, SchedulingRules rules) {
+        TimeSlot timeSlot = lesson.getTimeSlot();
+        if (timeSlot == null) return false;
+
+        StudentBatch batch = lesson.getStudentBatch();
+        if (batch == null) return false;
+
+        return rules.isLabTimeSlotValidForBatch(batch.getYear(), timeSlot.getStartTime(), timeSlot.getEndTime());
+    }
+
+    static boolean isLabRoom(Room room) {
+        if (room == null) {
+            return false;
+        }
+        return room.getType() == RoomType.COMPUTER_LAB ||
+                room.getType() == RoomType.HARDWARE_LAB;
+    }
+
+    static boolean isConsecutive(Lesson lesson1, Lesson lesson2, SchedulingRules rules) {
+        LocalTime endTime1 = lesson1.getTimeSlot().getEndTime();
+        LocalTime startTime2 = lesson2.getTimeSlot().getStartTime();
+        int bufferMinutes = Math.max(rules.getConsecutiveLessonBufferMinutes(), 0);
+        return endTime1.equals(startTime2) ||
+                ChronoUnit.MINUTES.between(endTime1, startTime2) <= bufferMinutes;
+    }
+
+    // Minimum break between two lessons of a faculty member, at least a minute so touching lessons conflict
+    static int getBreakPadding(SchedulingRules rules) {
+        return Math.max(rules.getMinimumBreakBetweenClassesMinutes(), 1);
+    }
+
+    // Helper method to check if a time slot is valid for minor courses
+    static boolean isValidMinorTimeSlot(TimeSlot slot, SchedulingRules rules) {
+        if (slot == null) return false;
+
+        return rules.isMinorTimeSlotValid(slot.getStartTime(), slot.getEndTime(), slot.getSlotType());
+    }
+
+    // Helper method to check if a room is valid for a minor course
+    static boolean isValidMinorRoom(Lesson lesson) {
+        return lesson.getCourse() != null &&
+                lesson.getRoom() != null &&
+                lesson.getCourse().getLectureRoomIDs().contains(lesson.getRoom().getId());
+    }
+
+    // Original time slot validation for regular batches
+    static boolean isTimeSlotValidForBatch(StudentBatch batch, TimeSlot slot, SchedulingRules rules) {
+        if (slot.getSlotType().equals("MINOR")) {
+            return false;  // Regular batches should not get minor slots
+        }
+
+        return rules.isTimeSlotValidForBatch(batch.getYear(), slot.getStartTime(), slot.getEndTime(), slot.getSlotType());
+    }
+
+    static int calculateTimeGap(Lesson lesson1, Lesson lesson2) {
+        if (lesson1 == null || lesson2 == null) {
+            return 0;
+        }
+        TimeSlot slot1 = lesson1.getTimeSlot();
+        TimeSlot slot2 = lesson2.getTimeSlot();
+        if (slot1 == null || slot2 == null) {
+            return 0;
+        }
+
+        Lesson earlierLesson = slot1.getStartTime().isBefore(slot2.getStartTime()) ? lesson1 : lesson2;
+        Lesson laterLesson = earlierLesson == lesson1 ? lesson2 : lesson1;
+
+        long gap = ChronoUnit.MINUTES.between(
+                earlierLesson.getTimeSlot().getEndTime(),
+                laterLesson.getTimeSlot().getStartTime());
+
+        return gap > 0 ? (int) gap : 0;
+    }
+
+    static boolean validateTeacherGaps(Lesson lesson1, Lesson lesson2, SchedulingRules rules) {
+        if (lesson1 == null || lesson2 == null) {
+            return false;
+        }
+        if (lesson1.getFaculty() == null || lesson2.getFaculty() == null) {
+            return false;
+        }
+        if (lesson1.getTimeSlot() == null || lesson2.getTimeSlot() == null) {
+            return false;
+        }
+        if (!lesson1.getFaculty().equals(lesson2.getFaculty())) {
+            return false;
+        }
+        if (!lesson1.getTimeSlot().getDay().equals(lesson2.getTimeSlot().getDay())) {
+            return false;
+        }
+
+        int gap = calculateTimeGap(lesson1, lesson2);
+        if (gap <= 0) {
+            return false;
+        }
+
+        int allowedGap = Math.max(rules.getMaxTeacherGapMinutes(), DEFAULT_MAX_TEACHER_GAP_MINUTES);
+
+        return gap > allowedGap;
+    }
+}
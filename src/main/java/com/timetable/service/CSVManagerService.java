@@ -9,22 +9,24 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+/**
+ * Manages the CSV files of one tenant at a time; every file operation takes the directory of the
+ * tenant's files.
+ */
 @Service
 public class CSVManagerService {
     private static final Logger logger = Logger.getLogger(CSVManagerService.class.getName());
-    private static final String CSV_DIR = "./";
     
     // CSV File Metadata
-    public Map<String, Object> getCSVMetadata(String csvType) {
+    public Map<String, Object> getCSVMetadata(Path directory, String csvType) {
         Map<String, Object> metadata = new HashMap<>();
         String fileName = getFileName(csvType);
-        Path path = Paths.get(CSV_DIR, fileName);
+        Path path = directory.resolve(fileName);
         
         try {
             if (Files.exists(path)) {
@@ -93,15 +95,16 @@ public class CSVManagerService {
     }
     
     // Upload and Backup CSV
-    public Map<String, Object> uploadCSV(String csvType, MultipartFile file) throws IOException {
+    public Map<String, Object> uploadCSV(Path directory, String csvType, MultipartFile file) throws IOException {
         Map<String, Object> result = new HashMap<>();
         String fileName = getFileName(csvType);
-        Path path = Paths.get(CSV_DIR, fileName);
+        Files.createDirectories(directory);
+        Path path = directory.resolve(fileName);
         
         // Create backup
         if (Files.exists(path)) {
             String backupName = fileName.replace(".csv", "_backup_" + System.currentTimeMillis() + ".csv");
-            Path backupPath = Paths.get(CSV_DIR, backupName);
+            Path backupPath = directory.resolve(backupName);
             Files.copy(path, backupPath, StandardCopyOption.REPLACE_EXISTING);
             result.put("backupCreated", backupName);
         }
@@ -116,10 +119,10 @@ public class CSVManagerService {
     }
     
     // Get CSV Statistics
-    public Map<String, Object> getCSVStatistics(String csvType) {
+    public Map<String, Object> getCSVStatistics(Path directory, String csvType) {
         Map<String, Object> stats = new HashMap<>();
         String fileName = getFileName(csvType);
-        Path path = Paths.get(CSV_DIR, fileName);
+        Path path = directory.resolve(fileName);
         
         try (CSVReader reader = new CSVReader(new FileReader(path.toFile()))) {
             List<String[]> rows;
@@ -168,10 +171,10 @@ public class CSVManagerService {
     }
     
     // Get CSV Preview
-    public Map<String, Object> getCSVPreview(String csvType, int rows) {
+    public Map<String, Object> getCSVPreview(Path directory, String csvType, int rows) {
         Map<String, Object> preview = new HashMap<>();
         String fileName = getFileName(csvType);
-        Path path = Paths.get(CSV_DIR, fileName);
+        Path path = directory.resolve(fileName);
         
         try (CSVReader reader = new CSVReader(new FileReader(path.toFile()))) {
             List<String[]> allRows = reader.readAll();
@@ -194,9 +197,9 @@ public class CSVManagerService {
     }
     
     // Export CSV with filters
-    public byte[] exportFilteredCSV(String csvType, Map<String, String> filters) throws IOException {
+    public byte[] exportFilteredCSV(Path directory, String csvType, Map<String, String> filters) throws IOException {
         String fileName = getFileName(csvType);
-        Path path = Paths.get(CSV_DIR, fileName);
+        Path path = directory.resolve(fileName);
         
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         CSVWriter writer = new CSVWriter(new OutputStreamWriter(outputStream));
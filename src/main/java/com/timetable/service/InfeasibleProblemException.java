@@ -0,0 +1,21 @@
+package com.timetable.service;
+
+import com.timetable.score.FeasibilityAnalyzer;
+
+/**
+ * Thrown instead of solving when the feasibility analysis shows that some hard constraint is bound
+ * to be broken, whatever the solver does, and the solver settings ask to reject such input.
+ */
+public class InfeasibleProblemException extends RuntimeException {
+
+    private final FeasibilityAnalyzer.Report report;
+
+    public InfeasibleProblemException(FeasibilityAnalyzer.Report report) {
+        super("No feasible timetable exists for the current data and settings");
+        this.report = report;
+    }
+
+    public FeasibilityAnalyzer.Report getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,314 @@
+package com.timetable.service;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.SolverConfiguration;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeSlotConfiguration;
+import com.timetable.domain.TimeTable;
+import com.timetable.domain.TimetableConstraintConfiguration;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solutions on disk, keyed by a SHA-256 of everything a solve depends on: the CSV files, the time
+ * slot configuration, the solver settings, the constraint weights and the constraint set version.
+ * Generating again with unchanged inputs then returns the stored solution instead of solving.
+ * Only the assignment of every lesson is stored; it is applied to a freshly built problem, so a
+ * file whose ids no longer fit is treated as a miss. The least recently used files are deleted
+ * once the directory outgrows its size limit.
+ */
+@Component
+public class SolutionCache {
+    private static final Logger logger = Logger.getLogger(SolutionCache.class.getName());
+
+    // Bump when the file layout changes
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".solution";
+
+    public enum Mode {
+        REUSE,   // return the stored solution, solve on a miss
+        IMPROVE, // keep solving from the stored solution
+        REFRESH  // solve from scratch and replace the stored solution
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SolutionCache(@Value("${timetable.solution-cache.dir:solution-cache}") String directory,
+                         @Value("${timetable.solution-cache.max-mb:64}") long maxMegabytes) {
+        if (maxMegabytes <= 0) {
+            throw new IllegalArgumentException("Solution cache size limit must be positive, got " + maxMegabytes);
+        }
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxMegabytes * 1024 * 1024;
+        logger.info("Solution cache in " + this.directory.toAbsolutePath() + ", limited to " + maxMegabytes + " MB");
+    }
+
+    /**
+     * The key of a solve with these inputs. Reads the CSV files, so it changes as soon as one of
+     * them does.
+     */
+    public static String key(Path dataDirectory, TimeSlotConfiguration timeSlotConfiguration,
+                             SolverConfiguration solverConfiguration, Map<String, String> constraintWeights) throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, "format " + FORMAT_VERSION + ", constraint set " + TimetableConstraintConfiguration.CONSTRAINT_SET_VERSION);
+        byte[] buffer = new byte[8192];
+        for (String fileName : TenantDataset.CSV_FILES) {
+            update(digest, fileName);
+            try (InputStream input = Files.newInputStream(dataDirectory.resolve(fileName))) {
+                int read;
+                while ((read = input.read(buffer)) > 0) {
+                    digest.update(buffer, 0, read);
+                }
+            } catch (NoSuchFileException e) {
+                update(digest, "missing");
+            }
+        }
+        update(digest, describe(timeSlotConfiguration));
+        update(digest, solverConfiguration.toString());
+        update(digest, new TreeMap<>(constraintWeights).toString());
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Applies the solution stored under the key to the problem, which must be built from the same
+     * inputs.
+     *
+     * @return false on a miss, leaving the problem as it was
+     */
+    public boolean restore(String key, TimeTable problem) {
+        Path file = file(key);
+        Map<Long, String[]> assignments = new HashMap<>();
+        HardSoftScore score;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String scoreLine = reader.readLine();
+            score = scoreLine == null || scoreLine.isEmpty() ? null : HardSoftScore.parseScore(scoreLine);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                assignments.put(Long.valueOf(fields[0]), fields);
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return false;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Dropping unreadable cached solution " + file, e);
+            delete(file);
+            misses.incrementAndGet();
+            return false;
+        }
+
+        List<Lesson> lessons = allLessons(problem);
+        if (assignments.size() != lessons.size() || !lessons.stream().allMatch(lesson -> assignments.containsKey(lesson.getId()))) {
+            logger.warning("Cached solution " + key + " does not fit the problem, solving instead");
+            misses.incrementAndGet();
+            return false;
+        }
+        List<Object[]> resolved = new ArrayList<>();
+        for (Lesson lesson : lessons) {
+            String[] fields = assignments.get(lesson.getId());
+            TimeSlot timeSlot = find(lesson.getTimeSlotList(), TimeSlot::getId, fields[1]);
+            Room room = find(lesson.getRoomList(), Room::getId, fields[2]);
+            Faculty faculty = find(lesson.getFacultyList(), Faculty::getId, fields[3]);
+            if ((timeSlot == null && !fields[1].isEmpty()) || (room == null && !fields[2].isEmpty())
+                    || (faculty == null && !fields[3].isEmpty())) {
+                logger.warning("Cached solution " + key + " refers to values the problem does not have, solving instead");
+                misses.incrementAndGet();
+                return false;
+            }
+            resolved.add(new Object[] {lesson, timeSlot, room, faculty});
+        }
+        for (Object[] assignment : resolved) {
+            Lesson lesson = (Lesson) assignment[0];
+            lesson.setTimeSlot((TimeSlot) assignment[1]);
+            lesson.setRoom((Room) assignment[2]);
+            lesson.setFaculty((Faculty) assignment[3]);
+        }
+        problem.setScore(score);
+        hits.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Stores the solution under the key, then deletes the least recently used solutions over the
+     * size limit.
+     */
+    public void store(String key, TimeTable solution) {
+        Path file = file(key);
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                writer.write(solution.getScore() != null ? solution.getScore().toString() : "");
+                writer.newLine();
+                for (Lesson lesson : allLessons(solution)) {
+                    writer.write(lesson.getId() + "," + id(lesson.getTimeSlot(), TimeSlot::getId) + ","
+                            + id(lesson.getRoom(), Room::getId) + "," + id(lesson.getFaculty(), Faculty::getId));
+                    writer.newLine();
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not store solution " + key, e);
+            return;
+        }
+        evict();
+    }
+
+    public void clear() {
+        for (Path file : files()) {
+            delete(file);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        List<Path> files = files();
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("entries", files.size());
+        statistics.put("bytes", files.stream().mapToLong(SolutionCache::size).sum());
+        statistics.put("maxBytes", maxBytes);
+        statistics.put("hits", hits.get());
+        statistics.put("misses", misses.get());
+        statistics.put("evictions", evictions.get());
+        return statistics;
+    }
+
+    private synchronized void evict() {
+        List<Path> files = files();
+        long total = files.stream().mapToLong(SolutionCache::size).sum();
+        files.sort(Comparator.comparingLong(SolutionCache::lastModified));
+        for (int i = 0; total > maxBytes && i < files.size(); i++) {
+            total -= size(files.get(i));
+            delete(files.get(i));
+            evictions.incrementAndGet();
+        }
+    }
+
+    private List<Path> files() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not list the solution cache", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static List<Lesson> allLessons(TimeTable timeTable) {
+        List<Lesson> lessons = new ArrayList<>(timeTable.getLessonList());
+        lessons.addAll(timeTable.getMinorLessonList());
+        return lessons;
+    }
+
+    private static <T> T find(List<T> values, Function<T, Long> idOf, String id) {
+        if (values == null || id.isEmpty()) {
+            return null;
+        }
+        for (T value : values) {
+            if (id.equals(String.valueOf(idOf.apply(value)))) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static <T> String id(T value, Function<T, Long> idOf) {
+        return value != null ? String.valueOf(idOf.apply(value)) : "";
+    }
+
+    // Everything the solve reads, including what the configuration's toString leaves out
+    private static String describe(TimeSlotConfiguration configuration) {
+        StringBuilder text = new StringBuilder(configuration.toString());
+        for (Object slots : Arrays.asList(configuration.getYear1Slots(), configuration.getYear2Slots(),
+                configuration.getYear3Slots(), configuration.getYear4Slots(), configuration.getMinorSlots())) {
+            text.append('\n').append(slots);
+        }
+        text.append('\n').append(new TreeMap<>(configuration.getBatchYearMapping().getYearIdentifierToLevel()));
+        for (TimeSlotConfiguration.LunchPeriod lunch : Arrays.asList(configuration.getJuniorLunchPeriod(),
+                configuration.getSeniorLunchPeriod())) {
+            text.append('\n').append(lunch != null ? lunch.getStartTime() + "-" + lunch.getEndTime() : "none");
+        }
+        return text.toString();
+    }
+
+    private static void update(MessageDigest digest, String text) {
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not delete " + file, e);
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package com.timetable.service;
+
+import com.timetable.domain.SolverConfiguration;
+import com.timetable.domain.TimeTable;
+import com.timetable.score.FeasibilityAnalyzer;
+import com.timetable.solver.PhaseReport;
+import com.timetable.solver.PortfolioSolver;
+import com.timetable.solver.island.IslandStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Admission control and scheduling in front of {@link TimetableService#generateTimetable}. A
+ * generate call becomes a job that solves with the tenant's settings as they were when it was
+ * submitted; a call with the same tenant and inputs as a job that has not finished yet joins that
+ * job instead of solving again. At most {@code maxConcurrent} jobs solve
+ * at once, and only while the memory estimates of the running jobs fit the budget; the rest wait,
+ * up to {@code maxQueued} of them.
+ * Waiting jobs start by priority class, then by the solve time their tenant used recently, then
+ * in arrival order; batch jobs that waited too long count as interactive. A job that has run for
+ * a time slice while a job ranked above it waits is paused and queued again, and later continues
+ * from its best solution.
+ */
+@Service
+public class SolveQueue {
+    private static final Logger logger = Logger.getLogger(SolveQueue.class.getName());
+
+    // Rough heap cost of a solve: the solver itself, a lesson with its clones and score
+    // bookkeeping, and a candidate placement of a lesson, as the move selectors and constraint
+    // indexes grow with lessons x time slots x rooms
+    private static final long BASE_BYTES = 32L * 1024 * 1024;
+    private static final long BYTES_PER_LESSON = 16 * 1024;
+    private static final long BYTES_PER_PLACEMENT = 4;
+    // Finished jobs kept for status queries
+    private static final int FINISHED_JOBS_KEPT = 50;
+    // Solve time a tenant used counts half after this long, for the fair share
+    private static final long USAGE_HALF_LIFE_MILLIS = 10 * 60 * 1000L;
+    // Recent waits kept for the wait time statistics
+    private static final int WAITS_KEPT = 200;
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    public enum Priority {
+        INTERACTIVE, // repairs someone is waiting for
+        BATCH        // full solves nobody watches, such as nightly runs
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long memoryBudgetBytes;
+    private final long timeSliceMillis;
+    private final long maxBatchWaitMillis;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<String, Job> unfinishedJobsByKey = new HashMap<>();
+    private final List<Job> queued = new ArrayList<>();
+    private final List<Job> running = new ArrayList<>();
+    private final Map<String, TenantUsage> tenantUsage = new HashMap<>();
+    private final Deque<Long> recentWaitMillis = new ArrayDeque<>();
+    private long reservedBytes;
+    private long pauses;
+
+    public SolveQueue(@Value("${timetable.jobs.max-concurrent:1}") int maxConcurrent,
+                      @Value("${timetable.jobs.max-queued:20}") int maxQueued,
+                      @Value("${timetable.jobs.memory-budget-mb:0}") long memoryBudgetMb,
+                      @Value("${timetable.jobs.time-slice-seconds:60}") long timeSliceSeconds,
+                      @Value("${timetable.jobs.max-batch-wait-seconds:900}") long maxBatchWaitSeconds) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Solve queue needs at least one concurrent job and a non-negative queue length");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        // 0 = most of the heap, leaving room for the web server and the tenants' caches
+        this.memoryBudgetBytes = memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() * 6 / 10;
+        this.timeSliceMillis = timeSliceSeconds * 1000; // 0 = never pause
+        this.maxBatchWaitMillis = maxBatchWaitSeconds * 1000;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "timetable-solve-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (timeSliceMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "timetable-solve-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::preempt, 1, 1, TimeUnit.SECONDS);
+        } else {
+            scheduler = null;
+        }
+        logger.info("Solve queue: " + maxConcurrent + " concurrent, " + maxQueued + " queued, memory budget "
+                + memoryBudgetBytes / (1024 * 1024) + " MB, time slice " + timeSliceSeconds + "s");
+    }
+
+    public Job submit(TimetableService service, SolutionCache.Mode cacheMode) {
+        return submit(service, cacheMode, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Admits a generate call with the service's current settings, or joins the unfinished job with
+     * the same inputs, raising its priority if this call's is higher.
+     *
+     * @throws IllegalArgumentException if the solve alone would exceed the memory budget
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public Job submit(TimetableService service, SolutionCache.Mode cacheMode, Priority priority) {
+        return submit(service, null, cacheMode, priority);
+    }
+
+    /**
+     * Admits a generate call as {@link #submit(TimetableService, SolutionCache.Mode, Priority)}
+     * does, solving with {@code solverConfiguration} unless it is null.
+     */
+    public Job submit(TimetableService tenantService, SolverConfiguration solverConfiguration,
+                      SolutionCache.Mode cacheMode, Priority priority) {
+        // Later changes to the tenant's settings must not reach a job that is waiting or solving
+        TimetableService service = tenantService.snapshot(solverConfiguration);
+        String key;
+        try {
+            key = service.getTenantId() + "|" + cacheMode + "|" + service.inputKey();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the input files", e);
+        }
+        synchronized (this) {
+            Job unfinished = join(key, priority);
+            if (unfinished != null) {
+                return unfinished;
+            }
+        }
+
+        // Counted from the dataset: the job builds the problem itself once it starts
+        long estimatedBytes = estimateBytes(service.problemSize(), service.getSolverConfiguration());
+        if (estimatedBytes > memoryBudgetBytes) {
+            throw new IllegalArgumentException("The solve needs about " + estimatedBytes / (1024 * 1024)
+                    + " MB, more than the solve memory budget of " + memoryBudgetBytes / (1024 * 1024) + " MB");
+        }
+        synchronized (this) {
+            // Another call may have admitted the same inputs while this one was estimating
+            Job unfinished = join(key, priority);
+            if (unfinished != null) {
+                return unfinished;
+            }
+            if (queued.size() >= maxQueued && !(queued.isEmpty() && canStart(estimatedBytes))) {
+                throw new RejectedExecutionException("The solve queue is full (" + queued.size() + " waiting), try again later");
+            }
+            Job job = new Job(UUID.randomUUID().toString(), service, cacheMode, priority, key, estimatedBytes);
+            jobs.put(job.id, job);
+            unfinishedJobsByKey.put(key, job);
+            queued.add(job);
+            logger.info("Admitted " + priority + " job " + job.id + " for tenant " + job.getTenantId() + ", about "
+                    + estimatedBytes / (1024 * 1024) + " MB");
+            dispatch();
+            return job;
+        }
+    }
+
+    private Job join(String key, Priority priority) {
+        Job unfinished = unfinishedJobsByKey.get(key);
+        if (unfinished == null) {
+            return null;
+        }
+        unfinished.requests.incrementAndGet();
+        if (priority.compareTo(unfinished.priority) < 0) {
+            unfinished.priority = priority;
+            dispatch();
+        }
+        logger.info("Joining job " + unfinished.id + " with the same inputs");
+        return unfinished;
+    }
+
+    public synchronized Job getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public synchronized List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("running", running.size());
+        statistics.put("queued", queued.size());
+        Map<Priority, Integer> queuedByPriority = new TreeMap<>();
+        Map<String, Integer> queuedByTenant = new TreeMap<>();
+        long oldestWaitMillis = 0;
+        for (Job job : queued) {
+            queuedByPriority.merge(job.priority, 1, Integer::sum);
+            queuedByTenant.merge(job.getTenantId(), 1, Integer::sum);
+            oldestWaitMillis = Math.max(oldestWaitMillis, now - job.queuedAt);
+        }
+        statistics.put("queuedByPriority", queuedByPriority);
+        statistics.put("queuedByTenant", queuedByTenant);
+        statistics.put("oldestWaitMillis", oldestWaitMillis);
+        List<Long> waits = new ArrayList<>(recentWaitMillis);
+        Collections.sort(waits);
+        Map<String, Object> waitStatistics = new LinkedHashMap<>();
+        waitStatistics.put("count", waits.size());
+        waitStatistics.put("meanMillis", waits.isEmpty() ? 0 : waits.stream().mapToLong(Long::longValue).sum() / waits.size());
+        waitStatistics.put("p95Millis", waits.isEmpty() ? 0 : waits.get((int) Math.ceil(waits.size() * 0.95) - 1));
+        waitStatistics.put("maxMillis", waits.isEmpty() ? 0 : waits.get(waits.size() - 1));
+        statistics.put("recentWaits", waitStatistics);
+        Map<String, Long> usageSeconds = new TreeMap<>();
+        for (String tenantId : tenantUsage.keySet()) {
+            usageSeconds.put(tenantId, Math.round(usage(tenantId, now) / 1000));
+        }
+        statistics.put("tenantUsageSeconds", usageSeconds);
+        statistics.put("pauses", pauses);
+        statistics.put("maxConcurrent", maxConcurrent);
+        statistics.put("maxQueued", maxQueued);
+        statistics.put("timeSliceSeconds", timeSliceMillis / 1000);
+        statistics.put("reservedBytes", reservedBytes);
+        statistics.put("memoryBudgetBytes", memoryBudgetBytes);
+        return statistics;
+    }
+
+    /**
+     * Heap a solve of a problem of this size with these settings is expected to take. Portfolio
+     * members each hold their own working solution; island solves run in their own processes.
+     */
+    static long estimateBytes(TimetableService.ProblemSize size, SolverConfiguration solverConfiguration) {
+        long lessons = size.getLessons();
+        long timeSlots = size.getTimeSlots();
+        long rooms = size.getRooms();
+        long solvers = solverConfiguration.getIslandCount() > 1 ? 1 : Math.max(1, solverConfiguration.getPortfolioSize());
+        return BASE_BYTES + solvers * (lessons * BYTES_PER_LESSON + lessons * timeSlots * rooms * BYTES_PER_PLACEMENT);
+    }
+
+    private boolean canStart(long estimatedBytes) {
+        // A job alone always fits, since larger ones are not admitted
+        return running.size() < maxConcurrent && (running.isEmpty() || reservedBytes + estimatedBytes <= memoryBudgetBytes);
+    }
+
+    // Starts the best ranked waiting jobs while they fit; a job that does not fit holds back the
+    // ones ranked below it, so large jobs are not starved by small ones
+    private void dispatch() {
+        long now = System.currentTimeMillis();
+        Comparator<Job> ranking = ranking(now);
+        while (!queued.isEmpty()) {
+            Job next = Collections.min(queued, ranking);
+            if (!canStart(next.estimatedBytes)) {
+                break;
+            }
+            queued.remove(next);
+            start(next, now);
+        }
+        List<Job> waiting = new ArrayList<>(queued);
+        waiting.sort(ranking);
+        for (int i = 0; i < waiting.size(); i++) {
+            waiting.get(i).position = i + 1;
+        }
+    }
+
+    private void start(Job job, long now) {
+        running.add(job);
+        reservedBytes += job.estimatedBytes;
+        long waited = now - job.queuedAt;
+        job.waitMillis += waited;
+        recentWaitMillis.addLast(waited);
+        if (recentWaitMillis.size() > WAITS_KEPT) {
+            recentWaitMillis.removeFirst();
+        }
+        job.status = Status.RUNNING;
+        job.sliceStartedAt = now;
+        if (job.startedAt == null) {
+            job.startedAt = now;
+        }
+        executor.execute(() -> run(job));
+    }
+
+    private Comparator<Job> ranking(long now) {
+        Map<String, Double> usage = new HashMap<>();
+        return Comparator.comparingInt((Job job) -> priorityClass(job, now))
+                .thenComparingDouble(job -> usage.computeIfAbsent(job.getTenantId(), tenantId -> usage(tenantId, now)))
+                .thenComparingLong(job -> job.submittedAt);
+    }
+
+    private int priorityClass(Job job, long now) {
+        if (job.priority == Priority.BATCH && job.status == Status.QUEUED && now - job.queuedAt >= maxBatchWaitMillis) {
+            return Priority.INTERACTIVE.ordinal();
+        }
+        return job.priority.ordinal();
+    }
+
+    // Recently used solve time of the tenant, including its running slices
+    private double usage(String tenantId, long now) {
+        TenantUsage used = tenantUsage.get(tenantId);
+        double millis = used != null ? used.at(now) : 0;
+        for (Job job : running) {
+            if (job.getTenantId().equals(tenantId)) {
+                millis += now - job.sliceStartedAt;
+            }
+        }
+        return millis;
+    }
+
+    private void charge(Job job, long now) {
+        tenantUsage.computeIfAbsent(job.getTenantId(), ignored -> new TenantUsage()).add(now - job.sliceStartedAt, now);
+    }
+
+    /**
+     * Pauses the lowest ranked running job that has used up its time slice, if a waiting job
+     * that cannot start ranks above it: by priority class, or by a smaller recent usage of
+     * another tenant. One job is paused at a time.
+     */
+    private synchronized void preempt() {
+        if (queued.isEmpty()) {
+            return;
+        }
+        for (Job job : running) {
+            if (job.slice.isPauseRequested()) {
+                // Repeated, since a solver that was just starting may have missed it
+                job.slice.pause();
+                return;
+            }
+        }
+        long now = System.currentTimeMillis();
+        Comparator<Job> ranking = ranking(now);
+        Job next = Collections.min(queued, ranking);
+        if (canStart(next.estimatedBytes)) {
+            dispatch();
+            return;
+        }
+        Job pausable = null;
+        for (Job job : running) {
+            boolean sliceUsed = now - job.sliceStartedAt >= timeSliceMillis;
+            boolean islands = job.service.getSolverConfiguration().getIslandCount() > 1;
+            if (sliceUsed && !islands && outranks(next, job, now) && (pausable == null || ranking.compare(job, pausable) > 0)) {
+                pausable = job;
+            }
+        }
+        if (pausable != null) {
+            logger.info("Pausing job " + pausable.id + " of tenant " + pausable.getTenantId() + " for job " + next.id
+                    + " of tenant " + next.getTenantId());
+            pausable.slice.pause();
+        }
+    }
+
+    private boolean outranks(Job waiting, Job runningJob, long now) {
+        int waitingClass = priorityClass(waiting, now);
+        int runningClass = priorityClass(runningJob, now);
+        if (waitingClass != runningClass) {
+            return waitingClass < runningClass;
+        }
+        return !waiting.getTenantId().equals(runningJob.getTenantId())
+                && usage(waiting.getTenantId(), now) < usage(runningJob.getTenantId(), now);
+    }
+
+    private void run(Job job) {
+        try {
+            TimeTable solution = job.service.generateTimetable(job.cacheMode, job.slice);
+            if (job.slice.isPaused()) {
+                requeue(job);
+                return;
+            }
+            job.score = solution.getScore() != null ? solution.getScore().toString() : null;
+            // The service is this job's own snapshot, so its last solve is this job's
+            job.timeToFeasibleMillis = job.service.getLastTimeToFeasibleMillis();
+            job.fromCache = job.service.isLastSolutionFromCache();
+            job.phases = job.service.getLastPhaseReport();
+            job.feasibility = job.service.getLastFeasibilityReport();
+            job.portfolio = job.service.getLastPortfolioMembers();
+            job.islands = job.service.getLastIslandResult() != null ? job.service.getLastIslandResult().getIslands() : null;
+            finish(job, Status.COMPLETED, null);
+            job.result.complete(solution);
+        } catch (RuntimeException | Error e) {
+            finish(job, Status.FAILED, e.getMessage());
+            job.result.completeExceptionally(e);
+        }
+    }
+
+    private synchronized void requeue(Job job) {
+        long now = System.currentTimeMillis();
+        charge(job, now);
+        running.remove(job);
+        reservedBytes -= job.estimatedBytes;
+        job.status = Status.QUEUED;
+        job.queuedAt = now;
+        job.pauses++;
+        pauses++;
+        queued.add(job);
+        dispatch();
+    }
+
+    private synchronized void finish(Job job, Status status, String error) {
+        long now = System.currentTimeMillis();
+        charge(job, now);
+        job.status = status;
+        job.error = error;
+        job.finishedAt = now;
+        running.remove(job);
+        reservedBytes -= job.estimatedBytes;
+        unfinishedJobsByKey.remove(job.key, job);
+        logger.info("Job " + job.id + " " + status + " after " + (job.finishedAt - job.submittedAt) + " ms, "
+                + job.waitMillis + " ms of it waiting");
+        dispatch();
+        trimFinishedJobs();
+    }
+
+    private void trimFinishedJobs() {
+        long finished = jobs.values().stream().filter(Job::isDone).count();
+        for (Iterator<Job> iterator = jobs.values().iterator(); iterator.hasNext() && finished > FINISHED_JOBS_KEPT; ) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+                finished--;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+
+    // Solve milliseconds a tenant used, decaying with the half-life
+    private static class TenantUsage {
+        private double millis;
+        private long updatedAt;
+
+        private double at(long now) {
+            return millis * Math.pow(0.5, (double) (now - updatedAt) / USAGE_HALF_LIFE_MILLIS);
+        }
+
+        private void add(long usedMillis, long now) {
+            millis = at(now) + usedMillis;
+            updatedAt = now;
+        }
+    }
+
+    /**
+     * One admitted solve, shared by every generate call that joined it.
+     */
+    public static class Job {
+        private final String id;
+        private final TimetableService service;
+        private final SolutionCache.Mode cacheMode;
+        private final String key;
+        private final long estimatedBytes;
+        private final long submittedAt = System.currentTimeMillis();
+        private final SolveSlice slice = new SolveSlice();
+        private final AtomicInteger requests = new AtomicInteger(1);
+        private final CompletableFuture<TimeTable> result = new CompletableFuture<>();
+        private volatile Priority priority;
+        private volatile Status status = Status.QUEUED;
+        private volatile int position;
+        private volatile long queuedAt = submittedAt;
+        private volatile long waitMillis;
+        private volatile long sliceStartedAt;
+        private volatile int pauses;
+        private volatile Long startedAt;
+        private volatile Long finishedAt;
+        private volatile String score;
+        private volatile String error;
+        private volatile Long timeToFeasibleMillis;
+        private volatile boolean fromCache;
+        private volatile PhaseReport phases;
+        private volatile FeasibilityAnalyzer.Report feasibility;
+        private volatile List<PortfolioSolver.Member> portfolio;
+        private volatile List<IslandStats> islands;
+
+        private Job(String id, TimetableService service, SolutionCache.Mode cacheMode, Priority priority, String key,
+                    long estimatedBytes) {
+            this.id = id;
+            this.service = service;
+            this.cacheMode = cacheMode;
+            this.priority = priority;
+            this.key = key;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        /**
+         * Waits for the solve to end.
+         *
+         * @throws RuntimeException the exception the solve failed with
+         */
+        public TimeTable await() throws InterruptedException {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Solve failed", e.getCause());
+            }
+        }
+
+        public boolean isDone() {
+            return status == Status.COMPLETED || status == Status.FAILED;
+        }
+
+        public String getId() { return id; }
+        public String getTenantId() { return service.getTenantId(); }
+        public SolutionCache.Mode getCacheMode() { return cacheMode; }
+        public Priority getPriority() { return priority; }
+        public Status getStatus() { return status; }
+        // 1 for the next job to start, 0 while running
+        public int getPosition() { return status == Status.QUEUED ? position : 0; }
+        public long getEstimatedBytes() { return estimatedBytes; }
+        public int getRequests() { return requests.get(); }
+        public int getPauses() { return pauses; }
+        public long getSubmittedAt() { return submittedAt; }
+        public Long getStartedAt() { return startedAt; }
+        public Long getFinishedAt() { return finishedAt; }
+        public long getSolveMillis() { return slice.getSpentMillis(); }
+
+        public long getWaitMillis() {
+            return status == Status.QUEUED ? waitMillis + System.currentTimeMillis() - queuedAt : waitMillis;
+        }
+
+        public String getScore() { return score; }
+        public String getError() { return error; }
+        public SolverConfiguration getSolverConfiguration() { return service.getSolverConfiguration(); }
+
+        // Outcome of the solve, set once it completed
+        public Long getTimeToFeasibleMillis() { return timeToFeasibleMillis; }
+        public boolean isFromCache() { return fromCache; }
+        // Of the last slice only, when the job was paused
+        public PhaseReport getPhases() { return phases; }
+        public List<PortfolioSolver.Member> getPortfolio() { return portfolio; }
+        public FeasibilityAnalyzer.Report getFeasibility() { return feasibility; }
+        public List<IslandStats> getIslands() { return islands; }
+    }
+}
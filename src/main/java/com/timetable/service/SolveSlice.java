@@ -0,0 +1,65 @@
+package com.timetable.service;
+
+import com.timetable.domain.TimeTable;
+import com.timetable.solver.TerminationMonitor;
+
+/**
+ * Lets a scheduler pause a solve to hand its CPU to another one. A paused solve ends like one
+ * terminated early; its best solution and the time it spent are kept here, so that solving again
+ * with the same slice continues from that solution with what is left of the time budget.
+ */
+public class SolveSlice {
+    private static final String PAUSE_REASON = "paused by the solve scheduler";
+
+    private TerminationMonitor monitor;
+    private boolean pauseRequested;
+    private TimeTable warmStart;
+    private long spentMillis;
+
+    /**
+     * Asks the running solve to pause. Safe to repeat, and a no-op while nothing is solving.
+     */
+    public synchronized void pause() {
+        if (monitor != null) {
+            pauseRequested = true;
+            monitor.terminateEarly(PAUSE_REASON);
+        }
+    }
+
+    /**
+     * @return true between a paused solve and the next one with this slice
+     */
+    public synchronized boolean isPaused() {
+        return warmStart != null;
+    }
+
+    public synchronized boolean isPauseRequested() {
+        return pauseRequested;
+    }
+
+    synchronized void started(TerminationMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * Records the end of a solve with this slice.
+     *
+     * @return true if the solve was paused, keeping {@code bestSolution} to continue from
+     */
+    synchronized boolean ended(TimeTable bestSolution, long millis) {
+        boolean paused = pauseRequested && monitor != null && PAUSE_REASON.equals(monitor.getTerminationReason());
+        monitor = null;
+        pauseRequested = false;
+        spentMillis += millis;
+        warmStart = paused ? bestSolution : null;
+        return paused;
+    }
+
+    synchronized TimeTable getWarmStart() {
+        return warmStart;
+    }
+
+    public synchronized long getSpentMillis() {
+        return spentMillis;
+    }
+}
@@ -0,0 +1,130 @@
+package com.timetable.service;
+
+import com.timetable.domain.TimeTable;
+import com.timetable.score.SolutionExplanation;
+import com.timetable.util.WeightedLruCache;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * One memory budget for what the tenants keep loaded: their CSV datasets, the score explanations
+ * of their solutions and the compiled solver factories. Entries are weighed by an estimate of their
+ * heap cost and the least recently used ones are dropped once the budget is exceeded, so the memory
+ * held stays flat however many tenants there are. Datasets are reloaded from disk, explanations
+ * computed again and solver factories rebuilt on their next use.
+ * The tenants' current solutions cannot be recreated without solving again, so they are pinned
+ * outside the budget: each tenant keeps its latest solution until the next one replaces it.
+ * Solver factories are keyed by the solver settings only: the weights and scheduling rules travel
+ * with each problem, so tenants with the same settings share a factory.
+ */
+@Component
+public class TenantCache {
+    private static final Logger logger = Logger.getLogger(TenantCache.class.getName());
+
+    // Rough heap cost of a solved lesson with its planning clone bookkeeping
+    private static final long BYTES_PER_LESSON = 1024;
+    // Rough heap cost of a solver factory with its solution descriptor and score director factory
+    private static final long SOLVER_FACTORY_BYTES = 2 * 1024 * 1024;
+
+    private final WeightedLruCache<String, Object> cache;
+    private final Map<String, TimeTable> solutions = new ConcurrentHashMap<>();
+
+    public TenantCache(@Value("${timetable.tenants.cache-max-mb:256}") long maxMegabytes) {
+        this.cache = new WeightedLruCache<>(maxMegabytes * 1024 * 1024, TenantCache::estimatedBytes);
+        logger.info("Tenant cache limited to " + maxMegabytes + " MB");
+    }
+
+    /**
+     * The dataset of the directory's CSV files as they are now, loaded again when a file changed.
+     */
+    public TenantDataset dataset(Path directory) {
+        String key = datasetKey(directory);
+        return (TenantDataset) cache.getOrLoad(key, ignored -> TenantDataset.load(directory));
+    }
+
+    /**
+     * Loads the directory's CSV files even if they look unchanged, for writes that keep the size
+     * within the file system's timestamp resolution.
+     */
+    public TenantDataset reloadDataset(Path directory) {
+        TenantDataset dataset = TenantDataset.load(directory);
+        cache.put(datasetKey(directory), dataset);
+        return dataset;
+    }
+
+    public TimeTable solution(String tenantId) {
+        return solutions.get(tenantId);
+    }
+
+    public void putSolution(String tenantId, TimeTable solution) {
+        solutions.put(tenantId, solution);
+        cache.remove(explanationKey(tenantId));
+    }
+
+    /**
+     * The explanation of the tenant's solution with the given version, or null if that solution
+     * was not explained yet or its explanation has been evicted.
+     */
+    public SolutionExplanation explanation(String tenantId, long solutionVersion) {
+        SolutionExplanation explanation = (SolutionExplanation) cache.get(explanationKey(tenantId));
+        return explanation != null && explanation.getSolutionVersion() == solutionVersion ? explanation : null;
+    }
+
+    public void putExplanation(String tenantId, SolutionExplanation explanation) {
+        cache.put(explanationKey(tenantId), explanation);
+    }
+
+    /**
+     * The solver factory built from the config the key stands for, built on first use. The key must
+     * name the termination limits too, since they are compiled into the factory.
+     */
+    @SuppressWarnings("unchecked")
+    public SolverFactory<TimeTable> solverFactory(String key, Supplier<SolverConfig> solverConfig) {
+        return (SolverFactory<TimeTable>) cache.getOrLoad("solver|" + key,
+                ignored -> SolverFactory.<TimeTable>create(solverConfig.get()));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("entries", cache.size());
+        statistics.put("estimatedBytes", cache.getTotalWeight());
+        statistics.put("maxBytes", cache.getMaxWeight());
+        statistics.put("hits", cache.getHits());
+        statistics.put("misses", cache.getMisses());
+        statistics.put("evictions", cache.getEvictions());
+        statistics.put("pinnedSolutions", solutions.size());
+        statistics.put("pinnedBytes", solutions.values().stream().mapToLong(TenantCache::estimatedBytes).sum());
+        return statistics;
+    }
+
+    private static String explanationKey(String tenantId) {
+        return "explanation|" + tenantId;
+    }
+
+    private static String datasetKey(Path directory) {
+        return "dataset|" + directory.toAbsolutePath().normalize() + "|" + TenantDataset.fingerprint(directory);
+    }
+
+    private static long estimatedBytes(Object value) {
+        if (value instanceof TenantDataset) {
+            return ((TenantDataset) value).estimatedBytes();
+        }
+        if (value instanceof TimeTable) {
+            TimeTable solution = (TimeTable) value;
+            return (solution.getLessonList().size() + solution.getMinorLessonList().size()) * BYTES_PER_LESSON;
+        }
+        if (value instanceof SolutionExplanation) {
+            return ((SolutionExplanation) value).estimatedBytes();
+        }
+        return SOLVER_FACTORY_BYTES;
+    }
+}
@@ -0,0 +1,83 @@
+package com.timetable.service;
+
+import com.timetable.domain.Course;
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Room;
+import com.timetable.domain.StudentBatch;
+import com.timetable.util.CSVDataLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The problem facts loaded from one tenant's CSV files. Solves only read the facts, so one loaded
+ * dataset is shared by every solve of the tenant until its files change.
+ */
+public class TenantDataset {
+
+    static final List<String> CSV_FILES = List.of("faculty.csv", "rooms.csv", "courses.csv", "minor.csv", "batches.csv");
+
+    // Rough heap cost of one fact with its strings and lists, for the cache budget
+    private static final long BYTES_PER_FACT = 2 * 1024;
+
+    private final List<Faculty> facultyList;
+    private final List<Room> roomList;
+    private final List<Course> courseList;
+    private final List<Course> minorCourseList;
+    private final List<StudentBatch> batchList;
+
+    private TenantDataset(List<Faculty> facultyList, List<Room> roomList, List<Course> courseList,
+                          List<Course> minorCourseList, List<StudentBatch> batchList) {
+        this.facultyList = Collections.unmodifiableList(facultyList);
+        this.roomList = Collections.unmodifiableList(roomList);
+        this.courseList = Collections.unmodifiableList(courseList);
+        this.minorCourseList = Collections.unmodifiableList(minorCourseList);
+        this.batchList = Collections.unmodifiableList(batchList);
+    }
+
+    public static TenantDataset load(Path directory) {
+        List<Faculty> facultyList = CSVDataLoader.loadFaculty(directory.resolve("faculty.csv").toString());
+        List<Room> roomList = CSVDataLoader.loadRooms(directory.resolve("rooms.csv").toString());
+        List<Course> courseList = CSVDataLoader.loadCourses(directory.resolve("courses.csv").toString(), facultyList);
+        List<Course> minorCourseList = CSVDataLoader.loadMinors(directory.resolve("minor.csv").toString(), facultyList);
+        List<StudentBatch> batchList = CSVDataLoader.loadStudentBatches(directory.resolve("batches.csv").toString(), courseList);
+        return new TenantDataset(facultyList, roomList, courseList, minorCourseList, batchList);
+    }
+
+    /**
+     * Size and modification time of every CSV file of the directory, which changes whenever one of
+     * them is replaced.
+     */
+    static String fingerprint(Path directory) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (String fileName : CSV_FILES) {
+            Path path = directory.resolve(fileName);
+            try {
+                fingerprint.append(Files.size(path)).append('@').append(Files.getLastModifiedTime(path).toMillis());
+            } catch (IOException e) {
+                fingerprint.append('-');
+            }
+            fingerprint.append(';');
+        }
+        return fingerprint.toString();
+    }
+
+    public boolean isComplete() {
+        return !facultyList.isEmpty() && !roomList.isEmpty() && !courseList.isEmpty()
+                && !minorCourseList.isEmpty() && !batchList.isEmpty();
+    }
+
+    long estimatedBytes() {
+        return (facultyList.size() + roomList.size() + courseList.size() + minorCourseList.size() + batchList.size())
+                * BYTES_PER_FACT;
+    }
+
+    public List<Faculty> getFacultyList() { return facultyList; }
+    public List<Room> getRoomList() { return roomList; }
+    public List<Course> getCourseList() { return courseList; }
+    public List<Course> getMinorCourseList() { return minorCourseList; }
+    public List<StudentBatch> getBatchList() { return batchList; }
+}
@@ -0,0 +1,120 @@
+package com.timetable.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the tenants apart: each tenant has its own directory of CSV files under the tenants
+ * directory and its own {@link TimetableService} with its settings and solves. The default tenant
+ * is the application's own service, working on the CSV files in the working directory.
+ * The services only hold settings; the tenants' datasets and solutions live in the shared
+ * {@link TenantCache}.
+ */
+@Service
+public class TenantRegistry {
+    private static final Logger logger = Logger.getLogger(TenantRegistry.class.getName());
+
+    public static final String DEFAULT_TENANT = "default";
+    private static final Pattern TENANT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private TimetableService defaultService;
+
+    @Autowired
+    private TenantCache tenantCache;
+
+    @Autowired
+    private SolutionCache solutionCache;
+
+    @Value("${timetable.tenants.dir:tenants}")
+    private String tenantsDirectory;
+
+    private final Map<String, TimetableService> services = new ConcurrentHashMap<>();
+
+    /**
+     * The service of the tenant, the default tenant for a null id.
+     *
+     * @throws IllegalArgumentException if the id is malformed or the tenant does not exist
+     */
+    public TimetableService service(String tenantId) {
+        if (tenantId == null || DEFAULT_TENANT.equals(tenantId)) {
+            return defaultService;
+        }
+        Path directory = dataDirectory(tenantId);
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantId);
+        }
+        return services.computeIfAbsent(tenantId, id -> {
+            TimetableService service = new TimetableService(id, directory, tenantCache, solutionCache);
+            service.init();
+            return service;
+        });
+    }
+
+    /**
+     * The directory of the tenant's CSV files.
+     *
+     * @throws IllegalArgumentException if the id is malformed
+     */
+    public Path dataDirectory(String tenantId) {
+        if (tenantId == null || DEFAULT_TENANT.equals(tenantId)) {
+            return defaultService.getDataDirectory();
+        }
+        if (!TENANT_ID.matcher(tenantId).matches()) {
+            throw new IllegalArgumentException("Tenant id must be 1 to 64 letters, digits, '-' or '_': " + tenantId);
+        }
+        return Paths.get(tenantsDirectory, tenantId);
+    }
+
+    /**
+     * Creates the tenant's directory, into which its CSV files are then uploaded.
+     *
+     * @return true if the tenant is new
+     */
+    public boolean createTenant(String tenantId) throws IOException {
+        if (tenantId == null || DEFAULT_TENANT.equals(tenantId)) {
+            throw new IllegalArgumentException("The default tenant always exists");
+        }
+        Path directory = dataDirectory(tenantId);
+        if (Files.isDirectory(directory)) {
+            return false;
+        }
+        Files.createDirectories(directory);
+        logger.info("Created tenant " + tenantId + " in " + directory.toAbsolutePath());
+        return true;
+    }
+
+    public List<String> getTenantIds() throws IOException {
+        List<String> tenantIds = new ArrayList<>();
+        tenantIds.add(DEFAULT_TENANT);
+        Path root = Paths.get(tenantsDirectory);
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> directories = Files.list(root)) {
+                directories.filter(Files::isDirectory)
+                        .map(directory -> directory.getFileName().toString())
+                        .filter(id -> TENANT_ID.matcher(id).matches() && !DEFAULT_TENANT.equals(id))
+                        .sorted()
+                        .forEach(tenantIds::add);
+            }
+        }
+        return Collections.unmodifiableList(tenantIds);
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        return tenantCache.getStatistics();
+    }
+}
@@ -1,20 +1,53 @@
 package com.timetable.service;
 
 import com.timetable.domain.*;
+import com.timetable.score.ConstraintProfiler;
+import com.timetable.score.FeasibilityAnalyzer;
+import com.timetable.score.ScoringEngineComparison;
+import com.timetable.score.SolutionExplanation;
 import com.timetable.score.TimeTableConstraintProvider;
-import com.timetable.util.CSVDataLoader;
-import com.timetable.util.ConstraintConfigurationHolder;
+import com.timetable.score.TimeTableIncrementalScoreCalculator;
+import com.timetable.solver.PhaseReport;
+import com.timetable.solver.PortfolioSolver;
+import com.timetable.solver.SolveBenchmark;
+import com.timetable.solver.TerminationMonitor;
+import com.timetable.solver.TerminationPolicy;
+import com.timetable.solver.TimetableMoveSelectors;
+import com.timetable.solver.TimetableMoveSelectors.MoveOption;
+import com.timetable.solver.island.IslandCoordinator;
+import com.timetable.solver.island.IslandTask;
+import com.timetable.solver.move.LessonSymmetry;
+import com.timetable.util.SyntheticDataScaler;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolutionUpdatePolicy;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
 import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -22,21 +55,94 @@ import java.util.stream.Collectors;
 @Service
 public class TimetableService {
     private static final Logger logger = Logger.getLogger(TimetableService.class.getName());
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    private final String tenantId;
+    private final Path dataDirectory;
+    private final TimetableService publishTo; // null = keeps its own current timetable, otherwise a snapshot's origin
+    @Autowired(required = false)
+    private TenantCache tenantCache; // null = keeps its own dataset and solution, as in the island workers
+    @Autowired(required = false)
+    private SolutionCache solutionCache; // null = always solves
     private TimeTable currentTimetable;
-    private List<Faculty> facultyList;
-    private List<Room> roomList;
-    private List<Course> courseList;
-    private List<StudentBatch> batchList;
+    private SolutionExplanation currentExplanation;
+    // Counts the current timetables, so an explanation is known to belong to the one it was made from
+    private final AtomicLong solutionVersion = new AtomicLong();
+    private final Object explanationLock = new Object();
+    private TenantDataset dataset;
     private SolverConfiguration solverConfiguration = new SolverConfiguration();
+    private TimetableConstraintConfiguration constraintConfiguration = new TimetableConstraintConfiguration();
+    private volatile Long lastTimeToFeasibleMillis;
+    private volatile Long lastTotalSolveMillis;
+    private volatile List<PortfolioSolver.Member> lastPortfolioMembers;
+    private volatile IslandCoordinator.Result lastIslandResult;
+    private volatile boolean lastSolutionFromCache;
+    private volatile PhaseReport lastPhaseReport;
+    private volatile FeasibilityAnalyzer.Report lastFeasibilityReport;
     private TimeSlotConfiguration timeSlotConfiguration;
-    
+
+    /**
+     * The default tenant, whose CSV files are in the working directory.
+     */
+    public TimetableService() {
+        this(TenantRegistry.DEFAULT_TENANT, Paths.get("."), null, null);
+    }
+
+    /**
+     * A tenant with its CSV files in {@code dataDirectory}, whose dataset and solution live in the
+     * shared tenant cache, and whose solves are stored in the shared solution cache.
+     */
+    public TimetableService(String tenantId, Path dataDirectory, TenantCache tenantCache, SolutionCache solutionCache) {
+        this(tenantId, dataDirectory, tenantCache, solutionCache, null);
+    }
+
+    private TimetableService(String tenantId, Path dataDirectory, TenantCache tenantCache, SolutionCache solutionCache,
+                             TimetableService publishTo) {
+        this.tenantId = tenantId;
+        this.dataDirectory = dataDirectory;
+        this.tenantCache = tenantCache;
+        this.solutionCache = solutionCache;
+        this.publishTo = publishTo;
+    }
+
+    /**
+     * A copy of this service's settings, with {@code solverConfiguration} instead of the current
+     * solver settings unless it is null, for a solve that must not see later changes to them.
+     * The timetables the copy generates become this service's current timetable; the statistics
+     * of its last solve stay its own.
+     */
+    public TimetableService snapshot(SolverConfiguration solverConfiguration) {
+        TimetableService snapshot = new TimetableService(tenantId, dataDirectory, tenantCache, solutionCache, this);
+        snapshot.dataset = dataset;
+        snapshot.timeSlotConfiguration = deepCopy(timeSlotConfiguration);
+        snapshot.constraintConfiguration = new TimetableConstraintConfiguration(constraintConfiguration);
+        if (solverConfiguration != null) {
+            validate(solverConfiguration);
+        }
+        snapshot.solverConfiguration = deepCopy(solverConfiguration != null ? solverConfiguration : this.solverConfiguration);
+        return snapshot;
+    }
+
+    // The settings are serializable for the island workers, which also makes them easy to copy
+    @SuppressWarnings("unchecked")
+    private static <T extends Serializable> T deepCopy(T value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (T) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not copy " + value.getClass().getSimpleName(), e);
+        }
+    }
+
     @PostConstruct
     public void init() {
         logger.info("Initializing TimetableService and loading CSV data...");
         try {
             initializeDefaultTimeSlotConfiguration();
-            // Set configuration in the holder so ConstraintProvider can access it
-            ConstraintConfigurationHolder.getInstance().setTimeSlotConfiguration(timeSlotConfiguration);
             reloadData();
             logger.info("CSV data loaded successfully on startup");
         } catch (Exception e) {
@@ -94,110 +200,773 @@ public class TimetableService {
     }
 
     public TimeTable generateTimetable() {
-        try {
-            // Load data from CSV files
-            facultyList = CSVDataLoader.loadFaculty("faculty.csv");
-            roomList = CSVDataLoader.loadRooms("rooms.csv");
-            courseList = CSVDataLoader.loadCourses("courses.csv", facultyList);
-            List<Course> minorCourseList = CSVDataLoader.loadMinors("minor.csv", facultyList);
-            batchList = CSVDataLoader.loadStudentBatches("batches.csv", courseList);
-
-            if (facultyList.isEmpty() || roomList.isEmpty() || courseList.isEmpty() || minorCourseList.isEmpty() || batchList.isEmpty()) {
-                throw new RuntimeException("Essential data missing");
-            }
+        return generateTimetable(SolutionCache.Mode.REUSE);
+    }
+
+    /**
+     * Solves the current data, or takes the solution of an earlier solve with the same inputs from
+     * the solution cache as {@code cacheMode} says. Island solves start from scratch even when
+     * improving a cached solution, since the workers build their own problem.
+     */
+    public TimeTable generateTimetable(SolutionCache.Mode cacheMode) {
+        return generateTimetable(cacheMode, null);
+    }
 
-            List<TimeSlot> timeSlotList = new ArrayList<>();
-            for (StudentBatch batch : batchList) {
-                timeSlotList.addAll(createTimeSlots(batch));
+    /**
+     * Generates as {@link #generateTimetable(SolutionCache.Mode)} does, in slices a scheduler may
+     * pause. A paused solve returns its best solution so far without storing it; calling again
+     * with the same slice continues from that solution with what is left of the time budget.
+     * Island solves run to the end of their slice.
+     */
+    public TimeTable generateTimetable(SolutionCache.Mode cacheMode, SolveSlice slice) {
+        try {
+            long start = System.currentTimeMillis();
+            PhaseReport phases = new PhaseReport();
+            String cacheKey = solutionCacheKey(phases);
+            TimeTable warmStart = slice != null ? slice.getWarmStart() : null;
+            TimeTable problem = warmStart != null ? warmStart : buildProblem(phases);
+            boolean restored = warmStart != null;
+            if (!restored && cacheKey != null && cacheMode != SolutionCache.Mode.REFRESH) {
+                PhaseReport.Timer timer = phases.start("cache_restore");
+                restored = solutionCache.restore(cacheKey, problem);
+                timer.end();
             }
-            List<TimeSlot> minorTimeSlotList = createMinorTimeSlots();
-
-            // Create initial solution
-            TimeTable problem = createInitialSolution(facultyList, roomList, timeSlotList, minorTimeSlotList, batchList, courseList, minorCourseList);
-
-            // Configure solver with user-configurable parameters
-            SolverConfig solverConfig = new SolverConfig()
-                    .withSolutionClass(TimeTable.class)
-                    .withEntityClasses(Lesson.class)
-                    .withConstraintProviderClass(TimeTableConstraintProvider.class)
-                    .withTerminationSpentLimit(Duration.ofSeconds(solverConfiguration.getTotalTerminationSeconds()));
-            
-            // Add optional termination conditions if configured
-            if (solverConfiguration.getBestScoreLimit() != null) {
-                // Note: Best score termination requires OptaPlanner Pro
-                logger.info("Best score limit set to: " + solverConfiguration.getBestScoreLimit());
+            lastSolutionFromCache = restored && warmStart == null && cacheMode == SolutionCache.Mode.REUSE;
+            if (lastSolutionFromCache) {
+                lastTimeToFeasibleMillis = null;
+                lastPortfolioMembers = null;
+                lastIslandResult = null;
+                lastFeasibilityReport = null;
+                lastTotalSolveMillis = System.currentTimeMillis() - start;
+                logger.info("Reusing the cached solution " + cacheKey + ", score " + problem.getScore());
+                setCurrentTimetable(problem);
+                reportPhases(phases);
+                return problem;
             }
-            
-            if (solverConfiguration.getUnimprovedSecondsLimit() != null) {
-                solverConfig.getTerminationConfig().setUnimprovedSecondsSpentLimit(
-                    Long.valueOf(solverConfiguration.getUnimprovedSecondsLimit())
-                );
+            // A cached or paused solution was checked when it was first solved
+            lastFeasibilityReport = null;
+            if (!restored && solverConfiguration.isFeasibilityCheck()) {
+                PhaseReport.Timer timer = phases.start("feasibility_check");
+                FeasibilityAnalyzer.Report feasibility = FeasibilityAnalyzer.analyze(problem);
+                timer.end();
+                if (!feasibility.isFeasibilityPossible()) {
+                    if (solverConfiguration.isRejectInfeasible()) {
+                        throw new InfeasibleProblemException(feasibility);
+                    }
+                    logger.warning("No timetable can satisfy every hard constraint, solving for the least bad one: "
+                            + feasibility);
+                }
+                lastFeasibilityReport = feasibility;
             }
-            
+
             logger.info("Solver configuration: " + solverConfiguration.toString());
 
-            // Solve timetable
-            SolverFactory<TimeTable> solverFactory = SolverFactory.create(solverConfig);
-            Solver<TimeTable> solver = solverFactory.buildSolver();
+            long totalSeconds = solverConfiguration.getTotalTerminationSeconds()
+                    - (slice != null ? slice.getSpentMillis() / 1000 : 0);
+            long solveStart = System.currentTimeMillis();
+            lastTimeToFeasibleMillis = null;
+            lastPortfolioMembers = null;
+            lastIslandResult = null;
 
-            logger.info("Starting solver...");
-            TimeTable solution = solver.solve(problem);
-            logger.info("Solver finished. Score: " + solution.getScore());
+            // Solve timetable
+            TerminationPolicy terminationPolicy = TerminationPolicy.from(solverConfiguration);
+            logger.info("Starting solver with " + terminationPolicy + "...");
+            TimeTable solution;
+            try (TerminationMonitor monitor = terminationPolicy.newMonitor()) {
+                if (slice != null) {
+                    slice.started(monitor);
+                }
+                if (totalSeconds <= 0) {
+                    // Resumed with no time left
+                    solution = problem;
+                } else if (solverConfiguration.getIslandCount() > 1) {
+                    HardSoftScore startScore = problem.getScore();
+                    PhaseReport.Timer timer = phases.startWallOnly("islands");
+                    lastIslandResult = solveOnIslands(problem, 1, totalSeconds, solverConfiguration.getIslandCount(),
+                            solverConfiguration.getIslandHeapMb());
+                    timer.end(startScore, problem.getScore());
+                    solution = problem;
+                } else if (solverConfiguration.isFeasibilityFirst()) {
+                    solution = solveFeasibilityFirst(problem, solveStart, totalSeconds, monitor, phases);
+                } else {
+                    // A resumed slice has less time left than the configuration says, so the limit is part of the key
+                    solution = solve(problem, "solve|" + solverConfiguration + "|" + totalSeconds + "s",
+                            buildSolverConfig(Duration.ofSeconds(totalSeconds)), solveStart, monitor, phases, "");
+                }
+            }
+            lastTotalSolveMillis = System.currentTimeMillis() - solveStart;
+            if (slice != null && slice.ended(solution, lastTotalSolveMillis)) {
+                logger.info("Solve paused after " + slice.getSpentMillis() + " ms, score " + solution.getScore());
+                reportPhases(phases);
+                return solution;
+            }
+            if (solverConfiguration.isSymmetryBreaking()) {
+                PhaseReport.Timer timer = phases.start("canonicalize");
+                solution = canonicalize(solution);
+                timer.end();
+            }
+            logger.info("Solver finished. Score: " + solution.getScore() +
+                    ", time to feasible: " + (lastTimeToFeasibleMillis != null ? lastTimeToFeasibleMillis + " ms" : "not reached") +
+                    ", total time: " + lastTotalSolveMillis + " ms");
 
-            currentTimetable = solution;
+            PhaseReport.Timer timer = phases.start("export");
+            if (cacheKey != null) {
+                solutionCache.store(cacheKey, solution);
+            }
+            setCurrentTimetable(solution);
+            timer.end();
+            reportPhases(phases);
             return solution;
 
+        } catch (InfeasibleProblemException e) {
+            logger.warning(e.getMessage() + ": " + e.getReport());
+            throw e;
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error generating timetable", e);
             throw new RuntimeException("Failed to generate timetable", e);
         }
     }
 
+    /**
+     * Identifies the inputs of a solve: the bytes of the CSV files and every setting the solve reads.
+     */
+    public String inputKey() throws IOException {
+        return SolutionCache.key(dataDirectory, timeSlotConfiguration, solverConfiguration, getConstraintWeights());
+    }
+
+    // The solution cache key of the current inputs, or null to solve without the cache
+    private String solutionCacheKey(PhaseReport phases) {
+        if (solutionCache == null) {
+            return null;
+        }
+        PhaseReport.Timer timer = phases.start("input_key");
+        try {
+            return inputKey();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not hash the inputs, solving without the solution cache", e);
+            return null;
+        } finally {
+            timer.end();
+        }
+    }
+
+    // Keeps the report of the generate call for the response and logs it as one parseable line
+    private void reportPhases(PhaseReport phases) {
+        lastPhaseReport = phases;
+        logger.info("Solve phases: tenant=" + tenantId + " " + phases.toLogLine());
+    }
+
+    /**
+     * Solver settings from the current configuration. Public for the island workers, which
+     * solve in their own process with the coordinator's settings.
+     */
+    public SolverConfig buildSolverConfig(Duration spentLimit) {
+        return buildSolverConfig(spentLimit, solverConfiguration.getConstructionHeuristicType(), configuredMoveSelector());
+    }
+
+    private SolverConfig buildSolverConfig(Duration spentLimit, ConstructionHeuristicType constructionHeuristicType,
+                                           MoveSelectorConfig<?> moveSelectorConfig) {
+        TerminationPolicy terminationPolicy = TerminationPolicy.from(solverConfiguration);
+        SolverConfig solverConfig = new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withScoreDirectorFactory(scoreDirectorFactoryConfig())
+                .withTerminationConfig(terminationPolicy.solverTermination(spentLimit));
+        return withPhases(solverConfig, constructionHeuristicType, moveSelectorConfig,
+                terminationPolicy.localSearchTermination());
+    }
+
+    // Explicit phases only when a construction heuristic, custom moves or a local search termination
+    // are chosen, otherwise the solver defaults apply
+    private static SolverConfig withPhases(SolverConfig solverConfig, ConstructionHeuristicType constructionHeuristicType,
+                                           MoveSelectorConfig<?> moveSelectorConfig,
+                                           TerminationConfig localSearchTermination) {
+        if (constructionHeuristicType == null && moveSelectorConfig == null && localSearchTermination == null) {
+            return solverConfig;
+        }
+        ConstructionHeuristicPhaseConfig constructionHeuristic = new ConstructionHeuristicPhaseConfig();
+        if (constructionHeuristicType != null) {
+            constructionHeuristic.withConstructionHeuristicType(constructionHeuristicType);
+        }
+        LocalSearchPhaseConfig localSearch = new LocalSearchPhaseConfig().withMoveSelectorConfig(moveSelectorConfig);
+        if (localSearchTermination != null) {
+            localSearch.withTerminationConfig(localSearchTermination);
+        }
+        return solverConfig.withPhases(constructionHeuristic, localSearch);
+    }
+
+    private MoveSelectorConfig<?> configuredMoveSelector() {
+        EnumSet<MoveOption> options = EnumSet.noneOf(MoveOption.class);
+        if (solverConfiguration.isSameBatchSwapMoves()) options.add(MoveOption.SAME_BATCH_SWAP);
+        if (solverConfiguration.isCoursePillarMoves()) options.add(MoveOption.COURSE_PILLAR);
+        if (solverConfiguration.isKempeChainMoves()) options.add(MoveOption.KEMPE_CHAIN);
+        if (solverConfiguration.isNearbySwapSelection()) options.add(MoveOption.NEARBY_SWAP);
+        if (solverConfiguration.isSymmetryBreaking()) options.add(MoveOption.SYMMETRY_BREAKING);
+        return TimetableMoveSelectors.localSearchMoveSelector(options);
+    }
+
+    // Score calculation of the configured scoring engine
+    private ScoreDirectorFactoryConfig scoreDirectorFactoryConfig() {
+        if (solverConfiguration.getScoringEngine() == ScoringEngine.INCREMENTAL) {
+            return new ScoreDirectorFactoryConfig()
+                    .withIncrementalScoreCalculatorClass(TimeTableIncrementalScoreCalculator.class);
+        }
+        return new ScoreDirectorFactoryConfig()
+                .withConstraintProviderClass(TimeTableConstraintProvider.class);
+    }
+
+    /**
+     * The solver factory of the config, shared through the tenant cache under {@code factoryKey}.
+     * The key must name everything the config is built from; a null key builds a factory for this
+     * call only.
+     */
+    private SolverFactory<TimeTable> solverFactory(String factoryKey, SolverConfig solverConfig) {
+        if (tenantCache == null || factoryKey == null) {
+            return SolverFactory.create(solverConfig);
+        }
+        return tenantCache.solverFactory(factoryKey, () -> solverConfig);
+    }
+
+    // Explains scores with the constraint streams, which justify every match whatever the
+    // configured scoring engine
+    private SolutionManager<TimeTable, HardSoftScore> explainingSolutionManager() {
+        return SolutionManager.create(solverFactory("explain", new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withScoreDirectorFactory(new ScoreDirectorFactoryConfig()
+                        .withConstraintProviderClass(TimeTableConstraintProvider.class))
+                .withTerminationConfig(new TerminationConfig().withSpentLimit(Duration.ofSeconds(1)))));
+    }
+
+    // Rescores solutions with the configured scoring engine
+    private SolutionManager<TimeTable, HardSoftScore> solutionManager() {
+        return SolutionManager.create(solverFactory("score|" + solverConfiguration.getScoringEngine(),
+                buildSolverConfig(Duration.ofSeconds(1))));
+    }
+
+    // A portfolio of solvers when configured, otherwise a single solver, timed in the report under
+    // names starting with phasePrefix
+    private TimeTable solve(TimeTable problem, String factoryKey, SolverConfig solverConfig, long solveStart,
+                            TerminationMonitor monitor, PhaseReport phases, String phasePrefix) {
+        SolverEventListener<TimeTable> feasibilityListener = event -> {
+            HardSoftScore score = event.getNewBestSolution().getScore();
+            if (lastTimeToFeasibleMillis == null && score != null && score.isSolutionInitialized() && score.isFeasible()) {
+                lastTimeToFeasibleMillis = System.currentTimeMillis() - solveStart;
+            }
+        };
+        if (solverConfiguration.getPortfolioSize() > 1) {
+            String margin = solverConfiguration.getPortfolioCancelMargin();
+            PortfolioSolver portfolio = new PortfolioSolver(solverConfiguration.getPortfolioSize(),
+                    margin != null ? HardSoftScore.parseScore(margin) : null);
+            PhaseReport.Timer timer = phases.startWallOnly(phasePrefix + "portfolio");
+            PortfolioSolver.Result result = portfolio.solve(problem, solverConfig, monitor, feasibilityListener);
+            timer.end(problem.getScore(), result.getBestSolution().getScore());
+            lastPortfolioMembers = result.getMembers();
+            return result.getBestSolution();
+        }
+        Solver<TimeTable> solver = solverFactory(factoryKey, solverConfig).buildSolver();
+        monitor.watch(solver);
+        solver.addEventListener(feasibilityListener);
+        if (phases.watch(solver, phasePrefix)) {
+            return solver.solve(problem);
+        }
+        PhaseReport.Timer timer = phases.start(phasePrefix + "solve");
+        TimeTable solution = solver.solve(problem);
+        timer.end(problem.getScore(), solution.getScore());
+        return solution;
+    }
+
+    /**
+     * Solves with the hard constraints only until the timetable is feasible or the feasibility
+     * phase runs out of time, then polishes that solution with all constraints for the rest of
+     * the time budget. Zero-weight constraints are left out of score calculation, so the first
+     * phase evaluates a much smaller constraint network.
+     */
+    private TimeTable solveFeasibilityFirst(TimeTable problem, long solveStart, long totalSeconds,
+                                            TerminationMonitor monitor, PhaseReport phases) {
+        TimetableConstraintConfiguration fullWeights = problem.getConstraintConfiguration();
+        problem.setConstraintConfiguration(fullWeights.hardOnly());
+
+        Integer configuredPhaseSeconds = solverConfiguration.getFeasibilityPhaseSeconds();
+        long phaseSeconds = configuredPhaseSeconds != null ? Math.min(configuredPhaseSeconds, totalSeconds) : totalSeconds;
+        SolverConfig feasibilityConfig = new SolverConfig()
+                .withSolutionClass(TimeTable.class)
+                .withEntityClasses(Lesson.class)
+                .withScoreDirectorFactory(scoreDirectorFactoryConfig())
+                .withTerminationConfig(new TerminationConfig()
+                        .withSpentLimit(Duration.ofSeconds(phaseSeconds))
+                        .withBestScoreFeasible(true));
+        withPhases(feasibilityConfig, solverConfiguration.getConstructionHeuristicType(), configuredMoveSelector(),
+                TerminationPolicy.from(solverConfiguration).localSearchTermination());
+
+        logger.info("Feasibility phase: hard constraints only, up to " + phaseSeconds + "s");
+        TimeTable feasibleSolution = solve(problem, "feasibility|" + solverConfiguration + "|" + phaseSeconds + "s", feasibilityConfig,
+                solveStart, monitor, phases, "feasibility_");
+        feasibleSolution.setConstraintConfiguration(fullWeights);
+
+        long remainingMillis = totalSeconds * 1000L - (System.currentTimeMillis() - solveStart);
+        if (remainingMillis <= 0 || monitor.isTerminated()) {
+            // No time left to optimize, but the score must still reflect the full weights
+            SolutionManager<TimeTable, HardSoftScore> solutionManager = solutionManager();
+            solutionManager.update(feasibleSolution);
+            return feasibleSolution;
+        }
+        logger.info("Optimization phase: all constraints, warm started from " + feasibleSolution.getScore());
+        // The remaining time differs on every solve, so this factory is not worth caching
+        return solve(feasibleSolution, null, buildSolverConfig(Duration.ofMillis(remainingMillis)), solveStart, monitor,
+                phases, "optimization_");
+    }
+
+    /**
+     * Solves in {@code islandCount} worker processes that rebuild the problem from the same input at
+     * the same scale, then writes the best island's assignment into {@code problem} and scores it.
+     * The termination conditions the solver checks itself apply on every island; the best score
+     * limit with a wildcard, feasible-then-N-seconds and the improvement rate do not.
+     */
+    private IslandCoordinator.Result solveOnIslands(TimeTable problem, int scale, long seconds, int islandCount,
+                                                    int heapMb) {
+        IslandTask task = new IslandTask(solverConfiguration, timeSlotConfiguration, constraintConfiguration.toWeightMap(),
+                dataDirectory.toAbsolutePath().toString(), scale, seconds, solverConfiguration.getMigrationIntervalSeconds());
+        IslandCoordinator.Result result = new IslandCoordinator(islandCount, heapMb).solve(task);
+        result.getBestAssignment().applyTo(problem);
+        SolutionManager<TimeTable, HardSoftScore> solutionManager = solutionManager();
+        solutionManager.update(problem);
+        return result;
+    }
+
+    /**
+     * Reorders interchangeable lessons so the lowest id holds the earliest slot, which makes
+     * solutions that differ only by such permutations come out identical. Some soft rules compare
+     * a pair of lessons in id order, so the reordered copy is rescored and only kept when its
+     * score is not worse.
+     */
+    private TimeTable canonicalize(TimeTable solution) {
+        TimeTable canonical = new TimeTableSolutionCloner().cloneSolution(solution);
+        int changed = LessonSymmetry.canonicalize(canonical);
+        if (changed == 0) {
+            return solution;
+        }
+        SolutionManager<TimeTable, HardSoftScore> solutionManager = solutionManager();
+        HardSoftScore score = solutionManager.update(canonical);
+        if (solution.getScore() != null && score.compareTo(solution.getScore()) < 0) {
+            logger.info("Canonical lesson order scores " + score + ", keeping " + solution.getScore());
+            return solution;
+        }
+        logger.info("Canonical lesson order reassigned " + changed + " lessons, score " + score);
+        return canonical;
+    }
+
+    /**
+     * Loads the CSV data and builds an unsolved timetable problem from it.
+     * Shared by the solver and the diagnostics tooling so both see the same input.
+     */
+    public TimeTable buildProblem() {
+        return buildProblem(new PhaseReport());
+    }
+
+    // Builds the problem, timing the loading of the data and the generation of the lessons
+    private TimeTable buildProblem(PhaseReport phases) {
+        // Load data from CSV files, or take it from the cache while they are unchanged
+        PhaseReport.Timer timer = phases.start("load");
+        TenantDataset dataset = loadDataset();
+        timer.end();
+        if (!dataset.isComplete()) {
+            throw new RuntimeException("Essential data missing");
+        }
+        timer = phases.start("lesson_generation");
+        List<StudentBatch> batchList = dataset.getBatchList();
+
+        List<TimeSlot> timeSlotList = new ArrayList<>();
+        for (StudentBatch batch : batchList) {
+            timeSlotList.addAll(createTimeSlots(batch));
+        }
+        List<TimeSlot> minorTimeSlotList = createMinorTimeSlots();
+
+        // Create initial solution with a snapshot of the current constraint weights and scheduling rules
+        TimeTable problem = createInitialSolution(dataset.getFacultyList(), dataset.getRoomList(), timeSlotList,
+                minorTimeSlotList, batchList, dataset.getCourseList(), dataset.getMinorCourseList());
+        problem.setConstraintConfiguration(new TimetableConstraintConfiguration(constraintConfiguration));
+        problem.setSchedulingRules(SchedulingRules.compile(timeSlotConfiguration, solverConfiguration.getConflictScoringMode()));
+        timer.end();
+        return problem;
+    }
+
+    /**
+     * The size of the problem {@link #buildProblem()} would build from the current data and
+     * settings, counted from the dataset without generating the lessons and time slots.
+     */
+    public ProblemSize problemSize() {
+        TenantDataset dataset = loadDataset();
+        if (!dataset.isComplete()) {
+            throw new RuntimeException("Essential data missing");
+        }
+        Set<Long> batchIds = new HashSet<>();
+        long timeSlots = (long) DAYS.length * timeSlotConfiguration.getMinorSlots().size();
+        for (StudentBatch batch : dataset.getBatchList()) {
+            batchIds.add(batch.getId());
+            timeSlots += (long) DAYS.length * timeSlotConfiguration.getSlotsByYear(batch.getBatchName()).size();
+        }
+        long lessons = 0;
+        for (Course course : dataset.getCourseList()) {
+            for (Integer batchId : course.getBatchIds()) {
+                if (batchIds.contains(Long.valueOf(batchId))) {
+                    lessons += course.getHoursPerWeek();
+                }
+            }
+        }
+        for (Course minorCourse : dataset.getMinorCourseList()) {
+            lessons += minorCourse.getHoursPerWeek();
+        }
+        return new ProblemSize(lessons, timeSlots, dataset.getRoomList().size());
+    }
+
+    /**
+     * Checks the current data and settings for hard constraints that no timetable can satisfy,
+     * without solving.
+     */
+    public FeasibilityAnalyzer.Report analyzeFeasibility() {
+        return FeasibilityAnalyzer.analyze(buildProblem());
+    }
+
+    /**
+     * Profiles every constraint on a freshly built problem, optionally scaled up to {@code scale} times
+     * its size. The current timetable is left untouched, since scoring it with a single constraint
+     * would overwrite its score.
+     */
+    public List<ConstraintProfiler.ConstraintCost> profileConstraints(int fullIterations, long incrementalCalculations, int scale) {
+        TimeTable problem = SyntheticDataScaler.scale(buildProblem(), scale);
+        logger.info("Profiling constraints on " + problem.getLessonList().size() + " lessons (scale " + scale + ")");
+        return new ConstraintProfiler(fullIterations, incrementalCalculations).profile(problem);
+    }
+
+    /**
+     * Checks that the incremental score calculator scores a freshly built problem, optionally scaled up
+     * to {@code scale} times its size, exactly like the constraint streams, and compares their speed.
+     */
+    public ScoringEngineComparison.Result compareScoringEngines(int rounds, long incrementalCalculations, int scale) {
+        TimeTable problem = SyntheticDataScaler.scale(buildProblem(), scale);
+        logger.info("Comparing scoring engines on " + problem.getLessonList().size() + " lessons (scale " + scale + ")");
+        return new ScoringEngineComparison(rounds, incrementalCalculations).compare(problem);
+    }
+
+    /**
+     * Solves a freshly built problem, optionally scaled up to {@code scale} times its size, once with
+     * the solver's default construction heuristic and once with the configured one, and reports
+     * the time each took to reach a feasible timetable.
+     */
+    public List<SolveBenchmark.Result> benchmarkConstructionHeuristics(int seconds, int scale) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Benchmark time must be positive, got " + seconds);
+        }
+        List<SolveBenchmark.Result> results = new ArrayList<>();
+        List<ConstructionHeuristicType> types = new ArrayList<>();
+        types.add(null);
+        if (solverConfiguration.getConstructionHeuristicType() != null) {
+            types.add(solverConfiguration.getConstructionHeuristicType());
+        }
+        for (ConstructionHeuristicType type : types) {
+            TimeTable problem = SyntheticDataScaler.scale(buildProblem(), scale);
+            SolverConfig config = buildSolverConfig(Duration.ofSeconds(seconds), type, configuredMoveSelector());
+            results.add(SolveBenchmark.run(type != null ? type.name() : "DEFAULT", config, problem));
+        }
+        return results;
+    }
+
+    /**
+     * Solves a freshly built problem, optionally scaled up to {@code scale} times its size, with the
+     * generic moves only, with each timetabling move added on its own and with all of them, and
+     * reports how fast each run improved the score.
+     */
+    public List<SolveBenchmark.Result> benchmarkMoveSelectors(int seconds, int scale) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Benchmark time must be positive, got " + seconds);
+        }
+        Map<String, MoveSelectorConfig<?>> variants = new LinkedHashMap<>();
+        variants.put("GENERIC", null);
+        for (MoveOption option : MoveOption.values()) {
+            variants.put(option.name(), TimetableMoveSelectors.localSearchMoveSelector(EnumSet.of(option)));
+        }
+        variants.put("ALL", TimetableMoveSelectors.localSearchMoveSelector(EnumSet.allOf(MoveOption.class)));
+
+        List<SolveBenchmark.Result> results = new ArrayList<>();
+        for (Map.Entry<String, MoveSelectorConfig<?>> variant : variants.entrySet()) {
+            TimeTable problem = SyntheticDataScaler.scale(buildProblem(), scale);
+            SolverConfig config = buildSolverConfig(Duration.ofSeconds(seconds),
+                    solverConfiguration.getConstructionHeuristicType(), variant.getValue());
+            results.add(SolveBenchmark.run(variant.getKey(), config, problem));
+        }
+        return results;
+    }
+
+    /**
+     * Compares one large heap with several small ones on a freshly built problem, scaled up to
+     * {@code scale} times its size: a single island with {@code islandCount} times
+     * {@code heapMb} of heap against {@code islandCount} islands with {@code heapMb} each. Both run
+     * in worker processes, so process startup costs them the same.
+     */
+    public Map<String, IslandCoordinator.Result> benchmarkIslands(int seconds, int scale, int islandCount, int heapMb) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Benchmark time must be positive, got " + seconds);
+        }
+        if (islandCount < 2) {
+            throw new IllegalArgumentException("Island benchmark needs at least 2 islands, got " + islandCount);
+        }
+        Map<String, IslandCoordinator.Result> results = new LinkedHashMap<>();
+        TimeTable oneHeap = SyntheticDataScaler.scale(buildProblem(), scale);
+        results.put("1x" + (islandCount * heapMb) + "MB", solveOnIslands(oneHeap, scale, seconds, 1, islandCount * heapMb));
+        TimeTable islands = SyntheticDataScaler.scale(buildProblem(), scale);
+        results.put(islandCount + "x" + heapMb + "MB", solveOnIslands(islands, scale, seconds, islandCount, heapMb));
+        return results;
+    }
+
+    /**
+     * Measures what planning the faculty costs: a freshly built problem, optionally scaled up to
+     * {@code scale} times its size, is solved once with every lesson fixed to its course's first
+     * eligible faculty member, as before faculty was planned, and once with the full eligible ranges.
+     */
+    public List<SolveBenchmark.Result> benchmarkFacultyPlanning(int seconds, int scale) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Benchmark time must be positive, got " + seconds);
+        }
+        List<SolveBenchmark.Result> results = new ArrayList<>();
+        for (boolean fixedFaculty : new boolean[] {true, false}) {
+            TimeTable problem = SyntheticDataScaler.scale(buildProblem(), scale);
+            if (fixedFaculty) {
+                fixFirstEligibleFaculty(problem);
+            }
+            SolverConfig config = buildSolverConfig(Duration.ofSeconds(seconds));
+            results.add(SolveBenchmark.run(fixedFaculty ? "FIXED_FACULTY" : "PLANNED_FACULTY", config, problem));
+        }
+        return results;
+    }
+
+    // Narrows every faculty range to a single member, which takes faculty out of the search
+    private static void fixFirstEligibleFaculty(TimeTable problem) {
+        for (List<Lesson> lessons : Arrays.asList(problem.getLessonList(), problem.getMinorLessonList())) {
+            for (Lesson lesson : lessons) {
+                List<Faculty> faculty = lesson.getFacultyList();
+                if (faculty != null && !faculty.isEmpty()) {
+                    lesson.setFacultyList(List.of(faculty.get(0)));
+                    lesson.setFaculty(faculty.get(0));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the last generated timetable, or null if none was generated yet
+     */
     public TimeTable getCurrentTimetable() {
-        return currentTimetable;
+        if (publishTo != null) {
+            return publishTo.getCurrentTimetable();
+        }
+        return tenantCache != null ? tenantCache.solution(tenantId) : currentTimetable;
+    }
+
+    private void setCurrentTimetable(TimeTable solution) {
+        if (publishTo != null) {
+            publishTo.setCurrentTimetable(solution);
+            return;
+        }
+        if (tenantCache != null) {
+            tenantCache.putSolution(tenantId, solution);
+        } else {
+            currentTimetable = solution;
+        }
+        solutionVersion.incrementAndGet();
+    }
+
+    /**
+     * Explains the score of the current timetable: the match totals per constraint and the
+     * lessons, rooms and faculty members the matches blame. Scoring with justifications is
+     * expensive, so it happens on the first call after each generate only and later calls get
+     * the kept explanation.
+     *
+     * @return null if no timetable was generated yet
+     */
+    public SolutionExplanation explainCurrentTimetable() {
+        synchronized (explanationLock) {
+            // The version is read before the timetable, so a newer timetable can at worst be
+            // explained twice, never kept under the version of the next one
+            long version = solutionVersion.get();
+            SolutionExplanation explanation = tenantCache != null ? tenantCache.explanation(tenantId, version)
+                    : currentExplanation != null && currentExplanation.getSolutionVersion() == version ? currentExplanation : null;
+            if (explanation != null) {
+                return explanation;
+            }
+            TimeTable timetable = getCurrentTimetable();
+            if (timetable == null) {
+                return null;
+            }
+            long start = System.currentTimeMillis();
+            // Scores a copy, as the current timetable is read by the other endpoints meanwhile
+            TimeTable copy = new TimeTableSolutionCloner().cloneSolution(timetable);
+            explanation = SolutionExplanation.of(explainingSolutionManager().explain(copy,
+                    SolutionUpdatePolicy.UPDATE_SCORE_ONLY), version, System.currentTimeMillis() - start);
+            logger.info("Explained score " + explanation.getScore() + " of tenant " + tenantId + " in "
+                    + explanation.getExplainMillis() + " ms");
+            if (tenantCache != null) {
+                tenantCache.putExplanation(tenantId, explanation);
+            } else {
+                currentExplanation = explanation;
+            }
+            return explanation;
+        }
     }
 
     public List<Faculty> getFacultyList() {
-        return facultyList != null ? facultyList : new ArrayList<>();
+        TenantDataset dataset = currentDataset();
+        return dataset != null ? new ArrayList<>(dataset.getFacultyList()) : new ArrayList<>();
     }
 
     public List<Room> getRoomList() {
-        return roomList != null ? roomList : new ArrayList<>();
+        TenantDataset dataset = currentDataset();
+        return dataset != null ? new ArrayList<>(dataset.getRoomList()) : new ArrayList<>();
     }
 
     public List<StudentBatch> getBatchList() {
-        return batchList != null ? batchList : new ArrayList<>();
+        TenantDataset dataset = currentDataset();
+        return dataset != null ? new ArrayList<>(dataset.getBatchList()) : new ArrayList<>();
     }
 
     public List<Course> getCourseList() {
-        return courseList != null ? courseList : new ArrayList<>();
+        TenantDataset dataset = currentDataset();
+        return dataset != null ? new ArrayList<>(dataset.getCourseList()) : new ArrayList<>();
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+
+    // The CSV files as they are now
+    private TenantDataset loadDataset() {
+        if (tenantCache != null) {
+            return tenantCache.dataset(dataDirectory);
+        }
+        dataset = TenantDataset.load(dataDirectory);
+        return dataset;
+    }
+
+    // The dataset last loaded, read again through the cache once the files changed or it was evicted
+    private TenantDataset currentDataset() {
+        return tenantCache != null ? tenantCache.dataset(dataDirectory) : dataset;
     }
 
     public void reloadData() {
         try {
-            facultyList = CSVDataLoader.loadFaculty("faculty.csv");
-            roomList = CSVDataLoader.loadRooms("rooms.csv");
-            courseList = CSVDataLoader.loadCourses("courses.csv", facultyList);
-            batchList = CSVDataLoader.loadStudentBatches("batches.csv", courseList);
-            logger.info("Data reloaded successfully");
+            if (tenantCache != null) {
+                tenantCache.reloadDataset(dataDirectory);
+            } else {
+                dataset = TenantDataset.load(dataDirectory);
+            }
+            logger.info("Data of tenant " + tenantId + " reloaded successfully");
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error reloading data", e);
             throw new RuntimeException("Failed to reload data", e);
         }
     }
     
+    /**
+     * Milliseconds from the start of the last solve until its best solution first became feasible,
+     * or null if it never did.
+     */
+    public Long getLastTimeToFeasibleMillis() {
+        return lastTimeToFeasibleMillis;
+    }
+
+    public Long getLastTotalSolveMillis() {
+        return lastTotalSolveMillis;
+    }
+
+    /**
+     * @return true if the last generated timetable was taken from the solution cache unchanged
+     */
+    public boolean isLastSolutionFromCache() {
+        return lastSolutionFromCache;
+    }
+
+    /**
+     * @return the members of the last portfolio solve, of its last phase with the feasibility-first
+     * strategy, or null when the last solve used a single solver
+     */
+    public List<PortfolioSolver.Member> getLastPortfolioMembers() {
+        return lastPortfolioMembers;
+    }
+
+    /**
+     * @return the outcome of the last island solve, or null when the last solve ran in this JVM
+     */
+    public IslandCoordinator.Result getLastIslandResult() {
+        return lastIslandResult;
+    }
+
+    /**
+     * @return the feasibility check of the last solve, or null if it was skipped
+     */
+    public FeasibilityAnalyzer.Report getLastFeasibilityReport() {
+        return lastFeasibilityReport;
+    }
+
+    /**
+     * @return the wall time, CPU time, allocation, steps and scores of every phase of the last
+     * generate call, or null if none finished yet
+     */
+    public PhaseReport getLastPhaseReport() {
+        return lastPhaseReport;
+    }
+
     public SolverConfiguration getSolverConfiguration() {
         return solverConfiguration;
     }
     
     public void setSolverConfiguration(SolverConfiguration solverConfiguration) {
+        validate(solverConfiguration);
+        this.solverConfiguration = solverConfiguration;
+        logger.info("Solver configuration updated: " + solverConfiguration.toString());
+    }
+
+    private static void validate(SolverConfiguration solverConfiguration) {
         if (solverConfiguration == null) {
             throw new IllegalArgumentException("Solver configuration cannot be null");
         }
-        this.solverConfiguration = solverConfiguration;
-        logger.info("Solver configuration updated: " + solverConfiguration.toString());
+        TerminationPolicy.from(solverConfiguration); // rejects malformed termination settings
+        if (solverConfiguration.getPortfolioSize() < 1) {
+            throw new IllegalArgumentException("Portfolio size must be at least 1, got " + solverConfiguration.getPortfolioSize());
+        }
+        if (solverConfiguration.getPortfolioCancelMargin() != null) {
+            HardSoftScore.parseScore(solverConfiguration.getPortfolioCancelMargin());
+        }
+        if (solverConfiguration.getIslandCount() < 1 || solverConfiguration.getMigrationIntervalSeconds() < 1) {
+            throw new IllegalArgumentException("Island count and migration interval must be at least 1");
+        }
     }
     
+    public Map<String, String> getConstraintWeights() {
+        return constraintConfiguration.toWeightMap();
+    }
+
+    /**
+     * Updates constraint weights by name, e.g. "0hard/20soft". Applied on the next solve.
+     * All weights are validated before any of them is changed.
+     */
+    public void updateConstraintWeights(Map<String, String> weights) {
+        TimetableConstraintConfiguration updated = new TimetableConstraintConfiguration(constraintConfiguration);
+        for (Map.Entry<String, String> entry : weights.entrySet()) {
+            updated.setWeight(entry.getKey(), HardSoftScore.parseScore(entry.getValue()));
+        }
+        constraintConfiguration = updated;
+        logger.info("Constraint weights updated: " + weights);
+    }
+
+    public void resetConstraintWeights() {
+        constraintConfiguration = new TimetableConstraintConfiguration();
+        logger.info("Constraint weights reset to defaults");
+    }
+
     public TimeSlotConfiguration getTimeSlotConfiguration() {
         return timeSlotConfiguration;
     }
@@ -207,20 +976,17 @@ public class TimetableService {
             throw new IllegalArgumentException("Time slot configuration cannot be null");
         }
         this.timeSlotConfiguration = timeSlotConfiguration;
-        // Update the holder so ConstraintProvider has access to the latest configuration
-        ConstraintConfigurationHolder.getInstance().setTimeSlotConfiguration(timeSlotConfiguration);
         logger.info("Time slot configuration updated: " + timeSlotConfiguration.toString());
     }
 
     // Helper methods
     private List<TimeSlot> createTimeSlots(StudentBatch batch) {
         List<TimeSlot> timeSlots = new ArrayList<>();
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
         Long id = (long) (batch.getId() * 1000);
 
         List<TimeSlotDefinition> timeSlotDefs = timeSlotConfiguration.getSlotsByYear(batch.getBatchName());
 
-        for (String day : days) {
+        for (String day : DAYS) {
             for (TimeSlotDefinition slotDef : timeSlotDefs) {
                 LocalTime startTime = slotDef.getStartTimeAsLocalTime();
                 LocalTime endTime = slotDef.getEndTimeAsLocalTime();
@@ -233,10 +999,9 @@ public class TimetableService {
 
     private List<TimeSlot> createMinorTimeSlots() {
         List<TimeSlot> timeSlots = new ArrayList<>();
-        String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
         Long id = 10000L;
 
-        for (String day : days) {
+        for (String day : DAYS) {
             for (TimeSlotDefinition slotDef : timeSlotConfiguration.getMinorSlots()) {
                 LocalTime startTime = slotDef.getStartTimeAsLocalTime();
                 LocalTime endTime = slotDef.getEndTimeAsLocalTime();
@@ -267,12 +1032,7 @@ public class TimetableService {
                     for (int i = 0; i < totalLessons; i++) {
                         Lesson lesson = new Lesson(lessonId++, course, batch, roomList);
                         lesson.setLessonType(course.getPracticalHours() > 0 && i >= course.getLectureHours() ? "LAB" : "LECTURE");
-                        
-                        // Assign faculty if eligible
-                        if (!course.getEligibleFaculty().isEmpty()) {
-                            lesson.setFaculty(course.getEligibleFaculty().get(0));
-                        }
-                        
+                        // Faculty is planned by the solver from the course's eligible faculty
                         lessonList.add(lesson);
                     }
                 }
@@ -283,17 +1043,30 @@ public class TimetableService {
         for (Course minorCourse : minorCourseList) {
             int totalLessons = minorCourse.getHoursPerWeek();
             for (int i = 0; i < totalLessons; i++) {
-                Lesson lesson = new Lesson(lessonId++, minorCourse, roomList);
-                lesson.setLessonType("MINOR");
-                
-                if (!minorCourse.getEligibleFaculty().isEmpty()) {
-                    lesson.setFaculty(minorCourse.getEligibleFaculty().get(0));
-                }
-                
+                Lesson lesson = new MinorLesson(lessonId++, minorCourse, roomList, minorTimeSlotList);
                 minorLessonList.add(lesson);
             }
         }
 
         return new TimeTable(1L, lessonList, minorLessonList, facultyList, roomList, timeSlotList, minorTimeSlotList);
     }
+
+    /**
+     * Lessons, time slots and rooms of a problem, minor ones included.
+     */
+    public static class ProblemSize {
+        private final long lessons;
+        private final long timeSlots;
+        private final long rooms;
+
+        public ProblemSize(long lessons, long timeSlots, long rooms) {
+            this.lessons = lessons;
+            this.timeSlots = timeSlots;
+            this.rooms = rooms;
+        }
+
+        public long getLessons() { return lessons; }
+        public long getTimeSlots() { return timeSlots; }
+        public long getRooms() { return rooms; }
+    }
 }
@@ -0,0 +1,206 @@
+package com.timetable.solver;
+
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.impl.constructionheuristic.scope.ConstructionHeuristicPhaseScope;
+import org.optaplanner.core.impl.localsearch.scope.LocalSearchPhaseScope;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.phase.scope.AbstractPhaseScope;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where the time of one generate call went: the wall time, CPU time and bytes allocated of every
+ * phase from loading the CSV files to storing the solution, and for the solver's own phases the
+ * steps taken, the score calculations and the best score at the start and the end. CPU time and
+ * allocation are those of the thread that ran the phase; portfolio and island solves run on other
+ * threads or processes, so their phase only has its wall time.
+ */
+public class PhaseReport {
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Starts timing a phase on the calling thread, which must also end it.
+     */
+    public Timer start(String name) {
+        return new Timer(name, true);
+    }
+
+    /**
+     * Starts timing a phase whose work runs on other threads or processes.
+     */
+    public Timer startWallOnly(String name) {
+        return new Timer(name, false);
+    }
+
+    /**
+     * Times every construction heuristic and local search phase of the solver, named after the
+     * phase type behind {@code prefix}. Solvers other than OptaPlanner's default one are not
+     * instrumented.
+     *
+     * @return false if the solver could not be instrumented
+     */
+    public boolean watch(Solver<TimeTable> solver, String prefix) {
+        if (!(solver instanceof DefaultSolver)) {
+            return false;
+        }
+        ((DefaultSolver<TimeTable>) solver).addPhaseLifecycleListener(new PhaseLifecycleListenerAdapter<TimeTable>() {
+            private Timer timer;
+            private int phaseIndex;
+            private long startScoreCalculationCount;
+
+            @Override
+            public void phaseStarted(AbstractPhaseScope<TimeTable> phaseScope) {
+                timer = start(prefix + phaseName(phaseScope, phaseIndex++));
+                startScoreCalculationCount = phaseScope.getSolverScope().getScoreCalculationCount();
+            }
+
+            @Override
+            public void phaseEnded(AbstractPhaseScope<TimeTable> phaseScope) {
+                HardSoftScore startScore = phaseScope.getStartingScore();
+                HardSoftScore bestScore = phaseScope.getBestScore();
+                timer.end(phaseScope.getNextStepIndex(),
+                        phaseScope.getSolverScope().getScoreCalculationCount() - startScoreCalculationCount,
+                        startScore, bestScore);
+            }
+        });
+        return true;
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    public synchronized long getTotalWallMillis() {
+        return phases.stream().mapToLong(Phase::getWallMillis).sum();
+    }
+
+    /**
+     * The report as one line of {@code phase.key=value} pairs, so log lines of different solves
+     * can be compared and parsed.
+     */
+    public synchronized String toLogLine() {
+        StringBuilder line = new StringBuilder("total.wall_ms=").append(getTotalWallMillis());
+        for (Phase phase : phases) {
+            String key = " " + phase.name + ".";
+            line.append(key).append("wall_ms=").append(phase.wallMillis);
+            if (phase.cpuMillis != null) line.append(key).append("cpu_ms=").append(phase.cpuMillis);
+            if (phase.allocatedBytes != null) line.append(key).append("alloc_bytes=").append(phase.allocatedBytes);
+            if (phase.steps != null) line.append(key).append("steps=").append(phase.steps);
+            if (phase.scoreCalculationCount != null) line.append(key).append("calculations=").append(phase.scoreCalculationCount);
+            if (phase.startScore != null) line.append(key).append("start_score=").append(phase.startScore);
+            if (phase.endScore != null) line.append(key).append("end_score=").append(phase.endScore);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toLogLine();
+    }
+
+    private synchronized void add(Phase phase) {
+        phases.add(phase);
+    }
+
+    private static String phaseName(AbstractPhaseScope<TimeTable> phaseScope, int phaseIndex) {
+        if (phaseScope instanceof ConstructionHeuristicPhaseScope) {
+            return "construction_heuristic";
+        }
+        if (phaseScope instanceof LocalSearchPhaseScope) {
+            return "local_search";
+        }
+        return "phase" + phaseIndex;
+    }
+
+    private static Long threadCpuNanos() {
+        return threads.isThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled()
+                ? threads.getCurrentThreadCpuTime() : null;
+    }
+
+    private static Long threadAllocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+            if (allocation.isThreadAllocatedMemorySupported() && allocation.isThreadAllocatedMemoryEnabled()) {
+                return allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A phase being timed. Ending it adds it to the report.
+     */
+    public class Timer {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private final Long startCpuNanos;
+        private final Long startAllocatedBytes;
+
+        private Timer(String name, boolean measureThread) {
+            this.name = name;
+            this.startCpuNanos = measureThread ? threadCpuNanos() : null;
+            this.startAllocatedBytes = measureThread ? threadAllocatedBytes() : null;
+        }
+
+        public void end() {
+            end(null, null, null, null);
+        }
+
+        /**
+         * Ends a solve that ran elsewhere with the scores it started and ended with.
+         */
+        public void end(HardSoftScore startScore, HardSoftScore endScore) {
+            end(null, null, startScore, endScore);
+        }
+
+        private void end(Integer steps, Long scoreCalculationCount, HardSoftScore startScore, HardSoftScore endScore) {
+            Long cpuNanos = startCpuNanos != null ? threadCpuNanos() : null;
+            Long allocatedBytes = startAllocatedBytes != null ? threadAllocatedBytes() : null;
+            add(new Phase(name, (System.nanoTime() - startNanos) / 1_000_000,
+                    cpuNanos != null ? (cpuNanos - startCpuNanos) / 1_000_000 : null,
+                    allocatedBytes != null ? allocatedBytes - startAllocatedBytes : null,
+                    steps, scoreCalculationCount,
+                    startScore != null ? startScore.toString() : null, endScore != null ? endScore.toString() : null));
+        }
+    }
+
+    public static class Phase {
+        private final String name;
+        private final long wallMillis;
+        private final Long cpuMillis;
+        private final Long allocatedBytes;
+        private final Integer steps;
+        private final Long scoreCalculationCount;
+        private final String startScore;
+        private final String endScore;
+
+        private Phase(String name, long wallMillis, Long cpuMillis, Long allocatedBytes, Integer steps,
+                      Long scoreCalculationCount, String startScore, String endScore) {
+            this.name = name;
+            this.wallMillis = wallMillis;
+            this.cpuMillis = cpuMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.steps = steps;
+            this.scoreCalculationCount = scoreCalculationCount;
+            this.startScore = startScore;
+            this.endScore = endScore;
+        }
+
+        public String getName() { return name; }
+        public long getWallMillis() { return wallMillis; }
+        public Long getCpuMillis() { return cpuMillis; }
+        public Long getAllocatedBytes() { return allocatedBytes; }
+        public Integer getSteps() { return steps; }
+        public Long getScoreCalculationCount() { return scoreCalculationCount; }
+        public String getStartScore() { return startScore; }
+        public String getEndScore() { return endScore; }
+    }
+}
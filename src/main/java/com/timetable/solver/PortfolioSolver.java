@@ -0,0 +1,254 @@
+package com.timetable.solver;
+
+import com.timetable.domain.TimeTable;
+import com.timetable.domain.TimeTableSolutionCloner;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.localsearch.decider.acceptor.LocalSearchAcceptorConfig;
+import org.optaplanner.core.config.localsearch.decider.forager.LocalSearchForagerConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Solves one problem with several independent solvers at once and keeps the best result.
+ * Local search on this model depends a lot on the random seed and the acceptor, so each member
+ * gets its own seed and cycles through tabu search, late acceptance and simulated annealing.
+ * Members share the problem facts and work on their own planning clone of the lessons.
+ * A member whose best score trails the best of all members by more than the cancel margin is
+ * stopped early, which leaves its CPU to the others.
+ */
+public class PortfolioSolver {
+    private static final Logger logger = Logger.getLogger(PortfolioSolver.class.getName());
+
+    private static final long BASE_SEED = 0L;
+
+    /**
+     * Local search acceptors the members cycle through, with the forager settings each one is
+     * usually paired with.
+     */
+    public enum Acceptor {
+        TABU_SEARCH,
+        LATE_ACCEPTANCE,
+        SIMULATED_ANNEALING;
+
+        LocalSearchPhaseConfig configure(LocalSearchPhaseConfig localSearch) {
+            switch (this) {
+                case TABU_SEARCH:
+                    return localSearch
+                            .withAcceptorConfig(new LocalSearchAcceptorConfig().withEntityTabuSize(7))
+                            .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1000));
+                case LATE_ACCEPTANCE:
+                    return localSearch
+                            .withAcceptorConfig(new LocalSearchAcceptorConfig().withLateAcceptanceSize(400))
+                            .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1));
+                default:
+                    // A soft temperature only, so hard constraint breaks are never taken on purpose
+                    return localSearch
+                            .withAcceptorConfig(new LocalSearchAcceptorConfig()
+                                    .withSimulatedAnnealingStartingTemperature("0hard/500soft"))
+                            .withForagerConfig(new LocalSearchForagerConfig().withAcceptedCountLimit(1));
+            }
+        }
+    }
+
+    private final int size;
+    private final HardSoftScore cancelMargin; // null = members always run to the end
+
+    public PortfolioSolver(int size, HardSoftScore cancelMargin) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Portfolio size must be at least 1, got " + size);
+        }
+        this.size = size;
+        this.cancelMargin = cancelMargin;
+    }
+
+    /**
+     * Runs the members to their end, or until they are cancelled, and returns the best solution.
+     *
+     * @param solverConfig settings shared by all members, the seed and the local search acceptor
+     * are replaced per member
+     * @param monitor stops all members together on the conditions of the termination policy
+     * @param listener notified of every member's new best solutions
+     */
+    public Result solve(TimeTable problem, SolverConfig solverConfig, TerminationMonitor monitor,
+                        SolverEventListener<TimeTable> listener) {
+        TimeTableSolutionCloner cloner = new TimeTableSolutionCloner();
+        List<Member> members = new ArrayList<>();
+        List<Solver<TimeTable>> solvers = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Member member = new Member(i, BASE_SEED + i, Acceptor.values()[i % Acceptor.values().length]);
+            member.solver = SolverFactory.<TimeTable>create(memberConfig(solverConfig, member)).buildSolver();
+            member.solver.addEventListener(listener);
+            member.solver.addEventListener(event -> bestScoreChanged(members, member, event.getNewBestSolution().getScore()));
+            members.add(member);
+            solvers.add(member.solver);
+        }
+        monitor.watch(solvers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(size, runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-member");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<TimeTable>> futures = new ArrayList<>();
+            long start = System.currentTimeMillis();
+            for (Member member : members) {
+                TimeTable memberProblem = cloner.cloneSolution(problem);
+                futures.add(executor.submit(() -> member.solver.solve(memberProblem)));
+            }
+            TimeTable best = null;
+            for (int i = 0; i < size; i++) {
+                Member member = members.get(i);
+                TimeTable solution = futures.get(i).get();
+                member.recordEnd(solution, System.currentTimeMillis() - start);
+                if (best == null || (solution.getScore() != null && solution.getScore().compareTo(best.getScore()) > 0)) {
+                    best = solution;
+                }
+            }
+            Result result = new Result(best, members);
+            logger.info("Portfolio finished: " + result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            members.forEach(member -> member.solver.terminateEarly());
+            throw new IllegalStateException("Portfolio solve was interrupted", e);
+        } catch (ExecutionException e) {
+            members.forEach(member -> member.solver.terminateEarly());
+            throw new IllegalStateException("Portfolio member failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // The shared settings with this member's seed and acceptor on every local search phase
+    private static SolverConfig memberConfig(SolverConfig solverConfig, Member member) {
+        SolverConfig config = solverConfig.copyConfig().withRandomSeed(member.seed);
+        List<PhaseConfig> phases = new ArrayList<>();
+        if (solverConfig.getPhaseConfigList() == null || solverConfig.getPhaseConfigList().isEmpty()) {
+            phases.add(new ConstructionHeuristicPhaseConfig());
+            phases.add(member.acceptor.configure(new LocalSearchPhaseConfig()));
+        } else {
+            for (PhaseConfig phase : solverConfig.getPhaseConfigList()) {
+                if (phase instanceof LocalSearchPhaseConfig) {
+                    // A fresh phase config, the copied one may still be shared with the other members
+                    LocalSearchPhaseConfig localSearch = (LocalSearchPhaseConfig) phase;
+                    MoveSelectorConfig<?> moveSelector = localSearch.getMoveSelectorConfig();
+                    phases.add(member.acceptor.configure(new LocalSearchPhaseConfig()
+                            .withMoveSelectorConfig(moveSelector)
+                            .withTerminationConfig(localSearch.getTerminationConfig())));
+                } else {
+                    phases.add(phase);
+                }
+            }
+        }
+        return config.withPhaseList(phases);
+    }
+
+    private synchronized void bestScoreChanged(List<Member> members, Member member, HardSoftScore score) {
+        if (score == null || !score.isSolutionInitialized()) {
+            return;
+        }
+        member.improvements++;
+        member.bestScore = score;
+        if (cancelMargin == null) {
+            return;
+        }
+        HardSoftScore globalBest = null;
+        for (Member other : members) {
+            if (other.bestScore != null && (globalBest == null || other.bestScore.compareTo(globalBest) > 0)) {
+                globalBest = other.bestScore;
+            }
+        }
+        for (Member other : members) {
+            if (!other.cancelled && other.bestScore != null
+                    && other.bestScore.add(cancelMargin).compareTo(globalBest) < 0) {
+                other.cancelled = true;
+                other.solver.terminateEarly();
+                logger.info("Portfolio member " + other.getName() + " cancelled at " + other.bestScore
+                        + ", best is " + globalBest);
+            }
+        }
+    }
+
+    /**
+     * One solver of the portfolio and what it achieved.
+     */
+    public static class Member {
+        private final int index;
+        private final long seed;
+        private final Acceptor acceptor;
+        private Solver<TimeTable> solver;
+        private volatile HardSoftScore bestScore;
+        private volatile int improvements;
+        private volatile boolean cancelled;
+        private long totalMillis;
+        private long scoreCalculationCount;
+
+        private Member(int index, long seed, Acceptor acceptor) {
+            this.index = index;
+            this.seed = seed;
+            this.acceptor = acceptor;
+        }
+
+        private void recordEnd(TimeTable solution, long totalMillis) {
+            this.bestScore = solution.getScore();
+            this.totalMillis = totalMillis;
+            if (solver instanceof DefaultSolver) {
+                scoreCalculationCount = ((DefaultSolver<TimeTable>) solver).getSolverScope().getScoreCalculationCount();
+            }
+        }
+
+        public String getName() { return "#" + index + " " + acceptor + " seed=" + seed; }
+        public int getIndex() { return index; }
+        public long getSeed() { return seed; }
+        public Acceptor getAcceptor() { return acceptor; }
+        public String getBestScore() { return bestScore != null ? bestScore.toString() : null; }
+        public int getImprovements() { return improvements; }
+        public boolean isCancelled() { return cancelled; }
+        public long getTotalMillis() { return totalMillis; }
+        public long getScoreCalculationCount() { return scoreCalculationCount; }
+
+        @Override
+        public String toString() {
+            return getName() + " best=" + bestScore + " improvements=" + improvements
+                    + (cancelled ? " cancelled" : "") + " total=" + totalMillis + " ms calculations=" + scoreCalculationCount;
+        }
+    }
+
+    public static class Result {
+        private final TimeTable bestSolution;
+        private final List<Member> members;
+
+        private Result(TimeTable bestSolution, List<Member> members) {
+            this.bestSolution = bestSolution;
+            this.members = members;
+        }
+
+        public TimeTable getBestSolution() { return bestSolution; }
+        public List<Member> getMembers() { return members; }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("best=" + bestSolution.getScore());
+            for (Member member : members) {
+                text.append(System.lineSeparator()).append("  ").append(member);
+            }
+            return text.toString();
+        }
+    }
+}
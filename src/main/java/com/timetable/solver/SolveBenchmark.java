@@ -0,0 +1,113 @@
+package com.timetable.solver;
+
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import java.util.logging.Logger;
+
+/**
+ * Runs one solver configuration on a problem and records how long it took to reach a feasible
+ * solution and how fast local search improved the score afterwards, so solver settings can be
+ * compared on the same input. The score calculation count stands in for the number of moves
+ * evaluated, which makes the cost of an improvement comparable across machines and time limits.
+ */
+public class SolveBenchmark {
+    private static final Logger logger = Logger.getLogger(SolveBenchmark.class.getName());
+
+    private SolveBenchmark() {}
+
+    public static Result run(String name, SolverConfig solverConfig, TimeTable problem) {
+        Solver<TimeTable> solver = SolverFactory.<TimeTable>create(solverConfig).buildSolver();
+        Result result = new Result(name);
+        long start = System.currentTimeMillis();
+        solver.addEventListener(event -> {
+            HardSoftScore score = event.getNewBestSolution().getScore();
+            if (score == null || !score.isSolutionInitialized()) {
+                return;
+            }
+            if (result.timeToInitializedMillis == null) {
+                result.timeToInitializedMillis = System.currentTimeMillis() - start;
+                result.initializedScore = score;
+            }
+            if (result.timeToFeasibleMillis == null && score.isFeasible()) {
+                result.timeToFeasibleMillis = System.currentTimeMillis() - start;
+            }
+        });
+        TimeTable solution = solver.solve(problem);
+        result.totalMillis = System.currentTimeMillis() - start;
+        result.bestScore = String.valueOf(solution.getScore());
+        if (solver instanceof DefaultSolver) {
+            result.scoreCalculationCount = ((DefaultSolver<TimeTable>) solver).getSolverScope().getScoreCalculationCount();
+        }
+        result.recordImprovement(solution.getScore());
+        logger.info("Benchmark " + result);
+        return result;
+    }
+
+    public static class Result {
+        private final String name;
+        private Long timeToInitializedMillis;
+        private HardSoftScore initializedScore;
+        private Long timeToFeasibleMillis;
+        private long totalMillis;
+        private String bestScore;
+        private double hardImprovementPerSecond;
+        private double softImprovementPerSecond;
+        private long scoreCalculationCount;
+        private Double calculationsPerHardPoint;
+        private Double calculationsPerSoftPoint;
+
+        public Result(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public Long getTimeToInitializedMillis() { return timeToInitializedMillis; }
+        public String getInitializedScore() { return initializedScore != null ? initializedScore.toString() : null; }
+        public Long getTimeToFeasibleMillis() { return timeToFeasibleMillis; }
+        public long getTotalMillis() { return totalMillis; }
+        public String getBestScore() { return bestScore; }
+        public double getHardImprovementPerSecond() { return hardImprovementPerSecond; }
+        public double getSoftImprovementPerSecond() { return softImprovementPerSecond; }
+        public long getScoreCalculationCount() { return scoreCalculationCount; }
+        public Double getCalculationsPerHardPoint() { return calculationsPerHardPoint; }
+        public Double getCalculationsPerSoftPoint() { return calculationsPerSoftPoint; }
+
+        // Score gained per second between the first initialized solution and the best one
+        private void recordImprovement(HardSoftScore best) {
+            if (initializedScore == null || best == null) {
+                return;
+            }
+            double seconds = (totalMillis - timeToInitializedMillis) / 1000.0;
+            int hardGain = best.hardScore() - initializedScore.hardScore();
+            int softGain = best.softScore() - initializedScore.softScore();
+            if (seconds > 0) {
+                hardImprovementPerSecond = hardGain / seconds;
+                softImprovementPerSecond = softGain / seconds;
+            }
+            // Includes the construction heuristic's calculations, which every variant pays alike
+            if (scoreCalculationCount > 0) {
+                calculationsPerHardPoint = hardGain > 0 ? (double) scoreCalculationCount / hardGain : null;
+                calculationsPerSoftPoint = softGain > 0 ? (double) scoreCalculationCount / softGain : null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-25s initialized=%s ms (%s)  feasible=%s ms  total=%d ms  best=%s"
+                            + "  improvement/s=%.1fhard/%.1fsoft  calculations=%d (%s/hard, %s/soft)",
+                    name, timeToInitializedMillis, initializedScore,
+                    timeToFeasibleMillis != null ? timeToFeasibleMillis : "not reached", totalMillis, bestScore,
+                    hardImprovementPerSecond, softImprovementPerSecond, scoreCalculationCount,
+                    format(calculationsPerHardPoint), format(calculationsPerSoftPoint));
+        }
+
+        private static String format(Double value) {
+            return value != null ? String.format("%.0f", value) : "-";
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.timetable.solver;
+
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Stops solvers on the conditions of a {@link TerminationPolicy} that the solver cannot check
+ * itself. One monitor follows a whole solve, so with the feasibility-first strategy the clock of
+ * "feasible then N more seconds" keeps running from the first phase into the second. Solvers that
+ * run side by side are watched together and judged by their common best score.
+ * Conditions are checked on every new best solution and once a second, since the improvement
+ * rate drops exactly when no new best solutions arrive.
+ */
+public class TerminationMonitor implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(TerminationMonitor.class.getName());
+
+    private static final long CHECK_INTERVAL_MILLIS = 1000L;
+
+    private final TerminationPolicy policy;
+    private final ScheduledExecutorService scheduler;
+    // Best scores over time, oldest first, trimmed to the improvement window
+    private final Deque<ScoreSample> history = new ArrayDeque<>();
+    private final List<Solver<TimeTable>> solvers = new ArrayList<>();
+    private HardSoftScore bestScore;
+    private Long feasibleNanos;
+    private String terminationReason;
+
+    TerminationMonitor(TerminationPolicy policy) {
+        this.policy = policy;
+        if (policy.needsMonitor()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "termination-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Watches {@code solver} from now on, in place of the previously watched ones.
+     */
+    public void watch(Solver<TimeTable> solver) {
+        watch(List.of(solver));
+    }
+
+    /**
+     * Watches solvers that run side by side, in place of the previously watched ones. The
+     * improvement window starts over, since new solvers may score with other constraint weights.
+     */
+    public synchronized void watch(List<Solver<TimeTable>> solvers) {
+        this.solvers.clear();
+        this.solvers.addAll(solvers);
+        history.clear();
+        bestScore = null;
+        if (scheduler == null) {
+            return;
+        }
+        for (Solver<TimeTable> solver : solvers) {
+            solver.addEventListener(event -> {
+                HardSoftScore score = event.getNewBestSolution().getScore();
+                if (score != null && score.isSolutionInitialized()) {
+                    bestScoreChanged(score);
+                }
+            });
+            if (terminationReason != null) {
+                solver.terminateEarly();
+            }
+        }
+    }
+
+    private synchronized void bestScoreChanged(HardSoftScore score) {
+        // A solver running alongside may report a score below the common best
+        if (bestScore != null && score.compareTo(bestScore) <= 0) {
+            return;
+        }
+        bestScore = score;
+        long now = System.nanoTime();
+        if (policy.getImprovementWindowSeconds() != null) {
+            history.addLast(new ScoreSample(now, score));
+        }
+        if (feasibleNanos == null && score.isFeasible()) {
+            feasibleNanos = now;
+        }
+        String reason = policy.bestScoreReached(score);
+        terminate(reason != null ? reason : pendingReason(now));
+    }
+
+    private synchronized void check() {
+        terminate(pendingReason(System.nanoTime()));
+    }
+
+    private String pendingReason(long now) {
+        Integer secondsAfterFeasible = policy.getSecondsAfterFeasible();
+        if (secondsAfterFeasible != null && feasibleNanos != null
+                && now - feasibleNanos >= TimeUnit.SECONDS.toNanos(secondsAfterFeasible)) {
+            return "feasible for " + secondsAfterFeasible + "s";
+        }
+        Integer windowSeconds = policy.getImprovementWindowSeconds();
+        if (windowSeconds != null && !history.isEmpty()) {
+            long windowStart = now - TimeUnit.SECONDS.toNanos(windowSeconds);
+            // Keep the last sample at or before the window start, it is the best score the window began with
+            ScoreSample start = history.pollFirst();
+            while (!history.isEmpty() && history.peekFirst().nanos <= windowStart) {
+                start = history.pollFirst();
+            }
+            history.addFirst(start);
+            if (start.nanos <= windowStart) {
+                HardSoftScore best = history.peekLast().score;
+                double softPerMinute = (best.softScore() - start.score.softScore()) * 60.0 / windowSeconds;
+                if (best.isFeasible() && best.hardScore() <= start.score.hardScore()
+                        && softPerMinute < policy.getMinSoftImprovementPerMinute()) {
+                    return String.format("soft improvement %.1f/min over the last %ds", softPerMinute, windowSeconds);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stops the watched solvers for a reason of the caller's, such as handing the CPU to another
+     * solve. The request is repeated on every call, since a solver forgets it when it starts.
+     */
+    public synchronized void terminateEarly(String reason) {
+        if (terminationReason == null) {
+            terminationReason = reason;
+            logger.info("Terminating solve early: " + reason);
+        }
+        for (Solver<TimeTable> solver : solvers) {
+            solver.terminateEarly();
+        }
+    }
+
+    private void terminate(String reason) {
+        if (reason == null || terminationReason != null) {
+            return;
+        }
+        terminationReason = reason;
+        logger.info("Terminating solve early: " + reason);
+        for (Solver<TimeTable> solver : solvers) {
+            solver.terminateEarly();
+        }
+    }
+
+    /**
+     * @return whether a monitored condition stopped the solve, so later phases should not start
+     */
+    public synchronized boolean isTerminated() {
+        return terminationReason != null;
+    }
+
+    public synchronized String getTerminationReason() {
+        return terminationReason;
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static class ScoreSample {
+        private final long nanos;
+        private final HardSoftScore score;
+
+        private ScoreSample(long nanos, HardSoftScore score) {
+            this.nanos = nanos;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.timetable.solver;
+
+import com.timetable.domain.SolverConfiguration;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The stop conditions of a solve, read from a {@link SolverConfiguration}. Every configured
+ * condition applies and the first one met ends the solve.
+ * Conditions the solver supports natively go into its termination config; the ones it cannot
+ * express, such as a best score limit with a wildcard soft level, "feasible then N more seconds"
+ * and the soft improvement rate of a feasible solution, are watched by a {@link TerminationMonitor}.
+ */
+public class TerminationPolicy {
+
+    private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+    private static final Pattern HARD_SOFT = Pattern.compile("(-?\\d+)hard/(\\*|-?\\d+)soft");
+
+    private final Integer hardLimit;
+    private final Integer softLimit; // null with a hard limit = any soft score
+    private final Long unimprovedSecondsLimit;
+    private final Integer secondsAfterFeasible;
+    private final Integer improvementWindowSeconds;
+    private final Integer minSoftImprovementPerMinute;
+    private final Integer stepCountLimit;
+
+    private TerminationPolicy(Integer hardLimit, Integer softLimit, Long unimprovedSecondsLimit,
+                              Integer secondsAfterFeasible, Integer improvementWindowSeconds,
+                              Integer minSoftImprovementPerMinute, Integer stepCountLimit) {
+        this.hardLimit = hardLimit;
+        this.softLimit = softLimit;
+        this.unimprovedSecondsLimit = unimprovedSecondsLimit;
+        this.secondsAfterFeasible = secondsAfterFeasible;
+        this.improvementWindowSeconds = improvementWindowSeconds;
+        this.minSoftImprovementPerMinute = minSoftImprovementPerMinute;
+        this.stepCountLimit = stepCountLimit;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the best score limit cannot be parsed or a limit is negative
+     */
+    public static TerminationPolicy from(SolverConfiguration configuration) {
+        Integer hardLimit = null;
+        Integer softLimit = null;
+        String bestScoreLimit = configuration.getBestScoreLimit();
+        if (bestScoreLimit != null && !bestScoreLimit.isBlank()) {
+            String limit = bestScoreLimit.replace(" ", "");
+            Matcher matcher = HARD_SOFT.matcher(limit);
+            if (INTEGER.matcher(limit).matches()) {
+                // A bare number is a soft limit on a feasible solution
+                hardLimit = 0;
+                softLimit = Integer.parseInt(limit);
+            } else if (matcher.matches()) {
+                hardLimit = Integer.parseInt(matcher.group(1));
+                softLimit = "*".equals(matcher.group(2)) ? null : Integer.parseInt(matcher.group(2));
+            } else {
+                throw new IllegalArgumentException("Best score limit must look like 0hard/-100soft or 0hard/*soft, got "
+                        + bestScoreLimit);
+            }
+        }
+        Integer unimproved = nonNegative("Unimproved seconds limit", configuration.getUnimprovedSecondsLimit());
+        Integer window = nonNegative("Improvement window", configuration.getImprovementWindowSeconds());
+        Integer minRate = configuration.getMinSoftImprovementPerMinute();
+        if ((window == null) != (minRate == null)) {
+            throw new IllegalArgumentException("Improvement window and minimum soft improvement per minute must be set together");
+        }
+        return new TerminationPolicy(hardLimit, softLimit, unimproved != null ? unimproved.longValue() : null,
+                nonNegative("Seconds after feasible", configuration.getSecondsAfterFeasible()),
+                window, minRate, nonNegative("Step count limit", configuration.getStepCountLimit()));
+    }
+
+    private static Integer nonNegative(String name, Integer value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative, got " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Solver level termination: the time budget plus the conditions the solver checks itself.
+     */
+    public TerminationConfig solverTermination(Duration spentLimit) {
+        TerminationConfig termination = new TerminationConfig().withSpentLimit(spentLimit);
+        if (unimprovedSecondsLimit != null) {
+            termination.withUnimprovedSecondsSpentLimit(unimprovedSecondsLimit);
+        }
+        if (hardLimit != null && softLimit != null) {
+            termination.withBestScoreLimit(HardSoftScore.of(hardLimit, softLimit).toString());
+        }
+        return termination;
+    }
+
+    /**
+     * Termination of each local search phase, or null when it runs until the solver stops.
+     * Steps only count within a phase, so the step limit cannot sit on the solver level.
+     */
+    public TerminationConfig localSearchTermination() {
+        return stepCountLimit != null ? new TerminationConfig().withStepCountLimit(stepCountLimit) : null;
+    }
+
+    public TerminationMonitor newMonitor() {
+        return new TerminationMonitor(this);
+    }
+
+    /**
+     * @return the reason to stop once {@code bestScore} was reached, otherwise null
+     */
+    String bestScoreReached(HardSoftScore bestScore) {
+        if (hardLimit != null && softLimit == null && bestScore.hardScore() >= hardLimit) {
+            return "best score " + bestScore + " reached " + hardLimit + "hard/*soft";
+        }
+        return null;
+    }
+
+    boolean needsMonitor() {
+        return (hardLimit != null && softLimit == null) || secondsAfterFeasible != null
+                || improvementWindowSeconds != null;
+    }
+
+    Integer getSecondsAfterFeasible() { return secondsAfterFeasible; }
+    Integer getImprovementWindowSeconds() { return improvementWindowSeconds; }
+    Integer getMinSoftImprovementPerMinute() { return minSoftImprovementPerMinute; }
+
+    @Override
+    public String toString() {
+        List<String> conditions = new ArrayList<>();
+        if (hardLimit != null) conditions.add("bestScore>=" + hardLimit + "hard/" + (softLimit != null ? softLimit : "*") + "soft");
+        if (unimprovedSecondsLimit != null) conditions.add("unimproved=" + unimprovedSecondsLimit + "s");
+        if (secondsAfterFeasible != null) conditions.add("feasible+" + secondsAfterFeasible + "s");
+        if (improvementWindowSeconds != null) conditions.add("softImprovement<" + minSoftImprovementPerMinute
+                + "/min over " + improvementWindowSeconds + "s");
+        if (stepCountLimit != null) conditions.add("steps=" + stepCountLimit);
+        return "TerminationPolicy" + conditions;
+    }
+}
@@ -0,0 +1,90 @@
+package com.timetable.solver;
+
+import com.timetable.solver.move.CoursePillarMoveIteratorFactory;
+import com.timetable.solver.move.InterchangeableLessonSwapFilter;
+import com.timetable.solver.move.KempeChainMoveIteratorFactory;
+import com.timetable.solver.move.LessonNearbyDistanceMeter;
+import com.timetable.solver.move.SameBatchSwapMoveIteratorFactory;
+import org.optaplanner.core.config.heuristic.selector.common.nearby.NearbySelectionConfig;
+import org.optaplanner.core.config.heuristic.selector.common.nearby.NearbySelectionDistributionType;
+import org.optaplanner.core.config.heuristic.selector.entity.EntitySelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.factory.MoveIteratorFactoryConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.SwapMoveSelectorConfig;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Builds the local search move selector with the timetabling moves that are switched on.
+ * The generic change and swap moves always stay in the mix, since they are the only moves that
+ * can place a lesson in a slot that no other lesson of its group occupies.
+ */
+public class TimetableMoveSelectors {
+
+    // Nearby swaps pick the partner among the origin's closest lessons, mostly the closest few;
+    // roughly the lessons of one batch plus those of its teachers
+    private static final int NEARBY_SIZE_MAXIMUM = 40;
+    private static final String SWAP_ORIGIN_ID = "swapOrigin";
+
+    private TimetableMoveSelectors() {}
+
+    /**
+     * Switches for the local search moves on top of the generic change and swap moves.
+     */
+    public enum MoveOption {
+        SAME_BATCH_SWAP,
+        COURSE_PILLAR,
+        KEMPE_CHAIN,
+        // The generic swap picks its second lesson with nearby selection
+        NEARBY_SWAP,
+        // The generic swap skips pairs of interchangeable lessons
+        SYMMETRY_BREAKING
+    }
+
+    /**
+     * @return the union of the generic and the enabled custom moves, or null when no option is
+     * enabled so the solver keeps its default move selector
+     */
+    public static MoveSelectorConfig<?> localSearchMoveSelector(EnumSet<MoveOption> options) {
+        if (options.isEmpty()) {
+            return null;
+        }
+        List<MoveSelectorConfig> selectors = new ArrayList<>();
+        selectors.add(new ChangeMoveSelectorConfig());
+        SwapMoveSelectorConfig swap = options.contains(MoveOption.NEARBY_SWAP)
+                ? nearbySwapMoveSelector() : new SwapMoveSelectorConfig();
+        if (options.contains(MoveOption.SYMMETRY_BREAKING)) {
+            swap.withFilterClass(InterchangeableLessonSwapFilter.class);
+        }
+        selectors.add(swap);
+        if (options.contains(MoveOption.SAME_BATCH_SWAP)) {
+            selectors.add(new MoveIteratorFactoryConfig()
+                    .withMoveIteratorFactoryClass(SameBatchSwapMoveIteratorFactory.class));
+        }
+        if (options.contains(MoveOption.COURSE_PILLAR)) {
+            selectors.add(new MoveIteratorFactoryConfig()
+                    .withMoveIteratorFactoryClass(CoursePillarMoveIteratorFactory.class));
+        }
+        if (options.contains(MoveOption.KEMPE_CHAIN)) {
+            selectors.add(new MoveIteratorFactoryConfig()
+                    .withMoveIteratorFactoryClass(KempeChainMoveIteratorFactory.class));
+        }
+        return new UnionMoveSelectorConfig().withMoveSelectorList(selectors);
+    }
+
+    // Swap whose second lesson is drawn close to the first by LessonNearbyDistanceMeter
+    private static SwapMoveSelectorConfig nearbySwapMoveSelector() {
+        return new SwapMoveSelectorConfig()
+                .withEntitySelectorConfig(new EntitySelectorConfig().withId(SWAP_ORIGIN_ID))
+                .withSecondaryEntitySelectorConfig(new EntitySelectorConfig()
+                        .withNearbySelectionConfig(new NearbySelectionConfig()
+                                .withOriginEntitySelectorConfig(EntitySelectorConfig.newMimicSelectorConfig(SWAP_ORIGIN_ID))
+                                .withNearbyDistanceMeterClass(LessonNearbyDistanceMeter.class)
+                                .withNearbySelectionDistributionType(NearbySelectionDistributionType.PARABOLIC_DISTRIBUTION)
+                                .withParabolicDistributionSizeMaximum(NEARBY_SIZE_MAXIMUM)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.timetable.solver.island;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.IndexedFact;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.solver.change.ProblemChange;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The planning variables of a timetable as plain index arrays, which is what islands exchange.
+ * Every island builds the same problem from the same input, so a lesson is identified by its
+ * position in the lesson lists and a value by its fact index; -1 stands for unassigned.
+ */
+public class Assignment implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String score;
+    private final int[] timeSlots;
+    private final int[] rooms;
+    private final int[] faculty;
+
+    private Assignment(String score, int[] timeSlots, int[] rooms, int[] faculty) {
+        this.score = score;
+        this.timeSlots = timeSlots;
+        this.rooms = rooms;
+        this.faculty = faculty;
+    }
+
+    public static Assignment of(TimeTable solution) {
+        List<Lesson> lessons = lessons(solution);
+        int[] timeSlots = new int[lessons.size()];
+        int[] rooms = new int[lessons.size()];
+        int[] faculty = new int[lessons.size()];
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            timeSlots[i] = index(lesson.getTimeSlot());
+            rooms[i] = index(lesson.getRoom());
+            faculty[i] = index(lesson.getFaculty());
+        }
+        return new Assignment(String.valueOf(solution.getScore()), timeSlots, rooms, faculty);
+    }
+
+    private static int index(IndexedFact fact) {
+        return fact != null ? fact.getIndex() : -1;
+    }
+
+    /**
+     * Writes this assignment into the lessons of {@code timetable}, which must be built from the
+     * same input as the timetable the assignment was taken from.
+     */
+    public void applyTo(TimeTable timetable) {
+        Values values = new Values(timetable);
+        List<Lesson> lessons = lessons(timetable);
+        checkSize(lessons);
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            lesson.setTimeSlot(values.timeSlot(timeSlots[i]));
+            lesson.setRoom(values.room(rooms[i]));
+            lesson.setFaculty(values.faculty(faculty[i]));
+        }
+    }
+
+    /**
+     * The same as {@link #applyTo}, as a change of a running solver's working solution.
+     */
+    public ProblemChange<TimeTable> asProblemChange() {
+        return (workingSolution, director) -> {
+            Values values = new Values(workingSolution);
+            List<Lesson> lessons = lessons(workingSolution);
+            checkSize(lessons);
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson lesson = lessons.get(i);
+                TimeSlot timeSlot = values.timeSlot(timeSlots[i]);
+                Room room = values.room(rooms[i]);
+                Faculty lessonFaculty = values.faculty(faculty[i]);
+                if (lesson.getTimeSlot() != timeSlot) {
+                    director.changeVariable(lesson, "timeSlot", l -> l.setTimeSlot(timeSlot));
+                }
+                if (lesson.getRoom() != room) {
+                    director.changeVariable(lesson, "room", l -> l.setRoom(room));
+                }
+                if (lesson.getFaculty() != lessonFaculty) {
+                    director.changeVariable(lesson, "faculty", l -> l.setFaculty(lessonFaculty));
+                }
+            }
+        };
+    }
+
+    private void checkSize(List<Lesson> lessons) {
+        if (lessons.size() != timeSlots.length) {
+            throw new IllegalArgumentException("Assignment covers " + timeSlots.length + " lessons, the timetable has "
+                    + lessons.size());
+        }
+    }
+
+    private static List<Lesson> lessons(TimeTable timetable) {
+        List<Lesson> lessons = new ArrayList<>(timetable.getLessonList());
+        if (timetable.getMinorLessonList() != null) {
+            lessons.addAll(timetable.getMinorLessonList());
+        }
+        return lessons;
+    }
+
+    public String getScore() {
+        return score;
+    }
+
+    // Facts by index, in the order TimeTable.indexFacts numbers them
+    private static class Values {
+        private final List<TimeSlot> timeSlots = new ArrayList<>();
+        private final List<Room> rooms;
+        private final List<Faculty> faculty;
+
+        private Values(TimeTable timetable) {
+            if (timetable.getTimeSlotList() != null) timeSlots.addAll(timetable.getTimeSlotList());
+            if (timetable.getMinorTimeSlotList() != null) timeSlots.addAll(timetable.getMinorTimeSlotList());
+            rooms = timetable.getRoomList();
+            faculty = timetable.getFacultyList();
+        }
+
+        private TimeSlot timeSlot(int index) { return index >= 0 ? timeSlots.get(index) : null; }
+        private Room room(int index) { return index >= 0 ? rooms.get(index) : null; }
+        private Faculty faculty(int index) { return index >= 0 ? faculty.get(index) : null; }
+    }
+}
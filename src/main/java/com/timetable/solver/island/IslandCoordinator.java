@@ -0,0 +1,205 @@
+package com.timetable.solver.island;
+
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Island model: solves one problem in several worker JVMs, each with its own heap, garbage
+ * collector and seed, and migrates elite solutions between them.
+ * The workers are plain child processes on this machine that talk over their stdin and stdout.
+ * Islands form a ring: the best solution an island reports is passed on to the next island, which
+ * continues from it when it beats its own best. The best final solution of all islands wins.
+ */
+public class IslandCoordinator {
+    private static final Logger logger = Logger.getLogger(IslandCoordinator.class.getName());
+
+    // Startup, problem building and the final message come on top of the solving time
+    private static final long GRACE_SECONDS = 60;
+    private static final String SPRING_BOOT_LAUNCHER = "org.springframework.boot.loader.PropertiesLauncher";
+
+    private final int islandCount;
+    private final int heapMb;
+
+    public IslandCoordinator(int islandCount, int heapMb) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("Island count must be at least 1, got " + islandCount);
+        }
+        if (heapMb < 64) {
+            throw new IllegalArgumentException("Island heap must be at least 64 MB, got " + heapMb);
+        }
+        this.islandCount = islandCount;
+        this.heapMb = heapMb;
+    }
+
+    /**
+     * Runs the islands to the end of the task's time budget and returns the best assignment.
+     */
+    public Result solve(IslandTask task) {
+        List<Island> islands = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < islandCount; i++) {
+                islands.add(new Island(i, launch()));
+            }
+            for (Island island : islands) {
+                island.send(task.forIsland(island.index));
+            }
+            for (Island island : islands) {
+                Thread reader = new Thread(() -> readMessages(island, islands), "island-" + island.index + "-reader");
+                reader.setDaemon(true);
+                island.reader = reader;
+                reader.start();
+            }
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(task.getSeconds() + GRACE_SECONDS);
+            for (Island island : islands) {
+                long remaining = Math.max(deadline - System.currentTimeMillis(), 1);
+                if (!island.process.waitFor(remaining, TimeUnit.MILLISECONDS)) {
+                    logger.warning("Island " + island.index + " did not finish in time");
+                    island.send(IslandMessage.stop());
+                }
+                island.reader.join(TimeUnit.SECONDS.toMillis(GRACE_SECONDS));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not run the island workers", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Island solve was interrupted", e);
+        } finally {
+            islands.forEach(island -> island.process.destroyForcibly());
+        }
+
+        Island best = null;
+        List<IslandStats> stats = new ArrayList<>();
+        for (Island island : islands) {
+            if (island.result == null) {
+                continue;
+            }
+            stats.add(island.stats);
+            if (best == null || score(island.result).compareTo(score(best.result)) > 0) {
+                best = island;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No island returned a solution");
+        }
+        Result result = new Result(best.result, stats, System.currentTimeMillis() - start);
+        logger.info("Islands finished: " + result);
+        return result;
+    }
+
+    private Process launch() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        List<String> command = new ArrayList<>(List.of(java, "-Xmx" + heapMb + "m", "-cp", classPath));
+        if (ClassLoader.getSystemClassLoader().getResource(IslandWorker.class.getName().replace('.', '/') + ".class") == null) {
+            // Running from a Spring Boot jar, whose launcher knows where the application classes are
+            command.add("-Dloader.main=" + IslandWorker.class.getName());
+            command.add(SPRING_BOOT_LAUNCHER);
+        } else {
+            command.add(IslandWorker.class.getName());
+        }
+        return new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private void readMessages(Island island, List<Island> islands) {
+        try {
+            while (true) {
+                IslandMessage message = island.read();
+                if (message.getType() == IslandMessage.Type.RESULT) {
+                    island.result = message.getAssignment();
+                    island.stats = message.getStats();
+                    return;
+                }
+                if (message.getType() == IslandMessage.Type.ELITE && islands.size() > 1) {
+                    Island next = islands.get((island.index + 1) % islands.size());
+                    next.send(message);
+                }
+            }
+        } catch (EOFException e) {
+            logger.warning("Island " + island.index + " ended without a result");
+        } catch (IOException | ClassNotFoundException e) {
+            logger.log(Level.WARNING, "Lost island " + island.index, e);
+        }
+    }
+
+    private static HardSoftScore score(Assignment assignment) {
+        return HardSoftScore.parseScore(assignment.getScore());
+    }
+
+    // One worker process and the streams to it
+    private static class Island {
+        private final int index;
+        private final Process process;
+        private final ObjectOutputStream out;
+        private ObjectInputStream in;
+        private Thread reader;
+        private volatile Assignment result;
+        private volatile IslandStats stats;
+
+        private Island(int index, Process process) throws IOException {
+            this.index = index;
+            this.process = process;
+            this.out = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            out.flush();
+        }
+
+        private synchronized void send(Object message) {
+            try {
+                out.writeObject(message);
+                out.reset();
+                out.flush();
+            } catch (IOException e) {
+                // The island already finished, a late migrant is of no use to it
+                logger.fine("Island " + index + " no longer takes messages: " + e.getMessage());
+            }
+        }
+
+        // The worker writes its stream header only once it runs, so the input side is opened lazily
+        private IslandMessage read() throws IOException, ClassNotFoundException {
+            if (in == null) {
+                in = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+            }
+            return (IslandMessage) in.readObject();
+        }
+    }
+
+    public static class Result {
+        private final Assignment bestAssignment;
+        private final List<IslandStats> islands;
+        private final long totalMillis;
+
+        private Result(Assignment bestAssignment, List<IslandStats> islands, long totalMillis) {
+            this.bestAssignment = bestAssignment;
+            this.islands = islands;
+            this.totalMillis = totalMillis;
+        }
+
+        public Assignment getBestAssignment() { return bestAssignment; }
+        public String getBestScore() { return bestAssignment.getScore(); }
+        public List<IslandStats> getIslands() { return islands; }
+        public long getTotalMillis() { return totalMillis; }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder("best=" + getBestScore() + " total=" + totalMillis + " ms");
+            for (IslandStats island : islands) {
+                text.append(System.lineSeparator()).append("  ").append(island);
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.timetable.solver.island;
+
+import java.io.Serializable;
+
+/**
+ * What the coordinator and the workers send each other after the task: elite solutions in both
+ * directions, a stop request to the worker and the worker's final result.
+ */
+class IslandMessage implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    enum Type { ELITE, STOP, RESULT }
+
+    private final Type type;
+    private final int islandIndex;
+    private final Assignment assignment;
+    private final IslandStats stats;
+
+    private IslandMessage(Type type, int islandIndex, Assignment assignment, IslandStats stats) {
+        this.type = type;
+        this.islandIndex = islandIndex;
+        this.assignment = assignment;
+        this.stats = stats;
+    }
+
+    static IslandMessage elite(int islandIndex, Assignment assignment) {
+        return new IslandMessage(Type.ELITE, islandIndex, assignment, null);
+    }
+
+    static IslandMessage stop() {
+        return new IslandMessage(Type.STOP, -1, null, null);
+    }
+
+    static IslandMessage result(int islandIndex, Assignment assignment, IslandStats stats) {
+        return new IslandMessage(Type.RESULT, islandIndex, assignment, stats);
+    }
+
+    Type getType() { return type; }
+    int getIslandIndex() { return islandIndex; }
+    Assignment getAssignment() { return assignment; }
+    IslandStats getStats() { return stats; }
+}
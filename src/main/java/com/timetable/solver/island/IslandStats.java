@@ -0,0 +1,50 @@
+package com.timetable.solver.island;
+
+import java.io.Serializable;
+
+/**
+ * What one island achieved and what its JVM spent on it, reported by the worker at the end.
+ */
+public class IslandStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int islandIndex;
+    private final String bestScore;
+    private final long totalMillis;
+    private final long scoreCalculationCount;
+    private final long maxHeapMb;
+    private final long gcCount;
+    private final long gcMillis;
+    private final int elitesSent;
+    private final int immigrantsAccepted;
+
+    IslandStats(int islandIndex, String bestScore, long totalMillis, long scoreCalculationCount, long maxHeapMb,
+                long gcCount, long gcMillis, int elitesSent, int immigrantsAccepted) {
+        this.islandIndex = islandIndex;
+        this.bestScore = bestScore;
+        this.totalMillis = totalMillis;
+        this.scoreCalculationCount = scoreCalculationCount;
+        this.maxHeapMb = maxHeapMb;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+        this.elitesSent = elitesSent;
+        this.immigrantsAccepted = immigrantsAccepted;
+    }
+
+    public int getIslandIndex() { return islandIndex; }
+    public String getBestScore() { return bestScore; }
+    public long getTotalMillis() { return totalMillis; }
+    public long getScoreCalculationCount() { return scoreCalculationCount; }
+    public long getMaxHeapMb() { return maxHeapMb; }
+    public long getGcCount() { return gcCount; }
+    public long getGcMillis() { return gcMillis; }
+    public int getElitesSent() { return elitesSent; }
+    public int getImmigrantsAccepted() { return immigrantsAccepted; }
+
+    @Override
+    public String toString() {
+        return String.format("island %d best=%s total=%d ms calculations=%d heap=%d MB gc=%d (%d ms) sent=%d accepted=%d",
+                islandIndex, bestScore, totalMillis, scoreCalculationCount, maxHeapMb, gcCount, gcMillis,
+                elitesSent, immigrantsAccepted);
+    }
+}
@@ -0,0 +1,60 @@
+package com.timetable.solver.island;
+
+import com.timetable.domain.SolverConfiguration;
+import com.timetable.domain.TimeSlotConfiguration;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything a worker process needs to rebuild the coordinator's problem and solve it: the
+ * settings the coordinator's service holds, where its CSV files are, the scale of the synthetic data
+ * and the island's seed.
+ */
+public class IslandTask implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final SolverConfiguration solverConfiguration;
+    private final TimeSlotConfiguration timeSlotConfiguration;
+    private final LinkedHashMap<String, String> constraintWeights;
+    private final String dataDirectory;
+    private final int scale;
+    private final long seconds;
+    private final int migrationIntervalSeconds;
+    private final int islandIndex;
+
+    public IslandTask(SolverConfiguration solverConfiguration, TimeSlotConfiguration timeSlotConfiguration,
+                      Map<String, String> constraintWeights, String dataDirectory, int scale, long seconds,
+                      int migrationIntervalSeconds) {
+        this(solverConfiguration, timeSlotConfiguration, new LinkedHashMap<>(constraintWeights), dataDirectory, scale,
+                seconds, migrationIntervalSeconds, 0);
+    }
+
+    private IslandTask(SolverConfiguration solverConfiguration, TimeSlotConfiguration timeSlotConfiguration,
+                       LinkedHashMap<String, String> constraintWeights, String dataDirectory, int scale, long seconds,
+                       int migrationIntervalSeconds, int islandIndex) {
+        this.solverConfiguration = solverConfiguration;
+        this.timeSlotConfiguration = timeSlotConfiguration;
+        this.constraintWeights = constraintWeights;
+        this.dataDirectory = dataDirectory;
+        this.scale = scale;
+        this.seconds = seconds;
+        this.migrationIntervalSeconds = migrationIntervalSeconds;
+        this.islandIndex = islandIndex;
+    }
+
+    IslandTask forIsland(int islandIndex) {
+        return new IslandTask(solverConfiguration, timeSlotConfiguration, constraintWeights, dataDirectory, scale,
+                seconds, migrationIntervalSeconds, islandIndex);
+    }
+
+    public SolverConfiguration getSolverConfiguration() { return solverConfiguration; }
+    public TimeSlotConfiguration getTimeSlotConfiguration() { return timeSlotConfiguration; }
+    public Map<String, String> getConstraintWeights() { return constraintWeights; }
+    public String getDataDirectory() { return dataDirectory; }
+    public int getScale() { return scale; }
+    public long getSeconds() { return seconds; }
+    public int getMigrationIntervalSeconds() { return migrationIntervalSeconds; }
+    public int getIslandIndex() { return islandIndex; }
+}
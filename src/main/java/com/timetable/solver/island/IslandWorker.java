@@ -0,0 +1,163 @@
+package com.timetable.solver.island;
+
+import com.timetable.domain.TimeTable;
+import com.timetable.service.TimetableService;
+import com.timetable.util.SyntheticDataScaler;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Entry point of an island worker process, launched by {@link IslandCoordinator}.
+ * Reads an {@link IslandTask} from stdin, rebuilds the problem, solves it and talks to the
+ * coordinator over stdin and stdout: every migration interval it sends its best solution if that
+ * improved, and takes over an immigrant that beats its own best. Logging goes to stderr, since
+ * stdout carries the protocol.
+ */
+public class IslandWorker {
+    private static final Logger logger = Logger.getLogger(IslandWorker.class.getName());
+
+    private final IslandTask task;
+    private final ObjectOutputStream out;
+    private Solver<TimeTable> solver;
+    private volatile TimeTable bestSolution;
+    private TimeTable lastSentSolution;
+    private int elitesSent;
+    private int immigrantsAccepted;
+
+    private IslandWorker(IslandTask task, ObjectOutputStream out) {
+        this.task = task;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Claim stdout for the protocol before anything can log to it
+        FileOutputStream protocolOut = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(protocolOut));
+        out.flush();
+        ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(System.in));
+        IslandTask task = (IslandTask) in.readObject();
+        new IslandWorker(task, out).run(in);
+        System.exit(0);
+    }
+
+    private void run(ObjectInputStream in) throws IOException {
+        TimetableService service = new TimetableService("island-" + task.getIslandIndex(),
+                Paths.get(task.getDataDirectory()), null, null);
+        service.init();
+        service.setTimeSlotConfiguration(task.getTimeSlotConfiguration());
+        service.updateConstraintWeights(task.getConstraintWeights());
+        service.setSolverConfiguration(task.getSolverConfiguration());
+        TimeTable problem = SyntheticDataScaler.scale(service.buildProblem(), task.getScale());
+
+        solver = SolverFactory.<TimeTable>create(service.buildSolverConfig(Duration.ofSeconds(task.getSeconds()))
+                .withRandomSeed((long) task.getIslandIndex())).buildSolver();
+        solver.addEventListener(event -> bestSolution = event.getNewBestSolution());
+
+        Thread reader = new Thread(() -> readMessages(in), "island-reader");
+        reader.setDaemon(true);
+        reader.start();
+        ScheduledExecutorService migration = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "island-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(task.getMigrationIntervalSeconds(), 1);
+        migration.scheduleAtFixedRate(this::sendElite, interval, interval, TimeUnit.SECONDS);
+
+        logger.info("Island " + task.getIslandIndex() + " solving " + problem.getLessonList().size() + " lessons for "
+                + task.getSeconds() + "s");
+        long start = System.currentTimeMillis();
+        TimeTable solution = solver.solve(problem);
+        long totalMillis = System.currentTimeMillis() - start;
+        migration.shutdownNow();
+        send(IslandMessage.result(task.getIslandIndex(), Assignment.of(solution), stats(solution, totalMillis)));
+    }
+
+    private void readMessages(ObjectInputStream in) {
+        try {
+            while (true) {
+                IslandMessage message = (IslandMessage) in.readObject();
+                if (message.getType() == IslandMessage.Type.STOP) {
+                    solver.terminateEarly();
+                } else if (message.getType() == IslandMessage.Type.ELITE) {
+                    acceptImmigrant(message.getAssignment());
+                }
+            }
+        } catch (EOFException e) {
+            // The coordinator is gone, nobody is waiting for the result
+            solver.terminateEarly();
+        } catch (IOException | ClassNotFoundException e) {
+            logger.log(Level.WARNING, "Island " + task.getIslandIndex() + " lost the coordinator", e);
+            solver.terminateEarly();
+        }
+    }
+
+    // Restarts the search from the immigrant when it beats the local best
+    private synchronized void acceptImmigrant(Assignment immigrant) {
+        TimeTable best = bestSolution;
+        HardSoftScore immigrantScore = HardSoftScore.parseScore(immigrant.getScore());
+        if (best == null || best.getScore() == null || !immigrantScore.isSolutionInitialized()
+                || immigrantScore.compareTo(best.getScore()) <= 0) {
+            return;
+        }
+        immigrantsAccepted++;
+        logger.info("Island " + task.getIslandIndex() + " takes over immigrant " + immigrantScore
+                + " over its own " + best.getScore());
+        solver.addProblemChange(immigrant.asProblemChange());
+    }
+
+    private synchronized void sendElite() {
+        TimeTable best = bestSolution;
+        if (best == null || best == lastSentSolution || best.getScore() == null || !best.getScore().isSolutionInitialized()) {
+            return;
+        }
+        lastSentSolution = best;
+        elitesSent++;
+        send(IslandMessage.elite(task.getIslandIndex(), Assignment.of(best)));
+    }
+
+    private synchronized void send(IslandMessage message) {
+        try {
+            out.writeObject(message);
+            out.reset();
+            out.flush();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Island " + task.getIslandIndex() + " could not reach the coordinator", e);
+        }
+    }
+
+    private IslandStats stats(TimeTable solution, long totalMillis) {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(gc.getCollectionCount(), 0);
+            gcMillis += Math.max(gc.getCollectionTime(), 0);
+        }
+        long scoreCalculationCount = solver instanceof DefaultSolver
+                ? ((DefaultSolver<TimeTable>) solver).getSolverScope().getScoreCalculationCount() : 0;
+        return new IslandStats(task.getIslandIndex(), String.valueOf(solution.getScore()), totalMillis,
+                scoreCalculationCount, Runtime.getRuntime().maxMemory() / (1024 * 1024), gcCount, gcMillis,
+                elitesSent, immigrantsAccepted);
+    }
+}
@@ -0,0 +1,76 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Base for the random-only timetabling move factories.
+ * Lookup tables over problem facts are built once per working solution instead of once per step,
+ * since the solver asks for a new move iterator at every step.
+ */
+abstract class AbstractLessonMoveIteratorFactory implements MoveIteratorFactory<TimeTable, LessonReassignmentMove> {
+
+    private TimeTable indexedSolution;
+    private long lessonCount;
+
+    /** Rebuilds the lookup tables for a new working solution. */
+    protected abstract void index(TimeTable solution);
+
+    /** Whether {@link #createRandomMove(Random)} can produce anything on the indexed solution. */
+    protected abstract boolean hasMoves();
+
+    protected abstract LessonReassignmentMove createRandomMove(Random random);
+
+    @Override
+    public long getSize(ScoreDirector<TimeTable> scoreDirector) {
+        ensureIndexed(scoreDirector.getWorkingSolution());
+        return lessonCount;
+    }
+
+    @Override
+    public Iterator<LessonReassignmentMove> createOriginalMoveIterator(ScoreDirector<TimeTable> scoreDirector) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " only supports random selection");
+    }
+
+    @Override
+    public Iterator<LessonReassignmentMove> createRandomMoveIterator(ScoreDirector<TimeTable> scoreDirector, Random workingRandom) {
+        ensureIndexed(scoreDirector.getWorkingSolution());
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return hasMoves();
+            }
+
+            @Override
+            public LessonReassignmentMove next() {
+                return createRandomMove(workingRandom);
+            }
+        };
+    }
+
+    private void ensureIndexed(TimeTable solution) {
+        if (solution != indexedSolution) {
+            index(solution);
+            indexedSolution = solution;
+            lessonCount = allLessons(solution).size();
+        }
+    }
+
+    static List<Lesson> allLessons(TimeTable solution) {
+        List<Lesson> lessons = new ArrayList<>();
+        if (solution.getLessonList() != null) {
+            lessons.addAll(solution.getLessonList());
+        }
+        if (solution.getMinorLessonList() != null) {
+            lessons.addAll(solution.getMinorLessonList());
+        }
+        return lessons;
+    }
+}
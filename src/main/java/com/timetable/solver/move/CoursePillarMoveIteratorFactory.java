@@ -0,0 +1,98 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Course;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Moves every lesson of one course for one batch (or every lesson of a minor course) into the
+ * same room at once. A single change move can only break up such a pillar, so room stability
+ * is hard to reach without this move.
+ */
+public class CoursePillarMoveIteratorFactory extends AbstractLessonMoveIteratorFactory {
+
+    static final String KIND = "COURSE_PILLAR";
+
+    private final List<List<Lesson>> pillars = new ArrayList<>();
+    // Rooms each pillar may move to, by position
+    private final List<List<Room>> pillarRooms = new ArrayList<>();
+
+    @Override
+    protected void index(TimeTable solution) {
+        pillars.clear();
+        pillarRooms.clear();
+        Map<Long, Room> roomsById = new HashMap<>();
+        for (Room room : solution.getRoomList()) {
+            roomsById.put(room.getId(), room);
+        }
+
+        Map<List<Object>, List<Lesson>> byKey = new LinkedHashMap<>();
+        for (Lesson lesson : allLessons(solution)) {
+            if (lesson.getCourse() != null) {
+                List<Object> key = new ArrayList<>(3);
+                key.add(lesson.getCourse());
+                key.add(lesson.getStudentBatch());
+                key.add(Objects.toString(lesson.getLessonType()));
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(lesson);
+            }
+        }
+        for (List<Lesson> pillar : byKey.values()) {
+            List<Room> rooms = new ArrayList<>();
+            List<Long> allowedRoomIds = allowedRoomIds(pillar.get(0));
+            if (allowedRoomIds != null) {
+                for (Long roomId : allowedRoomIds) {
+                    Room room = roomsById.get(roomId);
+                    if (room != null) {
+                        rooms.add(room);
+                    }
+                }
+            }
+            if (!rooms.isEmpty()) {
+                pillars.add(pillar);
+                pillarRooms.add(rooms);
+            }
+        }
+    }
+
+    // Room ids a lesson may use: the batch's lecture or lab rooms, or the minor course's rooms
+    static List<Long> allowedRoomIds(Lesson lesson) {
+        Course course = lesson.getCourse();
+        if ("MINOR".equalsIgnoreCase(lesson.getLessonType()) || lesson.getStudentBatch() == null) {
+            return course.getLectureRoomIDs();
+        }
+        return "LAB".equalsIgnoreCase(lesson.getLessonType())
+                ? lesson.getStudentBatch().getPracticalRoomIDs()
+                : lesson.getStudentBatch().getLectureRoomIDs();
+    }
+
+    @Override
+    protected boolean hasMoves() {
+        return !pillars.isEmpty();
+    }
+
+    @Override
+    protected LessonReassignmentMove createRandomMove(Random random) {
+        int index = random.nextInt(pillars.size());
+        List<Lesson> pillar = pillars.get(index);
+        List<Room> rooms = pillarRooms.get(index);
+        Room room = rooms.get(random.nextInt(rooms.size()));
+
+        List<TimeSlot> timeSlots = new ArrayList<>(pillar.size());
+        List<Room> targetRooms = new ArrayList<>(pillar.size());
+        for (Lesson lesson : pillar) {
+            timeSlots.add(lesson.getTimeSlot());
+            targetRooms.add(room);
+        }
+        return new LessonReassignmentMove(KIND, pillar, timeSlots, targetRooms);
+    }
+}
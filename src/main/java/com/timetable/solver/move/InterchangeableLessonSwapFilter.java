@@ -0,0 +1,19 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.SwapMove;
+
+/**
+ * Rejects swaps between interchangeable lessons. Such a swap only permutes identical sections
+ * of a course, so evaluating it is wasted work.
+ */
+public class InterchangeableLessonSwapFilter implements SelectionFilter<TimeTable, SwapMove<TimeTable>> {
+
+    @Override
+    public boolean accept(ScoreDirector<TimeTable> scoreDirector, SwapMove<TimeTable> move) {
+        return !LessonSymmetry.areInterchangeable((Lesson) move.getLeftEntity(), (Lesson) move.getRightEntity());
+    }
+}
@@ -0,0 +1,149 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Swaps a Kempe chain between two time slots of the same slot type within a lesson's time slot range.
+ * Starting from a random lesson, the chain collects every lesson in either slot that shares a
+ * batch or a faculty member with a lesson already in the chain and sits in the other slot.
+ * Swapping the whole chain moves a lesson without creating a batch or faculty clash that was
+ * not there before, which single change and swap moves cannot do in a tight timetable.
+ * Rooms are kept, so room clashes are left to the other moves.
+ */
+public class KempeChainMoveIteratorFactory extends AbstractLessonMoveIteratorFactory {
+
+    static final String KIND = "KEMPE_CHAIN";
+
+    // Longer chains rearrange too much of the timetable at once to be accepted
+    private static final int MAX_CHAIN_LENGTH = 64;
+
+    private final List<Lesson> lessons = new ArrayList<>();
+    private final Map<StudentBatch, List<Lesson>> lessonsByBatch = new HashMap<>();
+    // Faculty is a planning variable, so lessons are grouped by every faculty member they may get
+    // and filtered by their current faculty while the chain is built
+    private final Map<Faculty, List<Lesson>> lessonsByEligibleFaculty = new HashMap<>();
+    // Slots by slot type, per time slot range; regular and minor lessons have one range each
+    private final Map<List<TimeSlot>, Map<String, List<TimeSlot>>> timeSlotsByRangeAndType = new IdentityHashMap<>();
+
+    @Override
+    protected void index(TimeTable solution) {
+        lessons.clear();
+        lessonsByBatch.clear();
+        lessonsByEligibleFaculty.clear();
+        timeSlotsByRangeAndType.clear();
+        for (Lesson lesson : allLessons(solution)) {
+            lessons.add(lesson);
+            if (lesson.getStudentBatch() != null) {
+                lessonsByBatch.computeIfAbsent(lesson.getStudentBatch(), batch -> new ArrayList<>()).add(lesson);
+            }
+            if (lesson.getFacultyList() != null) {
+                for (Faculty faculty : lesson.getFacultyList()) {
+                    lessonsByEligibleFaculty.computeIfAbsent(faculty, f -> new ArrayList<>()).add(lesson);
+                }
+            }
+            if (lesson.getTimeSlotList() != null && !timeSlotsByRangeAndType.containsKey(lesson.getTimeSlotList())) {
+                Map<String, List<TimeSlot>> byType = new HashMap<>();
+                for (TimeSlot timeSlot : lesson.getTimeSlotList()) {
+                    byType.computeIfAbsent(Objects.toString(timeSlot.getSlotType()), type -> new ArrayList<>())
+                            .add(timeSlot);
+                }
+                timeSlotsByRangeAndType.put(lesson.getTimeSlotList(), byType);
+            }
+        }
+    }
+
+    @Override
+    protected boolean hasMoves() {
+        return !lessons.isEmpty() && !timeSlotsByRangeAndType.isEmpty();
+    }
+
+    @Override
+    protected LessonReassignmentMove createRandomMove(Random random) {
+        Lesson seed = lessons.get(random.nextInt(lessons.size()));
+        TimeSlot from = seed.getTimeSlot();
+        Map<String, List<TimeSlot>> timeSlotsByType = timeSlotsByRangeAndType.get(seed.getTimeSlotList());
+        if (from == null || timeSlotsByType == null) {
+            return LessonReassignmentMove.none(KIND);
+        }
+        List<TimeSlot> candidates = timeSlotsByType.get(Objects.toString(from.getSlotType()));
+        if (candidates == null) {
+            return LessonReassignmentMove.none(KIND);
+        }
+        TimeSlot to = candidates.get(random.nextInt(candidates.size()));
+        if (to == from) {
+            return LessonReassignmentMove.none(KIND);
+        }
+
+        List<Lesson> chain = new ArrayList<>();
+        Set<Lesson> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Lesson> queue = new ArrayDeque<>();
+        visited.add(seed);
+        queue.add(seed);
+        while (!queue.isEmpty()) {
+            Lesson lesson = queue.poll();
+            chain.add(lesson);
+            if (chain.size() > MAX_CHAIN_LENGTH) {
+                return LessonReassignmentMove.none(KIND);
+            }
+            TimeSlot otherSlot = lesson.getTimeSlot() == from ? to : from;
+            enqueueConflicts(lessonsByBatch.get(lesson.getStudentBatch()), otherSlot, visited, queue);
+            if (lesson.getFaculty() != null) {
+                enqueueFacultyConflicts(lessonsByEligibleFaculty.get(lesson.getFaculty()), lesson.getFaculty(),
+                        otherSlot, visited, queue);
+            }
+        }
+
+        List<TimeSlot> timeSlots = new ArrayList<>(chain.size());
+        List<Room> rooms = new ArrayList<>(chain.size());
+        for (Lesson lesson : chain) {
+            TimeSlot target = lesson.getTimeSlot() == from ? to : from;
+            List<TimeSlot> range = lesson.getTimeSlotList();
+            if (range != seed.getTimeSlotList() && (range == null || !range.contains(target))) {
+                return LessonReassignmentMove.none(KIND);
+            }
+            timeSlots.add(target);
+            rooms.add(lesson.getRoom());
+        }
+        return new LessonReassignmentMove(KIND, chain, timeSlots, rooms);
+    }
+
+    private static void enqueueFacultyConflicts(List<Lesson> related, Faculty faculty, TimeSlot slot,
+                                                Set<Lesson> visited, Deque<Lesson> queue) {
+        if (related == null) {
+            return;
+        }
+        for (Lesson lesson : related) {
+            if (lesson.getFaculty() == faculty && lesson.getTimeSlot() == slot && visited.add(lesson)) {
+                queue.add(lesson);
+            }
+        }
+    }
+
+    private static void enqueueConflicts(List<Lesson> related, TimeSlot slot, Set<Lesson> visited, Deque<Lesson> queue) {
+        if (related == null) {
+            return;
+        }
+        for (Lesson lesson : related) {
+            if (lesson.getTimeSlot() == slot && visited.add(lesson)) {
+                queue.add(lesson);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+import java.util.List;
+
+/**
+ * Distance between two lessons for nearby selection: lessons that compete for the same students,
+ * teacher or rooms are close, unrelated lessons are far apart.
+ * Only problem facts are compared, since the solver caches the distances for the whole phase;
+ * a shared faculty member or room therefore means an overlap in the lessons' eligible faculty or
+ * allowed rooms rather than in their current assignment.
+ */
+public class LessonNearbyDistanceMeter implements NearbyDistanceMeter<Lesson, Lesson> {
+
+    static final double SAME_BATCH = 0.0;
+    static final double SHARED_FACULTY = 1.0;
+    static final double SHARED_ROOMS = 2.0;
+    static final double UNRELATED = 10.0;
+
+    @Override
+    public double getNearbyDistance(Lesson origin, Lesson destination) {
+        if (origin.getStudentBatch() != null && origin.getStudentBatch() == destination.getStudentBatch()) {
+            return SAME_BATCH;
+        }
+        if (sharesFaculty(origin, destination)) {
+            return SHARED_FACULTY;
+        }
+        if (sharesRoom(origin, destination)) {
+            return SHARED_ROOMS;
+        }
+        return UNRELATED;
+    }
+
+    private static boolean sharesFaculty(Lesson origin, Lesson destination) {
+        List<Faculty> originFaculty = origin.getFacultyList();
+        List<Faculty> destinationFaculty = destination.getFacultyList();
+        if (originFaculty == null || destinationFaculty == null) {
+            return false;
+        }
+        for (Faculty faculty : originFaculty) {
+            if (destinationFaculty.contains(faculty)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sharesRoom(Lesson origin, Lesson destination) {
+        if (origin.getCourse() == null || destination.getCourse() == null) {
+            return false;
+        }
+        List<Long> originRooms = CoursePillarMoveIteratorFactory.allowedRoomIds(origin);
+        List<Long> destinationRooms = CoursePillarMoveIteratorFactory.allowedRoomIds(destination);
+        if (originRooms == null || destinationRooms == null) {
+            return false;
+        }
+        for (Long roomId : originRooms) {
+            if (destinationRooms.contains(roomId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
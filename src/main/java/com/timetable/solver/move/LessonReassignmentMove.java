@@ -0,0 +1,144 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Gives a group of lessons a new time slot and room each in a single step.
+ * All custom timetabling moves are expressed as such a reassignment, so the solver scores the
+ * combined change once instead of passing through the infeasible states in between.
+ */
+public class LessonReassignmentMove extends AbstractMove<TimeTable> {
+
+    private final String kind;
+    private final List<Lesson> lessons;
+    private final List<TimeSlot> timeSlots;
+    private final List<Room> rooms;
+
+    /**
+     * @param lessons the lessons to change
+     * @param timeSlots the new time slot of each lesson, by position
+     * @param rooms the new room of each lesson, by position
+     */
+    public LessonReassignmentMove(String kind, List<Lesson> lessons, List<TimeSlot> timeSlots, List<Room> rooms) {
+        if (lessons.size() != timeSlots.size() || lessons.size() != rooms.size()) {
+            throw new IllegalArgumentException("Every lesson needs exactly one time slot and one room");
+        }
+        this.kind = kind;
+        this.lessons = lessons;
+        this.timeSlots = timeSlots;
+        this.rooms = rooms;
+    }
+
+    // A move that changes nothing, for when no candidate was found
+    static LessonReassignmentMove none(String kind) {
+        return new LessonReassignmentMove(kind, List.of(), List.of(), List.of());
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<TimeTable> scoreDirector) {
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            if (lesson.getTimeSlot() != timeSlots.get(i) || lesson.getRoom() != rooms.get(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected LessonReassignmentMove createUndoMove(ScoreDirector<TimeTable> scoreDirector) {
+        List<TimeSlot> oldTimeSlots = new ArrayList<>(lessons.size());
+        List<Room> oldRooms = new ArrayList<>(lessons.size());
+        for (Lesson lesson : lessons) {
+            oldTimeSlots.add(lesson.getTimeSlot());
+            oldRooms.add(lesson.getRoom());
+        }
+        return new LessonReassignmentMove(kind, lessons, oldTimeSlots, oldRooms);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<TimeTable> scoreDirector) {
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            TimeSlot timeSlot = timeSlots.get(i);
+            Room room = rooms.get(i);
+            if (lesson.getTimeSlot() != timeSlot) {
+                scoreDirector.beforeVariableChanged(lesson, "timeSlot");
+                lesson.setTimeSlot(timeSlot);
+                scoreDirector.afterVariableChanged(lesson, "timeSlot");
+            }
+            if (lesson.getRoom() != room) {
+                scoreDirector.beforeVariableChanged(lesson, "room");
+                lesson.setRoom(room);
+                scoreDirector.afterVariableChanged(lesson, "room");
+            }
+        }
+    }
+
+    @Override
+    public LessonReassignmentMove rebase(ScoreDirector<TimeTable> destinationScoreDirector) {
+        return new LessonReassignmentMove(kind,
+                lookUpAll(destinationScoreDirector, lessons),
+                lookUpAll(destinationScoreDirector, timeSlots),
+                lookUpAll(destinationScoreDirector, rooms));
+    }
+
+    private static <E> List<E> lookUpAll(ScoreDirector<TimeTable> scoreDirector, List<E> externalObjects) {
+        List<E> workingObjects = new ArrayList<>(externalObjects.size());
+        for (E externalObject : externalObjects) {
+            workingObjects.add(scoreDirector.lookUpWorkingObject(externalObject));
+        }
+        return workingObjects;
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return getClass().getSimpleName() + "(" + kind + ")";
+    }
+
+    @Override
+    public Collection<Lesson> getPlanningEntities() {
+        return lessons;
+    }
+
+    @Override
+    public Collection<Object> getPlanningValues() {
+        Set<Object> values = new LinkedHashSet<>();
+        for (int i = 0; i < lessons.size(); i++) {
+            if (timeSlots.get(i) != null) {
+                values.add(timeSlots.get(i));
+            }
+            if (rooms.get(i) != null) {
+                values.add(rooms.get(i));
+            }
+        }
+        return values;
+    }
+
+    public String getKind() { return kind; }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(kind).append(" {");
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            builder.append(i == 0 ? "" : ", ").append(lesson.getId())
+                    .append(": ").append(lesson.getTimeSlot()).append(" -> ").append(timeSlots.get(i));
+            if (lesson.getRoom() != rooms.get(i)) {
+                builder.append(" / ").append(lesson.getRoom()).append(" -> ").append(rooms.get(i));
+            }
+        }
+        return builder.append("}").toString();
+    }
+}
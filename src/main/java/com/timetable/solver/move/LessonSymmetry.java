@@ -0,0 +1,110 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Interchangeable lessons: the sections of one course for one batch are created as identical
+ * lessons, so any permutation of their assignments is the same timetable.
+ * Lessons are interchangeable when they share class, course, batch, lesson type and value ranges.
+ */
+public final class LessonSymmetry {
+
+    private static final Comparator<TimeSlot> SLOT_ORDER = Comparator.nullsLast(
+            Comparator.comparingInt(TimeSlot::getIndex));
+    private static final Comparator<Lesson> ID_ORDER = Comparator.comparing(
+            Lesson::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private LessonSymmetry() {}
+
+    public static boolean areInterchangeable(Lesson a, Lesson b) {
+        return a.getClass() == b.getClass()
+                && a.getCourse() == b.getCourse()
+                && a.getStudentBatch() == b.getStudentBatch()
+                && Objects.equals(a.getLessonType(), b.getLessonType())
+                && a.getRoomList() == b.getRoomList()
+                && a.getTimeSlotList() == b.getTimeSlotList()
+                && a.getFacultyList() == b.getFacultyList();
+    }
+
+    /**
+     * Puts every group of interchangeable lessons in canonical order: the assignments of a group are
+     * handed out by time slot to its lessons by id, so the lowest id gets the earliest slot.
+     * Some soft rules compare pairs in id order, so the score must be recalculated afterwards.
+     *
+     * @return the number of lessons whose assignment changed
+     */
+    public static int canonicalize(TimeTable timetable) {
+        int changed = 0;
+        for (List<Lesson> group : groups(timetable)) {
+            if (group.size() < 2) {
+                continue;
+            }
+            List<Lesson> byId = new ArrayList<>(group);
+            byId.sort(ID_ORDER);
+            List<Object[]> assignments = new ArrayList<>(group.size());
+            for (Lesson lesson : group) {
+                assignments.add(new Object[] {lesson.getTimeSlot(), lesson.getRoom(), lesson.getFaculty()});
+            }
+            assignments.sort(Comparator.comparing(assignment -> (TimeSlot) assignment[0], SLOT_ORDER));
+            for (int i = 0; i < byId.size(); i++) {
+                Lesson lesson = byId.get(i);
+                Object[] assignment = assignments.get(i);
+                if (lesson.getTimeSlot() != assignment[0] || lesson.getRoom() != assignment[1]
+                        || lesson.getFaculty() != assignment[2]) {
+                    lesson.setTimeSlot((TimeSlot) assignment[0]);
+                    lesson.setRoom((Room) assignment[1]);
+                    lesson.setFaculty((Faculty) assignment[2]);
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static List<List<Lesson>> groups(TimeTable timetable) {
+        Map<GroupKey, List<Lesson>> groups = new LinkedHashMap<>();
+        for (List<Lesson> lessons : Arrays.asList(timetable.getLessonList(), timetable.getMinorLessonList())) {
+            if (lessons == null) {
+                continue;
+            }
+            for (Lesson lesson : lessons) {
+                groups.computeIfAbsent(new GroupKey(lesson), key -> new ArrayList<>()).add(lesson);
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    // Hash key that groups lessons exactly as areInterchangeable pairs them
+    private static final class GroupKey {
+        private final Lesson lesson;
+        private final int hashCode;
+
+        private GroupKey(Lesson lesson) {
+            this.lesson = lesson;
+            this.hashCode = Objects.hash(lesson.getClass(), System.identityHashCode(lesson.getCourse()),
+                    System.identityHashCode(lesson.getStudentBatch()), lesson.getLessonType());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey && areInterchangeable(lesson, ((GroupKey) o).lesson);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
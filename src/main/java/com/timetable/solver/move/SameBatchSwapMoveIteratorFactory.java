@@ -0,0 +1,73 @@
+package com.timetable.solver.move;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Swaps the time slots of two lessons of the same batch and lesson type, keeping their rooms.
+ * The batch keeps the same number of lessons per day, so balance and daily limits hold, while
+ * the two lessons trade their clashes with other batches and faculty.
+ */
+public class SameBatchSwapMoveIteratorFactory extends AbstractLessonMoveIteratorFactory {
+
+    static final String KIND = "SAME_BATCH_SWAP";
+
+    // Lessons of one batch and lesson type, only groups with at least two lessons
+    private final List<List<Lesson>> groups = new ArrayList<>();
+
+    @Override
+    protected void index(TimeTable solution) {
+        groups.clear();
+        Map<StudentBatch, Map<String, List<Lesson>>> byBatch = new HashMap<>();
+        for (Lesson lesson : solution.getLessonList()) {
+            if (lesson.getStudentBatch() != null) {
+                byBatch.computeIfAbsent(lesson.getStudentBatch(), batch -> new HashMap<>())
+                        .computeIfAbsent(Objects.toString(lesson.getLessonType()), type -> new ArrayList<>())
+                        .add(lesson);
+            }
+        }
+        for (Map<String, List<Lesson>> byType : byBatch.values()) {
+            for (List<Lesson> group : byType.values()) {
+                if (group.size() >= 2) {
+                    groups.add(group);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected boolean hasMoves() {
+        return !groups.isEmpty();
+    }
+
+    @Override
+    protected LessonReassignmentMove createRandomMove(Random random) {
+        List<Lesson> group = groups.get(random.nextInt(groups.size()));
+        int leftIndex = random.nextInt(group.size());
+        int rightIndex = random.nextInt(group.size() - 1);
+        if (rightIndex >= leftIndex) {
+            rightIndex++;
+        }
+        Lesson left = group.get(leftIndex);
+        Lesson right = group.get(rightIndex);
+        TimeSlot leftSlot = left.getTimeSlot();
+        TimeSlot rightSlot = right.getTimeSlot();
+        if (leftSlot == null || rightSlot == null || leftSlot == rightSlot) {
+            return LessonReassignmentMove.none(KIND);
+        }
+        List<Room> rooms = new ArrayList<>(2);
+        rooms.add(left.getRoom());
+        rooms.add(right.getRoom());
+        return new LessonReassignmentMove(KIND, List.of(left, right), List.of(rightSlot, leftSlot), rooms);
+    }
+}
@@ -0,0 +1,86 @@
+package com.timetable.util;
+
+import com.timetable.domain.Lesson;
+import com.timetable.domain.MinorLesson;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blows a timetable problem up to a multiple of its size for benchmarking.
+ * Each copy gets its own student batches and lessons, while faculty, rooms and time slots are shared,
+ * so the copies compete for the same resources the way a larger institute would.
+ */
+public class SyntheticDataScaler {
+
+    private SyntheticDataScaler() {}
+
+    public static TimeTable scale(TimeTable problem, int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("Scale factor must be at least 1, got " + factor);
+        }
+        List<Lesson> lessonList = new ArrayList<>(problem.getLessonList());
+        List<Lesson> minorLessonList = new ArrayList<>(problem.getMinorLessonList());
+        long nextLessonId = maxLessonId(problem) + 1;
+        long nextBatchId = lessonList.stream()
+                .map(Lesson::getStudentBatch)
+                .filter(batch -> batch != null && batch.getId() != null)
+                .mapToLong(StudentBatch::getId)
+                .max().orElse(0L) + 1;
+
+        for (int copy = 1; copy < factor; copy++) {
+            Map<StudentBatch, StudentBatch> batchCopies = new HashMap<>();
+            for (Lesson lesson : problem.getLessonList()) {
+                StudentBatch batch = lesson.getStudentBatch();
+                StudentBatch batchCopy = batch == null ? null : batchCopies.get(batch);
+                if (batch != null && batchCopy == null) {
+                    batchCopy = new StudentBatch(nextBatchId++, batch.getBatchName(), batch.getYear(),
+                            batch.getStrength(), batch.getCourses(),
+                            batch.getLectureRoomIDs(), batch.getPracticalRoomIDs());
+                    batchCopies.put(batch, batchCopy);
+                }
+                lessonList.add(copyLesson(lesson, nextLessonId++, batchCopy));
+            }
+            for (Lesson lesson : problem.getMinorLessonList()) {
+                minorLessonList.add(copyLesson(lesson, nextLessonId++, null));
+            }
+        }
+
+        TimeTable scaled = new TimeTable(problem.getId(), lessonList, minorLessonList, problem.getFacultyList(),
+                problem.getRoomList(), problem.getTimeSlotList(), problem.getMinorTimeSlotList());
+        scaled.setConstraintConfiguration(problem.getConstraintConfiguration());
+        scaled.setSchedulingRules(problem.getSchedulingRules());
+        return scaled;
+    }
+
+    private static Lesson copyLesson(Lesson lesson, long id, StudentBatch batch) {
+        Lesson copy;
+        if (lesson instanceof MinorLesson) {
+            copy = new MinorLesson(id, lesson.getCourse(), lesson.getRoomList(), lesson.getTimeSlotList());
+        } else if (batch != null) {
+            copy = new Lesson(id, lesson.getCourse(), batch, lesson.getRoomList());
+        } else {
+            copy = new Lesson(id, lesson.getCourse(), lesson.getRoomList());
+        }
+        copy.setLessonType(lesson.getLessonType());
+        copy.setTimeSlotList(lesson.getTimeSlotList());
+        copy.setFaculty(lesson.getFaculty());
+        return copy;
+    }
+
+    private static long maxLessonId(TimeTable problem) {
+        long max = 0L;
+        for (List<Lesson> lessons : List.of(problem.getLessonList(), problem.getMinorLessonList())) {
+            for (Lesson lesson : lessons) {
+                if (lesson.getId() != null) {
+                    max = Math.max(max, lesson.getId());
+                }
+            }
+        }
+        return max;
+    }
+}
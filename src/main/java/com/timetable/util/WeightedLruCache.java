@@ -0,0 +1,96 @@
+package com.timetable.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Least recently used cache bounded by the total weight of its values instead of their number.
+ * The weight is an estimate of what a value keeps alive, so large and small entries can share one
+ * memory budget. An entry heavier than the whole budget is handed out but not kept.
+ * Loading happens outside the lock, so two threads missing the same key may both load it; the
+ * value stored last wins.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache weight limit must be positive, got " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        remove(key);
+        if (value == null) {
+            return;
+        }
+        long weight = Math.max(weigher.applyAsLong(value), 1);
+        if (weight > maxWeight) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, weight));
+        totalWeight += weight;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<K, Entry<V>> evicted = eldest.next();
+            totalWeight -= evicted.getValue().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    public synchronized int size() { return entries.size(); }
+    public synchronized long getTotalWeight() { return totalWeight; }
+    public long getMaxWeight() { return maxWeight; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+
+        private Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
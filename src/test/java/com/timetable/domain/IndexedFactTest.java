@@ -0,0 +1,121 @@
+package com.timetable.domain;
+
+import com.timetable.score.TimeTableConstraintProvider;
+import com.timetable.score.TimeTableIncrementalScoreCalculator;
+import com.timetable.service.TimetableService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolutionUpdatePolicy;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * Facts compare by identity, so scoring must never depend on two separately built copies of a
+ * fact being equal. Two independent loads of the sample data, given the same assignment, have to
+ * score the same under both scoring engines.
+ */
+class IndexedFactTest {
+    private static final int ROUNDS = 5;
+
+    private static TimeTable first;
+    private static TimeTable second;
+
+    @BeforeAll
+    static void loadSampleDataTwice() {
+        first = load();
+        second = load();
+    }
+
+    @Test
+    void equalityIsIdentity() {
+        TimeSlot slot = new TimeSlot(10000L, "MONDAY", LocalTime.of(9, 0), LocalTime.of(10, 0));
+        TimeSlot sameFields = new TimeSlot(10000L, "MONDAY", LocalTime.of(9, 0), LocalTime.of(10, 0));
+
+        assertEquals(slot, slot);
+        assertNotEquals(slot, sameFields);
+        assertEquals(System.identityHashCode(slot), slot.hashCode());
+    }
+
+    @Test
+    void assignsDenseIndexesInListOrder() {
+        List<Room> rooms = List.of(new Room(7L, "R7", 60, RoomType.LECTURE_ROOM),
+                new Room(3L, "R3", 60, RoomType.LECTURE_ROOM));
+        IndexedFact.assignIndexes(rooms);
+
+        assertEquals(0, rooms.get(0).getIndex());
+        assertEquals(1, rooms.get(1).getIndex());
+    }
+
+    @Test
+    void independentLoadsShareNoFacts() {
+        assertEquals(first.getLessonList().size(), second.getLessonList().size());
+        for (int i = 0; i < first.getRoomList().size(); i++) {
+            assertNotSame(first.getRoomList().get(i), second.getRoomList().get(i));
+        }
+        for (int i = 0; i < first.getLessonList().size(); i++) {
+            Lesson lesson = first.getLessonList().get(i);
+            Lesson other = second.getLessonList().get(i);
+            assertEquals(lesson.getId(), other.getId());
+            assertNotSame(lesson.getCourse(), other.getCourse());
+            assertNotSame(lesson.getStudentBatch(), other.getStudentBatch());
+        }
+    }
+
+    @Test
+    void independentLoadsScoreTheSameUnderConstraintStreams() {
+        assertSameScores(new ScoreDirectorFactoryConfig()
+                .withConstraintProviderClass(TimeTableConstraintProvider.class));
+    }
+
+    @Test
+    void independentLoadsScoreTheSameUnderIncrementalScoring() {
+        assertSameScores(new ScoreDirectorFactoryConfig()
+                .withIncrementalScoreCalculatorClass(TimeTableIncrementalScoreCalculator.class));
+    }
+
+    private static void assertSameScores(ScoreDirectorFactoryConfig scoreDirectorConfig) {
+        SolutionManager<TimeTable, HardSoftScore> solutionManager = SolutionManager.create(
+                SolverFactory.<TimeTable>create(new SolverConfig()
+                        .withSolutionClass(TimeTable.class)
+                        .withEntityClasses(Lesson.class)
+                        .withScoreDirectorFactory(scoreDirectorConfig)));
+        for (int round = 0; round < ROUNDS; round++) {
+            // Same seed for both loads, which list their lessons and ranges in the same order
+            assignRandomly(first, new Random(round));
+            assignRandomly(second, new Random(round));
+
+            HardSoftScore firstScore = solutionManager.update(first, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            HardSoftScore secondScore = solutionManager.update(second, SolutionUpdatePolicy.UPDATE_SCORE_ONLY);
+            assertEquals(firstScore, secondScore, "Round " + round);
+        }
+    }
+
+    private static TimeTable load() {
+        TimetableService service = new TimetableService();
+        service.init();
+        return service.buildProblem();
+    }
+
+    private static void assignRandomly(TimeTable timetable, Random random) {
+        for (Lesson lesson : timetable.getLessonList()) {
+            lesson.setTimeSlot(pick(lesson.getTimeSlotList(), random));
+            lesson.setRoom(pick(lesson.getRoomList(), random));
+            lesson.setFaculty(pick(lesson.getFacultyList(), random));
+        }
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values == null || values.isEmpty() ? null : values.get(random.nextInt(values.size()));
+    }
+}
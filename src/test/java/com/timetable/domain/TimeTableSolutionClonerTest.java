@@ -0,0 +1,157 @@
+package com.timetable.domain;
+
+import com.timetable.score.TimeTableConstraintProvider;
+import com.timetable.service.TimetableService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.solver.SolutionManager;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * The hand-written cloner must copy exactly what the solver changes, the lessons and their planning
+ * variables, and share every problem fact with the original.
+ */
+class TimeTableSolutionClonerTest {
+
+    private TimeTable original;
+    private TimeTable clone;
+
+    @BeforeEach
+    void cloneScoredSampleData() {
+        TimetableService service = new TimetableService();
+        service.init();
+        original = service.buildProblem();
+        // The sample minor.csv has no courses, so give the first regular course a few minor lessons
+        Course course = original.getLessonList().get(0).getCourse();
+        long id = original.getLessonList().size() + 1000L;
+        for (int i = 0; i < 3; i++) {
+            original.getMinorLessonList().add(new MinorLesson(id + i, course, original.getRoomList(),
+                    original.getMinorTimeSlotList()));
+        }
+        assign(original.getLessonList(), 0);
+        assign(original.getMinorLessonList(), 1);
+        SolutionManager.create(SolverFactory.<TimeTable>create(new SolverConfig()
+                        .withSolutionClass(TimeTable.class)
+                        .withEntityClasses(Lesson.class)
+                        .withConstraintProviderClass(TimeTableConstraintProvider.class)))
+                .update(original);
+        assertNotNull(original.getScore());
+        assertNotNull(original.getMinorLessonList().get(0).getTimeSlot());
+
+        clone = new TimeTableSolutionCloner().cloneSolution(original);
+    }
+
+    @Test
+    void copiesLessonsWithTheirPlanningVariables() {
+        assertEquals(original.getId(), clone.getId());
+        assertEquals(original.getScore(), clone.getScore());
+        assertCopied(original.getLessonList(), clone.getLessonList());
+        assertCopied(original.getMinorLessonList(), clone.getMinorLessonList());
+    }
+
+    @Test
+    void sharesProblemFacts() {
+        assertSame(original.getFacultyList(), clone.getFacultyList());
+        assertSame(original.getRoomList(), clone.getRoomList());
+        assertSame(original.getTimeSlotList(), clone.getTimeSlotList());
+        assertSame(original.getMinorTimeSlotList(), clone.getMinorTimeSlotList());
+        assertSame(original.getConstraintConfiguration(), clone.getConstraintConfiguration());
+        assertSame(original.getSchedulingRules(), clone.getSchedulingRules());
+        for (int i = 0; i < original.getLessonList().size(); i++) {
+            Lesson lesson = original.getLessonList().get(i);
+            Lesson cloned = clone.getLessonList().get(i);
+            assertSame(lesson.getCourse(), cloned.getCourse());
+            assertSame(lesson.getStudentBatch(), cloned.getStudentBatch());
+            assertSame(lesson.getRoomList(), cloned.getRoomList());
+            assertSame(lesson.getTimeSlotList(), cloned.getTimeSlotList());
+            assertSame(lesson.getFacultyList(), cloned.getFacultyList());
+        }
+    }
+
+    @Test
+    void minorLessonsStayMinorLessons() {
+        for (Lesson cloned : clone.getMinorLessonList()) {
+            assertSame(MinorLesson.class, cloned.getClass());
+        }
+        for (int i = 0; i < original.getLessonList().size(); i++) {
+            assertSame(original.getLessonList().get(i).getClass(), clone.getLessonList().get(i).getClass());
+        }
+    }
+
+    @Test
+    void changingTheCloneLeavesTheOriginalUnchanged() {
+        List<TimeSlot> timeSlots = snapshotTimeSlots(original.getLessonList());
+        List<Room> rooms = new ArrayList<>();
+        List<Faculty> faculty = new ArrayList<>();
+        for (Lesson lesson : original.getLessonList()) {
+            rooms.add(lesson.getRoom());
+            faculty.add(lesson.getFaculty());
+        }
+        List<TimeSlot> minorTimeSlots = snapshotTimeSlots(original.getMinorLessonList());
+        int lessonCount = original.getLessonList().size();
+
+        for (Lesson cloned : clone.getLessonList()) {
+            cloned.setTimeSlot(null);
+            cloned.setRoom(null);
+            cloned.setFaculty(null);
+        }
+        for (Lesson cloned : clone.getMinorLessonList()) {
+            cloned.setTimeSlot(null);
+        }
+        clone.getLessonList().remove(0);
+
+        assertEquals(lessonCount, original.getLessonList().size());
+        assertEquals(timeSlots, snapshotTimeSlots(original.getLessonList()));
+        assertEquals(minorTimeSlots, snapshotTimeSlots(original.getMinorLessonList()));
+        for (int i = 0; i < lessonCount; i++) {
+            assertSame(rooms.get(i), original.getLessonList().get(i).getRoom());
+            assertSame(faculty.get(i), original.getLessonList().get(i).getFaculty());
+        }
+    }
+
+    private static void assertCopied(List<Lesson> lessons, List<Lesson> clones) {
+        assertNotSame(lessons, clones);
+        assertEquals(lessons.size(), clones.size());
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            Lesson cloned = clones.get(i);
+            assertNotSame(lesson, cloned);
+            assertEquals(lesson.getId(), cloned.getId());
+            assertEquals(lesson.getLessonType(), cloned.getLessonType());
+            assertSame(lesson.getTimeSlot(), cloned.getTimeSlot());
+            assertSame(lesson.getRoom(), cloned.getRoom());
+            assertSame(lesson.getFaculty(), cloned.getFaculty());
+        }
+    }
+
+    // Walks every lesson through its value ranges from the offset on, so the lessons are not all alike
+    private static void assign(List<Lesson> lessons, int offset) {
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            lesson.setTimeSlot(pick(lesson.getTimeSlotList(), i + offset));
+            lesson.setRoom(pick(lesson.getRoomList(), i + offset));
+            lesson.setFaculty(pick(lesson.getFacultyList(), i + offset));
+        }
+    }
+
+    private static <T> T pick(List<T> values, int index) {
+        return values == null || values.isEmpty() ? null : values.get(index % values.size());
+    }
+
+    private static List<TimeSlot> snapshotTimeSlots(List<Lesson> lessons) {
+        List<TimeSlot> timeSlots = new ArrayList<>(lessons.size());
+        for (Lesson lesson : lessons) {
+            timeSlots.add(lesson.getTimeSlot());
+        }
+        return timeSlots;
+    }
+}
@@ -0,0 +1,184 @@
+package com.timetable.score;
+
+import com.timetable.domain.ConflictScoringMode;
+import com.timetable.domain.Course;
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.RoomType;
+import com.timetable.domain.SchedulingRules;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeSlotConfiguration;
+import com.timetable.domain.TimeSlotDefinition;
+import com.timetable.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.timetable.domain.TimetableConstraintConfiguration.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Each capacity bound must report the shortfall it can prove, and nothing on an input that fits.
+ * Every day has two lecture slots and one lab slot, a full minimum break apart, so a batch or a
+ * faculty member fits at most two lectures and one lab a day.
+ */
+class FeasibilityAnalyzerTest {
+
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    private static final TimeSlotDefinition FIRST_LECTURE = new TimeSlotDefinition("09:00", "10:00", "LECTURE");
+    private static final TimeSlotDefinition SECOND_LECTURE = new TimeSlotDefinition("10:15", "11:15", "LECTURE");
+    private static final TimeSlotDefinition LAB = new TimeSlotDefinition("11:30", "13:30", "LAB");
+
+    private static final Room LECTURE_ROOM = new Room(1L, "L1", 60, RoomType.LECTURE_ROOM);
+    private static final Room LAB_ROOM = new Room(2L, "P1", 60, RoomType.COMPUTER_LAB);
+
+    private final Faculty facultyA = new Faculty(1L, "A", "a@example.com", "", List.of(), 4);
+    private final Faculty facultyB = new Faculty(2L, "B", "b@example.com", "", List.of(), 4);
+    private final List<Lesson> lessons = new ArrayList<>();
+
+    @Test
+    void inputThatFitsGivesACleanReport() {
+        Course lectures = course(1L, "C1", 3, 0, facultyA);
+        Course labs = course(2L, "C2", 0, 2, facultyA);
+        addLessons(batch(1L, lectures, labs), lectures, labs);
+
+        FeasibilityAnalyzer.Report report = FeasibilityAnalyzer.analyze(problem(everyDay(FIRST_LECTURE, SECOND_LECTURE, LAB)));
+
+        assertTrue(report.isFeasibilityPossible());
+        assertTrue(report.getIssues().isEmpty(), report::toString);
+        assertEquals(5, report.getLessonCount());
+    }
+
+    @Test
+    void batchWithMoreLessonsThanNonOverlappingSlots() {
+        Course[] courses = {
+                course(1L, "C1", 3, 0, facultyA),
+                course(2L, "C2", 3, 0, facultyA),
+                course(3L, "C3", 3, 0, facultyB),
+                course(4L, "C4", 3, 0, facultyB)};
+        addLessons(batch(1L, courses), courses);
+
+        FeasibilityAnalyzer.Report report = FeasibilityAnalyzer.analyze(problem(everyDay(FIRST_LECTURE, SECOND_LECTURE, LAB)));
+
+        // Lectures only fit the ten lecture slots of the week
+        assertFalse(report.isFeasibilityPossible());
+        FeasibilityAnalyzer.Issue issue = onlyIssue(report);
+        assertEquals(List.of(STUDENT_BATCH_CONFLICT), issue.getConstraints());
+        assertEquals("batch B1", issue.getSubject());
+        assertEquals(2, issue.getShortfall());
+    }
+
+    @Test
+    void labWithoutALabSlotCannotBePlaced() {
+        Course labs = course(1L, "C1", 0, 2, facultyA);
+        addLessons(batch(1L, labs), labs);
+
+        FeasibilityAnalyzer.Report report = FeasibilityAnalyzer.analyze(problem(everyDay(FIRST_LECTURE, SECOND_LECTURE)));
+
+        // The lessons are left out of the capacity bounds, which would only count them again
+        assertFalse(report.isFeasibilityPossible());
+        FeasibilityAnalyzer.Issue issue = onlyIssue(report);
+        assertEquals("batch B1, course C1 (LAB)", issue.getSubject());
+        assertTrue(issue.getConstraints().contains(LAB_TIME_SLOT), issue::toString);
+        assertEquals(2, issue.getShortfall());
+    }
+
+    @Test
+    void moreLabsThanLabDays() {
+        Course labs = course(1L, "C1", 0, 2, facultyA);
+        addLessons(batch(1L, labs), labs);
+        List<TimeSlot> timeSlots = everyDay(FIRST_LECTURE, SECOND_LECTURE);
+        timeSlots.add(slot(timeSlots.size() + 1L, "Monday", LAB));
+
+        FeasibilityAnalyzer.Report report = FeasibilityAnalyzer.analyze(problem(timeSlots));
+
+        assertFalse(report.isFeasibilityPossible());
+        assertEquals(1, issue(report, List.of(ONE_LAB_PER_BATCH_PER_DAY)).getShortfall());
+        assertEquals(1, issue(report, List.of(WEEKLY_LAB_SCHEDULING)).getShortfall());
+    }
+
+    @Test
+    void facultyShortfallFoundByTheMatching() {
+        // Neither faculty member is overloaded by the lessons only they can teach, but together
+        // they have 20 lecture slots for 22 lessons
+        Course onlyA = course(1L, "C1", 4, 0, facultyA);
+        Course onlyB = course(2L, "C2", 4, 0, facultyB);
+        Course either = course(3L, "C3", 3, 0, facultyA, facultyB);
+        addLessons(batch(1L, onlyA, onlyB), onlyA, onlyB);
+        addLessons(batch(2L, onlyA, onlyB), onlyA, onlyB);
+        addLessons(batch(3L, either), either);
+        addLessons(batch(4L, either), either);
+
+        FeasibilityAnalyzer.Report report = FeasibilityAnalyzer.analyze(problem(everyDay(FIRST_LECTURE, SECOND_LECTURE, LAB)));
+
+        assertFalse(report.isFeasibilityPossible());
+        FeasibilityAnalyzer.Issue issue = onlyIssue(report);
+        assertEquals(List.of(FACULTY_TIME_CONFLICT), issue.getConstraints());
+        assertEquals("faculty A, B", issue.getSubject());
+        assertEquals(2, issue.getShortfall());
+    }
+
+    private TimeTable problem(List<TimeSlot> timeSlots) {
+        TimeSlotConfiguration configuration = new TimeSlotConfiguration();
+        configuration.setYear1Slots(List.of(FIRST_LECTURE, SECOND_LECTURE, LAB));
+        configuration.getBatchYearMapping().addMapping("2024", 1);
+        TimeTable problem = new TimeTable(1L, lessons, new ArrayList<>(), List.of(facultyA, facultyB),
+                List.of(LECTURE_ROOM, LAB_ROOM), timeSlots, new ArrayList<>());
+        problem.setSchedulingRules(SchedulingRules.compile(configuration, ConflictScoringMode.LEGACY));
+        return problem;
+    }
+
+    private static Course course(Long id, String code, int lectureHours, int practicalHours, Faculty... faculty) {
+        return new Course(id, code, code, "CORE", List.of(), lectureHours, 0, practicalHours, lectureHours + practicalHours,
+                List.of(faculty));
+    }
+
+    private static StudentBatch batch(Long id, Course... courses) {
+        return new StudentBatch(id, "B" + id, 2024, 60, List.of(courses), List.of(LECTURE_ROOM.getId()),
+                List.of(LAB_ROOM.getId()));
+    }
+
+    // The lessons TimetableService would generate for the batch
+    private void addLessons(StudentBatch batch, Course... courses) {
+        for (Course course : courses) {
+            for (int i = 0; i < course.getHoursPerWeek(); i++) {
+                Lesson lesson = new Lesson(lessons.size() + 1L, course, batch, List.of(LECTURE_ROOM, LAB_ROOM));
+                lesson.setLessonType(course.getPracticalHours() > 0 && i >= course.getLectureHours() ? "LAB" : "LECTURE");
+                lessons.add(lesson);
+            }
+        }
+    }
+
+    private static List<TimeSlot> everyDay(TimeSlotDefinition... definitions) {
+        List<TimeSlot> timeSlots = new ArrayList<>();
+        for (String day : DAYS) {
+            for (TimeSlotDefinition definition : definitions) {
+                timeSlots.add(slot(timeSlots.size() + 1L, day, definition));
+            }
+        }
+        return timeSlots;
+    }
+
+    private static TimeSlot slot(Long id, String day, TimeSlotDefinition definition) {
+        return new TimeSlot(id, day, LocalTime.parse(definition.getStartTime()), LocalTime.parse(definition.getEndTime()),
+                definition.getSlotType());
+    }
+
+    private static FeasibilityAnalyzer.Issue onlyIssue(FeasibilityAnalyzer.Report report) {
+        assertEquals(1, report.getIssues().size(), report::toString);
+        return report.getIssues().get(0);
+    }
+
+    private static FeasibilityAnalyzer.Issue issue(FeasibilityAnalyzer.Report report, List<String> constraints) {
+        return report.getIssues().stream()
+                .filter(issue -> issue.getConstraints().equals(constraints))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No issue for " + constraints + " in " + report));
+    }
+}
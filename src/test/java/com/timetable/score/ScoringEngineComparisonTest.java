@@ -0,0 +1,47 @@
+package com.timetable.score;
+
+import com.timetable.service.TimetableService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The incremental score calculator must score every assignment exactly like the constraint streams.
+ * Each comparison scores seeded random assignments of the sample CSV data from scratch with both
+ * engines, then runs a FULL_ASSERT solve over the incremental bookkeeping.
+ */
+class ScoringEngineComparisonTest {
+    private static final int ROUNDS = 20;
+    private static final long INCREMENTAL_CALCULATIONS = 1000L;
+
+    private static TimetableService service;
+
+    @BeforeAll
+    static void loadSampleData() {
+        service = new TimetableService();
+        service.init();
+    }
+
+    @Test
+    void sampleDataScoresTheSameUnderBothEngines() {
+        ScoringEngineComparison.Result result = new ScoringEngineComparison(ROUNDS, INCREMENTAL_CALCULATIONS)
+                .compare(service.buildProblem());
+
+        assertEquals(ROUNDS, result.getRounds());
+        assertTrue(result.getMismatches().isEmpty(), () -> String.join("\n", result.getMismatches()));
+        assertNull(result.getAssertionFailure());
+        assertTrue(result.isEquivalent());
+    }
+
+    @Test
+    void rejectsNonPositiveCounts() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScoringEngineComparison(0, INCREMENTAL_CALCULATIONS));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ScoringEngineComparison(ROUNDS, 0L));
+    }
+}
@@ -0,0 +1,191 @@
+package com.timetable.score;
+
+import com.timetable.domain.ConflictScoringMode;
+import com.timetable.domain.Course;
+import com.timetable.domain.Faculty;
+import com.timetable.domain.Lesson;
+import com.timetable.domain.MinorLesson;
+import com.timetable.domain.Room;
+import com.timetable.domain.RoomType;
+import com.timetable.domain.SchedulingRules;
+import com.timetable.domain.StudentBatch;
+import com.timetable.domain.TimeSlot;
+import com.timetable.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.test.api.score.stream.ConstraintVerifier;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * The day-indexed pair constraints must match exactly the pairs their old filters did: a batch's
+ * lessons on the same day whose slots overlap or touch, and a minor course's lessons on the same day.
+ * The faculty time conflict must catch lessons closer than the minimum break in either id order, and
+ * deduplicated conflict scoring must drop the exact-slot conflicts. Those constraints join the
+ * SchedulingRules fact, so it is given explicitly.
+ */
+class TimeTableConstraintProviderTest {
+
+    private static final Room ROOM = new Room(1L, "R1", 60, RoomType.LECTURE_ROOM);
+    private static final Faculty FACULTY = new Faculty(1L, "Faculty", "faculty@example.com", "", List.of("C1"), 4);
+    private static final Course COURSE = new Course(1L, "C1", "Course", "CORE", List.of(1), 3, 0, 0, 3, List.of(FACULTY));
+    private static final Course OTHER_COURSE = new Course(2L, "C2", "Other", "CORE", List.of(1), 3, 0, 0, 3, List.of(FACULTY));
+    private static final StudentBatch BATCH = new StudentBatch(1L, "B1", 1, 60, List.of(COURSE), List.of(), List.of());
+    private static final StudentBatch OTHER_BATCH = new StudentBatch(2L, "B2", 1, 60, List.of(COURSE), List.of(), List.of());
+
+    private static final TimeSlot MONDAY_9 = slot(1L, "MONDAY", 9, 0, 10, 0);
+    private static final TimeSlot MONDAY_930 = slot(2L, "MONDAY", 9, 30, 10, 30);
+    private static final TimeSlot MONDAY_10 = slot(3L, "MONDAY", 10, 0, 11, 0);
+    private static final TimeSlot MONDAY_1001 = slot(4L, "MONDAY", 10, 1, 11, 0);
+    private static final TimeSlot TUESDAY_9 = slot(5L, "TUESDAY", 9, 0, 10, 0);
+    private static final TimeSlot MONDAY_1015 = slot(6L, "MONDAY", 10, 15, 11, 15);
+
+    // Unconfigured rules keep the default 15 minute minimum break
+    private static final SchedulingRules LEGACY = SchedulingRules.compile(null, ConflictScoringMode.LEGACY);
+    private static final SchedulingRules DEDUPLICATED = SchedulingRules.compile(null, ConflictScoringMode.DEDUPLICATED);
+
+    private final ConstraintVerifier<TimeTableConstraintProvider, TimeTable> constraintVerifier =
+            ConstraintVerifier.build(new TimeTableConstraintProvider(), TimeTable.class, Lesson.class);
+
+    @Test
+    void studentBatchConflictPenalizesOverlappingSlotsOfABatch() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentBatchConflict(factory))
+                .given(lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_930))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void studentBatchConflictPenalizesTouchingSlots() {
+        // The original check compared closed intervals, so a slot ending when the next starts clashes
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentBatchConflict(factory))
+                .given(lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_10))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentBatchConflict(factory))
+                .given(lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_1001))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void studentBatchConflictIgnoresOtherDaysAndBatches() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentBatchConflict(factory))
+                .given(lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, TUESDAY_9),
+                        lesson(3L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void studentBatchConflictCountsEveryClashingPair() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentBatchConflict(factory))
+                .given(lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_930),
+                        lesson(3L, BATCH, MONDAY_10), lesson(4L, BATCH, TUESDAY_9))
+                .penalizesBy(3);
+    }
+
+    @Test
+    void minorCourseDaySpreadPenalizesMinorLessonsOfACourseOnOneDay() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.minorCourseDaySpread(factory))
+                .given(minorLesson(1L, COURSE, MONDAY_9), minorLesson(2L, COURSE, MONDAY_1001),
+                        minorLesson(3L, COURSE, TUESDAY_9))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void minorCourseDaySpreadIgnoresOtherCoursesAndRegularLessons() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.minorCourseDaySpread(factory))
+                .given(minorLesson(1L, COURSE, MONDAY_9), minorLesson(2L, OTHER_COURSE, MONDAY_10),
+                        lesson(3L, BATCH, MONDAY_1001), lesson(4L, BATCH, MONDAY_930))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void facultyTimeConflictPenalizesTouchingLessonsInEitherIdOrder() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_10))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_10), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void facultyTimeConflictPenalizesLessonsWithinTheBreakInEitherIdOrder() {
+        // The check before the padded ranges only caught this pair when the lower id came first
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_1001))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_1001), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void facultyTimeConflictAllowsAFullBreakAndOtherDays() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_1015))
+                .penalizesBy(0);
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_1015), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(0);
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, TUESDAY_9))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void deduplicatedScoringKeepsTheFacultyTimeConflict() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyTimeConflictConstraint(factory))
+                .given(DEDUPLICATED, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(1);
+    }
+
+    @Test
+    void deduplicatedScoringDropsTeacherConflict() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.teacherConflict(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.teacherConflict(factory))
+                .given(DEDUPLICATED, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void deduplicatedScoringDropsStudentGroupConflict() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentGroupConflict(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_9))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.studentGroupConflict(factory))
+                .given(DEDUPLICATED, lesson(1L, BATCH, MONDAY_9), lesson(2L, BATCH, MONDAY_9))
+                .penalizesBy(0);
+    }
+
+    @Test
+    void deduplicatedScoringDropsFacultyMultiBatchConflict() {
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyMultiBatchConstraint(factory))
+                .given(LEGACY, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(1);
+        constraintVerifier.verifyThat((provider, factory) -> provider.facultyMultiBatchConstraint(factory))
+                .given(DEDUPLICATED, lesson(1L, BATCH, MONDAY_9), lesson(2L, OTHER_BATCH, MONDAY_9))
+                .penalizesBy(0);
+    }
+
+    private static TimeSlot slot(Long id, String day, int startHour, int startMinute, int endHour, int endMinute) {
+        return new TimeSlot(id, day, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute));
+    }
+
+    private static Lesson lesson(Long id, StudentBatch batch, TimeSlot timeSlot) {
+        Lesson lesson = new Lesson(id, COURSE, batch, List.of(ROOM));
+        lesson.setLessonType("LECTURE");
+        return assign(lesson, timeSlot);
+    }
+
+    private static Lesson minorLesson(Long id, Course course, TimeSlot timeSlot) {
+        return assign(new MinorLesson(id, course, List.of(ROOM), List.of(timeSlot)), timeSlot);
+    }
+
+    private static Lesson assign(Lesson lesson, TimeSlot timeSlot) {
+        lesson.setTimeSlot(timeSlot);
+        lesson.setRoom(ROOM);
+        lesson.setFaculty(FACULTY);
+        return lesson;
+    }
+}
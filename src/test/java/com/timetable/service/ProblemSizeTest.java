@@ -0,0 +1,25 @@
+package com.timetable.service;
+
+import com.timetable.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The solve queue sizes its memory estimate from the dataset counts, so they must match the problem
+ * the job builds later.
+ */
+class ProblemSizeTest {
+
+    @Test
+    void countsMatchTheBuiltProblem() {
+        TimetableService service = new TimetableService();
+        service.init();
+        TimetableService.ProblemSize size = service.problemSize();
+        TimeTable problem = service.buildProblem();
+
+        assertEquals(problem.getLessonList().size() + problem.getMinorLessonList().size(), size.getLessons());
+        assertEquals(problem.getTimeSlotList().size() + problem.getMinorTimeSlotList().size(), size.getTimeSlots());
+        assertEquals(problem.getRoomList().size(), size.getRooms());
+    }
+}
@@ -0,0 +1,32 @@
+package com.timetable.service;
+
+import com.timetable.domain.TimeTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Current solutions cannot be recreated without solving again, so a full budget must never drop them.
+ */
+class TenantCacheTest {
+
+    @Test
+    void solutionsOutliveTheBudget() {
+        TimetableService service = new TimetableService();
+        service.init();
+        TimeTable solution = service.buildProblem();
+        TenantCache tenantCache = new TenantCache(1);
+
+        // Each solution of the sample data weighs about a third of the 1 MB budget
+        for (int i = 0; i < 5; i++) {
+            tenantCache.putSolution("tenant" + i, solution);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertSame(solution, tenantCache.solution("tenant" + i));
+        }
+        assertEquals(5, tenantCache.getStatistics().get("pinnedSolutions"));
+        assertEquals(0L, tenantCache.getStatistics().get("evictions"));
+    }
+}